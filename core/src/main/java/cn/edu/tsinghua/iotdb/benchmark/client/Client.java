@@ -19,6 +19,7 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.client;
 
+import cn.edu.tsinghua.iotdb.benchmark.client.enums.ClientRole;
 import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataDeviceClient;
 import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataMixClient;
 import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataWriteClient;
@@ -26,13 +27,16 @@ import cn.edu.tsinghua.iotdb.benchmark.client.real.RealDataSetQueryClient;
 import cn.edu.tsinghua.iotdb.benchmark.client.real.RealDataSetWriteClient;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.IntervalReporter;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.TestPhaseController;
 import cn.edu.tsinghua.iotdb.benchmark.schema.MetaDataSchema;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBWrapper;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
 import cn.edu.tsinghua.iotdb.benchmark.workload.DataWorkLoad;
+import cn.edu.tsinghua.iotdb.benchmark.workload.PipelinedDataWorkLoad;
 import cn.edu.tsinghua.iotdb.benchmark.workload.QueryWorkLoad;
 import cn.edu.tsinghua.iotdb.benchmark.workload.interfaces.IDataWorkLoad;
 import cn.edu.tsinghua.iotdb.benchmark.workload.interfaces.IQueryWorkLoad;
@@ -40,24 +44,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.*;
 
 public abstract class Client implements Runnable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Client.class);
+  private static final double NANO_TO_SECOND = 1000000000.0d;
 
   protected static Config config = ConfigDescriptor.getInstance().getConfig();
   protected final MetaDataSchema metaDataSchema = MetaDataSchema.getInstance();
 
-  /** The id of client */
+  /** The id of client, query clients follow the CLIENT_NUMBER writer clients */
   protected final int clientThreadId;
+  /** Which operations the client does */
+  protected final ClientRole clientRole;
   /** RealDataWorkload */
   protected final IDataWorkLoad dataWorkLoad;
   /** QueryWorkload */
   protected final IQueryWorkLoad queryWorkLoad;
-  /** Log related */
-  protected final ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor();
   /** Tested DataBase */
   protected DBWrapper dbWrapper = null;
   /** Related Schema */
@@ -79,10 +85,23 @@ public abstract class Client implements Runnable {
   public Client(int id, CountDownLatch countDownLatch, CyclicBarrier barrier) {
     this.countDownLatch = countDownLatch;
     this.barrier = barrier;
-    this.dataWorkLoad = DataWorkLoad.getInstance(id);
-    this.queryWorkLoad = QueryWorkLoad.getInstance();
+    this.clientRole = getClientRole(id);
+    if (clientRole == ClientRole.QUERY) {
+      // query clients do not own devices and do not write
+      this.dataWorkLoad = null;
+    } else if (config.getGENERATOR_BUFFER_SIZE() > 0) {
+      this.dataWorkLoad =
+          new PipelinedDataWorkLoad(
+              DataWorkLoad.getInstance(id), config.getGENERATOR_BUFFER_SIZE(), id);
+    } else {
+      this.dataWorkLoad = DataWorkLoad.getInstance(id);
+    }
+    this.queryWorkLoad = QueryWorkLoad.getInstance(id);
     this.clientThreadId = id;
-    this.deviceSchemas = MetaDataSchema.getInstance().getDeviceSchemaByClientId(clientThreadId);
+    this.deviceSchemas =
+        clientRole == ClientRole.QUERY
+            ? Collections.emptyList()
+            : MetaDataSchema.getInstance().getDeviceSchemaByClientId(clientThreadId);
     this.deviceSchemasSize = deviceSchemas.size();
     this.measurement = new Measurement();
     initDBWrappers();
@@ -109,6 +128,14 @@ public abstract class Client implements Runnable {
     return null;
   }
 
+  /** @return role of client, writers and readers are separated if QUERY_CLIENT_NUMBER > 0 */
+  public static ClientRole getClientRole(int id) {
+    if (config.getQUERY_CLIENT_NUMBER() <= 0) {
+      return ClientRole.MIX;
+    }
+    return id < config.getCLIENT_NUMBER() ? ClientRole.WRITE : ClientRole.QUERY;
+  }
+
   /**
    * Firstly init dbWrapper After all thread is finished(using barrier), then doTest After test,
    * count down latch
@@ -117,31 +144,33 @@ public abstract class Client implements Runnable {
   public void run() {
     try {
       try {
+        if (dataWorkLoad instanceof PipelinedDataWorkLoad) {
+          // batches are buffered while waiting for other clients
+          ((PipelinedDataWorkLoad) dataWorkLoad).start();
+        }
         if (dbWrapper != null) {
           dbWrapper.init();
         }
         // wait for that all clients start test simultaneously
         barrier.await();
 
-        String currentThread = Thread.currentThread().getName();
-
         if (!config.isIS_POINT_COMPARISON()) {
-          // print current progress periodically
-          service.scheduleAtFixedRate(
-              () -> {
-                String percent = String.format("%.2f", (loopIndex + 1) * 100.0D / this.totalLoop);
-                LOGGER.info("{} {}% workload is done.", currentThread, percent);
-              },
-              1,
-              config.getLOG_PRINT_INTERVAL(),
-              TimeUnit.SECONDS);
+          // progress is printed periodically by the shared reporter
+          ProgressReporter.getInstance().register(this);
         }
+        IntervalReporter.getInstance().register(measurement);
 
         doTest();
-        service.shutdown();
       } catch (Exception e) {
         LOGGER.error("Unexpected error: ", e);
       } finally {
+        if (dataWorkLoad instanceof PipelinedDataWorkLoad) {
+          PipelinedDataWorkLoad pipelinedDataWorkLoad = (PipelinedDataWorkLoad) dataWorkLoad;
+          pipelinedDataWorkLoad.stop();
+          measurement.setGeneratorStallTime(
+              pipelinedDataWorkLoad.getGeneratorStallTime() / NANO_TO_SECOND);
+          measurement.setWriterIdleTime(pipelinedDataWorkLoad.getWriterIdleTime() / NANO_TO_SECOND);
+        }
         try {
           dbWrapper.close();
         } catch (TsdbException e) {
@@ -149,6 +178,7 @@ public abstract class Client implements Runnable {
         }
       }
     } finally {
+      ProgressReporter.getInstance().unregister(this);
       countDownLatch.countDown();
     }
   }
@@ -157,6 +187,44 @@ public abstract class Client implements Runnable {
     return measurement;
   }
 
+  public int getClientThreadId() {
+    return clientThreadId;
+  }
+
+  public ClientRole getClientRole() {
+    return clientRole;
+  }
+
+  /** @return the number of clients which have the same role as this client */
+  protected int getRoleClientNumber() {
+    return clientRole == ClientRole.QUERY
+        ? config.getQUERY_CLIENT_NUMBER()
+        : config.getCLIENT_NUMBER();
+  }
+
+  /** @return the index of this client among the clients which have the same role */
+  protected int getRoleClientIndex() {
+    return clientRole == ClientRole.QUERY
+        ? clientThreadId - config.getCLIENT_NUMBER()
+        : clientThreadId;
+  }
+
+  /** @return the ratio of finished loops, between 0 and 1 */
+  public double getProgress() {
+    if (config.getTEST_DURATION() > 0) {
+      return TestPhaseController.getInstance().getProgress();
+    }
+    if (totalLoop <= 0) {
+      return 0;
+    }
+    return Math.min(1.0D, (loopIndex + 1) * 1.0D / totalLoop);
+  }
+
+  /** @return whether TEST_DURATION has elapsed, always false if TEST_DURATION is not set */
+  protected boolean isTestFinished() {
+    return TestPhaseController.getInstance().isTestFinished();
+  }
+
   /** Do test */
   protected abstract void doTest();
 
@@ -167,6 +235,10 @@ public abstract class Client implements Runnable {
     if (config.isIS_DOUBLE_WRITE()) {
       dbConfigs.add(config.getANOTHER_DBConfig());
     }
-    dbWrapper = new DBWrapper(dbConfigs, measurement);
+    int maxInFlight =
+        clientRole == ClientRole.QUERY
+            ? config.getQUERY_MAX_IN_FLIGHT_PER_CLIENT()
+            : config.getMAX_IN_FLIGHT_PER_CLIENT();
+    dbWrapper = new DBWrapper(dbConfigs, measurement, maxInFlight);
   }
 }
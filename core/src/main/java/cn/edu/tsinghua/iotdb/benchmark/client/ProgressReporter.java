@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Print the progress of all running clients periodically with one shared thread, instead of one
+ * thread per client.
+ */
+public class ProgressReporter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProgressReporter.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  private final Set<Client> runningClients = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger finishedClientNum = new AtomicInteger(0);
+  private ScheduledExecutorService service;
+
+  private ProgressReporter() {}
+
+  /** Start to print progress periodically */
+  public synchronized void start() {
+    if (service != null) {
+      return;
+    }
+    service =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "progress-reporter");
+              thread.setDaemon(true);
+              return thread;
+            });
+    service.scheduleAtFixedRate(
+        this::report, 1, config.getLOG_PRINT_INTERVAL(), TimeUnit.SECONDS);
+  }
+
+  /** Stop printing progress */
+  public synchronized void stop() {
+    if (service != null) {
+      service.shutdown();
+      service = null;
+    }
+    runningClients.clear();
+    finishedClientNum.set(0);
+  }
+
+  public void register(Client client) {
+    runningClients.add(client);
+  }
+
+  public void unregister(Client client) {
+    if (runningClients.remove(client)) {
+      finishedClientNum.incrementAndGet();
+    }
+  }
+
+  /** Print the average progress and the slowest client */
+  private void report() {
+    int runningClientNum = 0;
+    double progressSum = 0;
+    Client slowestClient = null;
+    double slowestProgress = Double.MAX_VALUE;
+    for (Client client : runningClients) {
+      double progress = client.getProgress();
+      runningClientNum++;
+      progressSum += progress;
+      if (progress < slowestProgress) {
+        slowestProgress = progress;
+        slowestClient = client;
+      }
+    }
+    if (slowestClient == null) {
+      return;
+    }
+    int finished = finishedClientNum.get();
+    String percent =
+        String.format("%.2f", (progressSum + finished) * 100.0D / (runningClientNum + finished));
+    LOGGER.info(
+        "{} clients running, {} clients finished, {}% workload is done, "
+            + "the slowest client {} is at {}%.",
+        runningClientNum,
+        finished,
+        percent,
+        slowestClient.getClientThreadId(),
+        String.format("%.2f", slowestProgress * 100.0D));
+  }
+
+  public static ProgressReporter getInstance() {
+    return ProgressReporterHolder.INSTANCE;
+  }
+
+  private static class ProgressReporterHolder {
+    private static final ProgressReporter INSTANCE = new ProgressReporter();
+  }
+}
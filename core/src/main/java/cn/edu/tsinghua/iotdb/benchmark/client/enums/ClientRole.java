@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.enums;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+
+/** Which operations a client does, writers and readers are separated if QUERY_CLIENT_NUMBER > 0 */
+public enum ClientRole {
+  /** Do both ingestion and queries */
+  MIX,
+  /** Only do ingestion */
+  WRITE,
+  /** Only do queries */
+  QUERY;
+
+  /** @return whether a client of this role does the operation */
+  public boolean accept(Operation operation) {
+    switch (this) {
+      case WRITE:
+        return operation == Operation.INGESTION;
+      case QUERY:
+        return operation != Operation.INGESTION;
+      case MIX:
+      default:
+        return true;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return name();
+  }
+}
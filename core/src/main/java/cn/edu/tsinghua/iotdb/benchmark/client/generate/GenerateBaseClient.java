@@ -21,6 +21,7 @@ package cn.edu.tsinghua.iotdb.benchmark.client.generate;
 
 import cn.edu.tsinghua.iotdb.benchmark.client.Client;
 import cn.edu.tsinghua.iotdb.benchmark.distribution.ProbTool;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.RandomStream;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.schema.MetaUtil;
 import org.slf4j.Logger;
@@ -39,7 +40,7 @@ public abstract class GenerateBaseClient extends Client implements Runnable {
 
   protected static final Logger LOGGER = LoggerFactory.getLogger(GenerateBaseClient.class);
   protected final ProbTool probTool = new ProbTool();
-  protected final Random alignRandom = new Random(config.getDATA_SEED());
+  protected final Random alignRandom = RandomStream.TS_ALIGNMENT.newRandom(clientThreadId);
 
   /** Insert Loop Index, using for data insertion */
   protected long insertLoopIndex;
@@ -59,6 +60,14 @@ public abstract class GenerateBaseClient extends Client implements Runnable {
     this.totalLoop = config.getLOOP();
   }
 
+  /** @return whether to stop, according to TEST_DURATION if it is set, otherwise LOOP */
+  protected boolean isFinished() {
+    if (config.getTEST_DURATION() > 0) {
+      return isTestFinished();
+    }
+    return loopIndex >= config.getLOOP();
+  }
+
   /** Check whether write batch */
   protected boolean checkBatch(Batch batch) {
     if (batch.getDeviceSchema().getDeviceId() > actualDeviceFloor) {
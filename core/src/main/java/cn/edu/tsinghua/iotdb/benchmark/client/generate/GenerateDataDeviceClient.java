@@ -44,7 +44,9 @@ public class GenerateDataDeviceClient extends GenerateBaseClient {
   @Override
   protected void doTest() {
     try {
-      for (int i = 0; i < config.getDEVICE_NUMBER() / config.getCLIENT_NUMBER() + 1; i++) {
+      for (int i = 0;
+          i < config.getDEVICE_NUMBER() / config.getCLIENT_NUMBER() + 1 && !isTestFinished();
+          i++) {
         DeviceQuery deviceQuery = queryWorkLoad.getDeviceQuery();
         if (deviceQuery == null) {
           break;
@@ -78,7 +80,7 @@ public class GenerateDataDeviceClient extends GenerateBaseClient {
                   queryStartTime, queryStartTime + verificationStepSize);
           now += dbWrapper.deviceQuery(query).getQueryResultPointNum();
           queryStartTime += verificationStepSize;
-        } while (queryStartTime < deviceSummary.getMaxTimeStamp());
+        } while (queryStartTime < deviceSummary.getMaxTimeStamp() && !isTestFinished());
         pointService.shutdown();
       }
     } catch (SQLException | TsdbException sqlException) {
@@ -19,31 +19,195 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.client.generate;
 
+import cn.edu.tsinghua.iotdb.benchmark.client.enums.ClientRole;
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.OperationController;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.LoadProfile;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.OperationRateScheduler;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.OperationScheduler;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.enums.ArrivalMode;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GenerateDataMixClient extends GenerateBaseClient {
 
+  /** The latest timestamp generated by writer clients, used by recent queries of query clients */
+  private static final AtomicLong latestWriteTimestamp = new AtomicLong(0);
+
   /** Control operation according to OPERATION_PROPORTION */
   private final OperationController operationController;
+  /**
+   * Control the intended start time of operations in open loop modes, null in CLOSED mode or if
+   * OPERATION_TARGET_RATE is set
+   */
+  private final OperationScheduler operationScheduler;
+  /** Control the intended start time of each operation, null if OPERATION_TARGET_RATE is empty */
+  private final OperationRateScheduler operationRateScheduler;
+  /** The number of points written by one ingestion operation */
+  private final long pointsPerIngestion;
+  /** Time-varying target rate, null if LOAD_PROFILE is not set */
+  private final LoadProfile loadProfile;
+  /** Start time of schedule, unit: ns */
+  private long scheduleStartTime;
 
   public GenerateDataMixClient(int id, CountDownLatch countDownLatch, CyclicBarrier barrier) {
     super(id, countDownLatch, barrier);
     // TODO exclude control model
-    this.operationController = new OperationController(id);
+    this.operationController = new OperationController(id, clientRole);
+    ArrivalMode arrivalMode = config.getARRIVAL_MODE();
+    this.loadProfile =
+        arrivalMode.isOpenLoop() ? LoadProfile.parse(config.getLOAD_PROFILE()) : null;
+    this.pointsPerIngestion = getPointsPerIngestion();
+    if (!config.getOPERATION_TARGET_RATE().trim().isEmpty()) {
+      this.operationScheduler = null;
+      this.operationRateScheduler =
+          new OperationRateScheduler(
+              arrivalMode,
+              getTargetRates(clientRole, loadProfile, pointsPerIngestion, getRoleClientNumber()),
+              new Random(config.getDATA_SEED() + clientThreadId));
+    } else if (arrivalMode.isOpenLoop()) {
+      this.operationRateScheduler = null;
+      double targetRate =
+          config.toRatePerClient(
+              loadProfile == null ? config.getTARGET_RATE() : loadProfile.getRate(0, 0),
+              getRoleClientNumber());
+      this.operationScheduler =
+          new OperationScheduler(
+              arrivalMode, targetRate, new Random(config.getDATA_SEED() + clientThreadId));
+    } else {
+      this.operationScheduler = null;
+      this.operationRateScheduler = null;
+    }
+  }
+
+  /**
+   * @param clientRole role of the client, operations which it does not do get rate 0
+   * @param loadProfile profile which drives the rate of ingestion, null if LOAD_PROFILE is not set
+   * @param pointsPerIngestion the number of points written by one ingestion of the client
+   * @param roleClientNumber the number of clients which have the same role
+   * @return target rate of each operation of the client, unit: operations per second
+   */
+  static Map<Operation, Double> getTargetRates(
+      ClientRole clientRole,
+      LoadProfile loadProfile,
+      long pointsPerIngestion,
+      int roleClientNumber) {
+    String[] rates = config.getOPERATION_TARGET_RATE().split(":");
+    List<Operation> operations = Operation.getNormalOperation();
+    Map<Operation, Double> targetRates = new EnumMap<>(Operation.class);
+    for (int i = 0; i < operations.size(); i++) {
+      if (!clientRole.accept(operations.get(i))) {
+        targetRates.put(operations.get(i), 0.0);
+        continue;
+      }
+      double rate = Double.parseDouble(rates[i].trim());
+      if (operations.get(i) == Operation.INGESTION) {
+        if (loadProfile != null) {
+          rate = loadProfile.getRate(0, 0);
+        }
+        // the rate of ingestion is in points per second
+        rate /= pointsPerIngestion;
+      }
+      targetRates.put(operations.get(i), config.toRatePerClient(rate, roleClientNumber));
+    }
+    return targetRates;
+  }
+
+  /** @return the number of points written by {@link #ingestionOperation()} */
+  private long getPointsPerIngestion() {
+    long points = 0;
+    for (DeviceSchema deviceSchema : deviceSchemas) {
+      int sensorNumber = deviceSchema.getSensors().size();
+      if (config.isIS_SENSOR_TS_ALIGNMENT() || config.isIS_CLIENT_BIND()) {
+        points += sensorNumber;
+      } else {
+        points += (long) sensorNumber * config.getDEVICE_NUMBER();
+      }
+    }
+    return Math.max(1, points * config.getBATCH_SIZE_PER_WRITE());
+  }
+
+  /** Start the schedule, clients of CONSTANT mode are staggered to avoid bursts */
+  private void startSchedule() {
+    long startTime = System.nanoTime();
+    scheduleStartTime = startTime;
+    double phase = 0;
+    if (config.getARRIVAL_MODE() == ArrivalMode.CONSTANT) {
+      phase = (double) getRoleClientIndex() / getRoleClientNumber();
+    }
+    if (operationRateScheduler != null) {
+      operationRateScheduler.start(startTime, phase);
+    } else {
+      long delay = (long) (operationScheduler.getMeanIntervalInNanos() * phase);
+      operationScheduler.start(startTime + delay);
+    }
+  }
+
+  /**
+   * Update target rate and current segment according to load profile. If OPERATION_TARGET_RATE is
+   * set, only the rate of ingestion is updated, and query clients only stop when the profile is
+   * finished.
+   *
+   * @param scheduler the scheduler of the next operation
+   * @return false if the profile is finished
+   */
+  private boolean updateLoadProfile(OperationScheduler scheduler) {
+    long offset = scheduler.getNextIntendedTime() - scheduleStartTime;
+    int segmentIndex = loadProfile.getSegmentIndex(offset);
+    if (segmentIndex < 0) {
+      return false;
+    }
+    measurement.setCurrentSegment(segmentIndex);
+    double rate =
+        config.toRatePerClient(loadProfile.getRate(segmentIndex, offset), getRoleClientNumber());
+    if (operationRateScheduler == null) {
+      operationScheduler.setTargetRate(rate);
+    } else if (clientRole.accept(Operation.INGESTION)
+        && operationRateScheduler.getScheduler(Operation.INGESTION) != null) {
+      operationRateScheduler
+          .getScheduler(Operation.INGESTION)
+          .setTargetRate(rate / pointsPerIngestion);
+    }
+    return true;
   }
 
   /** Do Operations */
   @Override
   protected void doTest() {
     long start = 0;
-    for (loopIndex = 0; loopIndex < config.getLOOP(); loopIndex++) {
-      Operation operation = operationController.getNextOperationType();
-      if (config.getOP_INTERVAL() > 0) {
+    boolean isOpenLoop = operationScheduler != null || operationRateScheduler != null;
+    if (isOpenLoop) {
+      startSchedule();
+    }
+    for (loopIndex = 0; !isFinished(); loopIndex++) {
+      Operation operation;
+      OperationScheduler scheduler = operationScheduler;
+      if (operationRateScheduler != null) {
+        operation = operationRateScheduler.peekNextOperation();
+        scheduler = operationRateScheduler.getScheduler(operation);
+      } else {
+        operation = operationController.getNextOperationType();
+      }
+      if (isOpenLoop) {
+        if (loadProfile != null && !updateLoadProfile(scheduler)) {
+          break;
+        }
+        try {
+          dbWrapper.setIntendedStartTime(scheduler.waitForNext());
+        } catch (InterruptedException e) {
+          LOGGER.error("Wait for next operation failed because ", e);
+          Thread.currentThread().interrupt();
+          break;
+        }
+      } else if (config.getOP_INTERVAL() > 0) {
         start = System.currentTimeMillis();
       }
       if (operation == Operation.INGESTION) {
@@ -52,7 +216,10 @@ public class GenerateDataMixClient extends GenerateBaseClient {
         }
       } else {
         if (config.isIS_RECENT_QUERY()) {
-          long timestamp = dataWorkLoad.getCurrentTimestamp();
+          long timestamp =
+              clientRole == ClientRole.QUERY
+                  ? latestWriteTimestamp.get()
+                  : dataWorkLoad.getCurrentTimestamp();
           if (!config.isIS_QUIET_MODE()) {
             String currentThread = Thread.currentThread().getName();
             LOGGER.info(
@@ -99,7 +266,7 @@ public class GenerateDataMixClient extends GenerateBaseClient {
           LOGGER.error("Failed to do " + operation.getName() + " query because ", e);
         }
       }
-      if (config.getOP_INTERVAL() > 0) {
+      if (!isOpenLoop && config.getOP_INTERVAL() > 0) {
         long elapsed = System.currentTimeMillis() - start;
         if (elapsed < config.getOP_INTERVAL()) {
           try {
@@ -130,10 +297,15 @@ public class GenerateDataMixClient extends GenerateBaseClient {
           Batch batch = dataWorkLoad.getOneBatch();
           if (checkBatch(batch)) {
             dbWrapper.insertOneBatch(batch);
+          } else {
+            batch.release();
           }
         }
       }
       insertLoopIndex++;
+      if (clientRole == ClientRole.WRITE && config.isIS_RECENT_QUERY()) {
+        latestWriteTimestamp.accumulateAndGet(dataWorkLoad.getCurrentTimestamp(), Math::max);
+      }
     } catch (Exception e) {
       LOGGER.error("Failed to insert one batch data because ", e);
       return false;
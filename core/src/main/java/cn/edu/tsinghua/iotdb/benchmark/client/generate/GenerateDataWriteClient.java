@@ -37,7 +37,7 @@ public class GenerateDataWriteClient extends GenerateBaseClient {
   @Override
   protected void doTest() {
     loop:
-    for (loopIndex = 0; loopIndex < config.getLOOP(); loopIndex++) {
+    for (loopIndex = 0; !isFinished(); loopIndex++) {
       if (!doGenerate()) {
         break loop;
       }
@@ -55,6 +55,7 @@ public class GenerateDataWriteClient extends GenerateBaseClient {
           if (checkBatch(batch)) {
             dataWriter.writeBatch(batch, insertLoopIndex);
           }
+          batch.release();
         }
       }
       insertLoopIndex++;
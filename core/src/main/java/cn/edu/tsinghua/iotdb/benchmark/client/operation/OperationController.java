@@ -19,46 +19,98 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.client.operation;
 
+import cn.edu.tsinghua.iotdb.benchmark.client.enums.ClientRole;
 import cn.edu.tsinghua.iotdb.benchmark.client.generate.GenerateDataMixClient;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Random;
 
 public class OperationController {
 
-  private static final Logger LOGGER = null;
+  private static final Logger LOGGER = LoggerFactory.getLogger(OperationController.class);
   private static Config config = ConfigDescriptor.getInstance().getConfig();
-  private List<Double> proportion = new ArrayList<>();
-  private List<Operation> operations = Operation.getNormalOperation();
+  private final Operation[] operations;
+  /** Alias table of OPERATION_PROPORTION, see Vose's alias method */
+  private final double[] probability;
+  private final int[] alias;
   private boolean isAllWrite = false;
   private Random random;
 
   public OperationController(int seed) {
+    this(seed, ClientRole.MIX);
+  }
+
+  /**
+   * @param seed seed of random
+   * @param clientRole operations which the role does not accept are excluded from the proportion
+   */
+  public OperationController(int seed, ClientRole clientRole) {
     random = new Random(seed);
+    List<Operation> normalOperations = Operation.getNormalOperation();
+    operations = normalOperations.toArray(new Operation[0]);
     String[] split = config.getOPERATION_PROPORTION().split(":");
-    if (split.length != Operation.getNormalOperation().size()) {
+    if (split.length != operations.length) {
       LOGGER.error("OPERATION_PROPORTION error, please check this parameter.");
     }
-    double[] proportions = new double[Operation.getNormalOperation().size()];
+    double[] proportions = new double[operations.length];
     double sum = 0;
-    for (int i = 0; i < split.length; i++) {
-      proportions[i] = Double.parseDouble(split[i]);
+    for (int i = 0; i < split.length && i < operations.length; i++) {
+      proportions[i] = clientRole.accept(operations[i]) ? Double.parseDouble(split[i]) : 0;
       sum += proportions[i];
     }
-    for (int i = 0; i < split.length; i++) {
-      if (sum != 0) {
-        proportion.add(proportions[i] / sum);
+    if (sum == 0) {
+      LOGGER.error("The sum of operation proportions is zero!");
+      proportions[0] = sum = 1;
+    }
+    if (Math.abs(proportions[0] / sum - 1.0) < 1e-7) {
+      isAllWrite = true;
+    }
+    probability = new double[operations.length];
+    alias = new int[operations.length];
+    buildAliasTable(proportions, sum);
+  }
+
+  /**
+   * Split the proportions into columns of equal height, each column holds at most two operations,
+   * so that an operation is chosen in O(1)
+   */
+  private void buildAliasTable(double[] proportions, double sum) {
+    int n = proportions.length;
+    double[] scaled = new double[n];
+    Deque<Integer> small = new ArrayDeque<>();
+    Deque<Integer> large = new ArrayDeque<>();
+    for (int i = 0; i < n; i++) {
+      scaled[i] = proportions[i] * n / sum;
+      if (scaled[i] < 1) {
+        small.push(i);
       } else {
-        proportion.add(0.0);
-        LOGGER.error("The sum of operation proportions is zero!");
+        large.push(i);
       }
     }
-    if (Math.abs(proportion.get(0) - 1.0) < 1e-7) {
-      isAllWrite = true;
+    while (!small.isEmpty() && !large.isEmpty()) {
+      int less = small.pop();
+      int more = large.pop();
+      probability[less] = scaled[less];
+      alias[less] = more;
+      scaled[more] = scaled[more] + scaled[less] - 1;
+      if (scaled[more] < 1) {
+        small.push(more);
+      } else {
+        large.push(more);
+      }
+    }
+    // the rest are 1 except rounding errors
+    while (!large.isEmpty()) {
+      probability[large.pop()] = 1;
+    }
+    while (!small.isEmpty()) {
+      probability[small.pop()] = 1;
     }
   }
 
@@ -71,46 +123,10 @@ public class OperationController {
     if (isAllWrite) {
       return Operation.INGESTION;
     }
-    // p contains cumulative probability
-    double[] p = new double[operations.size() + 1];
-    p[0] = 0.0;
-    for (int i = 1; i <= operations.size(); i++) {
-      p[i] = p[i - 1] + proportion.get(i - 1);
-    }
-    // use random to getNextOperationType
-    double rand = random.nextDouble();
-    int i;
-    for (i = 1; i <= Operation.getNormalOperation().size(); i++) {
-      if (rand >= p[i - 1] && rand <= p[i]) {
-        break;
-      }
-    }
-    switch (i) {
-      case 1:
-        return Operation.INGESTION;
-      case 2:
-        return Operation.PRECISE_QUERY;
-      case 3:
-        return Operation.RANGE_QUERY;
-      case 4:
-        return Operation.VALUE_RANGE_QUERY;
-      case 5:
-        return Operation.AGG_RANGE_QUERY;
-      case 6:
-        return Operation.AGG_VALUE_QUERY;
-      case 7:
-        return Operation.AGG_RANGE_VALUE_QUERY;
-      case 8:
-        return Operation.GROUP_BY_QUERY;
-      case 9:
-        return Operation.LATEST_POINT_QUERY;
-      case 10:
-        return Operation.RANGE_QUERY_ORDER_BY_TIME_DESC;
-      case 11:
-        return Operation.VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC;
-      default:
-        LOGGER.error("Unsupported operation {}, use default operation: INGESTION.", i);
-        return Operation.INGESTION;
+    int column = random.nextInt(operations.length);
+    if (random.nextDouble() < probability[column]) {
+      return operations[column];
     }
+    return operations[alias[column]];
   }
 }
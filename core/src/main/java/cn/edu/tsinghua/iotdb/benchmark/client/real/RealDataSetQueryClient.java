@@ -34,7 +34,8 @@ public class RealDataSetQueryClient extends RealBaseClient {
   /** Do Operations */
   @Override
   protected void doTest() {
-    while (true) {
+    // stop when all batches are read or TEST_DURATION elapses
+    while (!isTestFinished()) {
       try {
         Batch batch = dataWorkLoad.getOneBatch();
         if (batch == null) {
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.schedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * Time-varying target rate of open loop modes. A profile is a list of segments separated by ';',
+ * each segment is one of:
+ *
+ * <ul>
+ *   <li>duration:rate, e.g. 60s:1000, constant rate
+ *   <li>ramp(duration,from,to), rate changes linearly from `from` to `to`
+ *   <li>step(duration,from,to,steps), `steps` constant segments evenly from `from` to `to`
+ *   <li>sine(duration,period,min,max), rate follows a sine wave between min and max
+ *   <li>spike(duration,base,peak,spikeStart,spikeDuration), base rate with one burst of peak rate
+ * </ul>
+ *
+ * Duration supports unit ms, s, m and h, the default unit is s. Rate has the same meaning as
+ * TARGET_RATE, i.e. operations per second, unless OPERATION_TARGET_RATE is set, in which case it is
+ * the rate of INGESTION in points per second.
+ */
+public class LoadProfile {
+
+  private static final long NANO_PER_MILLIS = 1000000L;
+
+  private final List<Segment> segments;
+  /** Start offset of each segment, unit: ns */
+  private final long[] segmentStartTimes;
+
+  private final long totalDuration;
+
+  private LoadProfile(List<Segment> segments) {
+    this.segments = Collections.unmodifiableList(segments);
+    this.segmentStartTimes = new long[segments.size()];
+    long startTime = 0;
+    for (int i = 0; i < segments.size(); i++) {
+      segmentStartTimes[i] = startTime;
+      startTime += segments.get(i).getDuration();
+    }
+    this.totalDuration = startTime;
+  }
+
+  /**
+   * Parse load profile
+   *
+   * @param profile load profile, see the document of this class
+   * @return null if profile is empty
+   * @throws IllegalArgumentException if profile is invalid
+   */
+  public static LoadProfile parse(String profile) {
+    if (profile == null || profile.trim().isEmpty()) {
+      return null;
+    }
+    List<Segment> segments = new ArrayList<>();
+    for (String item : profile.split(";")) {
+      item = item.trim().toLowerCase();
+      if (item.isEmpty()) {
+        continue;
+      }
+      try {
+        parseSegment(item, segments);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid segment of load profile: " + item, e);
+      }
+    }
+    if (segments.isEmpty()) {
+      throw new IllegalArgumentException("Load profile has no segment: " + profile);
+    }
+    return new LoadProfile(segments);
+  }
+
+  private static void parseSegment(String item, List<Segment> segments) {
+    int leftBracket = item.indexOf('(');
+    if (leftBracket < 0) {
+      String[] durationAndRate = item.split(":");
+      checkArgs(item, durationAndRate, 2);
+      long duration = parseDuration(durationAndRate[0]);
+      double rate = parseRate(durationAndRate[1]);
+      segments.add(constantSegment(item, duration, rate));
+      return;
+    }
+    if (!item.endsWith(")")) {
+      throw new IllegalArgumentException("Invalid segment of load profile: " + item);
+    }
+    String shape = item.substring(0, leftBracket).trim();
+    String[] args = item.substring(leftBracket + 1, item.length() - 1).split(",");
+    switch (shape) {
+      case "ramp":
+        {
+          checkArgs(item, args, 3);
+          long duration = parseDuration(args[0]);
+          double from = parseRate(args[1]);
+          double to = parseRate(args[2]);
+          segments.add(
+              new Segment(
+                  item, duration, offset -> from + (to - from) * offset / duration, from, to));
+          break;
+        }
+      case "step":
+        {
+          checkArgs(item, args, 4);
+          long duration = parseDuration(args[0]);
+          double from = parseRate(args[1]);
+          double to = parseRate(args[2]);
+          int steps = Integer.parseInt(args[3].trim());
+          if (steps < 1) {
+            throw new IllegalArgumentException("Steps must be positive: " + item);
+          }
+          for (int i = 0; i < steps; i++) {
+            double rate = steps == 1 ? to : from + (to - from) * i / (steps - 1);
+            long stepDuration = duration / steps + (i < duration % steps ? 1 : 0);
+            segments.add(constantSegment(item + "#" + (i + 1), stepDuration, rate));
+          }
+          break;
+        }
+      case "sine":
+        {
+          checkArgs(item, args, 4);
+          long duration = parseDuration(args[0]);
+          long period = parseDuration(args[1]);
+          double min = parseRate(args[2]);
+          double max = parseRate(args[3]);
+          double middle = (min + max) / 2;
+          double amplitude = (max - min) / 2;
+          segments.add(
+              new Segment(
+                  item,
+                  duration,
+                  offset -> middle + amplitude * Math.sin(2 * Math.PI * offset / period),
+                  min,
+                  max));
+          break;
+        }
+      case "spike":
+        {
+          checkArgs(item, args, 5);
+          long duration = parseDuration(args[0]);
+          double base = parseRate(args[1]);
+          double peak = parseRate(args[2]);
+          long spikeStart = parseDuration(args[3]);
+          long spikeDuration = parseDuration(args[4]);
+          if (spikeStart + spikeDuration > duration) {
+            throw new IllegalArgumentException("Spike is out of the segment: " + item);
+          }
+          if (spikeStart > 0) {
+            segments.add(constantSegment(item + "#base", spikeStart, base));
+          }
+          segments.add(constantSegment(item + "#spike", spikeDuration, peak));
+          if (spikeStart + spikeDuration < duration) {
+            segments.add(
+                constantSegment(item + "#recover", duration - spikeStart - spikeDuration, base));
+          }
+          break;
+        }
+      default:
+        throw new IllegalArgumentException("Unknown shape of load profile: " + item);
+    }
+  }
+
+  private static Segment constantSegment(String name, long duration, double rate) {
+    return new Segment(name, duration, offset -> rate, rate, rate);
+  }
+
+  private static void checkArgs(String item, String[] args, int expected) {
+    if (args.length != expected) {
+      throw new IllegalArgumentException(
+          "Segment of load profile needs " + expected + " arguments: " + item);
+    }
+  }
+
+  /** @return duration in ns */
+  private static long parseDuration(String duration) {
+    duration = duration.trim();
+    long unit = 1000 * NANO_PER_MILLIS;
+    if (duration.endsWith("ms")) {
+      unit = NANO_PER_MILLIS;
+      duration = duration.substring(0, duration.length() - 2);
+    } else if (duration.endsWith("s")) {
+      duration = duration.substring(0, duration.length() - 1);
+    } else if (duration.endsWith("m")) {
+      unit = 60 * 1000 * NANO_PER_MILLIS;
+      duration = duration.substring(0, duration.length() - 1);
+    } else if (duration.endsWith("h")) {
+      unit = 3600 * 1000 * NANO_PER_MILLIS;
+      duration = duration.substring(0, duration.length() - 1);
+    }
+    long result = (long) (Double.parseDouble(duration.trim()) * unit);
+    if (result <= 0) {
+      throw new IllegalArgumentException("Duration of load profile must be positive: " + duration);
+    }
+    return result;
+  }
+
+  private static double parseRate(String rate) {
+    double result = Double.parseDouble(rate.trim());
+    if (result <= 0) {
+      throw new IllegalArgumentException("Rate of load profile must be positive: " + rate);
+    }
+    return result;
+  }
+
+  /**
+   * @param offset time since the start of profile, unit: ns
+   * @return index of segment, -1 if the profile is finished
+   */
+  public int getSegmentIndex(long offset) {
+    if (offset < 0) {
+      return 0;
+    }
+    if (offset >= totalDuration) {
+      return -1;
+    }
+    int index = Arrays.binarySearch(segmentStartTimes, offset);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  /**
+   * @param segmentIndex index of segment which contains offset
+   * @param offset time since the start of profile, unit: ns
+   * @return target rate at offset
+   */
+  public double getRate(int segmentIndex, long offset) {
+    Segment segment = segments.get(segmentIndex);
+    long offsetInSegment = Math.max(0, offset - segmentStartTimes[segmentIndex]);
+    return Math.max(segment.getMinRate(), segment.rateFunction.applyAsDouble(offsetInSegment));
+  }
+
+  public List<Segment> getSegments() {
+    return segments;
+  }
+
+  /** @return total duration of profile, unit: ns */
+  public long getTotalDuration() {
+    return totalDuration;
+  }
+
+  /** One segment of load profile */
+  public static class Segment {
+    private final String name;
+    /** unit: ns */
+    private final long duration;
+    /** Target rate at offset since the start of segment */
+    private final LongToDoubleFunction rateFunction;
+
+    private final double minRate;
+    private final double maxRate;
+
+    private Segment(
+        String name,
+        long duration,
+        LongToDoubleFunction rateFunction,
+        double startRate,
+        double endRate) {
+      this.name = name;
+      this.duration = duration;
+      this.rateFunction = rateFunction;
+      this.minRate = Math.min(startRate, endRate);
+      this.maxRate = Math.max(startRate, endRate);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getDuration() {
+      return duration;
+    }
+
+    public double getMinRate() {
+      return minRate;
+    }
+
+    public double getMaxRate() {
+      return maxRate;
+    }
+
+    /** @return description of target rate, e.g. 1000 or 1000~5000 */
+    public String getRateDescription() {
+      if (minRate == maxRate) {
+        return String.format("%.2f", minRate);
+      }
+      return String.format("%.2f~%.2f", minRate, maxRate);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.schedule;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.enums.ArrivalMode;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Open-loop schedule of several operations, each operation has its own {@link OperationScheduler}
+ * and target rate, so that the rate of one operation does not change with the others. The next
+ * operation is the one whose intended start time is the earliest.
+ */
+public class OperationRateScheduler {
+
+  private final Operation[] operations;
+  private final OperationScheduler[] schedulers;
+  private final Map<Operation, OperationScheduler> schedulerMap = new EnumMap<>(Operation.class);
+
+  /**
+   * @param arrivalMode arrival mode of all operations, must be open loop
+   * @param targetRates target rate of each operation, unit: operations per second. Operations whose
+   *     rate is not positive are not scheduled
+   * @param random random used by POISSON and UNIFORM arrivals
+   */
+  public OperationRateScheduler(
+      ArrivalMode arrivalMode, Map<Operation, Double> targetRates, Random random) {
+    List<Operation> operationList = new ArrayList<>();
+    for (Map.Entry<Operation, Double> entry : targetRates.entrySet()) {
+      if (entry.getValue() > 0) {
+        operationList.add(entry.getKey());
+      }
+    }
+    if (operationList.isEmpty()) {
+      throw new IllegalArgumentException("At least one operation needs a positive rate");
+    }
+    this.operations = operationList.toArray(new Operation[0]);
+    this.schedulers = new OperationScheduler[operations.length];
+    for (int i = 0; i < operations.length; i++) {
+      // each operation has its own random, so that its arrivals do not depend on the others
+      schedulers[i] =
+          new OperationScheduler(
+              arrivalMode, targetRates.get(operations[i]), new Random(random.nextLong()));
+      schedulerMap.put(operations[i], schedulers[i]);
+    }
+  }
+
+  /**
+   * Start the schedule of all operations
+   *
+   * @param startTime the schedule start time, unit: ns
+   * @param phase the first operation of each schedule is delayed by phase of its mean interval,
+   *     which is used to stagger clients
+   */
+  public void start(long startTime, double phase) {
+    for (OperationScheduler scheduler : schedulers) {
+      scheduler.start(startTime + (long) (scheduler.getMeanIntervalInNanos() * phase));
+    }
+  }
+
+  /** @return the operation whose intended start time is the earliest, without advancing */
+  public Operation peekNextOperation() {
+    int earliest = 0;
+    for (int i = 1; i < schedulers.length; i++) {
+      if (schedulers[i].getNextIntendedTime() < schedulers[earliest].getNextIntendedTime()) {
+        earliest = i;
+      }
+    }
+    return operations[earliest];
+  }
+
+  /** @return the scheduler of operation, null if the operation is not scheduled */
+  public OperationScheduler getScheduler(Operation operation) {
+    return schedulerMap.get(operation);
+  }
+}
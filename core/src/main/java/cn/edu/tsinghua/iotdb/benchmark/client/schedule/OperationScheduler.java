@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.schedule;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.enums.ArrivalMode;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop operation scheduler. The intended start time of every operation is derived from the
+ * target rate only, independent of how long previous operations took, so that a stalled database
+ * does not lower the offered load (coordinated omission).
+ */
+public class OperationScheduler {
+
+  private static final double NANO_PER_SECOND = 1000000000.0d;
+
+  private final ArrivalMode arrivalMode;
+  private final Random random;
+  /** Mean interval between two intended start times, unit: ns */
+  private double meanIntervalInNanos;
+  /** Intended start time of the next operation, unit: ns (System.nanoTime) */
+  private double nextIntendedTime;
+
+  /**
+   * @param arrivalMode arrival mode, must be open loop
+   * @param targetRate target rate of this scheduler, unit: operations per second
+   * @param random random used by POISSON and UNIFORM arrivals
+   */
+  public OperationScheduler(ArrivalMode arrivalMode, double targetRate, Random random) {
+    if (!arrivalMode.isOpenLoop()) {
+      throw new IllegalArgumentException("OperationScheduler only supports open-loop arrivals");
+    }
+    this.arrivalMode = arrivalMode;
+    this.random = random;
+    setTargetRate(targetRate);
+  }
+
+  /**
+   * Start the schedule
+   *
+   * @param startTime the intended start time of the first operation, unit: ns
+   */
+  public void start(long startTime) {
+    this.nextIntendedTime = startTime;
+  }
+
+  /** Change the target rate, the new rate takes effect from the next operation */
+  public void setTargetRate(double targetRate) {
+    if (targetRate <= 0) {
+      throw new IllegalArgumentException("Target rate must be positive: " + targetRate);
+    }
+    this.meanIntervalInNanos = NANO_PER_SECOND / targetRate;
+  }
+
+  /** @return the intended start time of the next operation and advance the schedule */
+  public long next() {
+    long intendedTime = (long) nextIntendedTime;
+    nextIntendedTime += nextInterval();
+    return intendedTime;
+  }
+
+  /**
+   * Block until the intended start time of the next operation. If the client is already late, it
+   * returns immediately and the lateness is later added to the corrected latency.
+   *
+   * @return the intended start time of the operation, unit: ns
+   */
+  public long waitForNext() throws InterruptedException {
+    long intendedTime = next();
+    long waitTime;
+    while ((waitTime = intendedTime - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(waitTime);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+    return intendedTime;
+  }
+
+  private double nextInterval() {
+    switch (arrivalMode) {
+      case POISSON:
+        // inverse transform sampling of exponential distribution
+        return -Math.log(1 - random.nextDouble()) * meanIntervalInNanos;
+      case UNIFORM:
+        return 2 * random.nextDouble() * meanIntervalInNanos;
+      case CONSTANT:
+      default:
+        return meanIntervalInNanos;
+    }
+  }
+
+  /** @return the intended start time of the next operation without advancing, unit: ns */
+  public long getNextIntendedTime() {
+    return (long) nextIntendedTime;
+  }
+
+  public double getMeanIntervalInNanos() {
+    return meanIntervalInNanos;
+  }
+}
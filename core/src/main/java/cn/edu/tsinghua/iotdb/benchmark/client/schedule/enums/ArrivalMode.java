@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.schedule.enums;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** How a client decides when to issue its next operation */
+public enum ArrivalMode {
+  /** Issue the next operation as soon as the previous one returns (optionally OP_INTERVAL) */
+  CLOSED,
+  /** Open loop, operations are issued at a fixed interval of 1 / TARGET_RATE */
+  CONSTANT,
+  /** Open loop, inter-arrival times follow an exponential distribution with mean 1 / TARGET_RATE */
+  POISSON,
+  /** Open loop, inter-arrival times are uniformly distributed in [0, 2 / TARGET_RATE] */
+  UNIFORM;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ArrivalMode.class);
+
+  public static ArrivalMode getArrivalMode(String name) {
+    for (ArrivalMode arrivalMode : ArrivalMode.values()) {
+      if (arrivalMode.name().equalsIgnoreCase(name)) {
+        return arrivalMode;
+      }
+    }
+    LOGGER.warn("Unknown arrival mode: " + name + ", use CLOSED.");
+    return ArrivalMode.CLOSED;
+  }
+
+  public boolean isOpenLoop() {
+    return this != CLOSED;
+  }
+
+  @Override
+  public String toString() {
+    return name();
+  }
+}
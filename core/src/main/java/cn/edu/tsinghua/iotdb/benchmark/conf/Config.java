@@ -19,14 +19,19 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.conf;
 
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.enums.ArrivalMode;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.AccessDistribution;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
 import cn.edu.tsinghua.iotdb.benchmark.function.Function;
 import cn.edu.tsinghua.iotdb.benchmark.function.FunctionParam;
 import cn.edu.tsinghua.iotdb.benchmark.function.FunctionXml;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.BufferFullPolicy;
 import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBSwitch;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBType;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.TableLayout;
 import cn.edu.tsinghua.iotdb.benchmark.workload.enums.OutOfOrderMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +63,25 @@ public class Config {
   // 初始化：工作状态
   /** Total number of operations that each client process */
   private long LOOP = 10000;
+  /**
+   * Duration of the measured phase (warm-up excluded) in ms. If it is larger than 0, clients stop
+   * when it is reached instead of LOOP
+   */
+  private long TEST_DURATION = 0;
+  /**
+   * Duration of warm-up in ms, operations finished during warm-up are counted separately and
+   * excluded from the other statistics
+   */
+  private long WARMUP_DURATION = 0;
+  /**
+   * Whether to end warm-up early once the per-second throughput is steady, WARMUP_DURATION is the
+   * max duration of warm-up
+   */
+  private boolean IS_STEADY_STATE_DETECTION = false;
+  /** The number of seconds whose throughput is compared in steady state detection */
+  private int STEADY_STATE_WINDOW = 5;
+  /** Throughput is steady if (max - min) / mean in STEADY_STATE_WINDOW is not larger than it */
+  private double STEADY_STATE_THRESHOLD = 0.1;
 
   /**
    * The running mode of benchmark 1. testWithDefaultPath: Conventional test mode, supporting mixed
@@ -131,6 +155,16 @@ public class Config {
   // 数据：格式与编码
   /** The length of string */
   private int STRING_LENGTH = 2;
+  /**
+   * The number of distinct strings of each TEXT sensor, values are picked from them. 0 means every
+   * string is random
+   */
+  private int TEXT_CARDINALITY = 0;
+  /**
+   * Entropy of TEXT values with TEXT_CARDINALITY, between 0 (most compressible) and 1 (most
+   * random). Entropy of functions is set by each function in function.xml
+   */
+  private double TEXT_ENTROPY = 0.5;
   /** The length of double */
   private int DOUBLE_LENGTH = 2;
   /**
@@ -186,6 +220,12 @@ public class Config {
    * number of devices.
    */
   private int CLIENT_NUMBER = 2;
+  /**
+   * The number of query clients in TEST_WITH_DEFAULT_PATH. If it is positive, the CLIENT_NUMBER
+   * clients only write and the query clients only query, so that slow queries do not block writes
+   * and the interference between reads and writes can be measured.
+   */
+  private int QUERY_CLIENT_NUMBER = 0;
 
   // 设备、传感器、客户端：生成数据的规律
   /** 线性 默认 9个 0.054 */
@@ -198,6 +238,12 @@ public class Config {
   private double RANDOM_RATIO = 0.512;
   /** 常数 默认 58个 0.352 */
   private double CONSTANT_RATIO = 0.352;
+  /** 随机游走 */
+  private double WALK_RATIO = 0;
+  /** 有限精度的传感器读数 */
+  private double QUANTIZED_RATIO = 0;
+  /** 周期重置的计数器 */
+  private double COUNTER_RATIO = 0;
   /** Seed of data */
   private long DATA_SEED = 666L;
 
@@ -214,16 +260,65 @@ public class Config {
   private boolean TEMPLATE = true;
   /** Whether to use vector */
   private boolean VECTOR = true;
+  /**
+   * The max number of batches of different devices inserted by one request in session modes. The
+   * batches are coalesced only if MAX_IN_FLIGHT_PER_CLIENT is larger than 1, 1 means disabled
+   */
+  private int IOTDB_COALESCE_BATCH_NUM = 1;
+  /** The max time that a batch waits for other batches to be coalesced with, unit: ms */
+  private long IOTDB_COALESCE_WINDOW_MS = 10;
 
   // 被测系统是MS SQL Server时的参数
   private String COMPRESSION = "NONE";
 
+  // 被测系统是TimescaleDB时的参数
+  /** The layout of table, WIDE (one column per sensor) or NARROW (one row per point) */
+  private TableLayout TIMESCALEDB_LAYOUT = TableLayout.WIDE;
+  /** The time interval of each chunk of hypertable, whose unit is the same as timestamps */
+  private long TIMESCALEDB_CHUNK_TIME_INTERVAL = 604800000L;
+  /** Whether to enable native compression of hypertable, segmented by device */
+  private boolean TIMESCALEDB_COMPRESSION = false;
+  /**
+   * Chunks older than it are compressed by policy, whose unit is the same as timestamps. The age of
+   * chunks is measured from the latest timestamp in the table
+   */
+  private long TIMESCALEDB_COMPRESS_AFTER = 86400000L;
+
   // Operation 相关参数
   /**
    * The operation execution interval if operation time > OP_INTERVAL, then execute next operations
    * right now. else wait (OP_INTERVAL - operation time) unit: ms
    */
   private long OP_INTERVAL = 0;
+  /**
+   * The arrival mode of operations. CLOSED means the next operation is sent after the previous one
+   * finished, the others are open loop modes driven by TARGET_RATE
+   */
+  private ArrivalMode ARRIVAL_MODE = ArrivalMode.CLOSED;
+  /** The target rate of operations in open loop modes, unit: operations per second */
+  private double TARGET_RATE = 0;
+  /** Whether TARGET_RATE is the rate of each client or the total rate of all clients */
+  private boolean IS_TARGET_RATE_PER_CLIENT = true;
+  /**
+   * Time-varying target rate in open loop modes, overrides TARGET_RATE if not empty. The test stops
+   * when the profile is finished. See LoadProfile for the format. Unit: operations per second, or
+   * points per second of INGESTION if OPERATION_TARGET_RATE is set.
+   */
+  private String LOAD_PROFILE = "";
+  /**
+   * Target rate of each operation, in the same order as OPERATION_PROPORTION. Each operation with a
+   * positive rate is dispatched by its own schedule and OPERATION_PROPORTION is ignored if it is
+   * not empty. Unit: points per second for INGESTION and operations per second for queries. If
+   * LOAD_PROFILE is set, it drives the rate of INGESTION only.
+   */
+  private String OPERATION_TARGET_RATE = "";
+  /**
+   * The max number of operations in flight of each client. If it is larger than 1, the client does
+   * not wait for the result of operation, the result is measured when the operation completes.
+   */
+  private int MAX_IN_FLIGHT_PER_CLIENT = 1;
+  /** The max number of operations in flight of each query client */
+  private int QUERY_MAX_IN_FLIGHT_PER_CLIENT = 1;
   /** The max time for writing in ms */
   private int WRITE_OPERATION_TIMEOUT_MS = 120000;
   /** The max time for reading in ms */
@@ -308,10 +403,45 @@ public class Config {
   private long GROUP_BY_TIME_UNIT = QUERY_INTERVAL / 2;
   /** Query random seed */
   private long QUERY_SEED = 1516580959202L;
+  /** Which devices are queried, SEQUENTIAL means devices are queried one by one */
+  private AccessDistribution QUERY_DEVICE_DISTRIBUTION = AccessDistribution.UNIFORM;
+  /**
+   * Which time ranges are queried, SEQUENTIAL means the start time moves forward by STEP_SIZE. For
+   * other distributions, the latest time range is the hottest one
+   */
+  private AccessDistribution QUERY_TIME_DISTRIBUTION = AccessDistribution.SEQUENTIAL;
+  /**
+   * Which device of each client is written by the next batch, SEQUENTIAL means devices are written
+   * one by one. Only used when IS_CLIENT_BIND=true
+   */
+  private AccessDistribution WRITE_DEVICE_DISTRIBUTION = AccessDistribution.SEQUENTIAL;
+  /** Skew of ZIPF distribution, item i is accessed with probability proportional to 1/(i+1)^skew */
+  private double ZIPF_SKEW = 0.99;
+  /** The fraction of hot items in HOTSPOT distribution */
+  private double HOTSPOT_FRACTION = 0.05;
+  /** The probability of accessing hot items in HOTSPOT distribution */
+  private double HOTSPOT_PROBABILITY = 0.8;
+  /** The mean of LATEST distribution, as a fraction of all items */
+  private double LATEST_MEAN_RATIO = 0.01;
 
   // workload 相关部分
   /** The size of workload buffer size */
   private int WORKLOAD_BUFFER_SIZE = 100;
+  /**
+   * Whether the workload buffer of a sensor is generated when it is used for the first time, rather
+   * than for all sensors at startup
+   */
+  private boolean IS_LAZY_WORKLOAD_BUFFER = false;
+  /**
+   * The number of reusable batches kept by each client, batches are recycled after being inserted.
+   * 0 means a new batch is created every time
+   */
+  private int BATCH_POOL_SIZE = 0;
+  /**
+   * The number of batches buffered for each client by a dedicated generator thread, so that the
+   * client thread only sends data. 0 means batches are generated by the client thread
+   */
+  private int GENERATOR_BUFFER_SIZE = 0;
 
   // 输出
   /** Use what to store test data, currently support None, IoTDB, MySQL, CSV */
@@ -326,6 +456,21 @@ public class Config {
   private boolean IS_QUIET_MODE = true;
   /** Print test progress log interval in second */
   private int LOG_PRINT_INTERVAL = 5;
+  /**
+   * Report throughput and latency of each interval in second, including console, csv timeline and
+   * TEST_DATA_PERSISTENCE. 0 means not to report
+   */
+  private int METRIC_REPORT_INTERVAL = 0;
+  /**
+   * Tag at most one successful insertion of each database in this interval, and measure how long
+   * after the insertion returns its points become visible to queries. Unit: ms, 0 means not to
+   * measure
+   */
+  private long FRESHNESS_PROBE_INTERVAL = 0;
+  /** Interval of polling tagged insertions by precise query, unit: ms */
+  private long FRESHNESS_PROBE_POLL_INTERVAL = 5;
+  /** Give up a tagged insertion if it is not visible in this time, unit: ms */
+  private long FRESHNESS_PROBE_TIMEOUT = 10000;
 
   // 输出：数据库配置，当前支持IoTDB和MySQL
   /** The Ip of database */
@@ -342,6 +487,10 @@ public class Config {
   private long TEST_DATA_WRITE_TIME_OUT = 300000;
   /** The max connection of database */
   private int TEST_DATA_MAX_CONNECTION = 1;
+  /** The capacity of buffer of operation results waiting to be saved, rounded up to power of 2 */
+  private int RESULT_BUFFER_SIZE = 65536;
+  /** What to do when the buffer of operation results is full */
+  private BufferFullPolicy RESULT_BUFFER_FULL_POLICY = BufferFullPolicy.DROP;
   /**
    * The remark of experiment which will be stored into mysql as part of table name (Notice that no
    * .) rename to TEST_DATA_STORE_REMARK
@@ -371,6 +520,9 @@ public class Config {
   private final List<FunctionParam> SQUARE_LIST = new ArrayList<>();
   private final List<FunctionParam> RANDOM_LIST = new ArrayList<>();
   private final List<FunctionParam> CONSTANT_LIST = new ArrayList<>();
+  private final List<FunctionParam> WALK_LIST = new ArrayList<>();
+  private final List<FunctionParam> QUANTIZED_LIST = new ArrayList<>();
+  private final List<FunctionParam> COUNTER_LIST = new ArrayList<>();
   /** Sensor function */
   private Map<String, FunctionParam> SENSOR_FUNCTION = new HashMap<>();
 
@@ -388,6 +540,10 @@ public class Config {
     }
     List<FunctionParam> xmlFuctions = xml.getFunctions();
     for (FunctionParam param : xmlFuctions) {
+      if (param.getEntropy() < 0 || param.getEntropy() > 1) {
+        System.err.println("entropy of function " + param.getId() + " must be between 0 and 1");
+        System.exit(0);
+      }
       if (param.getFunctionType().contains("_mono_k")) {
         LINE_LIST.add(param);
       } else if (param.getFunctionType().contains("_mono")) {
@@ -401,6 +557,12 @@ public class Config {
         SQUARE_LIST.add(param);
       } else if (param.getFunctionType().contains("_random")) {
         RANDOM_LIST.add(param);
+      } else if (param.getFunctionType().contains("_walk")) {
+        WALK_LIST.add(param);
+      } else if (param.getFunctionType().contains("_quantized")) {
+        QUANTIZED_LIST.add(param);
+      } else if (param.getFunctionType().contains("_counter")) {
+        COUNTER_LIST.add(param);
       }
     }
   }
@@ -408,18 +570,32 @@ public class Config {
   /** init sensor functions -> Constants.SENSOR_FUNCTION */
   public void initSensorFunction() {
     // Configure according to the ratio of each function passed in
-    double sumRatio = CONSTANT_RATIO + LINE_RATIO + RANDOM_RATIO + SIN_RATIO + SQUARE_RATIO;
+    double sumRatio =
+        CONSTANT_RATIO
+            + LINE_RATIO
+            + RANDOM_RATIO
+            + SIN_RATIO
+            + SQUARE_RATIO
+            + WALK_RATIO
+            + QUANTIZED_RATIO
+            + COUNTER_RATIO;
     if (sumRatio != 0
         && CONSTANT_RATIO >= 0
         && LINE_RATIO >= 0
         && RANDOM_RATIO >= 0
         && SIN_RATIO >= 0
-        && SQUARE_RATIO >= 0) {
+        && SQUARE_RATIO >= 0
+        && WALK_RATIO >= 0
+        && QUANTIZED_RATIO >= 0
+        && COUNTER_RATIO >= 0) {
       double constantArea = CONSTANT_RATIO / sumRatio;
       double lineArea = constantArea + LINE_RATIO / sumRatio;
       double randomArea = lineArea + RANDOM_RATIO / sumRatio;
       double sinArea = randomArea + SIN_RATIO / sumRatio;
       double squareArea = sinArea + SQUARE_RATIO / sumRatio;
+      double walkArea = squareArea + WALK_RATIO / sumRatio;
+      double quantizedArea = walkArea + QUANTIZED_RATIO / sumRatio;
+      double counterArea = quantizedArea + COUNTER_RATIO / sumRatio;
       Random r = new Random(DATA_SEED);
       for (int i = 0; i < SENSOR_NUMBER; i++) {
         double property = r.nextDouble();
@@ -451,6 +627,21 @@ public class Config {
           int index = (int) (middle * SQUARE_LIST.size());
           param = SQUARE_LIST.get(index);
         }
+        // walk
+        if (property >= squareArea && property < walkArea) {
+          int index = (int) (middle * WALK_LIST.size());
+          param = WALK_LIST.get(index);
+        }
+        // quantized
+        if (property >= walkArea && property < quantizedArea) {
+          int index = (int) (middle * QUANTIZED_LIST.size());
+          param = QUANTIZED_LIST.get(index);
+        }
+        // counter
+        if (property >= quantizedArea && property < counterArea) {
+          int index = (int) (middle * COUNTER_LIST.size());
+          param = COUNTER_LIST.get(index);
+        }
         if (param == null) {
           System.err.println(
               "There is a problem with the initialization function scale "
@@ -571,6 +762,46 @@ public class Config {
     this.LOOP = LOOP;
   }
 
+  public long getTEST_DURATION() {
+    return TEST_DURATION;
+  }
+
+  public void setTEST_DURATION(long TEST_DURATION) {
+    this.TEST_DURATION = TEST_DURATION;
+  }
+
+  public long getWARMUP_DURATION() {
+    return WARMUP_DURATION;
+  }
+
+  public void setWARMUP_DURATION(long WARMUP_DURATION) {
+    this.WARMUP_DURATION = WARMUP_DURATION;
+  }
+
+  public boolean isIS_STEADY_STATE_DETECTION() {
+    return IS_STEADY_STATE_DETECTION;
+  }
+
+  public void setIS_STEADY_STATE_DETECTION(boolean IS_STEADY_STATE_DETECTION) {
+    this.IS_STEADY_STATE_DETECTION = IS_STEADY_STATE_DETECTION;
+  }
+
+  public int getSTEADY_STATE_WINDOW() {
+    return STEADY_STATE_WINDOW;
+  }
+
+  public void setSTEADY_STATE_WINDOW(int STEADY_STATE_WINDOW) {
+    this.STEADY_STATE_WINDOW = STEADY_STATE_WINDOW;
+  }
+
+  public double getSTEADY_STATE_THRESHOLD() {
+    return STEADY_STATE_THRESHOLD;
+  }
+
+  public void setSTEADY_STATE_THRESHOLD(double STEADY_STATE_THRESHOLD) {
+    this.STEADY_STATE_THRESHOLD = STEADY_STATE_THRESHOLD;
+  }
+
   public BenchmarkMode getBENCHMARK_WORK_MODE() {
     return BENCHMARK_WORK_MODE;
   }
@@ -715,6 +946,22 @@ public class Config {
     this.STRING_LENGTH = STRING_LENGTH;
   }
 
+  public int getTEXT_CARDINALITY() {
+    return TEXT_CARDINALITY;
+  }
+
+  public void setTEXT_CARDINALITY(int TEXT_CARDINALITY) {
+    this.TEXT_CARDINALITY = TEXT_CARDINALITY;
+  }
+
+  public double getTEXT_ENTROPY() {
+    return TEXT_ENTROPY;
+  }
+
+  public void setTEXT_ENTROPY(double TEXT_ENTROPY) {
+    this.TEXT_ENTROPY = TEXT_ENTROPY;
+  }
+
   public int getDOUBLE_LENGTH() {
     return DOUBLE_LENGTH;
   }
@@ -851,6 +1098,19 @@ public class Config {
     this.CLIENT_NUMBER = CLIENT_NUMBER;
   }
 
+  public int getQUERY_CLIENT_NUMBER() {
+    return QUERY_CLIENT_NUMBER;
+  }
+
+  public void setQUERY_CLIENT_NUMBER(int QUERY_CLIENT_NUMBER) {
+    this.QUERY_CLIENT_NUMBER = QUERY_CLIENT_NUMBER;
+  }
+
+  /** @return the number of all clients, including query clients */
+  public int getTotalClientNumber() {
+    return CLIENT_NUMBER + QUERY_CLIENT_NUMBER;
+  }
+
   public double getLINE_RATIO() {
     return LINE_RATIO;
   }
@@ -891,6 +1151,30 @@ public class Config {
     this.CONSTANT_RATIO = CONSTANT_RATIO;
   }
 
+  public double getWALK_RATIO() {
+    return WALK_RATIO;
+  }
+
+  public void setWALK_RATIO(double WALK_RATIO) {
+    this.WALK_RATIO = WALK_RATIO;
+  }
+
+  public double getQUANTIZED_RATIO() {
+    return QUANTIZED_RATIO;
+  }
+
+  public void setQUANTIZED_RATIO(double QUANTIZED_RATIO) {
+    this.QUANTIZED_RATIO = QUANTIZED_RATIO;
+  }
+
+  public double getCOUNTER_RATIO() {
+    return COUNTER_RATIO;
+  }
+
+  public void setCOUNTER_RATIO(double COUNTER_RATIO) {
+    this.COUNTER_RATIO = COUNTER_RATIO;
+  }
+
   public long getDATA_SEED() {
     return DATA_SEED;
   }
@@ -947,6 +1231,22 @@ public class Config {
     this.VECTOR = VECTOR;
   }
 
+  public int getIOTDB_COALESCE_BATCH_NUM() {
+    return IOTDB_COALESCE_BATCH_NUM;
+  }
+
+  public void setIOTDB_COALESCE_BATCH_NUM(int IOTDB_COALESCE_BATCH_NUM) {
+    this.IOTDB_COALESCE_BATCH_NUM = IOTDB_COALESCE_BATCH_NUM;
+  }
+
+  public long getIOTDB_COALESCE_WINDOW_MS() {
+    return IOTDB_COALESCE_WINDOW_MS;
+  }
+
+  public void setIOTDB_COALESCE_WINDOW_MS(long IOTDB_COALESCE_WINDOW_MS) {
+    this.IOTDB_COALESCE_WINDOW_MS = IOTDB_COALESCE_WINDOW_MS;
+  }
+
   public long getOP_INTERVAL() {
     return OP_INTERVAL;
   }
@@ -955,6 +1255,87 @@ public class Config {
     this.OP_INTERVAL = OP_INTERVAL;
   }
 
+  public int getMAX_IN_FLIGHT_PER_CLIENT() {
+    return MAX_IN_FLIGHT_PER_CLIENT;
+  }
+
+  public void setMAX_IN_FLIGHT_PER_CLIENT(int MAX_IN_FLIGHT_PER_CLIENT) {
+    this.MAX_IN_FLIGHT_PER_CLIENT = MAX_IN_FLIGHT_PER_CLIENT;
+  }
+
+  public int getQUERY_MAX_IN_FLIGHT_PER_CLIENT() {
+    return QUERY_MAX_IN_FLIGHT_PER_CLIENT;
+  }
+
+  public void setQUERY_MAX_IN_FLIGHT_PER_CLIENT(int QUERY_MAX_IN_FLIGHT_PER_CLIENT) {
+    this.QUERY_MAX_IN_FLIGHT_PER_CLIENT = QUERY_MAX_IN_FLIGHT_PER_CLIENT;
+  }
+
+  public ArrivalMode getARRIVAL_MODE() {
+    return ARRIVAL_MODE;
+  }
+
+  public void setARRIVAL_MODE(ArrivalMode ARRIVAL_MODE) {
+    this.ARRIVAL_MODE = ARRIVAL_MODE;
+  }
+
+  public double getTARGET_RATE() {
+    return TARGET_RATE;
+  }
+
+  public void setTARGET_RATE(double TARGET_RATE) {
+    this.TARGET_RATE = TARGET_RATE;
+  }
+
+  public boolean isIS_TARGET_RATE_PER_CLIENT() {
+    return IS_TARGET_RATE_PER_CLIENT;
+  }
+
+  public void setIS_TARGET_RATE_PER_CLIENT(boolean IS_TARGET_RATE_PER_CLIENT) {
+    this.IS_TARGET_RATE_PER_CLIENT = IS_TARGET_RATE_PER_CLIENT;
+  }
+
+  public String getLOAD_PROFILE() {
+    return LOAD_PROFILE;
+  }
+
+  public void setLOAD_PROFILE(String LOAD_PROFILE) {
+    this.LOAD_PROFILE = LOAD_PROFILE;
+  }
+
+  public String getOPERATION_TARGET_RATE() {
+    return OPERATION_TARGET_RATE;
+  }
+
+  public void setOPERATION_TARGET_RATE(String OPERATION_TARGET_RATE) {
+    this.OPERATION_TARGET_RATE = OPERATION_TARGET_RATE;
+  }
+
+  /** @return the target rate of one client in open loop modes, unit: operations per second */
+  public double getTargetRatePerClient() {
+    return toRatePerClient(TARGET_RATE);
+  }
+
+  /**
+   * @param rate rate with the same meaning as TARGET_RATE
+   * @return the rate of one client
+   */
+  public double toRatePerClient(double rate) {
+    return toRatePerClient(rate, CLIENT_NUMBER);
+  }
+
+  /**
+   * @param rate rate with the same meaning as TARGET_RATE
+   * @param clientNumber the number of clients which share the rate
+   * @return the rate of one client
+   */
+  public double toRatePerClient(double rate, int clientNumber) {
+    if (IS_TARGET_RATE_PER_CLIENT) {
+      return rate;
+    }
+    return rate / clientNumber;
+  }
+
   public int getWRITE_OPERATION_TIMEOUT_MS() {
     return WRITE_OPERATION_TIMEOUT_MS;
   }
@@ -1147,6 +1528,62 @@ public class Config {
     this.GROUP_BY_TIME_UNIT = GROUP_BY_TIME_UNIT;
   }
 
+  public AccessDistribution getQUERY_DEVICE_DISTRIBUTION() {
+    return QUERY_DEVICE_DISTRIBUTION;
+  }
+
+  public void setQUERY_DEVICE_DISTRIBUTION(AccessDistribution QUERY_DEVICE_DISTRIBUTION) {
+    this.QUERY_DEVICE_DISTRIBUTION = QUERY_DEVICE_DISTRIBUTION;
+  }
+
+  public AccessDistribution getQUERY_TIME_DISTRIBUTION() {
+    return QUERY_TIME_DISTRIBUTION;
+  }
+
+  public void setQUERY_TIME_DISTRIBUTION(AccessDistribution QUERY_TIME_DISTRIBUTION) {
+    this.QUERY_TIME_DISTRIBUTION = QUERY_TIME_DISTRIBUTION;
+  }
+
+  public AccessDistribution getWRITE_DEVICE_DISTRIBUTION() {
+    return WRITE_DEVICE_DISTRIBUTION;
+  }
+
+  public void setWRITE_DEVICE_DISTRIBUTION(AccessDistribution WRITE_DEVICE_DISTRIBUTION) {
+    this.WRITE_DEVICE_DISTRIBUTION = WRITE_DEVICE_DISTRIBUTION;
+  }
+
+  public double getZIPF_SKEW() {
+    return ZIPF_SKEW;
+  }
+
+  public void setZIPF_SKEW(double ZIPF_SKEW) {
+    this.ZIPF_SKEW = ZIPF_SKEW;
+  }
+
+  public double getHOTSPOT_FRACTION() {
+    return HOTSPOT_FRACTION;
+  }
+
+  public void setHOTSPOT_FRACTION(double HOTSPOT_FRACTION) {
+    this.HOTSPOT_FRACTION = HOTSPOT_FRACTION;
+  }
+
+  public double getHOTSPOT_PROBABILITY() {
+    return HOTSPOT_PROBABILITY;
+  }
+
+  public void setHOTSPOT_PROBABILITY(double HOTSPOT_PROBABILITY) {
+    this.HOTSPOT_PROBABILITY = HOTSPOT_PROBABILITY;
+  }
+
+  public double getLATEST_MEAN_RATIO() {
+    return LATEST_MEAN_RATIO;
+  }
+
+  public void setLATEST_MEAN_RATIO(double LATEST_MEAN_RATIO) {
+    this.LATEST_MEAN_RATIO = LATEST_MEAN_RATIO;
+  }
+
   public long getQUERY_SEED() {
     return QUERY_SEED;
   }
@@ -1163,6 +1600,30 @@ public class Config {
     this.WORKLOAD_BUFFER_SIZE = WORKLOAD_BUFFER_SIZE;
   }
 
+  public boolean isIS_LAZY_WORKLOAD_BUFFER() {
+    return IS_LAZY_WORKLOAD_BUFFER;
+  }
+
+  public void setIS_LAZY_WORKLOAD_BUFFER(boolean IS_LAZY_WORKLOAD_BUFFER) {
+    this.IS_LAZY_WORKLOAD_BUFFER = IS_LAZY_WORKLOAD_BUFFER;
+  }
+
+  public int getBATCH_POOL_SIZE() {
+    return BATCH_POOL_SIZE;
+  }
+
+  public void setBATCH_POOL_SIZE(int BATCH_POOL_SIZE) {
+    this.BATCH_POOL_SIZE = BATCH_POOL_SIZE;
+  }
+
+  public int getGENERATOR_BUFFER_SIZE() {
+    return GENERATOR_BUFFER_SIZE;
+  }
+
+  public void setGENERATOR_BUFFER_SIZE(int GENERATOR_BUFFER_SIZE) {
+    this.GENERATOR_BUFFER_SIZE = GENERATOR_BUFFER_SIZE;
+  }
+
   public String getTEST_DATA_PERSISTENCE() {
     return TEST_DATA_PERSISTENCE;
   }
@@ -1195,6 +1656,38 @@ public class Config {
     this.LOG_PRINT_INTERVAL = LOG_PRINT_INTERVAL;
   }
 
+  public int getMETRIC_REPORT_INTERVAL() {
+    return METRIC_REPORT_INTERVAL;
+  }
+
+  public void setMETRIC_REPORT_INTERVAL(int METRIC_REPORT_INTERVAL) {
+    this.METRIC_REPORT_INTERVAL = METRIC_REPORT_INTERVAL;
+  }
+
+  public long getFRESHNESS_PROBE_INTERVAL() {
+    return FRESHNESS_PROBE_INTERVAL;
+  }
+
+  public void setFRESHNESS_PROBE_INTERVAL(long FRESHNESS_PROBE_INTERVAL) {
+    this.FRESHNESS_PROBE_INTERVAL = FRESHNESS_PROBE_INTERVAL;
+  }
+
+  public long getFRESHNESS_PROBE_POLL_INTERVAL() {
+    return FRESHNESS_PROBE_POLL_INTERVAL;
+  }
+
+  public void setFRESHNESS_PROBE_POLL_INTERVAL(long FRESHNESS_PROBE_POLL_INTERVAL) {
+    this.FRESHNESS_PROBE_POLL_INTERVAL = FRESHNESS_PROBE_POLL_INTERVAL;
+  }
+
+  public long getFRESHNESS_PROBE_TIMEOUT() {
+    return FRESHNESS_PROBE_TIMEOUT;
+  }
+
+  public void setFRESHNESS_PROBE_TIMEOUT(long FRESHNESS_PROBE_TIMEOUT) {
+    this.FRESHNESS_PROBE_TIMEOUT = FRESHNESS_PROBE_TIMEOUT;
+  }
+
   public String getTEST_DATA_STORE_IP() {
     return TEST_DATA_STORE_IP;
   }
@@ -1303,6 +1796,18 @@ public class Config {
     return CONSTANT_LIST;
   }
 
+  public List<FunctionParam> getWALK_LIST() {
+    return WALK_LIST;
+  }
+
+  public List<FunctionParam> getQUANTIZED_LIST() {
+    return QUANTIZED_LIST;
+  }
+
+  public List<FunctionParam> getCOUNTER_LIST() {
+    return COUNTER_LIST;
+  }
+
   public Map<String, FunctionParam> getSENSOR_FUNCTION() {
     return SENSOR_FUNCTION;
   }
@@ -1327,6 +1832,22 @@ public class Config {
     this.TEST_DATA_MAX_CONNECTION = TEST_DATA_MAX_CONNECTION;
   }
 
+  public int getRESULT_BUFFER_SIZE() {
+    return RESULT_BUFFER_SIZE;
+  }
+
+  public void setRESULT_BUFFER_SIZE(int RESULT_BUFFER_SIZE) {
+    this.RESULT_BUFFER_SIZE = RESULT_BUFFER_SIZE;
+  }
+
+  public BufferFullPolicy getRESULT_BUFFER_FULL_POLICY() {
+    return RESULT_BUFFER_FULL_POLICY;
+  }
+
+  public void setRESULT_BUFFER_FULL_POLICY(BufferFullPolicy RESULT_BUFFER_FULL_POLICY) {
+    this.RESULT_BUFFER_FULL_POLICY = RESULT_BUFFER_FULL_POLICY;
+  }
+
   public String getCOMPRESSION() {
     return COMPRESSION;
   }
@@ -1335,6 +1856,38 @@ public class Config {
     this.COMPRESSION = COMPRESSION;
   }
 
+  public TableLayout getTIMESCALEDB_LAYOUT() {
+    return TIMESCALEDB_LAYOUT;
+  }
+
+  public void setTIMESCALEDB_LAYOUT(TableLayout TIMESCALEDB_LAYOUT) {
+    this.TIMESCALEDB_LAYOUT = TIMESCALEDB_LAYOUT;
+  }
+
+  public long getTIMESCALEDB_CHUNK_TIME_INTERVAL() {
+    return TIMESCALEDB_CHUNK_TIME_INTERVAL;
+  }
+
+  public void setTIMESCALEDB_CHUNK_TIME_INTERVAL(long TIMESCALEDB_CHUNK_TIME_INTERVAL) {
+    this.TIMESCALEDB_CHUNK_TIME_INTERVAL = TIMESCALEDB_CHUNK_TIME_INTERVAL;
+  }
+
+  public boolean isTIMESCALEDB_COMPRESSION() {
+    return TIMESCALEDB_COMPRESSION;
+  }
+
+  public void setTIMESCALEDB_COMPRESSION(boolean TIMESCALEDB_COMPRESSION) {
+    this.TIMESCALEDB_COMPRESSION = TIMESCALEDB_COMPRESSION;
+  }
+
+  public long getTIMESCALEDB_COMPRESS_AFTER() {
+    return TIMESCALEDB_COMPRESS_AFTER;
+  }
+
+  public void setTIMESCALEDB_COMPRESS_AFTER(long TIMESCALEDB_COMPRESS_AFTER) {
+    this.TIMESCALEDB_COMPRESS_AFTER = TIMESCALEDB_COMPRESS_AFTER;
+  }
+
   public void setIS_DOUBLE_WRITE(boolean IS_DOUBLE_WRITE) {
     this.IS_DOUBLE_WRITE = IS_DOUBLE_WRITE;
   }
@@ -1463,6 +2016,10 @@ public class Config {
         + '\''
         + "\nSTRING_LENGTH="
         + STRING_LENGTH
+        + "\nTEXT_CARDINALITY="
+        + TEXT_CARDINALITY
+        + "\nTEXT_ENTROPY="
+        + TEXT_ENTROPY
         + "\nDOUBLE_LENGTH="
         + DOUBLE_LENGTH
         + "\nINSERT_DATATYPE_PROPORTION='"
@@ -1529,8 +2086,28 @@ public class Config {
         + GROUP_BY_TIME_UNIT
         + "\nQUERY_SEED="
         + QUERY_SEED
+        + "\nQUERY_DEVICE_DISTRIBUTION="
+        + QUERY_DEVICE_DISTRIBUTION
+        + "\nQUERY_TIME_DISTRIBUTION="
+        + QUERY_TIME_DISTRIBUTION
+        + "\nWRITE_DEVICE_DISTRIBUTION="
+        + WRITE_DEVICE_DISTRIBUTION
+        + "\nZIPF_SKEW="
+        + ZIPF_SKEW
+        + "\nHOTSPOT_FRACTION="
+        + HOTSPOT_FRACTION
+        + "\nHOTSPOT_PROBABILITY="
+        + HOTSPOT_PROBABILITY
+        + "\nLATEST_MEAN_RATIO="
+        + LATEST_MEAN_RATIO
         + "\nWORKLOAD_BUFFER_SIZE="
         + WORKLOAD_BUFFER_SIZE
+        + "\nIS_LAZY_WORKLOAD_BUFFER="
+        + IS_LAZY_WORKLOAD_BUFFER
+        + "\nBATCH_POOL_SIZE="
+        + BATCH_POOL_SIZE
+        + "\nGENERATOR_BUFFER_SIZE="
+        + GENERATOR_BUFFER_SIZE
         + "\nSENSORS="
         + SENSORS;
   }
@@ -1559,6 +2136,8 @@ public class Config {
     }
     properties.put("OPERATION_PROPORTION", this.OPERATION_PROPORTION);
     properties.put("STRING_LENGTH", this.STRING_LENGTH);
+    properties.put("TEXT_CARDINALITY", this.TEXT_CARDINALITY);
+    properties.put("TEXT_ENTROPY", this.TEXT_ENTROPY);
     properties.put("DOUBLE_LENGTH", this.DOUBLE_LENGTH);
     properties.put("INSERT_DATATYPE_PROPORTION", this.INSERT_DATATYPE_PROPORTION);
     properties.put(
@@ -1575,10 +2154,23 @@ public class Config {
             + "/"
             + this.ENCODING_TEXT);
     properties.put("COMPRESSOR", this.COMPRESSOR);
+    if (isTimescaleDB(this.dbConfig)
+        || (this.IS_DOUBLE_WRITE && isTimescaleDB(this.ANOTHER_DBConfig))) {
+      properties.put("TIMESCALEDB_LAYOUT", this.TIMESCALEDB_LAYOUT);
+      properties.put("TIMESCALEDB_CHUNK_TIME_INTERVAL", this.TIMESCALEDB_CHUNK_TIME_INTERVAL);
+      properties.put("TIMESCALEDB_COMPRESSION", this.TIMESCALEDB_COMPRESSION);
+      if (this.TIMESCALEDB_COMPRESSION) {
+        properties.put("TIMESCALEDB_COMPRESS_AFTER", this.TIMESCALEDB_COMPRESS_AFTER);
+      }
+    }
     properties.put("IS_DELETE_DATA", this.IS_DELETE_DATA);
     properties.put("CREATE_SCHEMA", this.CREATE_SCHEMA);
     properties.put("IS_CLIENT_BIND", this.IS_CLIENT_BIND);
     properties.put("CLIENT_NUMBER", this.CLIENT_NUMBER);
+    if (this.QUERY_CLIENT_NUMBER > 0) {
+      properties.put("QUERY_CLIENT_NUMBER", this.QUERY_CLIENT_NUMBER);
+      properties.put("QUERY_MAX_IN_FLIGHT_PER_CLIENT", this.QUERY_MAX_IN_FLIGHT_PER_CLIENT);
+    }
     properties.put("GROUP_NUMBER", this.GROUP_NUMBER);
     properties.put("SG_STRATEGY", this.SG_STRATEGY);
     properties.put("DEVICE_NUMBER", this.DEVICE_NUMBER);
@@ -1590,8 +2182,27 @@ public class Config {
     }
     properties.put("BATCH_SIZE_PER_WRITE", this.BATCH_SIZE_PER_WRITE);
     properties.put("LOOP", this.LOOP);
+    properties.put("TEST_DURATION", this.TEST_DURATION);
+    properties.put("WARMUP_DURATION", this.WARMUP_DURATION);
+    if (this.IS_STEADY_STATE_DETECTION) {
+      properties.put("IS_STEADY_STATE_DETECTION", this.IS_STEADY_STATE_DETECTION);
+      properties.put("STEADY_STATE_WINDOW", this.STEADY_STATE_WINDOW);
+      properties.put("STEADY_STATE_THRESHOLD", this.STEADY_STATE_THRESHOLD);
+    }
     properties.put("POINT_STEP", this.POINT_STEP);
     properties.put("OP_INTERVAL", this.OP_INTERVAL);
+    properties.put("MAX_IN_FLIGHT_PER_CLIENT", this.MAX_IN_FLIGHT_PER_CLIENT);
+    if (this.IOTDB_COALESCE_BATCH_NUM > 1) {
+      properties.put("IOTDB_COALESCE_BATCH_NUM", this.IOTDB_COALESCE_BATCH_NUM);
+      properties.put("IOTDB_COALESCE_WINDOW_MS", this.IOTDB_COALESCE_WINDOW_MS);
+    }
+    properties.put("ARRIVAL_MODE", this.ARRIVAL_MODE);
+    if (this.ARRIVAL_MODE.isOpenLoop()) {
+      properties.put("TARGET_RATE", this.TARGET_RATE);
+      properties.put("IS_TARGET_RATE_PER_CLIENT", this.IS_TARGET_RATE_PER_CLIENT);
+      properties.put("LOAD_PROFILE", this.LOAD_PROFILE);
+      properties.put("OPERATION_TARGET_RATE", this.OPERATION_TARGET_RATE);
+    }
     properties.put("QUERY_INTERVAL", this.QUERY_INTERVAL);
     properties.put("IS_ADD_ANOMALY", this.IS_ADD_ANOMALY);
     properties.put("ANOMALY_RATE", this.ANOMALY_RATE);
@@ -1606,6 +2217,10 @@ public class Config {
     return properties;
   }
 
+  private static boolean isTimescaleDB(DBConfig dbConfig) {
+    return dbConfig != null && dbConfig.getDB_SWITCH().getType() == DBType.TimescaleDB;
+  }
+
   /** get all properties from config, one property in one line. */
   public Map<String, Object> getAllProperties() {
     Map<String, Object> properties = getShowProperties();
@@ -1623,7 +2238,25 @@ public class Config {
     properties.put("QUERY_AGGREGATE_FUN", this.QUERY_AGGREGATE_FUN);
     properties.put("QUERY_LOWER_VALUE", this.QUERY_LOWER_VALUE);
     properties.put("QUERY_SEED", this.QUERY_SEED);
+    properties.put("QUERY_DEVICE_DISTRIBUTION", this.QUERY_DEVICE_DISTRIBUTION);
+    properties.put("QUERY_TIME_DISTRIBUTION", this.QUERY_TIME_DISTRIBUTION);
+    properties.put("WRITE_DEVICE_DISTRIBUTION", this.WRITE_DEVICE_DISTRIBUTION);
+    properties.put("ZIPF_SKEW", this.ZIPF_SKEW);
+    properties.put("HOTSPOT_FRACTION", this.HOTSPOT_FRACTION);
+    properties.put("HOTSPOT_PROBABILITY", this.HOTSPOT_PROBABILITY);
+    properties.put("LATEST_MEAN_RATIO", this.LATEST_MEAN_RATIO);
     properties.put("WORKLOAD_BUFFER_SIZE", this.WORKLOAD_BUFFER_SIZE);
+    properties.put("IS_LAZY_WORKLOAD_BUFFER", this.IS_LAZY_WORKLOAD_BUFFER);
+    properties.put("BATCH_POOL_SIZE", this.BATCH_POOL_SIZE);
+    properties.put("GENERATOR_BUFFER_SIZE", this.GENERATOR_BUFFER_SIZE);
+    properties.put("METRIC_REPORT_INTERVAL", this.METRIC_REPORT_INTERVAL);
+    properties.put("FRESHNESS_PROBE_INTERVAL", this.FRESHNESS_PROBE_INTERVAL);
+    if (this.FRESHNESS_PROBE_INTERVAL > 0) {
+      properties.put("FRESHNESS_PROBE_POLL_INTERVAL", this.FRESHNESS_PROBE_POLL_INTERVAL);
+      properties.put("FRESHNESS_PROBE_TIMEOUT", this.FRESHNESS_PROBE_TIMEOUT);
+    }
+    properties.put("RESULT_BUFFER_SIZE", this.RESULT_BUFFER_SIZE);
+    properties.put("RESULT_BUFFER_FULL_POLICY", this.RESULT_BUFFER_FULL_POLICY);
     return properties;
   }
 }
@@ -19,11 +19,18 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.conf;
 
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.LoadProfile;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.enums.ArrivalMode;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.AccessDistribution;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.BufferFullPolicy;
 import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBInsertMode;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBSwitch;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBType;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBVersion;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.TableLayout;
 import cn.edu.tsinghua.iotdb.benchmark.workload.enums.OutOfOrderMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -85,6 +92,24 @@ public class ConfigDescriptor {
                 properties.getProperty("INIT_WAIT_TIME", config.getINIT_WAIT_TIME() + "")));
         config.setNET_DEVICE(properties.getProperty("NET_DEVICE", config.getNET_DEVICE()));
         config.setLOOP(Long.parseLong(properties.getProperty("LOOP", config.getLOOP() + "")));
+        config.setTEST_DURATION(
+            Long.parseLong(
+                properties.getProperty("TEST_DURATION", config.getTEST_DURATION() + "")));
+        config.setWARMUP_DURATION(
+            Long.parseLong(
+                properties.getProperty("WARMUP_DURATION", config.getWARMUP_DURATION() + "")));
+        config.setIS_STEADY_STATE_DETECTION(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_STEADY_STATE_DETECTION", config.isIS_STEADY_STATE_DETECTION() + "")));
+        config.setSTEADY_STATE_WINDOW(
+            Integer.parseInt(
+                properties.getProperty(
+                    "STEADY_STATE_WINDOW", config.getSTEADY_STATE_WINDOW() + "")));
+        config.setSTEADY_STATE_THRESHOLD(
+            Double.parseDouble(
+                properties.getProperty(
+                    "STEADY_STATE_THRESHOLD", config.getSTEADY_STATE_THRESHOLD() + "")));
         config.setBENCHMARK_WORK_MODE(
             BenchmarkMode.getBenchmarkMode(properties.getProperty("BENCHMARK_WORK_MODE", "")));
         config.setUSE_MEASUREMENT(
@@ -183,6 +208,12 @@ public class ConfigDescriptor {
         config.setSTRING_LENGTH(
             Integer.parseInt(
                 properties.getProperty("STRING_LENGTH", config.getSTRING_LENGTH() + "")));
+        config.setTEXT_CARDINALITY(
+            Integer.parseInt(
+                properties.getProperty("TEXT_CARDINALITY", config.getTEXT_CARDINALITY() + "")));
+        config.setTEXT_ENTROPY(
+            Double.parseDouble(
+                properties.getProperty("TEXT_ENTROPY", config.getTEXT_ENTROPY() + "")));
         config.setDOUBLE_LENGTH(
             Integer.parseInt(
                 properties.getProperty("DOUBLE_LENGTH", config.getDOUBLE_LENGTH() + "")));
@@ -240,6 +271,10 @@ public class ConfigDescriptor {
         config.setCLIENT_NUMBER(
             Integer.parseInt(
                 properties.getProperty("CLIENT_NUMBER", config.getCLIENT_NUMBER() + "")));
+        config.setQUERY_CLIENT_NUMBER(
+            Integer.parseInt(
+                properties.getProperty(
+                    "QUERY_CLIENT_NUMBER", config.getQUERY_CLIENT_NUMBER() + "")));
         config.setBENCHMARK_CLUSTER(
             Boolean.parseBoolean(
                 properties.getProperty("BENCHMARK_CLUSTER", config.isBENCHMARK_CLUSTER() + "")));
@@ -269,6 +304,14 @@ public class ConfigDescriptor {
         config.setCONSTANT_RATIO(
             Double.parseDouble(
                 properties.getProperty("CONSTANT_RATIO", config.getCONSTANT_RATIO() + "")));
+        config.setWALK_RATIO(
+            Double.parseDouble(properties.getProperty("WALK_RATIO", config.getWALK_RATIO() + "")));
+        config.setQUANTIZED_RATIO(
+            Double.parseDouble(
+                properties.getProperty("QUANTIZED_RATIO", config.getQUANTIZED_RATIO() + "")));
+        config.setCOUNTER_RATIO(
+            Double.parseDouble(
+                properties.getProperty("COUNTER_RATIO", config.getCOUNTER_RATIO() + "")));
         config.setDATA_SEED(
             Long.parseLong(properties.getProperty("DATA_SEED", config.getDATA_SEED() + "")));
 
@@ -290,14 +333,62 @@ public class ConfigDescriptor {
         config.setVECTOR(
             Boolean.parseBoolean(
                 properties.getProperty("VECTOR", String.valueOf(config.isVECTOR()))));
+        config.setIOTDB_COALESCE_BATCH_NUM(
+            Integer.parseInt(
+                properties.getProperty(
+                    "IOTDB_COALESCE_BATCH_NUM", config.getIOTDB_COALESCE_BATCH_NUM() + "")));
+        config.setIOTDB_COALESCE_WINDOW_MS(
+            Long.parseLong(
+                properties.getProperty(
+                    "IOTDB_COALESCE_WINDOW_MS", config.getIOTDB_COALESCE_WINDOW_MS() + "")));
 
         config.setCOMPRESSION(properties.getProperty("COMPRESSION", "NONE"));
 
+        config.setTIMESCALEDB_LAYOUT(
+            TableLayout.getTableLayout(
+                properties.getProperty(
+                    "TIMESCALEDB_LAYOUT", config.getTIMESCALEDB_LAYOUT().toString())));
+        config.setTIMESCALEDB_CHUNK_TIME_INTERVAL(
+            Long.parseLong(
+                properties.getProperty(
+                    "TIMESCALEDB_CHUNK_TIME_INTERVAL",
+                    config.getTIMESCALEDB_CHUNK_TIME_INTERVAL() + "")));
+        config.setTIMESCALEDB_COMPRESSION(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "TIMESCALEDB_COMPRESSION", config.isTIMESCALEDB_COMPRESSION() + "")));
+        config.setTIMESCALEDB_COMPRESS_AFTER(
+            Long.parseLong(
+                properties.getProperty(
+                    "TIMESCALEDB_COMPRESS_AFTER", config.getTIMESCALEDB_COMPRESS_AFTER() + "")));
+
         config.setOP_INTERVAL(
             Long.parseLong(properties.getProperty("OP_INTERVAL", config.getOP_INTERVAL() + "")));
         if (config.getOP_INTERVAL() == -1L) {
           config.setOP_INTERVAL(config.getPOINT_STEP());
         }
+        config.setMAX_IN_FLIGHT_PER_CLIENT(
+            Integer.parseInt(
+                properties.getProperty(
+                    "MAX_IN_FLIGHT_PER_CLIENT", config.getMAX_IN_FLIGHT_PER_CLIENT() + "")));
+        config.setQUERY_MAX_IN_FLIGHT_PER_CLIENT(
+            Integer.parseInt(
+                properties.getProperty(
+                    "QUERY_MAX_IN_FLIGHT_PER_CLIENT",
+                    config.getQUERY_MAX_IN_FLIGHT_PER_CLIENT() + "")));
+        config.setARRIVAL_MODE(
+            ArrivalMode.getArrivalMode(
+                properties.getProperty("ARRIVAL_MODE", config.getARRIVAL_MODE().toString())));
+        config.setTARGET_RATE(
+            Double.parseDouble(
+                properties.getProperty("TARGET_RATE", config.getTARGET_RATE() + "")));
+        config.setIS_TARGET_RATE_PER_CLIENT(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_TARGET_RATE_PER_CLIENT", config.isIS_TARGET_RATE_PER_CLIENT() + "")));
+        config.setLOAD_PROFILE(properties.getProperty("LOAD_PROFILE", config.getLOAD_PROFILE()));
+        config.setOPERATION_TARGET_RATE(
+            properties.getProperty("OPERATION_TARGET_RATE", config.getOPERATION_TARGET_RATE()));
         config.setWRITE_OPERATION_TIMEOUT_MS(
             Integer.parseInt(
                 properties.getProperty(
@@ -373,11 +464,46 @@ public class ConfigDescriptor {
                 properties.getProperty("GROUP_BY_TIME_UNIT", config.getGROUP_BY_TIME_UNIT() + "")));
         config.setQUERY_SEED(
             Long.parseLong(properties.getProperty("QUERY_SEED", config.getQUERY_SEED() + "")));
+        config.setQUERY_DEVICE_DISTRIBUTION(
+            AccessDistribution.getAccessDistribution(
+                properties.getProperty(
+                    "QUERY_DEVICE_DISTRIBUTION", config.getQUERY_DEVICE_DISTRIBUTION().toString())));
+        config.setQUERY_TIME_DISTRIBUTION(
+            AccessDistribution.getAccessDistribution(
+                properties.getProperty(
+                    "QUERY_TIME_DISTRIBUTION", config.getQUERY_TIME_DISTRIBUTION().toString())));
+        config.setWRITE_DEVICE_DISTRIBUTION(
+            AccessDistribution.getAccessDistribution(
+                properties.getProperty(
+                    "WRITE_DEVICE_DISTRIBUTION", config.getWRITE_DEVICE_DISTRIBUTION().toString())));
+        config.setZIPF_SKEW(
+            Double.parseDouble(properties.getProperty("ZIPF_SKEW", config.getZIPF_SKEW() + "")));
+        config.setHOTSPOT_FRACTION(
+            Double.parseDouble(
+                properties.getProperty("HOTSPOT_FRACTION", config.getHOTSPOT_FRACTION() + "")));
+        config.setHOTSPOT_PROBABILITY(
+            Double.parseDouble(
+                properties.getProperty(
+                    "HOTSPOT_PROBABILITY", config.getHOTSPOT_PROBABILITY() + "")));
+        config.setLATEST_MEAN_RATIO(
+            Double.parseDouble(
+                properties.getProperty("LATEST_MEAN_RATIO", config.getLATEST_MEAN_RATIO() + "")));
 
         config.setWORKLOAD_BUFFER_SIZE(
             Integer.parseInt(
                 properties.getProperty(
                     "WORKLOAD_BUFFER_SIZE", config.getWORKLOAD_BUFFER_SIZE() + "")));
+        config.setIS_LAZY_WORKLOAD_BUFFER(
+            Boolean.parseBoolean(
+                properties.getProperty(
+                    "IS_LAZY_WORKLOAD_BUFFER", config.isIS_LAZY_WORKLOAD_BUFFER() + "")));
+        config.setBATCH_POOL_SIZE(
+            Integer.parseInt(
+                properties.getProperty("BATCH_POOL_SIZE", config.getBATCH_POOL_SIZE() + "")));
+        config.setGENERATOR_BUFFER_SIZE(
+            Integer.parseInt(
+                properties.getProperty(
+                    "GENERATOR_BUFFER_SIZE", config.getGENERATOR_BUFFER_SIZE() + "")));
         config.setTEST_DATA_PERSISTENCE(properties.getProperty("TEST_DATA_PERSISTENCE", "None"));
 
         config.setMONITOR_INTERVAL(
@@ -390,6 +516,23 @@ public class ConfigDescriptor {
         config.setLOG_PRINT_INTERVAL(
             Integer.parseInt(
                 properties.getProperty("LOG_PRINT_INTERVAL", config.getLOG_PRINT_INTERVAL() + "")));
+        config.setMETRIC_REPORT_INTERVAL(
+            Integer.parseInt(
+                properties.getProperty(
+                    "METRIC_REPORT_INTERVAL", config.getMETRIC_REPORT_INTERVAL() + "")));
+        config.setFRESHNESS_PROBE_INTERVAL(
+            Long.parseLong(
+                properties.getProperty(
+                    "FRESHNESS_PROBE_INTERVAL", config.getFRESHNESS_PROBE_INTERVAL() + "")));
+        config.setFRESHNESS_PROBE_POLL_INTERVAL(
+            Long.parseLong(
+                properties.getProperty(
+                    "FRESHNESS_PROBE_POLL_INTERVAL",
+                    config.getFRESHNESS_PROBE_POLL_INTERVAL() + "")));
+        config.setFRESHNESS_PROBE_TIMEOUT(
+            Long.parseLong(
+                properties.getProperty(
+                    "FRESHNESS_PROBE_TIMEOUT", config.getFRESHNESS_PROBE_TIMEOUT() + "")));
 
         config.setTEST_DATA_STORE_IP(
             properties.getProperty("TEST_DATA_STORE_IP", config.getTEST_DATA_STORE_IP()));
@@ -412,6 +555,13 @@ public class ConfigDescriptor {
         if (config.getTEST_DATA_PERSISTENCE().equals("CSV")) {
           config.setTEST_DATA_MAX_CONNECTION(1);
         }
+        config.setRESULT_BUFFER_SIZE(
+            Integer.parseInt(
+                properties.getProperty("RESULT_BUFFER_SIZE", config.getRESULT_BUFFER_SIZE() + "")));
+        config.setRESULT_BUFFER_FULL_POLICY(
+            BufferFullPolicy.getBufferFullPolicy(
+                properties.getProperty(
+                    "RESULT_BUFFER_FULL_POLICY", config.getRESULT_BUFFER_FULL_POLICY().toString())));
 
         config.setREMARK(properties.getProperty("REMARK", "-"));
         config.setMYSQL_REAL_INSERT_RATE(
@@ -446,7 +596,7 @@ public class ConfigDescriptor {
 
   /** Check validation of config */
   private boolean checkConfig() {
-    boolean result = true;
+    boolean result = checkOperationTargetRate();
     // Checking config according to mode
     switch (config.getBENCHMARK_WORK_MODE()) {
       case TEST_WITH_DEFAULT_PATH:
@@ -537,9 +687,240 @@ public class ConfigDescriptor {
       LOGGER.error("Client number can't be zero");
       result = false;
     }
+    result &= checkQueryClient();
+    if (config.getTIMESCALEDB_CHUNK_TIME_INTERVAL() <= 0) {
+      LOGGER.error("TIMESCALEDB_CHUNK_TIME_INTERVAL must be positive");
+      result = false;
+    }
+    if (config.isTIMESCALEDB_COMPRESSION() && config.getTIMESCALEDB_COMPRESS_AFTER() < 0) {
+      LOGGER.error("TIMESCALEDB_COMPRESS_AFTER must not be negative");
+      result = false;
+    }
+    result &= checkTimescaleCopy(config.getDbConfig().getDB_SWITCH());
+    if (config.isIS_DOUBLE_WRITE()) {
+      result &= checkTimescaleCopy(config.getANOTHER_DBConfig().getDB_SWITCH());
+    }
+    if (config.getFRESHNESS_PROBE_INTERVAL() > 0) {
+      if (config.getBENCHMARK_WORK_MODE() != BenchmarkMode.TEST_WITH_DEFAULT_PATH) {
+        LOGGER.warn("FRESHNESS_PROBE_INTERVAL only works in TEST_WITH_DEFAULT_PATH, set it to 0");
+        config.setFRESHNESS_PROBE_INTERVAL(0);
+      } else if (config.getFRESHNESS_PROBE_POLL_INTERVAL() <= 0
+          || config.getFRESHNESS_PROBE_TIMEOUT() <= 0) {
+        LOGGER.error("FRESHNESS_PROBE_POLL_INTERVAL and FRESHNESS_PROBE_TIMEOUT must be positive");
+        result = false;
+      }
+    }
+    if (config.isIS_STEADY_STATE_DETECTION()) {
+      if (config.getWARMUP_DURATION() <= 0) {
+        LOGGER.error("Steady state detection needs WARMUP_DURATION as the max warm-up duration");
+        result = false;
+      }
+      if (config.getSTEADY_STATE_WINDOW() < 2) {
+        LOGGER.error("STEADY_STATE_WINDOW must be at least 2");
+        result = false;
+      }
+    }
+    if (config.getRESULT_BUFFER_SIZE() < 1 || config.getRESULT_BUFFER_SIZE() > (1 << 30)) {
+      LOGGER.error("RESULT_BUFFER_SIZE must be between 1 and 2^30");
+      result = false;
+    }
+    if (config.getZIPF_SKEW() <= 0) {
+      LOGGER.error("ZIPF_SKEW must be positive");
+      result = false;
+    }
+    if (config.getHOTSPOT_FRACTION() <= 0 || config.getHOTSPOT_FRACTION() > 1) {
+      LOGGER.error("HOTSPOT_FRACTION must be in (0, 1]");
+      result = false;
+    }
+    if (config.getHOTSPOT_PROBABILITY() < 0 || config.getHOTSPOT_PROBABILITY() > 1) {
+      LOGGER.error("HOTSPOT_PROBABILITY must be between 0 and 1");
+      result = false;
+    }
+    if (config.getLATEST_MEAN_RATIO() <= 0) {
+      LOGGER.error("LATEST_MEAN_RATIO must be positive");
+      result = false;
+    }
+    if (config.getTEXT_ENTROPY() < 0 || config.getTEXT_ENTROPY() > 1) {
+      LOGGER.error("TEXT_ENTROPY must be between 0 and 1");
+      result = false;
+    }
+    if (config.getTEXT_CARDINALITY() < 0) {
+      LOGGER.error("TEXT_CARDINALITY must not be negative");
+      result = false;
+    }
+    if (config.getBATCH_POOL_SIZE() < 0) {
+      LOGGER.error("BATCH_POOL_SIZE must not be negative");
+      result = false;
+    }
+    if (config.getGENERATOR_BUFFER_SIZE() < 0) {
+      LOGGER.error("GENERATOR_BUFFER_SIZE must not be negative");
+      result = false;
+    }
+    if (config.getMAX_IN_FLIGHT_PER_CLIENT() < 1) {
+      LOGGER.error("MAX_IN_FLIGHT_PER_CLIENT must be positive");
+      result = false;
+    }
+    if (config.getMAX_IN_FLIGHT_PER_CLIENT() > 1
+        && (config.isIS_COMPARISON() || config.isIS_POINT_COMPARISON())) {
+      LOGGER.warn("Comparison needs the result of each operation, set MAX_IN_FLIGHT_PER_CLIENT=1");
+      config.setMAX_IN_FLIGHT_PER_CLIENT(1);
+    }
+    if (config.getIOTDB_COALESCE_BATCH_NUM() < 1) {
+      LOGGER.error("IOTDB_COALESCE_BATCH_NUM must be positive");
+      result = false;
+    }
+    if (config.getIOTDB_COALESCE_WINDOW_MS() < 0) {
+      LOGGER.error("IOTDB_COALESCE_WINDOW_MS must not be negative");
+      result = false;
+    }
+    if (config.getIOTDB_COALESCE_BATCH_NUM() > config.getMAX_IN_FLIGHT_PER_CLIENT()) {
+      LOGGER.warn(
+          "Batches waiting to be coalesced are in flight, set IOTDB_COALESCE_BATCH_NUM={}",
+          config.getMAX_IN_FLIGHT_PER_CLIENT());
+      config.setIOTDB_COALESCE_BATCH_NUM(config.getMAX_IN_FLIGHT_PER_CLIENT());
+    }
+    if (!config.getLOAD_PROFILE().trim().isEmpty()) {
+      if (!config.getARRIVAL_MODE().isOpenLoop()) {
+        LOGGER.warn("LOAD_PROFILE is ignored when ARRIVAL_MODE is {}", config.getARRIVAL_MODE());
+        config.setLOAD_PROFILE("");
+      } else {
+        try {
+          LoadProfile.parse(config.getLOAD_PROFILE());
+          LOGGER.info(
+              "Rates in LOAD_PROFILE are {}",
+              config.getOPERATION_TARGET_RATE().trim().isEmpty()
+                  ? "operations per second, the same as TARGET_RATE"
+                  : "points per second of INGESTION, the same as OPERATION_TARGET_RATE");
+        } catch (IllegalArgumentException e) {
+          LOGGER.error("Invalid LOAD_PROFILE: {}", e.getMessage());
+          result = false;
+        }
+      }
+    }
+    if (config.getARRIVAL_MODE().isOpenLoop()) {
+      if (config.getLOAD_PROFILE().trim().isEmpty()
+          && config.getOPERATION_TARGET_RATE().trim().isEmpty()
+          && config.getTARGET_RATE() <= 0) {
+        LOGGER.error(
+            "TARGET_RATE must be positive when ARRIVAL_MODE is {} without LOAD_PROFILE",
+            config.getARRIVAL_MODE());
+        result = false;
+      }
+      if (config.getOP_INTERVAL() > 0) {
+        LOGGER.warn("OP_INTERVAL is ignored when ARRIVAL_MODE is {}", config.getARRIVAL_MODE());
+      }
+    }
     return result;
   }
 
+  /**
+   * COPY can not update existing rows. In WIDE layout, each sensor of a row is written by its own
+   * batch if sensors are not aligned, so every batch after the first one of a row fails.
+   */
+  private boolean checkTimescaleCopy(DBSwitch dbSwitch) {
+    DBInsertMode insertMode = dbSwitch == null ? null : dbSwitch.getInsertMode();
+    if ((insertMode == DBInsertMode.INSERT_USE_COPY_TEXT
+            || insertMode == DBInsertMode.INSERT_USE_COPY_BINARY)
+        && config.getTIMESCALEDB_LAYOUT() == TableLayout.WIDE
+        && !config.isIS_SENSOR_TS_ALIGNMENT()) {
+      LOGGER.error(
+          "{} can not update existing rows, it needs IS_SENSOR_TS_ALIGNMENT=true in WIDE layout, "
+              + "or use TimescaleDB-MULTI_ROW instead",
+          dbSwitch);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Check OPERATION_TARGET_RATE, and replace OPERATION_PROPORTION by the operations with positive
+   * rates, so that the others which depend on OPERATION_PROPORTION know which operations are done
+   */
+  private boolean checkOperationTargetRate() {
+    String targetRate = config.getOPERATION_TARGET_RATE().trim();
+    if (targetRate.isEmpty()) {
+      return true;
+    }
+    String[] rates = targetRate.split(":");
+    if (rates.length != Operation.getNormalOperation().size()) {
+      LOGGER.error(
+          "OPERATION_TARGET_RATE needs {} rates, but is {}",
+          Operation.getNormalOperation().size(),
+          targetRate);
+      return false;
+    }
+    StringBuilder proportion = new StringBuilder();
+    boolean hasPositive = false;
+    for (int i = 0; i < rates.length; i++) {
+      double rate;
+      try {
+        rate = Double.parseDouble(rates[i].trim());
+      } catch (NumberFormatException e) {
+        LOGGER.error("Invalid rate in OPERATION_TARGET_RATE: {}", rates[i]);
+        return false;
+      }
+      if (rate < 0) {
+        LOGGER.error("Rate in OPERATION_TARGET_RATE can not be negative: {}", rates[i]);
+        return false;
+      }
+      hasPositive |= rate > 0;
+      proportion.append(i == 0 ? "" : ":").append(rate > 0 ? "1" : "0");
+    }
+    if (!hasPositive) {
+      LOGGER.error("OPERATION_TARGET_RATE needs at least one positive rate");
+      return false;
+    }
+    if (!config.getLOAD_PROFILE().trim().isEmpty() && Double.parseDouble(rates[0].trim()) <= 0) {
+      LOGGER.error("LOAD_PROFILE drives INGESTION, whose rate in OPERATION_TARGET_RATE is zero");
+      return false;
+    }
+    if (!config.getARRIVAL_MODE().isOpenLoop()) {
+      LOGGER.warn("OPERATION_TARGET_RATE needs an open loop ARRIVAL_MODE, use CONSTANT");
+      config.setARRIVAL_MODE(ArrivalMode.CONSTANT);
+    }
+    LOGGER.info("OPERATION_PROPORTION is replaced by OPERATION_TARGET_RATE: {}", proportion);
+    config.setOPERATION_PROPORTION(proportion.toString());
+    return true;
+  }
+
+  /** Check QUERY_CLIENT_NUMBER, which needs both ingestion and queries in OPERATION_PROPORTION */
+  private boolean checkQueryClient() {
+    if (config.getQUERY_CLIENT_NUMBER() < 0) {
+      LOGGER.error("QUERY_CLIENT_NUMBER can not be negative");
+      return false;
+    }
+    if (config.getQUERY_CLIENT_NUMBER() == 0) {
+      return true;
+    }
+    if (config.getBENCHMARK_WORK_MODE() != BenchmarkMode.TEST_WITH_DEFAULT_PATH
+        || config.isIS_POINT_COMPARISON()) {
+      LOGGER.warn("QUERY_CLIENT_NUMBER only works in TEST_WITH_DEFAULT_PATH, set it to 0");
+      config.setQUERY_CLIENT_NUMBER(0);
+      return true;
+    }
+    String[] proportions = config.getOPERATION_PROPORTION().split(":");
+    double queryProportion = 0;
+    for (int i = 1; i < proportions.length; i++) {
+      queryProportion += Double.parseDouble(proportions[i]);
+    }
+    if (Double.parseDouble(proportions[0]) <= 0 || queryProportion <= 0) {
+      LOGGER.error(
+          "QUERY_CLIENT_NUMBER needs both ingestion and queries in OPERATION_PROPORTION: {}",
+          config.getOPERATION_PROPORTION());
+      return false;
+    }
+    if (config.getQUERY_MAX_IN_FLIGHT_PER_CLIENT() < 1) {
+      LOGGER.error("QUERY_MAX_IN_FLIGHT_PER_CLIENT must be positive");
+      return false;
+    }
+    if (config.getQUERY_MAX_IN_FLIGHT_PER_CLIENT() > 1 && config.isIS_COMPARISON()) {
+      LOGGER.warn(
+          "Comparison needs the result of each query, set QUERY_MAX_IN_FLIGHT_PER_CLIENT=1");
+      config.setQUERY_MAX_IN_FLIGHT_PER_CLIENT(1);
+    }
+    return true;
+  }
+
   private void checkQuery() {
     if (config.isIS_DELETE_DATA()) {
       LOGGER.warn("Benchmark is doing query, no need to delete data.");
@@ -562,7 +943,7 @@ public class ConfigDescriptor {
    * @return
    */
   private boolean checkDatabaseVerification(DBConfig dbConfig) {
-    if (dbConfig.getDB_SWITCH() != DBSwitch.DB_TIMESCALE
+    if (dbConfig.getDB_SWITCH().getType() != DBType.TimescaleDB
         && dbConfig.getDB_SWITCH().getType() != DBType.IoTDB
         && dbConfig.getDB_SWITCH().getVersion() != DBVersion.IOTDB_012) {
       LOGGER.error("Verification only support between iotdb v0.12 and timescaledb");
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.AccessDistribution;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Generate items in [0, itemNumber) following an access distribution, smaller items are hotter */
+public class AccessGenerator {
+
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  private final AccessDistribution distribution;
+  private final long itemNumber;
+  /** Next item of SEQUENTIAL */
+  private final AtomicLong sequence = new AtomicLong();
+  /** The number of hot items of HOTSPOT */
+  private final long hotNumber;
+  /** Mean of LATEST */
+  private final double latestMean;
+  /** Constants of ZIPF, which is sampled by rejection-inversion of Hörmann and Derflinger */
+  private final double exponent;
+  private final double hIntegralX1;
+  private final double hIntegralItemNumber;
+  private final double s;
+
+  public AccessGenerator(AccessDistribution distribution, long itemNumber) {
+    this.distribution = distribution;
+    this.itemNumber = Math.max(1, itemNumber);
+    long hotNumber = Math.round(config.getHOTSPOT_FRACTION() * this.itemNumber);
+    this.hotNumber = Math.max(1, Math.min(this.itemNumber, hotNumber));
+    this.latestMean = Math.max(Double.MIN_NORMAL, config.getLATEST_MEAN_RATIO() * this.itemNumber);
+    this.exponent = config.getZIPF_SKEW();
+    this.hIntegralX1 = hIntegral(1.5) - 1;
+    this.hIntegralItemNumber = hIntegral(this.itemNumber + 0.5);
+    this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+  }
+
+  /** @return next item in [0, itemNumber) */
+  public long next(Random random) {
+    switch (distribution) {
+      case SEQUENTIAL:
+        return Math.floorMod(sequence.getAndIncrement(), itemNumber);
+      case ZIPF:
+        return nextZipf(random) - 1;
+      case HOTSPOT:
+        if (hotNumber == itemNumber || random.nextDouble() < config.getHOTSPOT_PROBABILITY()) {
+          return nextUniform(random, hotNumber);
+        }
+        return hotNumber + nextUniform(random, itemNumber - hotNumber);
+      case LATEST:
+        return (long) (-Math.log(1 - random.nextDouble()) * latestMean) % itemNumber;
+      case UNIFORM:
+      default:
+        return nextUniform(random, itemNumber);
+    }
+  }
+
+  private static long nextUniform(Random random, long number) {
+    return Math.min(number - 1, (long) (random.nextDouble() * number));
+  }
+
+  /** @return next item in [1, itemNumber] following zipf distribution */
+  private long nextZipf(Random random) {
+    while (true) {
+      double u = hIntegralItemNumber + random.nextDouble() * (hIntegralX1 - hIntegralItemNumber);
+      double x = hIntegralInverse(u);
+      long k = Math.max(1, Math.min(itemNumber, (long) (x + 0.5)));
+      if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+        return k;
+      }
+    }
+  }
+
+  /** Integral of h(x) = 1 / x^exponent */
+  private double hIntegral(double x) {
+    double logX = Math.log(x);
+    return helper2((1 - exponent) * logX) * logX;
+  }
+
+  private double h(double x) {
+    return Math.exp(-exponent * Math.log(x));
+  }
+
+  private double hIntegralInverse(double x) {
+    double t = x * (1 - exponent);
+    if (t < -1) {
+      t = -1;
+    }
+    return Math.exp(helper1(t) * x);
+  }
+
+  /** log(1 + x) / x */
+  private static double helper1(double x) {
+    if (Math.abs(x) > 1e-8) {
+      return Math.log1p(x) / x;
+    }
+    return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+  }
+
+  /** (exp(x) - 1) / x */
+  private static double helper2(double x) {
+    if (Math.abs(x) > 1e-8) {
+      return Math.expm1(x) / x;
+    }
+    return 1 + x * 0.5 * (1 + x * 1.0 / 3 * (1 + 0.25 * x));
+  }
+}
@@ -19,7 +19,9 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.distribution;
 
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 
 public class ProbTool {
 
@@ -32,4 +34,23 @@ public class ProbTool {
   public boolean returnTrueByProb(double p, Random random) {
     return random.nextDouble() < p;
   }
+
+  /**
+   * Choose k different numbers in [0, n) uniformly by Floyd's algorithm, which takes O(k) time
+   *
+   * @param n the upper bound of numbers, exclusive
+   * @param k the number of numbers, no more than n
+   * @return k different numbers
+   */
+  public int[] sample(int n, int k, Random random) {
+    int[] result = new int[k];
+    Set<Integer> chosen = new HashSet<>(k * 2);
+    for (int i = 0, j = n - k; j < n; i++, j++) {
+      int t = random.nextInt(j + 1);
+      // j has not been chosen, since all chosen numbers are less than j
+      result[i] = chosen.add(t) ? t : j;
+      chosen.add(result[i]);
+    }
+    return result;
+  }
 }
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution.enums;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Which items are accessed, e.g. devices or time ranges. Smaller items are hotter */
+public enum AccessDistribution {
+  /** Items one by one */
+  SEQUENTIAL,
+  /** Every item with the same probability */
+  UNIFORM,
+  /** Item i with probability proportional to 1 / (i + 1)^ZIPF_SKEW */
+  ZIPF,
+  /** The first HOTSPOT_FRACTION of items with probability HOTSPOT_PROBABILITY */
+  HOTSPOT,
+  /**
+   * Exponentially less often for larger items, whose mean is LATEST_MEAN_RATIO of items. For time
+   * ranges, the first item is the latest one
+   */
+  LATEST;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AccessDistribution.class);
+
+  public static AccessDistribution getAccessDistribution(String name) {
+    for (AccessDistribution accessDistribution : AccessDistribution.values()) {
+      if (accessDistribution.name().equalsIgnoreCase(name)) {
+        return accessDistribution;
+      }
+    }
+    LOGGER.warn("Unknown access distribution: " + name + ", use UNIFORM.");
+    return AccessDistribution.UNIFORM;
+  }
+
+  @Override
+  public String toString() {
+    return name();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution.enums;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+
+import java.util.Random;
+
+/**
+ * Independent random streams derived from DATA_SEED. Each stream is split by ids such as client id,
+ * device id or batch index with SplitMix64, so that every client, device or batch draws from its
+ * own stream and generated data does not depend on thread scheduling.
+ */
+public enum RandomStream {
+  /** Timestamp offset when IS_REGULAR_FREQUENCY=false */
+  TIMESTAMP,
+  /** Out-of-order decision and poisson delta */
+  OUT_OF_ORDER,
+  /** Values of TEXT sensors */
+  TEXT,
+  /** Values of random functions */
+  FUNCTION,
+  /** Whether to write a batch when IS_SENSOR_TS_ALIGNMENT=false */
+  TS_ALIGNMENT,
+  /** Device of next batch when WRITE_DEVICE_DISTRIBUTION is not SEQUENTIAL */
+  WRITE_DEVICE;
+
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+  private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+  /** @return seed of the stream split by id */
+  public long seed(long id) {
+    long streamSeed = mix64(config.getDATA_SEED() + (ordinal() + 1) * GOLDEN_GAMMA);
+    return mix64(streamSeed + (id + 1) * GOLDEN_GAMMA);
+  }
+
+  /** @return seed of the stream split by id1 and then by id2 */
+  public long seed(long id1, long id2) {
+    return mix64(seed(id1) + (id2 + 1) * GOLDEN_GAMMA);
+  }
+
+  /** @return a new random of the stream split by id */
+  public Random newRandom(long id) {
+    return new Random(seed(id));
+  }
+
+  /** Reset random to the start of the stream split by id1 and id2 */
+  public void reset(Random random, long id1, long id2) {
+    random.setSeed(seed(id1, id2));
+  }
+
+  /** @return a double in [0, 1) which only depends on id, without any shared state */
+  public double nextDouble(long id) {
+    return (mix64(seed(id)) >>> 11) * DOUBLE_UNIT;
+  }
+
+  /** @return a double in [0, 1) which only depends on id1 and id2, without any shared state */
+  public double nextDouble(long id1, long id2) {
+    return (mix64(seed(id1, id2)) >>> 11) * DOUBLE_UNIT;
+  }
+
+  /** Finalizer of SplitMix64 */
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
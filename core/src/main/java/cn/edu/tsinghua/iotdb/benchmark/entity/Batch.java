@@ -19,6 +19,7 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.entity;
 
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.utils.ReadWriteIOUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -27,37 +28,337 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * Data of one device. Generated batches are stored column by column: timestamps in a long[] and
+ * the values of each sensor in a primitive array (boolean[], int[], long[], float[], double[] or
+ * String[] for TEXT) together with a null bitmap. Batches built from records (real data sources)
+ * keep their rows and are converted to columns on demand, and {@link #getRecords()} provides a row
+ * view of columnar batches for databases inserting row by row.
+ */
 public class Batch {
 
+  private static final int DEFAULT_CAPACITY = 16;
+
   private DeviceSchema deviceSchema;
-  private List<Record> records;
   private int colIndex = -1;
 
+  /** timestamps of rows, only the first rowSize elements are valid */
+  private long[] timestamps;
+  /** values of each sensor of deviceSchema, one primitive array per sensor */
+  private Object[] columns;
+  /** types of columns */
+  private SensorType[] columnTypes;
+  /** null bitmap of each column, allocated when the first null value of the column is set */
+  private BitSet[] nullBitmaps;
+
+  private int rowSize = 0;
+  private int capacity;
+  /**
+   * true if data are stored in columns, false if data are stored in records and columns are only a
+   * cache of them
+   */
+  private boolean columnar;
+  /** rows of batches built from records, or the row view of columnar batches */
+  private List<Record> records;
+
+  /** pool the batch is released to, null if the batch is not recycled */
+  private final BatchPool pool;
+  /** whether the batch is released and waiting in pool */
+  private boolean released = false;
+
   public Batch() {
-    records = new LinkedList<>();
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * create a columnar batch
+   *
+   * @param capacity expected number of rows, columns grow when more rows are added
+   */
+  public Batch(int capacity) {
+    this(capacity, null);
+  }
+
+  Batch(int capacity, BatchPool pool) {
+    this.capacity = Math.max(1, capacity);
+    this.columnar = true;
+    this.pool = pool;
   }
 
   public Batch(DeviceSchema deviceSchema, List<Record> records) {
     this.deviceSchema = deviceSchema;
     this.records = records;
+    this.columnar = false;
+    this.pool = null;
+  }
+
+  /** clear rows of a recycled batch, columns are kept if the sensor types are not changed */
+  void reset(DeviceSchema deviceSchema, int colIndex) {
+    if (columns != null && !hasSameColumnTypes(deviceSchema)) {
+      columns = null;
+    }
+    if (columns != null) {
+      for (BitSet nullBitmap : nullBitmaps) {
+        if (nullBitmap != null) {
+          nullBitmap.clear();
+        }
+      }
+    }
+    this.deviceSchema = deviceSchema;
+    this.colIndex = colIndex;
+    this.rowSize = 0;
+    this.records = null;
+    this.released = false;
+  }
+
+  private boolean hasSameColumnTypes(DeviceSchema deviceSchema) {
+    if (deviceSchema == this.deviceSchema) {
+      return true;
+    }
+    if (deviceSchema.getSensorNum() != columnTypes.length) {
+      return false;
+    }
+    for (int column = 0; column < columnTypes.length; column++) {
+      if (deviceSchema.getSensor(column).getSensorType() != columnTypes[column]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Give the batch back to the pool it is acquired from when it is not used any more. It does
+   * nothing if the batch is not from a pool.
+   */
+  public void release() {
+    if (pool == null) {
+      return;
+    }
+    synchronized (this) {
+      if (released) {
+        return;
+      }
+      released = true;
+    }
+    pool.release(this);
   }
 
   public void add(long timestamp, List<Object> values) {
-    records.add(new Record(timestamp, values));
+    if (!columnar) {
+      records.add(new Record(timestamp, values));
+      columns = null;
+      return;
+    }
+    int row = addRow(timestamp);
+    for (int column = 0; column < values.size(); column++) {
+      setValue(column, row, values.get(column));
+    }
   }
 
   /**
-   * use the row protocol which means data are organized in List[timestamp, List[value]]
+   * append a row to a columnar batch, values of the row are set by {@link #setValue}
    *
-   * @return data point number in this batch
+   * @return index of the new row
    */
+  public int addRow(long timestamp) {
+    if (!columnar) {
+      throw new IllegalStateException("Rows of batch built from records are added by add()");
+    }
+    if (columns == null) {
+      initColumns(capacity);
+    } else if (rowSize == timestamps.length) {
+      grow(rowSize * 2);
+    }
+    timestamps[rowSize] = timestamp;
+    records = null;
+    return rowSize++;
+  }
+
+  /** set the value of a sensor in a row of a columnar batch, null values are marked in bitmap */
+  public void setValue(int column, int row, Object value) {
+    if (value == null) {
+      if (nullBitmaps[column] == null) {
+        nullBitmaps[column] = new BitSet();
+      }
+      nullBitmaps[column].set(row);
+      if (columnar) {
+        records = null;
+      }
+      return;
+    }
+    if (nullBitmaps[column] != null) {
+      nullBitmaps[column].clear(row);
+    }
+    switch (columnTypes[column]) {
+      case BOOLEAN:
+        ((boolean[]) columns[column])[row] = (Boolean) value;
+        break;
+      case INT32:
+        ((int[]) columns[column])[row] = ((Number) value).intValue();
+        break;
+      case INT64:
+        ((long[]) columns[column])[row] = ((Number) value).longValue();
+        break;
+      case FLOAT:
+        ((float[]) columns[column])[row] = ((Number) value).floatValue();
+        break;
+      case DOUBLE:
+        ((double[]) columns[column])[row] = ((Number) value).doubleValue();
+        break;
+      case TEXT:
+      default:
+        ((String[]) columns[column])[row] = String.valueOf(value);
+        break;
+    }
+    if (columnar) {
+      records = null;
+    }
+  }
+
+  /**
+   * Set value of column in row without boxing
+   *
+   * @param source array of the same type as the column, e.g. double[] for DOUBLE
+   * @param index index of value in source
+   */
+  public void copyValue(int column, int row, Object source, int index) {
+    if (nullBitmaps[column] != null) {
+      nullBitmaps[column].clear(row);
+    }
+    switch (columnTypes[column]) {
+      case BOOLEAN:
+        ((boolean[]) columns[column])[row] = ((boolean[]) source)[index];
+        break;
+      case INT32:
+        ((int[]) columns[column])[row] = ((int[]) source)[index];
+        break;
+      case INT64:
+        ((long[]) columns[column])[row] = ((long[]) source)[index];
+        break;
+      case FLOAT:
+        ((float[]) columns[column])[row] = ((float[]) source)[index];
+        break;
+      case DOUBLE:
+        ((double[]) columns[column])[row] = ((double[]) source)[index];
+        break;
+      case TEXT:
+      default:
+        ((String[]) columns[column])[row] = ((String[]) source)[index];
+        break;
+    }
+    if (columnar) {
+      records = null;
+    }
+  }
+
+  private void initColumns(int size) {
+    if (deviceSchema == null) {
+      throw new IllegalStateException("Device schema must be set before adding rows");
+    }
+    int sensorNum = deviceSchema.getSensorNum();
+    timestamps = new long[size];
+    columns = new Object[sensorNum];
+    columnTypes = new SensorType[sensorNum];
+    nullBitmaps = new BitSet[sensorNum];
+    for (int column = 0; column < sensorNum; column++) {
+      SensorType type = deviceSchema.getSensor(column).getSensorType();
+      columnTypes[column] = type;
+      switch (type) {
+        case BOOLEAN:
+          columns[column] = new boolean[size];
+          break;
+        case INT32:
+          columns[column] = new int[size];
+          break;
+        case INT64:
+          columns[column] = new long[size];
+          break;
+        case FLOAT:
+          columns[column] = new float[size];
+          break;
+        case DOUBLE:
+          columns[column] = new double[size];
+          break;
+        case TEXT:
+        default:
+          columns[column] = new String[size];
+          break;
+      }
+    }
+  }
+
+  private void grow(int newCapacity) {
+    timestamps = Arrays.copyOf(timestamps, newCapacity);
+    for (int column = 0; column < columns.length; column++) {
+      switch (columnTypes[column]) {
+        case BOOLEAN:
+          columns[column] = Arrays.copyOf((boolean[]) columns[column], newCapacity);
+          break;
+        case INT32:
+          columns[column] = Arrays.copyOf((int[]) columns[column], newCapacity);
+          break;
+        case INT64:
+          columns[column] = Arrays.copyOf((long[]) columns[column], newCapacity);
+          break;
+        case FLOAT:
+          columns[column] = Arrays.copyOf((float[]) columns[column], newCapacity);
+          break;
+        case DOUBLE:
+          columns[column] = Arrays.copyOf((double[]) columns[column], newCapacity);
+          break;
+        case TEXT:
+        default:
+          columns[column] = Arrays.copyOf((String[]) columns[column], newCapacity);
+          break;
+      }
+    }
+    capacity = newCapacity;
+  }
+
+  /** build the column cache of a batch built from records */
+  private void ensureColumns() {
+    if (columnar || columns != null) {
+      return;
+    }
+    initColumns(Math.max(1, records.size()));
+    rowSize = 0;
+    for (Record record : records) {
+      timestamps[rowSize] = record.getTimestamp();
+      List<Object> values = record.getRecordDataValue();
+      for (int column = 0; column < values.size(); column++) {
+        setValue(column, rowSize, values.get(column));
+      }
+      rowSize++;
+    }
+  }
+
+  /** @return number of non-null data points in this batch */
   public int pointNum() {
+    if (columnar) {
+      if (columns == null) {
+        return 0;
+      }
+      int pointNum = rowSize * columns.length;
+      for (BitSet nullBitmap : nullBitmaps) {
+        if (nullBitmap != null) {
+          pointNum -= nullBitmap.cardinality();
+        }
+      }
+      return pointNum;
+    }
     int pointNum = 0;
     for (Record record : records) {
-      pointNum += record.size();
+      for (Object value : record.getRecordDataValue()) {
+        if (value != null) {
+          pointNum++;
+        }
+      }
     }
     return pointNum;
   }
@@ -69,8 +370,9 @@ public class Batch {
    */
   public void serialize(ByteArrayOutputStream outputStream) throws IOException {
     deviceSchema.serialize(outputStream);
-    ReadWriteIOUtils.write(records.size(), outputStream);
-    for (Record record : records) {
+    List<Record> rows = getRecords();
+    ReadWriteIOUtils.write(rows.size(), outputStream);
+    for (Record record : rows) {
       record.serialize(outputStream);
     }
   }
@@ -107,7 +409,85 @@ public class Batch {
     return colIndex;
   }
 
+  /** @return number of rows */
+  public int getRowSize() {
+    return columnar ? rowSize : records.size();
+  }
+
+  /** @return number of columns, which is the number of sensors in device schema */
+  public int getColumnNum() {
+    ensureColumns();
+    return columns == null ? 0 : columns.length;
+  }
+
+  /** @return timestamps of rows, only the first {@link #getRowSize()} elements are valid */
+  public long[] getTimestamps() {
+    ensureColumns();
+    return timestamps == null ? new long[0] : timestamps;
+  }
+
+  /**
+   * get values of a sensor, only the first {@link #getRowSize()} elements are valid
+   *
+   * @return boolean[], int[], long[], float[], double[] or String[] according to sensor type
+   */
+  public Object getColumn(int column) {
+    ensureColumns();
+    return columns[column];
+  }
+
+  /** @return true if the value of the sensor in the row is null */
+  public boolean isNull(int column, int row) {
+    ensureColumns();
+    return nullBitmaps[column] != null && nullBitmaps[column].get(row);
+  }
+
+  /** @return true if any value of the sensor is null */
+  public boolean hasNull(int column) {
+    ensureColumns();
+    return nullBitmaps[column] != null && !nullBitmaps[column].isEmpty();
+  }
+
+  /** @return boxed value of the sensor in the row, null if the value is null */
+  public Object getValue(int column, int row) {
+    ensureColumns();
+    if (isNull(column, row)) {
+      return null;
+    }
+    switch (columnTypes[column]) {
+      case BOOLEAN:
+        return ((boolean[]) columns[column])[row];
+      case INT32:
+        return ((int[]) columns[column])[row];
+      case INT64:
+        return ((long[]) columns[column])[row];
+      case FLOAT:
+        return ((float[]) columns[column])[row];
+      case DOUBLE:
+        return ((double[]) columns[column])[row];
+      case TEXT:
+      default:
+        return ((String[]) columns[column])[row];
+    }
+  }
+
+  /**
+   * get data as rows. For columnar batches the rows are built on the first call and reused until
+   * the batch is changed.
+   */
   public List<Record> getRecords() {
+    if (records == null) {
+      int columnNum = columns == null ? 0 : columns.length;
+      List<Record> rows = new ArrayList<>(rowSize);
+      for (int row = 0; row < rowSize; row++) {
+        List<Object> values = new ArrayList<>(columnNum);
+        for (int column = 0; column < columnNum; column++) {
+          values.add(getValue(column, row));
+        }
+        rows.add(new Record(timestamps[row], values));
+      }
+      records = rows;
+    }
     return records;
   }
 
@@ -125,17 +505,17 @@ public class Batch {
 
     return new EqualsBuilder()
         .append(deviceSchema, batch.deviceSchema)
-        .append(records, batch.records)
+        .append(getRecords(), batch.getRecords())
         .isEquals();
   }
 
   @Override
   public String toString() {
-    return "Batch{" + "deviceSchema=" + deviceSchema + ", records=" + records + '}';
+    return "Batch{" + "deviceSchema=" + deviceSchema + ", records=" + getRecords() + '}';
   }
 
   @Override
   public int hashCode() {
-    return new HashCodeBuilder(17, 37).append(deviceSchema).append(records).toHashCode();
+    return new HashCodeBuilder(17, 37).append(deviceSchema).append(getRecords()).toHashCode();
   }
 }
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.entity;
+
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of reusable batches. A batch is acquired empty, filled by workload and released back by
+ * {@link Batch#release()} once it is inserted, so that its columns are refilled in place.
+ */
+public class BatchPool {
+
+  private final BlockingQueue<Batch> freeBatches;
+  /** Expected number of rows of each batch */
+  private final int batchCapacity;
+
+  /**
+   * @param poolSize max number of free batches kept, more released batches are discarded
+   * @param batchCapacity expected number of rows of each batch
+   */
+  public BatchPool(int poolSize, int batchCapacity) {
+    this.freeBatches = new ArrayBlockingQueue<>(poolSize);
+    this.batchCapacity = batchCapacity;
+  }
+
+  /** Get an empty batch of the device, a new batch is created if there is no free one */
+  public Batch acquire(DeviceSchema deviceSchema, int colIndex) {
+    Batch batch = freeBatches.poll();
+    if (batch == null) {
+      batch = new Batch(batchCapacity, this);
+    }
+    batch.reset(deviceSchema, colIndex);
+    return batch;
+  }
+
+  void release(Batch batch) {
+    freeBatches.offer(batch);
+  }
+}
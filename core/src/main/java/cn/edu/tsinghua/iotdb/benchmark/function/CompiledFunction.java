@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.function;
+
+import cn.edu.tsinghua.iotdb.benchmark.function.enums.FunctionType;
+
+import java.util.Random;
+
+/**
+ * Function with its type parsed and constants precomputed, which is cached by FunctionParam.
+ *
+ * <p>WALK, QUANTIZED and COUNTER functions get more random as entropy of the function grows from 0
+ * to 1:
+ *
+ * <ul>
+ *   <li>WALK: random walk from the middle of [min, max], whose steps are normally distributed with
+ *       standard deviation entropy * (max - min) / 10, and reflected at min and max
+ *   <li>QUANTIZED: sin function with normally distributed noise of standard deviation
+ *       entropy * (max - min) / 20, quantized to 2^(1 + 15 * entropy) levels
+ *   <li>COUNTER: counter from min which is reset to min after exceeding max, and increases by
+ *       (max - min) / cycle on average in each point with jitter of entropy times of it
+ * </ul>
+ *
+ * <p>WALK and COUNTER are stateful, i.e. each value is one step from the previous value of the
+ * series. getValue and fill without previous value continue one series shared by the function,
+ * while series of different devices and sensors pass their own previous value.
+ */
+final class CompiledFunction {
+
+  private enum Shape {
+    SIN,
+    SQUARE,
+    MONO,
+    RANDOM,
+    WALK,
+    QUANTIZED,
+    COUNTER
+  }
+
+  private enum Cast {
+    FLOAT,
+    DOUBLE,
+    INT
+  }
+
+  private final Shape shape;
+  private final Cast cast;
+  private final double max;
+  private final double min;
+  private final double cycle;
+  /** angular frequency of sin function */
+  private final double w;
+  /** amplitude of sin function */
+  private final double a;
+  /** offset of sin function */
+  private final double b;
+  /** slope of monotonic function */
+  private final double k;
+  /** cycle of sin function, in ms */
+  private final double sinCycle;
+  /** half cycle of square function */
+  private final double halfCycle;
+  /** entropy of function, in [0, 1] */
+  private final double entropy;
+  /** standard deviation of steps of walk function and noise of quantized function */
+  private final double deviation;
+  /** distance between adjacent levels of quantized function */
+  private final double quantum;
+  /** last value of the series shared by callers without their own state, NaN before the first */
+  private double last = Double.NaN;
+
+  CompiledFunction(FunctionParam param) {
+    FunctionType functionType = FunctionType.valueOf(param.getFunctionType().toUpperCase());
+    String name = functionType.name();
+    this.cast = Cast.valueOf(name.substring(0, name.indexOf('_')));
+    switch (functionType) {
+      case FLOAT_SIN:
+      case DOUBLE_SIN:
+      case INT_SIN:
+        this.shape = Shape.SIN;
+        break;
+      case FLOAT_SQUARE:
+      case DOUBLE_SQUARE:
+      case INT_SQUARE:
+        this.shape = Shape.SQUARE;
+        break;
+      case FLOAT_MONO:
+      case FLOAT_MONO_K:
+      case DOUBLE_MONO:
+      case DOUBLE_MONO_K:
+      case INT_MONO:
+      case INT_MONO_K:
+        this.shape = Shape.MONO;
+        break;
+      case FLOAT_RANDOM:
+      case DOUBLE_RANDOM:
+      case INT_RANDOM:
+        this.shape = Shape.RANDOM;
+        break;
+      case FLOAT_WALK:
+      case DOUBLE_WALK:
+      case INT_WALK:
+        this.shape = Shape.WALK;
+        break;
+      case FLOAT_QUANTIZED:
+      case DOUBLE_QUANTIZED:
+      case INT_QUANTIZED:
+        this.shape = Shape.QUANTIZED;
+        break;
+      case FLOAT_COUNTER:
+      case DOUBLE_COUNTER:
+      case INT_COUNTER:
+        this.shape = Shape.COUNTER;
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported function type: " + functionType);
+    }
+    this.max = param.getMax();
+    this.min = param.getMin();
+    this.cycle = param.getCycle();
+    this.w = 2 * Math.PI / (cycle * 1000);
+    this.a = (max - min) / 2;
+    this.b = (max - min) / 2;
+    this.k = (max - min) / cycle;
+    this.sinCycle = cycle * 1000;
+    this.halfCycle = cycle / 2;
+    this.entropy = param.getEntropy();
+    this.deviation = entropy * (max - min) / (shape == Shape.WALK ? 10 : 20);
+    this.quantum = (max - min) / ((1L << (1 + Math.round(15 * entropy))) - 1);
+  }
+
+  /** Whether values depend on the previous value of the series, i.e. WALK and COUNTER */
+  boolean isStateful() {
+    return shape == Shape.WALK || shape == Shape.COUNTER;
+  }
+
+  /** Get value of function at currentTime, boxed according to function type */
+  Number getValue(long currentTime, Random random) {
+    if (!isStateful()) {
+      return box(getRawValue(currentTime, random, Double.NaN));
+    }
+    synchronized (this) {
+      last = getRawValue(currentTime, random, last);
+      return box(last);
+    }
+  }
+
+  /** Fill out[i] with value of function at timestamps[i] */
+  void fill(long[] timestamps, double[] out, Random random) {
+    if (!isStateful()) {
+      fill(timestamps, out, random, Double.NaN);
+      return;
+    }
+    synchronized (this) {
+      last = fill(timestamps, out, random, last);
+    }
+  }
+
+  /**
+   * Fill out[i] with value of function at timestamps[i], which continues the series from previous
+   *
+   * @param previous last raw value of the series, NaN to start a new series
+   * @return last raw value of the series, which is passed to the next call to continue the series
+   */
+  double fill(long[] timestamps, double[] out, Random random, double previous) {
+    int length = timestamps.length;
+    switch (shape) {
+      case SIN:
+        for (int i = 0; i < length; i++) {
+          out[i] = Math.sin(w * (timestamps[i] % sinCycle)) * a + b + min;
+        }
+        break;
+      case SQUARE:
+        for (int i = 0; i < length; i++) {
+          out[i] = (timestamps[i] % cycle) < halfCycle ? max : min;
+        }
+        break;
+      case MONO:
+        for (int i = 0; i < length; i++) {
+          out[i] = min + k * (timestamps[i] % cycle);
+        }
+        break;
+      case WALK:
+      case COUNTER:
+        for (int i = 0; i < length; i++) {
+          previous = getRawValue(timestamps[i], random, previous);
+          out[i] = previous;
+        }
+        break;
+      case QUANTIZED:
+        for (int i = 0; i < length; i++) {
+          out[i] = getQuantizedValue(timestamps[i], random);
+        }
+        break;
+      case RANDOM:
+      default:
+        for (int i = 0; i < length; i++) {
+          out[i] = random.nextDouble() * (max - min) + min;
+        }
+        break;
+    }
+    switch (cast) {
+      case FLOAT:
+        for (int i = 0; i < length; i++) {
+          out[i] = (float) out[i];
+        }
+        break;
+      case INT:
+        for (int i = 0; i < length; i++) {
+          out[i] = (int) out[i];
+        }
+        break;
+      case DOUBLE:
+      default:
+        break;
+    }
+    return previous;
+  }
+
+  /**
+   * Get raw value of function at currentTime, which is not cast as function type
+   *
+   * @param previous last raw value of the series for stateful functions, NaN to start a new series
+   */
+  double getRawValue(long currentTime, Random random, double previous) {
+    switch (shape) {
+      case SIN:
+        return Math.sin(w * (currentTime % sinCycle)) * a + b + min;
+      case SQUARE:
+        return (currentTime % cycle) < halfCycle ? max : min;
+      case MONO:
+        return min + k * (currentTime % cycle);
+      case WALK:
+        if (Double.isNaN(previous)) {
+          return (max + min) / 2;
+        }
+        return reflect(previous + random.nextGaussian() * deviation);
+      case QUANTIZED:
+        return getQuantizedValue(currentTime, random);
+      case COUNTER:
+        if (Double.isNaN(previous)) {
+          return min;
+        }
+        double count = previous + k * (1 + entropy * (2 * random.nextDouble() - 1));
+        return count > max ? min : count;
+      case RANDOM:
+      default:
+        return random.nextDouble() * (max - min) + min;
+    }
+  }
+
+  /** Box raw value according to function type */
+  Number box(double value) {
+    switch (cast) {
+      case FLOAT:
+        return (float) value;
+      case INT:
+        return (int) value;
+      case DOUBLE:
+      default:
+        return value;
+    }
+  }
+
+  private double getQuantizedValue(long currentTime, Random random) {
+    double value = Math.sin(w * (currentTime % sinCycle)) * a + b + min;
+    value = reflect(value + random.nextGaussian() * deviation);
+    return quantum > 0 ? min + Math.round((value - min) / quantum) * quantum : value;
+  }
+
+  /** Reflect value into [min, max] */
+  private double reflect(double value) {
+    if (max <= min) {
+      return min;
+    }
+    double range = max - min;
+    double offset = (value - min) % (2 * range);
+    if (offset < 0) {
+      offset += 2 * range;
+    }
+    return min + (offset > range ? 2 * range - offset : offset);
+  }
+}
@@ -22,6 +22,9 @@ package cn.edu.tsinghua.iotdb.benchmark.function;
 import javax.xml.bind.annotation.XmlAttribute;
 
 public class FunctionParam {
+  /** Entropy of functions which do not set it */
+  public static final double DEFAULT_ENTROPY = 0.5;
+
   /** Id of function */
   private String id;
   /**
@@ -36,6 +39,13 @@ public class FunctionParam {
   private double min;
   /** Cycle of function For *-k function, only be used to calculate k */
   private long cycle;
+  /**
+   * Entropy of walk, quantized and counter functions, between 0 (most compressible) and 1 (most
+   * random)
+   */
+  private double entropy = DEFAULT_ENTROPY;
+  /** Parsed function, created on first use and dropped when any parameter changes */
+  private volatile CompiledFunction compiled;
 
   @XmlAttribute(name = "function-sensorType")
   public String getFunctionType() {
@@ -44,6 +54,7 @@ public class FunctionParam {
 
   public void setFunctionType(String functionType) {
     this.functionType = functionType;
+    compiled = null;
   }
 
   @XmlAttribute(name = "max")
@@ -53,6 +64,7 @@ public class FunctionParam {
 
   public void setMax(double max) {
     this.max = max;
+    compiled = null;
   }
 
   @XmlAttribute(name = "min")
@@ -62,6 +74,7 @@ public class FunctionParam {
 
   public void setMin(double min) {
     this.min = min;
+    compiled = null;
   }
 
   @XmlAttribute(name = "cycle")
@@ -71,6 +84,17 @@ public class FunctionParam {
 
   public void setCycle(long cycle) {
     this.cycle = cycle;
+    compiled = null;
+  }
+
+  @XmlAttribute(name = "entropy")
+  public double getEntropy() {
+    return entropy;
+  }
+
+  public void setEntropy(double entropy) {
+    this.entropy = entropy;
+    compiled = null;
   }
 
   public FunctionParam(String functionType, double max, double min, long cycle) {
@@ -85,6 +109,16 @@ public class FunctionParam {
     super();
   }
 
+  /** Get parsed function with precomputed constants */
+  CompiledFunction compile() {
+    CompiledFunction function = compiled;
+    if (function == null) {
+      function = new CompiledFunction(this);
+      compiled = function;
+    }
+    return function;
+  }
+
   @XmlAttribute(name = "id")
   public String getId() {
     return id;
@@ -106,6 +140,8 @@ public class FunctionParam {
         + min
         + ", cycle="
         + cycle
+        + ", entropy="
+        + entropy
         + "]";
   }
 
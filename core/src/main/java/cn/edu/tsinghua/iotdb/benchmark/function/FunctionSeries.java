@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.function;
+
+import java.util.Random;
+
+/**
+ * One series of a function, e.g. the values of one sensor of one device, which keeps the last
+ * value of stateful functions (walk and counter), so that values continue across calls of getValue
+ * and fill. Not thread-safe.
+ */
+public final class FunctionSeries {
+
+  private final CompiledFunction function;
+  private final Random random;
+  /** last raw value of the series, NaN before the first value */
+  private double last = Double.NaN;
+
+  /** Series of function, whose random functions draw from random */
+  public FunctionSeries(FunctionParam param, Random random) {
+    this.function = param.compile();
+    this.random = random;
+  }
+
+  /** Whether values depend on the previous value of the series, i.e. walk and counter functions */
+  public boolean isStateful() {
+    return function.isStateful();
+  }
+
+  /** Get next value of the series at currentTime, boxed according to function type */
+  public Number getValue(long currentTime) {
+    last = function.getRawValue(currentTime, random, last);
+    return function.box(last);
+  }
+
+  /**
+   * Fill out with next values of the series at timestamps, which is the same as calling getValue
+   * for each timestamp in order
+   */
+  public void fill(long[] timestamps, double[] out) {
+    last = function.fill(timestamps, out, random, last);
+  }
+
+  /** @return last raw value of the series, NaN before the first value */
+  public double getLast() {
+    return last;
+  }
+
+  /** Continue the series from last raw value, NaN to start a new series */
+  public void setLast(double last) {
+    this.last = last;
+  }
+}
@@ -35,4 +35,13 @@ public enum FunctionType {
   INT_RANDOM,
   INT_SQUARE,
   INT_MONO_K,
+  FLOAT_WALK,
+  DOUBLE_WALK,
+  INT_WALK,
+  FLOAT_QUANTIZED,
+  DOUBLE_QUANTIZED,
+  INT_QUANTIZED,
+  FLOAT_COUNTER,
+  DOUBLE_COUNTER,
+  INT_COUNTER,
 }
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBFactory;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.IDatabase;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.PreciseQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measure how long after an insertion returns its points become visible to queries. At most one
+ * successful insertion per FRESHNESS_PROBE_INTERVAL is tagged for each database, and a separate
+ * reader polls the last point of the tagged batch by precise query until it is returned, or gives
+ * up after FRESHNESS_PROBE_TIMEOUT. The lag of each database is recorded in a histogram.
+ */
+public class FreshnessProbe {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FreshnessProbe.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  private static final long NANO_PER_MILLIS = 1000000L;
+  private static final double NANO_TO_MILLIS = 1000000.0d;
+  private static final String DATABASE_ITEM = "%-40s";
+  private static final String VALUE_ITEM = "%-16s";
+  private static final String[] HEADERS = {
+    "Database", "tagged", "visible", "timeout", "AVG", "P50", "P90", "P99", "MAX"
+  };
+
+  private final Queue<Marker> taggedMarkers = new ConcurrentLinkedQueue<>();
+  private final List<DBConfig> dbConfigs = new ArrayList<>();
+  private final List<IDatabase> databases = new ArrayList<>();
+  /** Next time to tag an insertion of each database, unit: ns */
+  private AtomicLongArray nextTagTimes;
+
+  private LatencyHistogram[] lagHistograms;
+  private long[] taggedNum;
+  private long[] timeoutNum;
+  private volatile boolean running = false;
+  private Thread reader;
+
+  private FreshnessProbe() {}
+
+  /** @return whether FRESHNESS_PROBE_INTERVAL is set */
+  public static boolean isEnabled() {
+    return config.getFRESHNESS_PROBE_INTERVAL() > 0;
+  }
+
+  /** Connect to databases and start to poll tagged insertions */
+  public synchronized void start() {
+    if (!isEnabled() || running) {
+      return;
+    }
+    dbConfigs.clear();
+    dbConfigs.add(config.getDbConfig());
+    if (config.isIS_DOUBLE_WRITE()) {
+      dbConfigs.add(config.getANOTHER_DBConfig());
+    }
+    DBFactory dbFactory = new DBFactory();
+    try {
+      for (DBConfig dbConfig : dbConfigs) {
+        IDatabase database = dbFactory.getDatabase(dbConfig);
+        database.init();
+        databases.add(database);
+      }
+    } catch (Exception e) {
+      LOGGER.error("Failed to connect to database, freshness probe is disabled because ", e);
+      closeDatabases();
+      return;
+    }
+    int databaseNum = databases.size();
+    nextTagTimes = new AtomicLongArray(databaseNum);
+    lagHistograms = new LatencyHistogram[databaseNum];
+    taggedNum = new long[databaseNum];
+    timeoutNum = new long[databaseNum];
+    for (int i = 0; i < databaseNum; i++) {
+      lagHistograms[i] = new LatencyHistogram();
+    }
+    running = true;
+    reader = new Thread(this::poll, "freshness-probe");
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  /** Stop polling, markers which are not visible yet are neither visible nor timeout */
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    try {
+      reader.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    reader = null;
+    closeDatabases();
+  }
+
+  private void closeDatabases() {
+    for (IDatabase database : databases) {
+      try {
+        database.close();
+      } catch (TsdbException e) {
+        LOGGER.error("Failed to close database of freshness probe because ", e);
+      }
+    }
+    databases.clear();
+  }
+
+  /**
+   * Tag the successful insertion of batch if it is time to, called by clients before the batch is
+   * released
+   *
+   * @param databaseIndex index of database in DBWrapper
+   */
+  public void tag(int databaseIndex, Batch batch) {
+    if (!running || TestPhaseController.getInstance().isWarmingUp()) {
+      return;
+    }
+    long now = System.nanoTime();
+    long nextTagTime = nextTagTimes.get(databaseIndex);
+    if (now < nextTagTime
+        || !nextTagTimes.compareAndSet(
+            databaseIndex,
+            nextTagTime,
+            now + config.getFRESHNESS_PROBE_INTERVAL() * NANO_PER_MILLIS)) {
+      return;
+    }
+    long[] timestamps = batch.getTimestamps();
+    int rowSize = batch.getRowSize();
+    if (rowSize == 0) {
+      return;
+    }
+    taggedMarkers.offer(
+        new Marker(databaseIndex, batch.getDeviceSchema(), timestamps[rowSize - 1], now));
+  }
+
+  /** Poll pending markers until they are visible or timeout, run by the reader thread */
+  private void poll() {
+    List<Marker> pendingMarkers = new ArrayList<>();
+    long timeout = config.getFRESHNESS_PROBE_TIMEOUT() * NANO_PER_MILLIS;
+    while (running) {
+      Marker marker;
+      while ((marker = taggedMarkers.poll()) != null) {
+        taggedNum[marker.databaseIndex]++;
+        pendingMarkers.add(marker);
+      }
+      Iterator<Marker> iterator = pendingMarkers.iterator();
+      while (iterator.hasNext()) {
+        marker = iterator.next();
+        long start = System.nanoTime();
+        if (isVisible(marker)) {
+          // the point is visible to queries issued at start
+          lagHistograms[marker.databaseIndex].record((start - marker.ackTime) / NANO_TO_MILLIS);
+          iterator.remove();
+        } else if (System.nanoTime() - marker.ackTime > timeout) {
+          timeoutNum[marker.databaseIndex]++;
+          iterator.remove();
+        }
+      }
+      try {
+        TimeUnit.MILLISECONDS.sleep(config.getFRESHNESS_PROBE_POLL_INTERVAL());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+  }
+
+  private boolean isVisible(Marker marker) {
+    try {
+      Status status = databases.get(marker.databaseIndex).preciseQuery(marker.query);
+      return status != null && status.isOk() && status.getQueryResultPointNum() > 0;
+    } catch (Exception e) {
+      LOGGER.warn("Freshness probe query failed because ", e);
+      return false;
+    }
+  }
+
+  /** Show lag of each database and record according to TEST_DATA_PERSISTENCE */
+  public void show(TestDataPersistence recorder) {
+    if (lagHistograms == null) {
+      return;
+    }
+    System.out.println(
+        "------------------------------------------------Freshness (time to visibility in ms) Matrix------------------------------------------------");
+    System.out.printf(DATABASE_ITEM, HEADERS[0]);
+    for (int i = 1; i < HEADERS.length; i++) {
+      System.out.printf(VALUE_ITEM, HEADERS[i]);
+    }
+    System.out.println();
+    for (int databaseIndex = 0; databaseIndex < lagHistograms.length; databaseIndex++) {
+      LatencyHistogram lag = lagHistograms[databaseIndex];
+      String[] row = {
+        dbConfigs.get(databaseIndex).getDB_SWITCH().toString(),
+        String.valueOf(taggedNum[databaseIndex]),
+        String.valueOf(lag.getTotalCount()),
+        String.valueOf(timeoutNum[databaseIndex]),
+        String.format("%.2f", lag.getTotalCount() == 0 ? 0 : lag.getMean()),
+        String.format("%.2f", lag.quantile(0.5)),
+        String.format("%.2f", lag.quantile(0.9)),
+        String.format("%.2f", lag.quantile(0.99)),
+        String.format("%.2f", lag.quantile(1.0))
+      };
+      System.out.printf(DATABASE_ITEM, row[0]);
+      for (int i = 1; i < row.length; i++) {
+        System.out.printf(VALUE_ITEM, row[i]);
+        recorder.saveResultAsync("FRESHNESS_" + (databaseIndex + 1), HEADERS[i], row[i]);
+      }
+      System.out.println();
+    }
+    System.out.println(
+        "-------------------------------------------------------------------------------------------------------------------------------------------");
+  }
+
+  /** A tagged insertion, which is visible once its last point is returned by query */
+  private static class Marker {
+
+    private final int databaseIndex;
+    private final PreciseQuery query;
+    /** Time when the insertion returns, unit: ns */
+    private final long ackTime;
+
+    private Marker(int databaseIndex, DeviceSchema deviceSchema, long timestamp, long ackTime) {
+      this.databaseIndex = databaseIndex;
+      this.query = new PreciseQuery(Collections.singletonList(deviceSchema), timestamp);
+      this.ackTime = ackTime;
+    }
+  }
+
+  public static FreshnessProbe getInstance() {
+    return FreshnessProbeHolder.INSTANCE;
+  }
+
+  private static class FreshnessProbeHolder {
+    private static final FreshnessProbe INSTANCE = new FreshnessProbe();
+  }
+}
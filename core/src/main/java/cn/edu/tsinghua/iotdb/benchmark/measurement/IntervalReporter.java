@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.IntervalMetric;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.PersistenceFactory;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report throughput and latency of each interval of METRIC_REPORT_INTERVAL to console, csv
+ * timeline and TEST_DATA_PERSISTENCE, so that the change of performance during test can be seen.
+ */
+public class IntervalReporter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IntervalReporter.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  private static final double NANO_TO_SECOND = 1000000000.0d;
+  private static final String CSV_DIR = "data/csvOutput";
+
+  private final Set<IntervalStatistics> statistics = ConcurrentHashMap.newKeySet();
+  /** Accumulated counts of all clients at the end of last interval */
+  private final Map<Operation, long[]> lastCounts = new EnumMap<>(Operation.class);
+
+  private final Histogram clientHistogram = new Histogram(LatencyHistogram.SIGNIFICANT_DIGITS);
+  private final Histogram intervalHistogram = new Histogram(LatencyHistogram.SIGNIFICANT_DIGITS);
+  private ScheduledExecutorService service;
+  private TestDataPersistence recorder;
+  private BufferedWriter timelineWriter;
+  private long startTime;
+  private long lastReportTime;
+
+  private IntervalReporter() {}
+
+  /** @return whether METRIC_REPORT_INTERVAL is set */
+  public static boolean isEnabled() {
+    return config.getMETRIC_REPORT_INTERVAL() > 0;
+  }
+
+  /** Start to report periodically */
+  public synchronized void start() {
+    if (!isEnabled() || service != null) {
+      return;
+    }
+    for (Operation operation : Operation.values()) {
+      lastCounts.put(operation, new long[3]);
+    }
+    startTime = System.nanoTime();
+    lastReportTime = startTime;
+    recorder = new PersistenceFactory().getPersistence();
+    timelineWriter = createTimelineWriter();
+    service =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "interval-reporter");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long interval = config.getMETRIC_REPORT_INTERVAL();
+    service.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.SECONDS);
+  }
+
+  /** Stop reporting, the last incomplete interval is also reported */
+  public synchronized void stop() {
+    if (service == null) {
+      return;
+    }
+    service.shutdown();
+    try {
+      service.awaitTermination(config.getMETRIC_REPORT_INTERVAL(), TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    service = null;
+    report();
+    recorder.closeAsync();
+    if (timelineWriter != null) {
+      try {
+        timelineWriter.close();
+      } catch (IOException e) {
+        LOGGER.error("Exception occurred during closing timeline because: ", e);
+      }
+      timelineWriter = null;
+    }
+    statistics.clear();
+  }
+
+  /** Register statistics of measurement, do nothing if METRIC_REPORT_INTERVAL is not set */
+  public void register(Measurement measurement) {
+    IntervalStatistics intervalStatistics = measurement.getIntervalStatistics();
+    if (intervalStatistics != null) {
+      statistics.add(intervalStatistics);
+    }
+  }
+
+  private BufferedWriter createTimelineWriter() {
+    SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
+    File folder = new File(CSV_DIR);
+    if (!folder.exists() && !folder.mkdirs()) {
+      LOGGER.error("Failed to create directory {}", CSV_DIR);
+      return null;
+    }
+    try {
+      BufferedWriter writer =
+          new BufferedWriter(
+              new FileWriter(CSV_DIR + "/" + sdf.format(new Date()) + "-timeline.csv"));
+      writer.write("timestamp,elapsedTime(s),operation");
+      for (IntervalMetric metric : IntervalMetric.values()) {
+        writer.write("," + metric.getName());
+      }
+      writer.newLine();
+      return writer;
+    } catch (IOException e) {
+      LOGGER.error("Exception occurred during creating timeline because: ", e);
+      return null;
+    }
+  }
+
+  /** Report all operations finished since last report, only called by one thread at a time */
+  private void report() {
+    long now = System.nanoTime();
+    double intervalTime = (now - lastReportTime) / NANO_TO_SECOND;
+    if (intervalTime <= 0) {
+      return;
+    }
+    lastReportTime = now;
+    long timestamp = System.currentTimeMillis();
+    String elapsedTime = String.format("%.2f", (now - startTime) / NANO_TO_SECOND);
+    for (Operation operation : Operation.values()) {
+      intervalHistogram.reset();
+      long[] counts = new long[3];
+      for (IntervalStatistics intervalStatistics : statistics) {
+        intervalStatistics.takeIntervalLatency(operation, clientHistogram);
+        intervalHistogram.add(clientHistogram);
+        counts[0] += intervalStatistics.getOkPointNum(operation);
+        counts[1] += intervalStatistics.getFailOperationNum(operation);
+        counts[2] += intervalStatistics.getFailPointNum(operation);
+      }
+      long[] last = lastCounts.get(operation);
+      long okPoint = counts[0] - last[0];
+      long failOperation = counts[1] - last[1];
+      long failPoint = counts[2] - last[2];
+      lastCounts.put(operation, counts);
+      long okOperation = intervalHistogram.getTotalCount();
+      if (okOperation == 0 && failOperation == 0) {
+        continue;
+      }
+      LatencyHistogram latency = new LatencyHistogram(intervalHistogram);
+      Map<IntervalMetric, String> metrics = new EnumMap<>(IntervalMetric.class);
+      metrics.put(IntervalMetric.OK_OPERATION, String.valueOf(okOperation));
+      metrics.put(IntervalMetric.OK_POINT, String.valueOf(okPoint));
+      metrics.put(IntervalMetric.FAIL_OPERATION, String.valueOf(failOperation));
+      metrics.put(IntervalMetric.FAIL_POINT, String.valueOf(failPoint));
+      metrics.put(IntervalMetric.THROUGHPUT, String.format("%.2f", okPoint / intervalTime));
+      metrics.put(IntervalMetric.AVG_LATENCY, String.format("%.2f", latency.getMean()));
+      metrics.put(IntervalMetric.P50_LATENCY, String.format("%.2f", latency.quantile(0.5)));
+      metrics.put(IntervalMetric.P99_LATENCY, String.format("%.2f", latency.quantile(0.99)));
+      metrics.put(IntervalMetric.P999_LATENCY, String.format("%.2f", latency.quantile(0.999)));
+      metrics.put(IntervalMetric.MAX_LATENCY, String.format("%.2f", latency.quantile(1.0)));
+      output(timestamp, elapsedTime, operation, metrics);
+    }
+  }
+
+  private void output(
+      long timestamp,
+      String elapsedTime,
+      Operation operation,
+      Map<IntervalMetric, String> metrics) {
+    StringBuilder log = new StringBuilder();
+    StringBuilder line = new StringBuilder();
+    line.append(timestamp).append(",").append(elapsedTime).append(",").append(operation);
+    for (Map.Entry<IntervalMetric, String> metric : metrics.entrySet()) {
+      log.append(", ").append(metric.getKey().getName()).append("=").append(metric.getValue());
+      line.append(",").append(metric.getValue());
+    }
+    LOGGER.info("[{}s] {}{} (point/s, ms)", elapsedTime, operation, log);
+    if (timelineWriter != null) {
+      try {
+        timelineWriter.write(line.toString());
+        timelineWriter.newLine();
+        timelineWriter.flush();
+      } catch (IOException e) {
+        LOGGER.error("Exception occurred during writing timeline because: ", e);
+      }
+    }
+    recorder.saveIntervalResultAsync(timestamp, operation.toString(), metrics);
+  }
+
+  public static IntervalReporter getInstance() {
+    return IntervalReporterHolder.INSTANCE;
+  }
+
+  private static class IntervalReporterHolder {
+    private static final IntervalReporter INSTANCE = new IntervalReporter();
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of one client for IntervalReporter. The client records without lock, and the
+ * reporter takes the latency of each interval and the accumulated counts periodically.
+ */
+public class IntervalStatistics {
+
+  private static final int OPERATION_NUM = Operation.values().length;
+
+  private final SingleWriterRecorder[] latencyRecorders;
+  private final AtomicLongArray okPointNum = new AtomicLongArray(OPERATION_NUM);
+  private final AtomicLongArray failOperationNum = new AtomicLongArray(OPERATION_NUM);
+  private final AtomicLongArray failPointNum = new AtomicLongArray(OPERATION_NUM);
+
+  public IntervalStatistics() {
+    latencyRecorders = new SingleWriterRecorder[OPERATION_NUM];
+    for (int i = 0; i < OPERATION_NUM; i++) {
+      latencyRecorders[i] = new SingleWriterRecorder(LatencyHistogram.SIGNIFICANT_DIGITS);
+    }
+  }
+
+  public void addLatency(Operation operation, double latency) {
+    latencyRecorders[operation.ordinal()].recordValue(LatencyHistogram.toValue(latency));
+  }
+
+  public void addOkPointNum(Operation operation, int pointNum) {
+    add(okPointNum, operation, pointNum);
+  }
+
+  public void addFailOperationNum(Operation operation) {
+    add(failOperationNum, operation, 1);
+  }
+
+  public void addFailPointNum(Operation operation, int pointNum) {
+    add(failPointNum, operation, pointNum);
+  }
+
+  /** Only one thread writes, so there is no need to use CAS */
+  private static void add(AtomicLongArray array, Operation operation, long delta) {
+    int index = operation.ordinal();
+    array.lazySet(index, array.get(index) + delta);
+  }
+
+  /** Move latency recorded since last call into target */
+  void takeIntervalLatency(Operation operation, Histogram target) {
+    latencyRecorders[operation.ordinal()].getIntervalHistogramInto(target);
+  }
+
+  long getOkPointNum(Operation operation) {
+    return okPointNum.get(operation.ordinal());
+  }
+
+  long getFailOperationNum(Operation operation) {
+    return failOperationNum.get(operation.ordinal());
+  }
+
+  long getFailPointNum(Operation operation) {
+    return failPointNum.get(operation.ordinal());
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency recorder of one client, not thread-safe. Latency is recorded in microseconds and read
+ * in milliseconds, the precision is decided by RESULT_PRECISION.
+ */
+public class LatencyHistogram {
+
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  private static final double MICROS_PER_MILLI = 1000.0d;
+  /** 0.1% precision needs 3 significant value digits, HdrHistogram supports 0 to 5 */
+  static final int SIGNIFICANT_DIGITS =
+      (int)
+          Math.max(
+              0, Math.min(5, Math.ceil(-Math.log10(config.getRESULT_PRECISION() / 100) - 1e-9)));
+
+  private final Histogram histogram;
+
+  public LatencyHistogram() {
+    this(new Histogram(SIGNIFICANT_DIGITS));
+  }
+
+  /** @param histogram whose values are in microseconds */
+  LatencyHistogram(Histogram histogram) {
+    this.histogram = histogram;
+  }
+
+  /**
+   * @param latency unit: ms
+   * @return value to be recorded in histograms
+   */
+  static long toValue(double latency) {
+    return Math.max(0, Math.round(latency * MICROS_PER_MILLI));
+  }
+
+  /** @param latency unit: ms */
+  public void record(double latency) {
+    histogram.recordValue(toValue(latency));
+  }
+
+  public void merge(LatencyHistogram other) {
+    histogram.add(other.histogram);
+  }
+
+  /**
+   * @param quantile between 0 and 1
+   * @return latency at quantile, unit: ms
+   */
+  public double quantile(double quantile) {
+    long value;
+    if (quantile <= 0) {
+      value = histogram.getMinValue();
+    } else if (quantile >= 1) {
+      value = histogram.getMaxValue();
+    } else {
+      value = histogram.getValueAtPercentile(quantile * 100);
+    }
+    return value / MICROS_PER_MILLI;
+  }
+
+  /** @return mean latency, unit: ms */
+  public double getMean() {
+    return histogram.getMean() / MICROS_PER_MILLI;
+  }
+
+  public long getTotalCount() {
+    return histogram.getTotalCount();
+  }
+
+  /** @return the underlying histogram, whose values are in microseconds */
+  public Histogram getHistogram() {
+    return histogram;
+  }
+}
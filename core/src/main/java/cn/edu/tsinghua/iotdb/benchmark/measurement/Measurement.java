@@ -27,7 +27,8 @@ import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.TotalOperationResult;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.TotalResult;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.PersistenceFactory;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
-import com.clearspring.analytics.stream.quantile.TDigest;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,27 +43,64 @@ public class Measurement {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Measurement.class);
   private static final Config config = ConfigDescriptor.getInstance().getConfig();
-  private static final Map<Operation, TDigest> operationLatencyDigest =
-      new EnumMap<>(Operation.class);
+  private static final TestPhaseController testPhaseController =
+      TestPhaseController.getInstance();
   private static final Map<Operation, Double> operationLatencySumAllClient =
       new EnumMap<>(Operation.class);
+  private static final Map<Operation, Double> operationCorrectedLatencySumAllClient =
+      new EnumMap<>(Operation.class);
+  /** Corrected latency metrics, same layout as Metric.typeValueMap */
+  private static final Map<Metric, Map<Operation, Double>> correctedMetricValueMap =
+      new EnumMap<>(Metric.class);
   private double createSchemaTime;
   private double elapseTime;
+  private double warmUpTime;
+  /**
+   * The number of operation results not saved to TEST_DATA_PERSISTENCE, -1 if results are not
+   * saved at all
+   */
+  private long droppedResultNum = -1;
+  /** Whether warm-up finished before the test, if not, every operation belongs to warm-up */
+  private boolean warmUpFinished = true;
+  /** Time generator threads wait for full buffers, only used if GENERATOR_BUFFER_SIZE > 0 */
+  private double generatorStallTime;
+  /** Time clients wait for empty buffers, only used if GENERATOR_BUFFER_SIZE > 0 */
+  private double writerIdleTime;
+  /** Latency of each client, merged in BaseMode.finalMeasure */
+  private final Map<Operation, LatencyHistogram> operationLatencyHistogram;
+  /** Latency counted from the intended start time, only used in open loop modes */
+  private final Map<Operation, LatencyHistogram> operationCorrectedLatencyHistogram;
   private final Map<Operation, Double> operationLatencySumThisClient;
+  private final Map<Operation, Double> operationCorrectedLatencySumThisClient;
   private final Map<Operation, Long> okOperationNumMap;
   private final Map<Operation, Long> failOperationNumMap;
   private final Map<Operation, Long> okPointNumMap;
   private final Map<Operation, Long> failPointNumMap;
+  /** Statistics of each segment of LOAD_PROFILE, null if LOAD_PROFILE is not set */
+  private final SegmentStatistics segmentStatistics;
+  /** Statistics reported by IntervalReporter, null if METRIC_REPORT_INTERVAL is not set */
+  private final IntervalStatistics intervalStatistics;
+  /** Operations finished during warm-up, excluded from the other statistics */
+  private final Map<Operation, Long> warmUpOkOperationNumMap;
+  private final Map<Operation, Long> warmUpFailOperationNumMap;
+  private final Map<Operation, Long> warmUpOkPointNumMap;
+  private final Map<Operation, Double> warmUpLatencySumMap;
   private static final String RESULT_ITEM = "%-25s";
   private static final String LATENCY_ITEM = "%-12s";
-  /** Precision = 3 / COMPRESSION */
-  private static final int COMPRESSION = (int) (300 / config.getRESULT_PRECISION());
+  private static final String CORRECTED_PREFIX = "CORRECTED_";
+  private static final String WARM_UP_PREFIX = "WARM_UP_";
 
   static {
     for (Operation operation : Operation.values()) {
-      operationLatencyDigest.put(
-          operation, new TDigest(COMPRESSION, new Random(config.getDATA_SEED())));
       operationLatencySumAllClient.put(operation, 0D);
+      operationCorrectedLatencySumAllClient.put(operation, 0D);
+    }
+    for (Metric metric : Metric.values()) {
+      Map<Operation, Double> valueMap = new EnumMap<>(Operation.class);
+      for (Operation operation : Operation.values()) {
+        valueMap.put(operation, 0D);
+      }
+      correctedMetricValueMap.put(metric, valueMap);
     }
   }
 
@@ -71,13 +109,29 @@ public class Measurement {
     failOperationNumMap = new EnumMap<>(Operation.class);
     okPointNumMap = new EnumMap<>(Operation.class);
     failPointNumMap = new EnumMap<>(Operation.class);
+    operationLatencyHistogram = new EnumMap<>(Operation.class);
+    operationCorrectedLatencyHistogram = new EnumMap<>(Operation.class);
     operationLatencySumThisClient = new EnumMap<>(Operation.class);
+    operationCorrectedLatencySumThisClient = new EnumMap<>(Operation.class);
+    segmentStatistics = SegmentStatistics.isEnabled() ? new SegmentStatistics() : null;
+    intervalStatistics = IntervalReporter.isEnabled() ? new IntervalStatistics() : null;
+    warmUpOkOperationNumMap = new EnumMap<>(Operation.class);
+    warmUpFailOperationNumMap = new EnumMap<>(Operation.class);
+    warmUpOkPointNumMap = new EnumMap<>(Operation.class);
+    warmUpLatencySumMap = new EnumMap<>(Operation.class);
     for (Operation operation : Operation.values()) {
+      warmUpOkOperationNumMap.put(operation, 0L);
+      warmUpFailOperationNumMap.put(operation, 0L);
+      warmUpOkPointNumMap.put(operation, 0L);
+      warmUpLatencySumMap.put(operation, 0D);
       okOperationNumMap.put(operation, 0L);
       failOperationNumMap.put(operation, 0L);
       okPointNumMap.put(operation, 0L);
       failPointNumMap.put(operation, 0L);
+      operationLatencyHistogram.put(operation, new LatencyHistogram());
+      operationCorrectedLatencyHistogram.put(operation, new LatencyHistogram());
       operationLatencySumThisClient.put(operation, 0D);
+      operationCorrectedLatencySumThisClient.put(operation, 0D);
     }
   }
 
@@ -94,6 +148,20 @@ public class Measurement {
           operation, failOperationNumMap.get(operation) + m.getFailOperationNum(operation));
       okPointNumMap.put(operation, okPointNumMap.get(operation) + m.getOkPointNum(operation));
       failPointNumMap.put(operation, failPointNumMap.get(operation) + m.getFailPointNum(operation));
+      operationLatencyHistogram.get(operation).merge(m.operationLatencyHistogram.get(operation));
+      operationCorrectedLatencyHistogram
+          .get(operation)
+          .merge(m.operationCorrectedLatencyHistogram.get(operation));
+      warmUpOkOperationNumMap.put(
+          operation,
+          warmUpOkOperationNumMap.get(operation) + m.warmUpOkOperationNumMap.get(operation));
+      warmUpFailOperationNumMap.put(
+          operation,
+          warmUpFailOperationNumMap.get(operation) + m.warmUpFailOperationNumMap.get(operation));
+      warmUpOkPointNumMap.put(
+          operation, warmUpOkPointNumMap.get(operation) + m.warmUpOkPointNumMap.get(operation));
+      warmUpLatencySumMap.put(
+          operation, warmUpLatencySumMap.get(operation) + m.warmUpLatencySumMap.get(operation));
 
       // set operationLatencySumThisClient of this measurement the largest latency sum among all
       // threads
@@ -106,49 +174,70 @@ public class Measurement {
           operation,
           operationLatencySumAllClient.get(operation)
               + m.getOperationLatencySumThisClient().get(operation));
+
+      if (operationCorrectedLatencySumThisClient.get(operation)
+          < m.getOperationCorrectedLatencySumThisClient().get(operation)) {
+        operationCorrectedLatencySumThisClient.put(
+            operation, m.getOperationCorrectedLatencySumThisClient().get(operation));
+      }
+      operationCorrectedLatencySumAllClient.put(
+          operation,
+          operationCorrectedLatencySumAllClient.get(operation)
+              + m.getOperationCorrectedLatencySumThisClient().get(operation));
+    }
+    if (segmentStatistics != null && m.segmentStatistics != null) {
+      segmentStatistics.merge(m.segmentStatistics);
     }
+    generatorStallTime += m.generatorStallTime;
+    writerIdleTime += m.writerIdleTime;
   }
 
   /** Calculate metrics of each operation */
   public void calculateMetrics(List<Operation> operations) {
+    Map<Metric, Map<Operation, Double>> metricValueMap = new EnumMap<>(Metric.class);
+    for (Metric metric : Metric.values()) {
+      metricValueMap.put(metric, metric.getTypeValueMap());
+    }
+    calculateMetrics(
+        operations,
+        metricValueMap,
+        operationLatencyHistogram,
+        operationLatencySumAllClient,
+        operationLatencySumThisClient);
+    if (config.getARRIVAL_MODE().isOpenLoop()) {
+      calculateMetrics(
+          operations,
+          correctedMetricValueMap,
+          operationCorrectedLatencyHistogram,
+          operationCorrectedLatencySumAllClient,
+          operationCorrectedLatencySumThisClient);
+    }
+  }
+
+  private void calculateMetrics(
+      List<Operation> operations,
+      Map<Metric, Map<Operation, Double>> metricValueMap,
+      Map<Operation, LatencyHistogram> latencyHistogram,
+      Map<Operation, Double> latencySumAllClient,
+      Map<Operation, Double> latencySumThisClient) {
     for (Operation operation : operations) {
-      double avgLatency;
       if (okOperationNumMap.get(operation) != 0) {
-        avgLatency = operationLatencySumAllClient.get(operation) / okOperationNumMap.get(operation);
-        Metric.AVG_LATENCY.getTypeValueMap().put(operation, avgLatency);
-        Metric.MAX_THREAD_LATENCY_SUM
-            .getTypeValueMap()
-            .put(operation, operationLatencySumThisClient.get(operation));
-        Metric.MIN_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.0));
-        Metric.MAX_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(1.0));
-        Metric.P10_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.1));
-        Metric.P25_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.25));
-        Metric.MEDIAN_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.50));
-        Metric.P75_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.75));
-        Metric.P90_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.90));
-        Metric.P95_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.95));
-        Metric.P99_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.99));
-        Metric.P999_LATENCY
-            .getTypeValueMap()
-            .put(operation, operationLatencyDigest.get(operation).quantile(0.999));
+        double avgLatency = latencySumAllClient.get(operation) / okOperationNumMap.get(operation);
+        LatencyHistogram digest = latencyHistogram.get(operation);
+        metricValueMap.get(Metric.AVG_LATENCY).put(operation, avgLatency);
+        metricValueMap
+            .get(Metric.MAX_THREAD_LATENCY_SUM)
+            .put(operation, latencySumThisClient.get(operation));
+        metricValueMap.get(Metric.MIN_LATENCY).put(operation, digest.quantile(0.0));
+        metricValueMap.get(Metric.MAX_LATENCY).put(operation, digest.quantile(1.0));
+        metricValueMap.get(Metric.P10_LATENCY).put(operation, digest.quantile(0.1));
+        metricValueMap.get(Metric.P25_LATENCY).put(operation, digest.quantile(0.25));
+        metricValueMap.get(Metric.MEDIAN_LATENCY).put(operation, digest.quantile(0.50));
+        metricValueMap.get(Metric.P75_LATENCY).put(operation, digest.quantile(0.75));
+        metricValueMap.get(Metric.P90_LATENCY).put(operation, digest.quantile(0.90));
+        metricValueMap.get(Metric.P95_LATENCY).put(operation, digest.quantile(0.95));
+        metricValueMap.get(Metric.P99_LATENCY).put(operation, digest.quantile(0.99));
+        metricValueMap.get(Metric.P999_LATENCY).put(operation, digest.quantile(0.999));
       }
     }
   }
@@ -166,6 +255,26 @@ public class Measurement {
     recorder.saveResultAsync(
         "total", TotalResult.CREATE_SCHEMA_TIME.getName(), "" + createSchemaTime);
     recorder.saveResultAsync("total", TotalResult.ELAPSED_TIME.getName(), "" + elapseTime);
+    if (config.getGENERATOR_BUFFER_SIZE() > 0) {
+      System.out.println(
+          "Generator stall time of all clients (limited by database): "
+              + String.format("%.2f", generatorStallTime)
+              + " second");
+      System.out.println(
+          "Writer idle time of all clients (limited by data generation): "
+              + String.format("%.2f", writerIdleTime)
+              + " second");
+      recorder.saveResultAsync(
+          "total", TotalResult.GENERATOR_STALL_TIME.getName(), "" + generatorStallTime);
+      recorder.saveResultAsync(
+          "total", TotalResult.WRITER_IDLE_TIME.getName(), "" + writerIdleTime);
+    }
+    if (droppedResultNum >= 0) {
+      System.out.println(
+          "Operation results not saved to TEST_DATA_PERSISTENCE: " + droppedResultNum);
+      recorder.saveResultAsync(
+          "total", TotalResult.DROPPED_RESULT_NUM.getName(), "" + droppedResultNum);
+    }
 
     System.out.println(
         "----------------------------------------------------------Result Matrix----------------------------------------------------------");
@@ -214,10 +323,61 @@ public class Measurement {
     }
     System.out.println(
         "---------------------------------------------------------------------------------------------------------------------------------");
+    if (testPhaseController.isWarmUpEnabled()) {
+      showWarmUpMeasurements(operations, recorder);
+    }
 
     recorder.closeAsync();
   }
 
+  /** Show operations finished during warm-up */
+  private void showWarmUpMeasurements(List<Operation> operations, TestDataPersistence recorder) {
+    System.out.println("Warm-up cost " + String.format("%.2f", warmUpTime) + " second");
+    if (!warmUpFinished) {
+      System.out.println("Warm-up was not finished, so all operations are counted as warm-up");
+    }
+    recorder.saveResultAsync("total", TotalResult.WARM_UP_TIME.getName(), "" + warmUpTime);
+    System.out.println(
+        "------------------------------------------------------Warm-up Result Matrix-----------------------------------------------------");
+    StringBuffer format = new StringBuffer();
+    for (int i = 0; i < 5; i++) {
+      format.append(RESULT_ITEM);
+    }
+    format.append("\n");
+    System.out.printf(
+        format.toString(), "Operation", "okOperation", "okPoint", "failOperation", "AVG(ms)");
+    for (Operation operation : operations) {
+      long okOperationNum = warmUpOkOperationNumMap.get(operation);
+      String avgLatency =
+          String.format(
+              "%.2f",
+              okOperationNum == 0 ? 0 : warmUpLatencySumMap.get(operation) / okOperationNum);
+      System.out.printf(
+          format.toString(),
+          operation.getName(),
+          okOperationNum,
+          warmUpOkPointNumMap.get(operation),
+          warmUpFailOperationNumMap.get(operation),
+          avgLatency);
+      recorder.saveResultAsync(
+          operation.toString(),
+          WARM_UP_PREFIX + TotalOperationResult.OK_OPERATION_NUM.getName(),
+          "" + okOperationNum);
+      recorder.saveResultAsync(
+          operation.toString(),
+          WARM_UP_PREFIX + TotalOperationResult.OK_POINT_NUM.getName(),
+          "" + warmUpOkPointNumMap.get(operation));
+      recorder.saveResultAsync(
+          operation.toString(),
+          WARM_UP_PREFIX + TotalOperationResult.FAIL_OPERATION_NUM.getName(),
+          "" + warmUpFailOperationNumMap.get(operation));
+      recorder.saveResultAsync(
+          operation.toString(), WARM_UP_PREFIX + Metric.AVG_LATENCY.getName(), avgLatency);
+    }
+    System.out.println(
+        "---------------------------------------------------------------------------------------------------------------------------------");
+  }
+
   /** Show Config of test */
   public void showConfigs() {
     System.out.println("----------------------Main Configurations----------------------");
@@ -249,9 +409,39 @@ public class Measurement {
     }
     System.out.println(
         "-----------------------------------------------------------------------------------------------------------------------------------------------------------------------");
+    if (config.getARRIVAL_MODE().isOpenLoop()) {
+      showCorrectedMetrics(operations, recorder);
+    }
+    if (segmentStatistics != null) {
+      segmentStatistics.show(recorder);
+    }
     recorder.closeAsync();
   }
 
+  /** Show latency counted from the intended start time of operations */
+  private void showCorrectedMetrics(List<Operation> operations, TestDataPersistence recorder) {
+    System.out.println(
+        "-----------------------------------------------------------------Corrected Latency (ms) Matrix-----------------------------------------------------------------");
+    System.out.printf(RESULT_ITEM, "Operation");
+    for (Metric metric : Metric.values()) {
+      System.out.printf(LATENCY_ITEM, metric.name);
+    }
+    System.out.println();
+    for (Operation operation : operations) {
+      System.out.printf(RESULT_ITEM, operation.getName());
+      for (Metric metric : Metric.values()) {
+        String metricResult =
+            String.format("%.2f", correctedMetricValueMap.get(metric).get(operation));
+        System.out.printf(LATENCY_ITEM, metricResult);
+        recorder.saveResultAsync(
+            operation.toString(), CORRECTED_PREFIX + metric.name, metricResult);
+      }
+      System.out.println();
+    }
+    System.out.println(
+        "-----------------------------------------------------------------------------------------------------------------------------------------------------------------------");
+  }
+
   /** output measurement to csv */
   public void outputCSV() {
     MeasurementCsvWriter measurementCsvWriter = new MeasurementCsvWriter();
@@ -270,6 +460,13 @@ public class Measurement {
         if (config.isUSE_MEASUREMENT()) {
           outputResultMetricToCSV(csv);
           outputLatencyMetricsToCSV(csv);
+          if (config.getARRIVAL_MODE().isOpenLoop()) {
+            outputCorrectedLatencyMetricsToCSV(csv);
+          }
+          if (segmentStatistics != null) {
+            outputSegmentStatisticsToCSV(csv);
+          }
+          outputHistogramLog(fileName.replace("-test-result.csv", "-latency.hlog"));
         }
 
       } catch (IOException e) {
@@ -369,6 +566,10 @@ public class Measurement {
                   + ","
                   + throughput);
         }
+        if (droppedResultNum >= 0) {
+          bw.newLine();
+          bw.write(TotalResult.DROPPED_RESULT_NUM.getName() + "," + droppedResultNum);
+        }
         bw.close();
       } catch (IOException e) {
         LOGGER.error("Exception occurred during operating buffer writer because: ", e);
@@ -400,12 +601,101 @@ public class Measurement {
         LOGGER.error("Exception occurred during operating buffer writer because: ", e);
       }
     }
+
+    /** Write statistics of each segment of LOAD_PROFILE to csv */
+    private void outputSegmentStatisticsToCSV(File csv) {
+      try {
+        BufferedWriter bw = new BufferedWriter(new FileWriter(csv, true));
+        segmentStatistics.writeCSV(bw);
+        bw.close();
+      } catch (IOException e) {
+        LOGGER.error("Exception occurred during operating buffer writer because: ", e);
+      }
+    }
+
+    /** Write latency histograms in HdrHistogram log format, each operation is tagged by name */
+    private void outputHistogramLog(String fileName) {
+      long endTime = System.currentTimeMillis();
+      long startTime = endTime - (long) (elapseTime * 1000);
+      HistogramLogWriter writer = null;
+      try {
+        writer = new HistogramLogWriter(new File(fileName));
+        writer.outputLogFormatVersion();
+        writer.outputComment("Latency unit: us");
+        writer.outputStartTime(startTime);
+        writer.outputLegend();
+        writeHistograms(writer, "", operationLatencyHistogram, startTime, endTime);
+        if (config.getARRIVAL_MODE().isOpenLoop()) {
+          writeHistograms(
+              writer, CORRECTED_PREFIX, operationCorrectedLatencyHistogram, startTime, endTime);
+        }
+      } catch (IOException e) {
+        LOGGER.error("Exception occurred during writing histogram log because: ", e);
+      } finally {
+        if (writer != null) {
+          writer.close();
+        }
+      }
+    }
+
+    private void writeHistograms(
+        HistogramLogWriter writer,
+        String tagPrefix,
+        Map<Operation, LatencyHistogram> latencyHistogram,
+        long startTime,
+        long endTime) {
+      for (Map.Entry<Operation, LatencyHistogram> entry : latencyHistogram.entrySet()) {
+        if (entry.getValue().getTotalCount() == 0) {
+          continue;
+        }
+        Histogram histogram = entry.getValue().getHistogram();
+        histogram.setTag(tagPrefix + entry.getKey().toString());
+        histogram.setStartTimeStamp(startTime);
+        histogram.setEndTimeStamp(endTime);
+        writer.outputIntervalHistogram(histogram);
+      }
+    }
+
+    /** Write corrected latency metric to csv */
+    private void outputCorrectedLatencyMetricsToCSV(File csv) {
+      try {
+        BufferedWriter bw = new BufferedWriter(new FileWriter(csv, true));
+        bw.newLine();
+        bw.write("Corrected Latency (ms) Matrix");
+        bw.newLine();
+        bw.write("Operation");
+        for (Metric metric : Metric.values()) {
+          bw.write("," + metric.name);
+        }
+        bw.newLine();
+        for (Operation operation : Operation.values()) {
+          bw.write(operation.getName());
+          for (Metric metric : Metric.values()) {
+            String metricResult =
+                String.format("%.2f", correctedMetricValueMap.get(metric).get(operation));
+            bw.write("," + metricResult);
+          }
+          bw.newLine();
+        }
+        bw.close();
+      } catch (IOException e) {
+        LOGGER.error("Exception occurred during operating buffer writer because: ", e);
+      }
+    }
   }
 
   private Map<Operation, Double> getOperationLatencySumThisClient() {
     return operationLatencySumThisClient;
   }
 
+  private Map<Operation, Double> getOperationCorrectedLatencySumThisClient() {
+    return operationCorrectedLatencySumThisClient;
+  }
+
+  IntervalStatistics getIntervalStatistics() {
+    return intervalStatistics;
+  }
+
   private long getOkOperationNum(Operation operation) {
     return okOperationNumMap.get(operation);
   }
@@ -422,27 +712,94 @@ public class Measurement {
     return failPointNumMap.get(operation);
   }
 
-  public void addOperationLatency(Operation op, double latency) {
-    synchronized (operationLatencyDigest.get(op)) {
-      operationLatencyDigest.get(op).add(latency);
+  public void addOperationLatency(Operation op, double latency, int segment) {
+    if (intervalStatistics != null) {
+      intervalStatistics.addLatency(op, latency);
     }
+    if (testPhaseController.isWarmingUp()) {
+      warmUpLatencySumMap.put(op, warmUpLatencySumMap.get(op) + latency);
+      return;
+    }
+    operationLatencyHistogram.get(op).record(latency);
     operationLatencySumThisClient.put(op, operationLatencySumThisClient.get(op) + latency);
+    if (segmentStatistics != null) {
+      segmentStatistics.addLatency(segment, latency);
+    }
   }
 
-  public void addOkPointNum(Operation operation, int pointNum) {
+  /** Add latency counted from the intended start time of operation, used in open loop modes */
+  public void addOperationCorrectedLatency(Operation op, double latency, int segment) {
+    if (testPhaseController.isWarmingUp()) {
+      return;
+    }
+    operationCorrectedLatencyHistogram.get(op).record(latency);
+    operationCorrectedLatencySumThisClient.put(
+        op, operationCorrectedLatencySumThisClient.get(op) + latency);
+    if (segmentStatistics != null) {
+      segmentStatistics.addCorrectedLatency(segment, latency);
+    }
+  }
+
+  public void addOkPointNum(Operation operation, int pointNum, int segment) {
+    if (intervalStatistics != null) {
+      intervalStatistics.addOkPointNum(operation, pointNum);
+    }
+    if (testPhaseController.isWarmingUp()) {
+      warmUpOkPointNumMap.put(operation, warmUpOkPointNumMap.get(operation) + pointNum);
+      return;
+    }
     okPointNumMap.put(operation, okPointNumMap.get(operation) + pointNum);
+    if (segmentStatistics != null) {
+      segmentStatistics.addOkPointNum(segment, pointNum);
+    }
   }
 
   public void addFailPointNum(Operation operation, int pointNum) {
+    if (intervalStatistics != null) {
+      intervalStatistics.addFailPointNum(operation, pointNum);
+    }
+    if (testPhaseController.isWarmingUp()) {
+      return;
+    }
     failPointNumMap.put(operation, failPointNumMap.get(operation) + pointNum);
   }
 
-  public void addOkOperationNum(Operation operation) {
+  public void addOkOperationNum(Operation operation, int segment) {
+    if (testPhaseController.isWarmingUp()) {
+      warmUpOkOperationNumMap.put(operation, warmUpOkOperationNumMap.get(operation) + 1);
+      testPhaseController.addWarmUpOperation();
+      return;
+    }
     okOperationNumMap.put(operation, okOperationNumMap.get(operation) + 1);
+    if (segmentStatistics != null) {
+      segmentStatistics.addOkOperationNum(segment);
+    }
   }
 
-  public void addFailOperationNum(Operation operation) {
+  public void addFailOperationNum(Operation operation, int segment) {
+    if (intervalStatistics != null) {
+      intervalStatistics.addFailOperationNum(operation);
+    }
+    if (testPhaseController.isWarmingUp()) {
+      warmUpFailOperationNumMap.put(operation, warmUpFailOperationNumMap.get(operation) + 1);
+      return;
+    }
     failOperationNumMap.put(operation, failOperationNumMap.get(operation) + 1);
+    if (segmentStatistics != null) {
+      segmentStatistics.addFailOperationNum(segment);
+    }
+  }
+
+  /** Set the segment of LOAD_PROFILE which following operations belong to */
+  public void setCurrentSegment(int segmentIndex) {
+    if (segmentStatistics != null) {
+      segmentStatistics.setCurrentSegment(segmentIndex);
+    }
+  }
+
+  /** @return the segment of LOAD_PROFILE of the operation being issued, 0 if it is not set */
+  public int getCurrentSegment() {
+    return segmentStatistics == null ? 0 : segmentStatistics.getCurrentSegment();
   }
 
   public double getCreateSchemaTime() {
@@ -460,4 +817,44 @@ public class Measurement {
   public void setElapseTime(double elapseTime) {
     this.elapseTime = elapseTime;
   }
+
+  public double getWarmUpTime() {
+    return warmUpTime;
+  }
+
+  public void setWarmUpTime(double warmUpTime) {
+    this.warmUpTime = warmUpTime;
+  }
+
+  public long getDroppedResultNum() {
+    return droppedResultNum;
+  }
+
+  public void setDroppedResultNum(long droppedResultNum) {
+    this.droppedResultNum = droppedResultNum;
+  }
+
+  public boolean isWarmUpFinished() {
+    return warmUpFinished;
+  }
+
+  public void setWarmUpFinished(boolean warmUpFinished) {
+    this.warmUpFinished = warmUpFinished;
+  }
+
+  public double getGeneratorStallTime() {
+    return generatorStallTime;
+  }
+
+  public void setGeneratorStallTime(double generatorStallTime) {
+    this.generatorStallTime = generatorStallTime;
+  }
+
+  public double getWriterIdleTime() {
+    return writerIdleTime;
+  }
+
+  public void setWriterIdleTime(double writerIdleTime) {
+    this.writerIdleTime = writerIdleTime;
+  }
 }
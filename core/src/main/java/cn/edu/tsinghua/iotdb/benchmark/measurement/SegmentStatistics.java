@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.LoadProfile;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+/** Throughput and latency of each segment of LOAD_PROFILE, all operations are counted together */
+public class SegmentStatistics {
+
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  private static final LoadProfile loadProfile = LoadProfile.parse(config.getLOAD_PROFILE());
+  private static final double NANO_TO_SECOND = 1000000000.0d;
+  private static final String SEGMENT_ITEM = "%-40s";
+  private static final String VALUE_ITEM = "%-16s";
+  private static final String[] HEADERS = {
+    "Segment",
+    "duration(s)",
+    "targetRate",
+    "okOperation",
+    "failOperation",
+    "okPoint",
+    "throughput(op/s)",
+    "throughput(point/s)",
+    "AVG",
+    "P99",
+    "MAX",
+    "CORRECTED_AVG",
+    "CORRECTED_P99"
+  };
+
+  private final long[] okOperationNum;
+  private final long[] failOperationNum;
+  private final long[] okPointNum;
+  private final double[] latencySum;
+  private final double[] correctedLatencySum;
+  private final LatencyHistogram[] latencyHistograms;
+  private final LatencyHistogram[] correctedLatencyHistograms;
+  /** Segment of operations being issued, set by client */
+  private volatile int currentSegment = 0;
+
+  public SegmentStatistics() {
+    int segmentNum = loadProfile == null ? 0 : loadProfile.getSegments().size();
+    okOperationNum = new long[segmentNum];
+    failOperationNum = new long[segmentNum];
+    okPointNum = new long[segmentNum];
+    latencySum = new double[segmentNum];
+    correctedLatencySum = new double[segmentNum];
+    latencyHistograms = new LatencyHistogram[segmentNum];
+    correctedLatencyHistograms = new LatencyHistogram[segmentNum];
+    for (int i = 0; i < segmentNum; i++) {
+      latencyHistograms[i] = new LatencyHistogram();
+      correctedLatencyHistograms[i] = new LatencyHistogram();
+    }
+  }
+
+  /** @return whether LOAD_PROFILE is set */
+  public static boolean isEnabled() {
+    return loadProfile != null;
+  }
+
+  public int getCurrentSegment() {
+    return currentSegment;
+  }
+
+  public void setCurrentSegment(int currentSegment) {
+    this.currentSegment = currentSegment;
+  }
+
+  /**
+   * Operations are counted in the segment in which they are issued, which may differ from the
+   * current segment when they complete if they are pipelined
+   */
+  public void addLatency(int segment, double latency) {
+    latencyHistograms[segment].record(latency);
+    latencySum[segment] += latency;
+  }
+
+  public void addCorrectedLatency(int segment, double latency) {
+    correctedLatencyHistograms[segment].record(latency);
+    correctedLatencySum[segment] += latency;
+  }
+
+  public void addOkOperationNum(int segment) {
+    okOperationNum[segment]++;
+  }
+
+  public void addFailOperationNum(int segment) {
+    failOperationNum[segment]++;
+  }
+
+  public void addOkPointNum(int segment, int pointNum) {
+    okPointNum[segment] += pointNum;
+  }
+
+  public void merge(SegmentStatistics other) {
+    for (int i = 0; i < okOperationNum.length; i++) {
+      okOperationNum[i] += other.okOperationNum[i];
+      failOperationNum[i] += other.failOperationNum[i];
+      okPointNum[i] += other.okPointNum[i];
+      latencySum[i] += other.latencySum[i];
+      correctedLatencySum[i] += other.correctedLatencySum[i];
+      latencyHistograms[i].merge(other.latencyHistograms[i]);
+      correctedLatencyHistograms[i].merge(other.correctedLatencyHistograms[i]);
+    }
+  }
+
+  /** @return values of each column of segment, in the order of HEADERS */
+  private String[] getRow(int segmentIndex) {
+    LoadProfile.Segment segment = loadProfile.getSegments().get(segmentIndex);
+    double duration = segment.getDuration() / NANO_TO_SECOND;
+    long okOperation = okOperationNum[segmentIndex];
+    boolean hasLatency = okOperation > 0;
+    return new String[] {
+      segment.getName(),
+      String.format("%.2f", duration),
+      segment.getRateDescription(),
+      String.valueOf(okOperation),
+      String.valueOf(failOperationNum[segmentIndex]),
+      String.valueOf(okPointNum[segmentIndex]),
+      String.format("%.2f", okOperation / duration),
+      String.format("%.2f", okPointNum[segmentIndex] / duration),
+      String.format("%.2f", hasLatency ? latencySum[segmentIndex] / okOperation : 0),
+      String.format("%.2f", latencyHistograms[segmentIndex].quantile(0.99)),
+      String.format("%.2f", latencyHistograms[segmentIndex].quantile(1.0)),
+      String.format("%.2f", hasLatency ? correctedLatencySum[segmentIndex] / okOperation : 0),
+      String.format("%.2f", correctedLatencyHistograms[segmentIndex].quantile(0.99))
+    };
+  }
+
+  /** Show statistics of each segment and record according to TEST_DATA_PERSISTENCE */
+  public void show(TestDataPersistence recorder) {
+    System.out.println(
+        "-------------------------------------------------------------Load Profile Segment Matrix (latency in ms)-------------------------------------------------------------");
+    System.out.printf(SEGMENT_ITEM, HEADERS[0]);
+    for (int i = 1; i < HEADERS.length; i++) {
+      System.out.printf(VALUE_ITEM, HEADERS[i]);
+    }
+    System.out.println();
+    for (int segmentIndex = 0; segmentIndex < okOperationNum.length; segmentIndex++) {
+      String[] row = getRow(segmentIndex);
+      System.out.printf(SEGMENT_ITEM, row[0]);
+      for (int i = 1; i < row.length; i++) {
+        System.out.printf(VALUE_ITEM, row[i]);
+        recorder.saveResultAsync("SEGMENT_" + (segmentIndex + 1), HEADERS[i], row[i]);
+      }
+      System.out.println();
+    }
+    System.out.println(
+        "-----------------------------------------------------------------------------------------------------------------------------------------------------------------------");
+  }
+
+  /** Write statistics of each segment to csv */
+  public void writeCSV(BufferedWriter bw) throws IOException {
+    bw.newLine();
+    bw.write("Load Profile Segment Matrix");
+    bw.newLine();
+    bw.write(String.join(",", HEADERS));
+    for (int segmentIndex = 0; segmentIndex < okOperationNum.length; segmentIndex++) {
+      bw.newLine();
+      String[] row = getRow(segmentIndex);
+      // segment name may contain ','
+      row[0] = "\"" + row[0] + "\"";
+      bw.write(String.join(",", row));
+    }
+    bw.newLine();
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Control the phases of test: warm-up and measured phase. The warm-up ends after WARMUP_DURATION,
+ * or earlier once the per-second throughput becomes steady if IS_STEADY_STATE_DETECTION is true.
+ * If TEST_DURATION is set, the test ends TEST_DURATION after the warm-up.
+ */
+public class TestPhaseController {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TestPhaseController.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  private static final long NANO_PER_MILLIS = 1000000L;
+
+  /** Start time of test, unit: ns, 0 if not started */
+  private volatile long startTime = 0;
+  /** End time of warm-up, unit: ns, 0 if warm-up is not finished */
+  private volatile long warmUpEndTime = 0;
+  /** End time of test, unit: ns, 0 if unknown */
+  private volatile long testEndTime = 0;
+  /** Operations finished during warm-up, used by steady state detection */
+  private final AtomicLong warmUpOperationNum = new AtomicLong(0);
+
+  private final Deque<Long> throughputWindow = new ArrayDeque<>();
+  private long lastWarmUpOperationNum = 0;
+  private ScheduledExecutorService service;
+
+  private TestPhaseController() {}
+
+  /** Start test, called once when all clients are ready */
+  public synchronized void start() {
+    startTime = System.nanoTime();
+    if (!isWarmUpEnabled()) {
+      endWarmUp(startTime);
+      return;
+    }
+    service =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "warm-up-controller");
+              thread.setDaemon(true);
+              return thread;
+            });
+    service.schedule(
+        () -> {
+          LOGGER.info("Warm-up finished after WARMUP_DURATION={} ms", config.getWARMUP_DURATION());
+          endWarmUp(System.nanoTime());
+        },
+        config.getWARMUP_DURATION(),
+        TimeUnit.MILLISECONDS);
+    if (config.isIS_STEADY_STATE_DETECTION()) {
+      service.scheduleAtFixedRate(this::detectSteadyState, 1, 1, TimeUnit.SECONDS);
+    }
+  }
+
+  /** Check whether the throughput of last STEADY_STATE_WINDOW seconds is steady */
+  private void detectSteadyState() {
+    long operationNum = warmUpOperationNum.get();
+    throughputWindow.addLast(operationNum - lastWarmUpOperationNum);
+    lastWarmUpOperationNum = operationNum;
+    if (throughputWindow.size() > config.getSTEADY_STATE_WINDOW()) {
+      throughputWindow.removeFirst();
+    }
+    if (throughputWindow.size() < config.getSTEADY_STATE_WINDOW()) {
+      return;
+    }
+    long min = Long.MAX_VALUE;
+    long max = 0;
+    long sum = 0;
+    for (long throughput : throughputWindow) {
+      min = Math.min(min, throughput);
+      max = Math.max(max, throughput);
+      sum += throughput;
+    }
+    double mean = (double) sum / throughputWindow.size();
+    if (mean > 0 && (max - min) / mean <= config.getSTEADY_STATE_THRESHOLD()) {
+      LOGGER.info(
+          "Warm-up finished because throughput is steady at {} operations per second",
+          String.format("%.2f", mean));
+      endWarmUp(System.nanoTime());
+    }
+  }
+
+  private synchronized void endWarmUp(long endTime) {
+    if (warmUpEndTime != 0) {
+      return;
+    }
+    warmUpEndTime = endTime;
+    if (config.getTEST_DURATION() > 0) {
+      testEndTime = warmUpEndTime + config.getTEST_DURATION() * NANO_PER_MILLIS;
+    }
+    if (service != null) {
+      service.shutdownNow();
+      service = null;
+    }
+  }
+
+  /** @return whether operations finished now belong to warm-up */
+  public boolean isWarmingUp() {
+    return warmUpEndTime == 0 && isWarmUpEnabled();
+  }
+
+  /** Count one operation finished during warm-up */
+  public void addWarmUpOperation() {
+    warmUpOperationNum.incrementAndGet();
+  }
+
+  /** @return whether test reaches TEST_DURATION, always false if TEST_DURATION is not set */
+  public boolean isTestFinished() {
+    return testEndTime != 0 && System.nanoTime() >= testEndTime;
+  }
+
+  /** @return progress of TEST_DURATION between 0 and 1, warm-up is not included */
+  public double getProgress() {
+    if (testEndTime == 0) {
+      return 0;
+    }
+    double progress =
+        (double) (System.nanoTime() - warmUpEndTime) / (testEndTime - warmUpEndTime);
+    return Math.max(0, Math.min(1.0D, progress));
+  }
+
+  public boolean isWarmUpEnabled() {
+    return config.getWARMUP_DURATION() > 0;
+  }
+
+  /** @return start time of test, unit: ns, 0 if not started */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /** @return end time of warm-up, unit: ns, 0 if warm-up is not finished */
+  public long getWarmUpEndTime() {
+    return warmUpEndTime;
+  }
+
+  public static TestPhaseController getInstance() {
+    return TestPhaseControllerHolder.INSTANCE;
+  }
+
+  private static class TestPhaseControllerHolder {
+    private static final TestPhaseController INSTANCE = new TestPhaseController();
+  }
+}
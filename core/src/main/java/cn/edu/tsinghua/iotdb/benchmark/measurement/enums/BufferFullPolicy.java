@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement.enums;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** What to do when the buffer of operation results is full */
+public enum BufferFullPolicy {
+  /** Drop the result and count it, the client is never blocked by the persistence */
+  DROP,
+  /** Wait until the drainer makes room, no result is lost */
+  BLOCK;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BufferFullPolicy.class);
+
+  public static BufferFullPolicy getBufferFullPolicy(String name) {
+    for (BufferFullPolicy bufferFullPolicy : BufferFullPolicy.values()) {
+      if (bufferFullPolicy.name().equalsIgnoreCase(name)) {
+        return bufferFullPolicy;
+      }
+    }
+    LOGGER.warn("Unknown buffer full policy: " + name + ", use DROP.");
+    return BufferFullPolicy.DROP;
+  }
+
+  @Override
+  public String toString() {
+    return name();
+  }
+}
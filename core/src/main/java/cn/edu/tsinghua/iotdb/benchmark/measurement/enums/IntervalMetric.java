@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement.enums;
+
+/** Metrics of one operation in one interval of METRIC_REPORT_INTERVAL */
+public enum IntervalMetric {
+  OK_OPERATION("okOperation"),
+  OK_POINT("okPoint"),
+  FAIL_OPERATION("failOperation"),
+  FAIL_POINT("failPoint"),
+  THROUGHPUT("throughput"),
+  AVG_LATENCY("AVG"),
+  P50_LATENCY("P50"),
+  P99_LATENCY("P99"),
+  P999_LATENCY("P999"),
+  MAX_LATENCY("MAX");
+
+  String name;
+
+  IntervalMetric(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
@@ -21,7 +21,11 @@ package cn.edu.tsinghua.iotdb.benchmark.measurement.enums;
 
 public enum TotalResult {
   CREATE_SCHEMA_TIME("createSchemaTime"),
-  ELAPSED_TIME("elapsedTime");
+  ELAPSED_TIME("elapsedTime"),
+  WARM_UP_TIME("warmUpTime"),
+  GENERATOR_STALL_TIME("generatorStallTime"),
+  WRITER_IDLE_TIME("writerIdleTime"),
+  DROPPED_RESULT_NUM("droppedResultNum");
 
   String name;
 
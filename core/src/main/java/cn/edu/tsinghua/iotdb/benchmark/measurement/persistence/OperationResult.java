@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence;
+
+/** Result of one operation, which is a reused slot of OperationResultPipeline */
+public class OperationResult {
+
+  /** unit: ms */
+  private long recordTime;
+
+  private String operation;
+  private int okPoint;
+  private int failPoint;
+  /** unit: ms */
+  private double latency;
+
+  private String remark;
+  private String device;
+
+  void set(
+      long recordTime,
+      String operation,
+      int okPoint,
+      int failPoint,
+      double latency,
+      String remark,
+      String device) {
+    this.recordTime = recordTime;
+    this.operation = operation;
+    this.okPoint = okPoint;
+    this.failPoint = failPoint;
+    this.latency = latency;
+    this.remark = remark;
+    this.device = device;
+  }
+
+  public long getRecordTime() {
+    return recordTime;
+  }
+
+  public String getOperation() {
+    return operation;
+  }
+
+  public int getOkPoint() {
+    return okPoint;
+  }
+
+  public int getFailPoint() {
+    return failPoint;
+  }
+
+  public double getLatency() {
+    return latency;
+  }
+
+  public String getRemark() {
+    return remark;
+  }
+
+  public String getDevice() {
+    return device;
+  }
+}
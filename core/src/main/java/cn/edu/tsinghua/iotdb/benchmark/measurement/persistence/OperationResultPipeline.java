@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.BufferFullPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Save the result of each operation without blocking clients. Clients put results into the
+ * preallocated slots of a lock-free ring buffer, and one drainer thread saves them into
+ * TEST_DATA_PERSISTENCE in batches. When the buffer is full, RESULT_BUFFER_FULL_POLICY decides
+ * whether to drop the result or to wait. The pipeline is started and closed by each mode run, results
+ * offered while it is not running are dropped.
+ */
+public class OperationResultPipeline {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OperationResultPipeline.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  private static final int MAX_FLUSH_SIZE = 1000;
+  private static final long PARK_NANOS = 1000000L;
+
+  private final boolean enabled;
+  private final BufferFullPolicy bufferFullPolicy;
+  private final OperationResult[] slots;
+  /** The sequence of result in each slot, the slot is readable when it equals to the sequence */
+  private final AtomicLongArray publishedSequences;
+
+  private final int mask;
+  /** The next sequence to be claimed by clients */
+  private final AtomicLong claimedSequence = new AtomicLong(0);
+  /** The next sequence to be saved by drainer */
+  private volatile long consumedSequence = 0;
+
+  private final AtomicLong droppedNum = new AtomicLong(0);
+  private volatile boolean running = false;
+  private TestDataPersistence recorder;
+  private Thread drainer;
+
+  private OperationResultPipeline(boolean enabled, int bufferSize, BufferFullPolicy policy) {
+    this.enabled = enabled;
+    this.bufferFullPolicy = policy;
+    int capacity = bufferSize <= 1 ? 1 : Integer.highestOneBit(bufferSize - 1) << 1;
+    slots = new OperationResult[capacity];
+    publishedSequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new OperationResult();
+      publishedSequences.set(i, -1);
+    }
+    mask = capacity - 1;
+  }
+
+  /**
+   * Put the result of operation into buffer, which is saved asynchronously. The result is dropped if
+   * the pipeline is not running, e.g. a pipelined operation which completes after close
+   *
+   * @param latency unit: ms
+   */
+  public void offer(
+      String operation, int okPoint, int failPoint, double latency, String remark, String device) {
+    if (!enabled) {
+      return;
+    }
+    if (!running) {
+      // the recorder is already closed or not created yet
+      droppedNum.incrementAndGet();
+      return;
+    }
+    long sequence = claim();
+    if (sequence < 0) {
+      droppedNum.incrementAndGet();
+      return;
+    }
+    int index = (int) (sequence & mask);
+    slots[index].set(
+        System.currentTimeMillis(), operation, okPoint, failPoint, latency, remark, device);
+    publishedSequences.lazySet(index, sequence);
+  }
+
+  /** @return claimed sequence, -1 if the buffer is full and the result should be dropped */
+  private long claim() {
+    while (true) {
+      long sequence = claimedSequence.get();
+      if (sequence - consumedSequence >= slots.length) {
+        if (bufferFullPolicy == BufferFullPolicy.DROP) {
+          return -1;
+        }
+        LockSupport.parkNanos(PARK_NANOS);
+        continue;
+      }
+      if (claimedSequence.compareAndSet(sequence, sequence + 1)) {
+        return sequence;
+      }
+    }
+  }
+
+  /** Start the drainer and connect to TEST_DATA_PERSISTENCE, results are accepted from now on */
+  public synchronized void start() {
+    if (!enabled || running) {
+      return;
+    }
+    recorder = new PersistenceFactory().getPersistence();
+    running = true;
+    drainer = new Thread(this::drain, "result-drainer");
+    drainer.setDaemon(true);
+    drainer.start();
+  }
+
+  private void drain() {
+    List<OperationResult> results = new ArrayList<>(MAX_FLUSH_SIZE);
+    while (running) {
+      if (drainOnce(results) == 0) {
+        LockSupport.parkNanos(PARK_NANOS);
+      }
+    }
+    // save the remaining results after stop
+    while (drainOnce(results) > 0) {}
+  }
+
+  /** @return the number of results saved */
+  private int drainOnce(List<OperationResult> results) {
+    long sequence = consumedSequence;
+    while (results.size() < MAX_FLUSH_SIZE) {
+      long nextSequence = sequence + results.size();
+      int index = (int) (nextSequence & mask);
+      if (publishedSequences.get(index) != nextSequence) {
+        break;
+      }
+      results.add(slots[index]);
+    }
+    int size = results.size();
+    if (size > 0) {
+      try {
+        recorder.saveOperationResults(results);
+      } catch (Exception e) {
+        LOGGER.error("Failed to save {} operation results because ", size, e);
+      }
+      results.clear();
+      // slots can be reused by clients from now on
+      consumedSequence = sequence + size;
+    }
+    return size;
+  }
+
+  /** Save all results in buffer and close the recorder */
+  public synchronized void close() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    try {
+      drainer.join();
+    } catch (InterruptedException e) {
+      LOGGER.error("Interrupted while waiting for results to be saved");
+      Thread.currentThread().interrupt();
+    }
+    recorder.closeAsync();
+    long dropped = droppedNum.get();
+    if (dropped > 0) {
+      LOGGER.warn(
+          "{} operation results are not saved because the buffer is full, "
+              + "consider increasing RESULT_BUFFER_SIZE or using RESULT_BUFFER_FULL_POLICY=BLOCK",
+          dropped);
+    }
+  }
+
+  /** @return whether results are saved, i.e. TEST_DATA_PERSISTENCE is not None */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return the number of results which are not saved, including those offered while the pipeline
+   *     is not running
+   */
+  public long getDroppedNum() {
+    return droppedNum.get();
+  }
+
+  public static OperationResultPipeline getInstance() {
+    return OperationResultPipelineHolder.INSTANCE;
+  }
+
+  private static class OperationResultPipelineHolder {
+    private static final OperationResultPipeline INSTANCE =
+        new OperationResultPipeline(
+            !Constants.TDP_NONE.equals(config.getTEST_DATA_PERSISTENCE()),
+            config.getRESULT_BUFFER_SIZE(),
+            config.getRESULT_BUFFER_FULL_POLICY());
+  }
+}
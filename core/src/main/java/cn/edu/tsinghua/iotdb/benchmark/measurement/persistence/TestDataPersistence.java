@@ -21,10 +21,12 @@ package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence;
 
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.IntervalMetric;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 
@@ -47,17 +49,12 @@ public abstract class TestDataPersistence {
   public abstract void saveTestConfig();
 
   /**
-   * Save measurement result of operation
+   * Save measurement results of operations in batch, called by the drainer of
+   * OperationResultPipeline. The results are reused after this method returns.
    *
-   * @param operation which sensorType of operation
-   * @param okPoint okPoint of operation
-   * @param failPoint failPoint of operation
-   * @param latency latency of operation
-   * @param remark remark of operation
-   * @param device
+   * @param results results of operations
    */
-  protected abstract void saveOperationResult(
-      String operation, int okPoint, int failPoint, double latency, String remark, String device);
+  protected abstract void saveOperationResults(List<OperationResult> results);
 
   /**
    * Save result of operation
@@ -69,20 +66,21 @@ public abstract class TestDataPersistence {
   protected abstract void saveResult(String operation, String key, String value);
 
   /**
-   * Save measurement result of operation async
+   * Save result of operation in one interval of METRIC_REPORT_INTERVAL
    *
-   * @param operation which sensorType of operation
-   * @param okPoint okPoint of operation
-   * @param failPoint failPoint of operation
-   * @param latency latency of operation
-   * @param remark remark of operation
+   * @param timestamp end time of interval, unit: ms
+   * @param operation
+   * @param metrics
    */
-  public void saveOperationResultAsync(
-      String operation, int okPoint, int failPoint, double latency, String remark, String device) {
+  protected abstract void saveIntervalResult(
+      long timestamp, String operation, Map<IntervalMetric, String> metrics);
+
+  /** Save result of operation Async */
+  public void saveResultAsync(String operation, String key, String value) {
     future =
         service.submit(
             () -> {
-              saveOperationResult(operation, okPoint, failPoint, latency, remark, device);
+              saveResult(operation, key, value);
             });
     try {
       future.get(config.getTEST_DATA_WRITE_TIME_OUT(), TimeUnit.MILLISECONDS);
@@ -90,17 +88,17 @@ public abstract class TestDataPersistence {
       future.cancel(true);
       LOGGER.error(
           String.format(
-              "Record Error! Operation:%s, OkPoint:%d, FailPoint:%d, Latency:%f, Remark:%s.",
-              operation, okPoint, failPoint, latency, remark));
+              "Save Result Error! Operation:%s, Key:%s, Value:%s.", operation, key, value));
     }
   }
 
-  /** Save result of operation Async */
-  public void saveResultAsync(String operation, String key, String value) {
+  /** Save result of operation in one interval Async */
+  public void saveIntervalResultAsync(
+      long timestamp, String operation, Map<IntervalMetric, String> metrics) {
     future =
         service.submit(
             () -> {
-              saveResult(operation, key, value);
+              saveIntervalResult(timestamp, operation, metrics);
             });
     try {
       future.get(config.getTEST_DATA_WRITE_TIME_OUT(), TimeUnit.MILLISECONDS);
@@ -108,7 +106,7 @@ public abstract class TestDataPersistence {
       future.cancel(true);
       LOGGER.error(
           String.format(
-              "Save Result Error! Operation:%s, Key:%s, Value:%s.", operation, key, value));
+              "Save Interval Result Error! Timestamp:%d, Operation:%s.", timestamp, operation));
     }
   }
 
@@ -22,7 +22,9 @@ package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.csv;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.IntervalMetric;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.OperationResult;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
 import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
 import org.slf4j.Logger;
@@ -35,6 +37,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.sql.Date;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -74,6 +77,7 @@ public class CSVRecorder extends TestDataPersistence {
   static FileWriter serverInfoWriter = null;
   static FileWriter confWriter = null;
   static FileWriter finalResultWriter = null;
+  static FileWriter intervalResultWriter = null;
   static String confDir;
   static String dataDir;
   static String csvDir;
@@ -116,6 +120,15 @@ public class CSVRecorder extends TestDataPersistence {
         }
         finalResultWriter = new FileWriter(csvDir + "/" + projectID + "_FINAL_RESULT.csv", true);
         projectWriter = new FileWriter(csvDir + "/" + projectID + "_DETAIL.csv", true);
+        if (config.getMETRIC_REPORT_INTERVAL() > 0 && intervalResultWriter == null) {
+          intervalResultWriter =
+              new FileWriter(csvDir + "/" + projectID + "_INTERVAL_RESULT.csv", true);
+          StringBuilder firstLine = new StringBuilder("id,recordTime,operation");
+          for (IntervalMetric metric : IntervalMetric.values()) {
+            firstLine.append(",").append(metric.getName());
+          }
+          intervalResultWriter.append(firstLine.append("\n"));
+        }
       } else {
         serverInfoWriter =
             new FileWriter(csvDir + "/SERVER_MODE_" + localName + "_" + day + ".csv", true);
@@ -222,36 +235,47 @@ public class CSVRecorder extends TestDataPersistence {
   }
 
   @Override
-  protected void saveOperationResult(
-      String operation, int okPoint, int failPoint, double latency, String remark, String device) {
+  protected void saveOperationResults(List<OperationResult> results) {
+    for (OperationResult result : results) {
+      saveOperationResult(result);
+    }
+  }
+
+  private void saveOperationResult(OperationResult result) {
     if (config.isCSV_FILE_SPLIT()) {
       if (config.IncrementAndGetCURRENT_CSV_LINE() >= config.getCSV_MAX_LINE()) {
         reentrantLock.lock();
         try {
-          createNewCsvOrInsert(operation, okPoint, failPoint, latency, remark, device);
+          createNewCsvOrInsert(result);
         } finally {
           reentrantLock.unlock();
         }
       } else {
-        insert(operation, okPoint, failPoint, latency, remark, device);
+        insert(result);
       }
     } else {
-      insert(operation, okPoint, failPoint, latency, remark, device);
+      insert(result);
     }
   }
 
-  private void insert(
-      String operation, int okPoint, int failPoint, double latency, String remark, String device) {
+  private void insert(OperationResult result) {
     double rate = 0;
-    if (latency > 0) {
+    if (result.getLatency() > 0) {
       // unit: points/second
-      rate = okPoint * 1000 / latency;
+      rate = result.getOkPoint() * 1000 / result.getLatency();
     }
-    String time = dateFormat.format(new java.util.Date(System.currentTimeMillis()));
+    String time = dateFormat.format(new java.util.Date(result.getRecordTime()));
     String line =
         String.format(
             ",%s,%s,%s,%d,%d,%f,%f,%s\n",
-            time, device, operation, okPoint, failPoint, latency, rate, remark);
+            time,
+            result.getDevice(),
+            result.getOperation(),
+            result.getOkPoint(),
+            result.getFailPoint(),
+            result.getLatency(),
+            rate,
+            result.getRemark());
 
     // when create a new file writer, old file may be closed.
     int count = 0;
@@ -270,8 +294,7 @@ public class CSVRecorder extends TestDataPersistence {
     }
   }
 
-  private void createNewCsvOrInsert(
-      String operation, int okPoint, int failPoint, double latency, String remark, String device) {
+  private void createNewCsvOrInsert(OperationResult result) {
     if (config.getCURRENT_CSV_LINE() >= config.getCSV_MAX_LINE()) {
       FileWriter newProjectWriter = null;
       if (config.getBENCHMARK_WORK_MODE() == BenchmarkMode.TEST_WITH_DEFAULT_PATH) {
@@ -296,7 +319,7 @@ public class CSVRecorder extends TestDataPersistence {
       }
       config.resetCURRENT_CSV_LINE();
     } else {
-      insert(operation, okPoint, failPoint, latency, remark, device);
+      insert(result);
     }
   }
 
@@ -310,6 +333,25 @@ public class CSVRecorder extends TestDataPersistence {
     }
   }
 
+  @Override
+  protected void saveIntervalResult(
+      long timestamp, String operation, Map<IntervalMetric, String> metrics) {
+    StringBuilder line =
+        new StringBuilder(",")
+            .append(dateFormat.format(new java.util.Date(timestamp)))
+            .append(",")
+            .append(operation);
+    for (IntervalMetric metric : IntervalMetric.values()) {
+      line.append(",").append(metrics.get(metric));
+    }
+    try {
+      intervalResultWriter.append(line.append("\n"));
+      intervalResultWriter.flush();
+    } catch (IOException e) {
+      LOGGER.error("", e);
+    }
+  }
+
   /**
    * Use hook to close
    *
@@ -335,6 +377,10 @@ public class CSVRecorder extends TestDataPersistence {
         finalResultWriter.flush();
         finalResultWriter.close();
       }
+      if (intervalResultWriter != null) {
+        intervalResultWriter.flush();
+        intervalResultWriter.close();
+      }
       if (projectWriter != null) {
         projectWriter.flush();
         projectWriter.close();
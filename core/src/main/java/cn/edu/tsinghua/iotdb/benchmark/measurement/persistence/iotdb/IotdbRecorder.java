@@ -23,6 +23,7 @@ import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.*;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.OperationResult;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
 import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
 import org.slf4j.Logger;
@@ -35,6 +36,7 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Map;
 
 public class IotdbRecorder extends TestDataPersistence {
@@ -55,6 +57,7 @@ public class IotdbRecorder extends TestDataPersistence {
   private static final String PATH_PREFIX = "root." + config.getTEST_DATA_STORE_DB();
   private static final String INSERT_SQL_PREFIX = "INSERT INTO " + PATH_PREFIX;
   private static final String OPERATION_RESULT_PREFIX = INSERT_SQL_PREFIX + "." + PROJECT_ID + ".";
+  private static final String INTERVAL_PATH_PREFIX = PATH_PREFIX + "." + PROJECT_ID + ".interval";
   private static final String INSERT_SQL_STR1 = ") values(";
   private static final String INSERT_SQL_STR2 = "(timestamp";
 
@@ -71,6 +74,7 @@ public class IotdbRecorder extends TestDataPersistence {
   private Statement globalStatement;
 
   private long count = 0;
+  private long resultIndex = 0;
 
   private static int threadID = 0;
   private int myID = 0;
@@ -112,6 +116,9 @@ public class IotdbRecorder extends TestDataPersistence {
     if (config.getBENCHMARK_WORK_MODE() == BenchmarkMode.TEST_WITH_DEFAULT_PATH) {
       initSingleTestMetrics();
       initResultMetrics();
+      if (config.getMETRIC_REPORT_INTERVAL() > 0) {
+        initIntervalMetrics();
+      }
     }
     if (config.getBENCHMARK_WORK_MODE() == BenchmarkMode.SERVER) {
       initSystemMetrics();
@@ -185,6 +192,31 @@ public class IotdbRecorder extends TestDataPersistence {
     }
   }
 
+  /** Interval metrics include: root.test.PROJECT_ID.interval.operation. */
+  private void initIntervalMetrics() {
+    try (Statement statement = connection.createStatement()) {
+      for (Operation op : Operation.values()) {
+        for (IntervalMetric metric : IntervalMetric.values()) {
+          String createSeriesSql =
+              String.format(
+                  CREATE_SERIES_SQL,
+                  INTERVAL_PATH_PREFIX + "." + op + "." + metric.getName(),
+                  DOUBLE_TYPE,
+                  ENCODING,
+                  COMPRESS);
+          statement.addBatch(createSeriesSql);
+        }
+      }
+      statement.executeBatch();
+      statement.clearBatch();
+    } catch (SQLException e) {
+      // ignore if already has the time series
+      if (!e.getMessage().contains(ALREADY_KEYWORD)) {
+        LOGGER.error(CRETE_SCHEMA_ERROR_HINT, e);
+      }
+    }
+  }
+
   private void initSingleTestMetrics() {
     try (Statement statement = connection.createStatement()) {
       for (SingleTestMetrics metrics : SingleTestMetrics.values()) {
@@ -238,23 +270,24 @@ public class IotdbRecorder extends TestDataPersistence {
   }
 
   @Override
-  protected void saveOperationResult(
-      String operation, int okPoint, int failPoint, double latency, String remark, String device) {
-    StringBuffer builder = new StringBuffer(OPERATION_RESULT_PREFIX);
-    long currTime = System.currentTimeMillis();
-    currTime = currTime * 1000000 + this.getThreadID();
-    builder.append(operation).append(INSERT_SQL_STR2);
-    for (SingleTestMetrics metrics : SingleTestMetrics.values()) {
-      builder.append(",").append(metrics.getName());
+  protected void saveOperationResults(List<OperationResult> results) {
+    for (OperationResult result : results) {
+      StringBuffer builder = new StringBuffer(OPERATION_RESULT_PREFIX);
+      // results of all clients are saved by one recorder, so make timestamps in 1 ms distinct
+      long currTime = result.getRecordTime() * 1000000 + resultIndex++ % 1000000;
+      builder.append(result.getOperation()).append(INSERT_SQL_STR2);
+      for (SingleTestMetrics metrics : SingleTestMetrics.values()) {
+        builder.append(",").append(metrics.getName());
+      }
+      builder.append(INSERT_SQL_STR1);
+      builder.append(currTime);
+      builder.append(",'").append(result.getDevice()).append("'");
+      builder.append(",").append(result.getOkPoint());
+      builder.append(",").append(result.getFailPoint());
+      builder.append(",").append(result.getLatency());
+      builder.append(",'").append(result.getRemark()).append("'");
+      addBatch(builder);
     }
-    builder.append(INSERT_SQL_STR1);
-    builder.append(currTime);
-    builder.append(",'").append(device).append("'");
-    builder.append(",").append(okPoint);
-    builder.append(",").append(failPoint);
-    builder.append(",").append(latency);
-    builder.append(",'").append(remark).append("'");
-    addBatch(builder);
   }
 
   @Override
@@ -269,6 +302,20 @@ public class IotdbRecorder extends TestDataPersistence {
     addBatch(builder);
   }
 
+  @Override
+  protected void saveIntervalResult(
+      long timestamp, String operation, Map<IntervalMetric, String> metrics) {
+    StringBuffer builder = new StringBuffer("INSERT INTO " + INTERVAL_PATH_PREFIX);
+    builder.append(".").append(operation).append(INSERT_SQL_STR2);
+    StringBuffer valueBuilder = new StringBuffer(INSERT_SQL_STR1).append(timestamp * 1000000);
+    for (IntervalMetric metric : IntervalMetric.values()) {
+      builder.append(",").append(metric.getName());
+      valueBuilder.append(",").append(metrics.get(metric));
+    }
+    builder.append(valueBuilder);
+    addBatch(builder);
+  }
+
   private void addBatch(StringBuffer builder) {
     builder.append(")");
     try {
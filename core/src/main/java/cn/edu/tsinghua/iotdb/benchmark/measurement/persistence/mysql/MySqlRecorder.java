@@ -22,7 +22,9 @@ package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.mysql;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.IntervalMetric;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.OperationResult;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
 import cn.edu.tsinghua.iotdb.benchmark.mode.enums.BenchmarkMode;
 import org.slf4j.Logger;
@@ -32,6 +34,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.sql.*;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Map;
 
 public class MySqlRecorder extends TestDataPersistence {
@@ -60,7 +63,6 @@ public class MySqlRecorder extends TestDataPersistence {
           config.getTEST_DATA_STORE_DB(),
           config.getTEST_DATA_STORE_USER(),
           config.getTEST_DATA_STORE_PW());
-  private static final int BATCH_SIZE = 5000;
   private static final int TIME_OUT = 100;
 
   private static final String PROJECT_ID =
@@ -79,6 +81,8 @@ public class MySqlRecorder extends TestDataPersistence {
           config.getREMARK(),
           projectDateFormat.format(new java.util.Date(EXP_TIME)));
 
+  private static final String INTERVAL_TABLE = PROJECT_ID + "_INTERVAL";
+
   private final String day;
   private Statement statement;
   private Connection connection = null;
@@ -156,6 +160,24 @@ public class MySqlRecorder extends TestDataPersistence {
                 + "\";");
         LOGGER.info("Table {} create success!", PROJECT_ID);
       }
+      if (config.getBENCHMARK_WORK_MODE() == BenchmarkMode.TEST_WITH_DEFAULT_PATH
+          && config.getMETRIC_REPORT_INTERVAL() > 0
+          && !hasTable(INTERVAL_TABLE)) {
+        StringBuilder columns = new StringBuilder();
+        for (IntervalMetric metric : IntervalMetric.values()) {
+          columns.append(", ").append(metric.getName()).append(" DOUBLE");
+        }
+        statement.executeUpdate(
+            "create table "
+                + INTERVAL_TABLE
+                + "(id INT UNSIGNED NOT NULL PRIMARY KEY AUTO_INCREMENT, recordTime varchar(50),"
+                + " operation varchar(50)"
+                + columns
+                + ")AUTO_INCREMENT = 1 COMMENT = \""
+                + COMMENT
+                + "\";");
+        LOGGER.info("Table {} create success!", INTERVAL_TABLE);
+      }
     } catch (SQLException e) {
       LOGGER.error("Failed to create tables in MySQL, because: ", e);
     }
@@ -194,33 +216,73 @@ public class MySqlRecorder extends TestDataPersistence {
   }
 
   @Override
-  protected void saveOperationResult(
-      String operation, int okPoint, int failPoint, double latency, String remark, String device) {
-    if (config.IncrementAndGetCURRENT_CSV_LINE() % 10 < config.getMYSQL_REAL_INSERT_RATE() * 10) {
+  protected void saveOperationResults(List<OperationResult> results) {
+    // save results in one multi-row insert
+    StringBuilder mysqlSql = new StringBuilder("insert into ").append(PROJECT_ID).append(" values");
+    int rowNum = 0;
+    for (OperationResult result : results) {
+      // only MYSQL_REAL_INSERT_RATE of results are saved
+      if (config.IncrementAndGetCURRENT_CSV_LINE() % 10
+          >= config.getMYSQL_REAL_INSERT_RATE() * 10) {
+        continue;
+      }
       double rate = 0;
-      if (latency > 0) {
+      if (result.getLatency() > 0) {
         // unit: points/second
-        rate = okPoint * 1000 / latency;
+        rate = result.getOkPoint() * 1000 / result.getLatency();
       }
-      String time = dateFormat.format(new java.util.Date(System.currentTimeMillis()));
-      String mysqlSql =
-          String.format(
-              "insert into %s values(NULL,'%s','%s','%s',%d,%d,%f,%f,'%s')",
-              PROJECT_ID, time, device, operation, okPoint, failPoint, latency, rate, remark);
-      // check whether the connection is valid
+      String time = dateFormat.format(new java.util.Date(result.getRecordTime()));
+      mysqlSql
+          .append(rowNum == 0 ? "" : ",")
+          .append(
+              String.format(
+                  "(NULL,'%s','%s','%s',%d,%d,%f,%f,'%s')",
+                  time,
+                  result.getDevice(),
+                  result.getOperation(),
+                  result.getOkPoint(),
+                  result.getFailPoint(),
+                  result.getLatency(),
+                  rate,
+                  result.getRemark()));
+      rowNum++;
+    }
+    if (rowNum == 0) {
+      return;
+    }
+    // check whether the connection is valid
+    try {
+      if (!connection.isValid(TIME_OUT)) {
+        LOGGER.info("Try to reconnect to MySQL");
+        try {
+          if (statement != null) {
+            statement.close();
+          }
+          if (connection != null) {
+            connection.close();
+          }
+          Class.forName(Constants.MYSQL_DRIVENAME);
+          connection = DriverManager.getConnection(URL);
+          statement = connection.createStatement();
+        } catch (Exception ex) {
+          LOGGER.error("Reconnect to MySQL failed because", ex);
+        }
+      }
+    } catch (SQLException ex) {
+      LOGGER.error("Test if MySQL connection is valid failed", ex);
+    }
+    // execute sql
+    try {
+      statement.execute(mysqlSql.toString());
+      count += rowNum;
+    } catch (Exception e) {
+      LOGGER.error("Exception: {}", e.getMessage(), e);
       try {
         if (!connection.isValid(TIME_OUT)) {
           LOGGER.info("Try to reconnect to MySQL");
           try {
-            if (statement != null) {
-              statement.close();
-            }
-            if (connection != null) {
-              connection.close();
-            }
             Class.forName(Constants.MYSQL_DRIVENAME);
             connection = DriverManager.getConnection(URL);
-            statement = connection.createStatement();
           } catch (Exception ex) {
             LOGGER.error("Reconnect to MySQL failed because", ex);
           }
@@ -228,33 +290,8 @@ public class MySqlRecorder extends TestDataPersistence {
       } catch (SQLException ex) {
         LOGGER.error("Test if MySQL connection is valid failed", ex);
       }
-      // execute sql
-      try {
-        statement.execute(mysqlSql);
-        count++;
-        if (count % BATCH_SIZE == 0) {
-          statement.executeBatch();
-          statement.clearBatch();
-        }
-      } catch (Exception e) {
-        LOGGER.error("Exception: {}", e.getMessage(), e);
-        try {
-          if (!connection.isValid(TIME_OUT)) {
-            LOGGER.info("Try to reconnect to MySQL");
-            try {
-              Class.forName(Constants.MYSQL_DRIVENAME);
-              connection = DriverManager.getConnection(URL);
-            } catch (Exception ex) {
-              LOGGER.error("Reconnect to MySQL failed because", ex);
-            }
-          }
-        } catch (SQLException ex) {
-          LOGGER.error("Test if MySQL connection is valid failed", ex);
-        }
-        LOGGER.error(
-            "{} save saveInsertProcess info into mysql failed! Error：{}", device, e.getMessage());
-        LOGGER.error("{}", mysqlSql);
-      }
+      LOGGER.error(
+          "save {} operation results into mysql failed! Error：{}", rowNum, e.getMessage());
     }
   }
 
@@ -268,6 +305,28 @@ public class MySqlRecorder extends TestDataPersistence {
     }
   }
 
+  @Override
+  protected void saveIntervalResult(
+      long timestamp, String operation, Map<IntervalMetric, String> metrics) {
+    StringBuilder sql =
+        new StringBuilder("insert into ")
+            .append(INTERVAL_TABLE)
+            .append(" values(NULL,'")
+            .append(dateFormat.format(new java.util.Date(timestamp)))
+            .append("','")
+            .append(operation)
+            .append("'");
+    for (IntervalMetric metric : IntervalMetric.values()) {
+      sql.append(",").append(metrics.get(metric));
+    }
+    sql.append(")");
+    try {
+      statement.executeUpdate(sql.toString());
+    } catch (SQLException e) {
+      LOGGER.error("{} failed to write interval result into MySQL, because: {}", sql, e);
+    }
+  }
+
   @Override
   public void saveTestConfig() {
     String sql = "";
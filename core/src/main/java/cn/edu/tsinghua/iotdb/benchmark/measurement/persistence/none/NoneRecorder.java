@@ -19,9 +19,12 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.none;
 
+import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.IntervalMetric;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.enums.SystemMetrics;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.OperationResult;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
 
+import java.util.List;
 import java.util.Map;
 
 public class NoneRecorder extends TestDataPersistence {
@@ -37,8 +40,7 @@ public class NoneRecorder extends TestDataPersistence {
   }
 
   @Override
-  protected void saveOperationResult(
-      String operation, int okPoint, int failPoint, double latency, String remark, String device) {
+  protected void saveOperationResults(List<OperationResult> results) {
     // DO nothing
   }
 
@@ -47,6 +49,12 @@ public class NoneRecorder extends TestDataPersistence {
     // DO nothing
   }
 
+  @Override
+  protected void saveIntervalResult(
+      long timestamp, String operation, Map<IntervalMetric, String> metrics) {
+    // DO nothing
+  }
+
   @Override
   public void close() {
     // DO nothing
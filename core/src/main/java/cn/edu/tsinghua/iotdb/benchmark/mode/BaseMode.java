@@ -20,10 +20,17 @@
 package cn.edu.tsinghua.iotdb.benchmark.mode;
 
 import cn.edu.tsinghua.iotdb.benchmark.client.Client;
+import cn.edu.tsinghua.iotdb.benchmark.client.ProgressReporter;
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
 import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.FreshnessProbe;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.IntervalReporter;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.TestPhaseController;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.OperationResultPipeline;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.PersistenceFactory;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
 import cn.edu.tsinghua.iotdb.benchmark.schema.MetaDataSchema;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
@@ -47,9 +54,11 @@ public abstract class BaseMode {
   private static final double NANO_TO_SECOND = 1000000000.0d;
 
   protected ExecutorService executorService =
-      Executors.newFixedThreadPool(config.getCLIENT_NUMBER());
-  protected CountDownLatch downLatch = new CountDownLatch(config.getCLIENT_NUMBER());
-  protected CyclicBarrier barrier = new CyclicBarrier(config.getCLIENT_NUMBER());
+      Executors.newFixedThreadPool(config.getTotalClientNumber());
+  protected CountDownLatch downLatch = new CountDownLatch(config.getTotalClientNumber());
+  protected CyclicBarrier barrier =
+      new CyclicBarrier(
+          config.getTotalClientNumber(), () -> TestPhaseController.getInstance().start());
   protected List<Client> clients = new ArrayList<>();
   protected Measurement measurement = new Measurement();
   protected long start = 0;
@@ -61,9 +70,12 @@ public abstract class BaseMode {
     if (!preCheck()) {
       return;
     }
-    for (int i = 0; i < config.getCLIENT_NUMBER(); i++) {
+    // connect to TEST_DATA_PERSISTENCE before test
+    OperationResultPipeline.getInstance().start();
+    for (int i = 0; i < config.getTotalClientNumber(); i++) {
       Client client = Client.getInstance(i, downLatch, barrier);
       if (client == null) {
+        OperationResultPipeline.getInstance().close();
         return;
       }
       clients.add(client);
@@ -71,12 +83,21 @@ public abstract class BaseMode {
     }
     start = System.nanoTime();
     executorService.shutdown();
+    ProgressReporter.getInstance().start();
+    IntervalReporter.getInstance().start();
+    FreshnessProbe.getInstance().start();
     try {
       // wait for all clients finish test
       downLatch.await();
     } catch (InterruptedException e) {
       LOGGER.error("Exception occurred during waiting for all threads finish.", e);
       Thread.currentThread().interrupt();
+    } finally {
+      ProgressReporter.getInstance().stop();
+      IntervalReporter.getInstance().stop();
+      FreshnessProbe.getInstance().stop();
+      // save results still in buffer
+      OperationResultPipeline.getInstance().close();
     }
     postCheck();
   }
@@ -121,6 +142,16 @@ public abstract class BaseMode {
     return true;
   }
 
+  /**
+   * @param st start time of test, unit: ns
+   * @param warmUpEndTime end time of warm-up, unit: ns, 0 if warm-up is not finished
+   * @return start time of the measured phase, which is st if warm-up is not finished, so that the
+   *     elapsed time is not 0
+   */
+  static long getMeasuredStartTime(long st, long warmUpEndTime) {
+    return warmUpEndTime > 0 ? Math.max(st, warmUpEndTime) : st;
+  }
+
   /** Save measure */
   protected static void finalMeasure(
       Measurement measurement,
@@ -131,7 +162,27 @@ public abstract class BaseMode {
     long en = System.nanoTime();
     LOGGER.info("All clients finished.");
     // sum up all the measurements and calculate statistics
+    // operations during warm-up are excluded, so is the time of warm-up
+    long warmUpEndTime = TestPhaseController.getInstance().getWarmUpEndTime();
+    if (TestPhaseController.getInstance().isWarmUpEnabled()) {
+      long measuredStart = getMeasuredStartTime(st, warmUpEndTime);
+      if (warmUpEndTime > 0) {
+        measurement.setWarmUpTime((measuredStart - st) / NANO_TO_SECOND);
+      } else {
+        LOGGER.warn(
+            "Warm-up was not finished when all clients finished, so all operations are counted "
+                + "as warm-up. Please increase LOOP or TEST_DURATION, or decrease WARMUP_DURATION");
+        measurement.setWarmUpTime((en - st) / NANO_TO_SECOND);
+        measurement.setWarmUpFinished(false);
+      }
+      st = measuredStart;
+    }
     measurement.setElapseTime((en - st) / NANO_TO_SECOND);
+    // the pipeline is closed before, so results of all operations are counted
+    OperationResultPipeline pipeline = OperationResultPipeline.getInstance();
+    if (pipeline.isEnabled()) {
+      measurement.setDroppedResultNum(pipeline.getDroppedNum());
+    }
     for (Client client : clients) {
       threadsMeasurements.add(client.getMeasurement());
     }
@@ -147,6 +198,11 @@ public abstract class BaseMode {
         measurement.showMeasurements(operations);
         measurement.showMetrics(operations);
       }
+      if (FreshnessProbe.isEnabled()) {
+        TestDataPersistence recorder = new PersistenceFactory().getPersistence();
+        FreshnessProbe.getInstance().show(recorder);
+        recorder.closeAsync();
+      }
     }
     if (config.isCSV_OUTPUT()) {
       measurement.outputCSV();
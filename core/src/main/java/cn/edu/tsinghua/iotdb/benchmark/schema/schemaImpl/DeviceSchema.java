@@ -96,6 +96,15 @@ public class DeviceSchema implements Cloneable {
     return new ArrayList<>(sensors);
   }
 
+  /** Get sensor by index without copying the sensor list */
+  public Sensor getSensor(int index) {
+    return sensors.get(index);
+  }
+
+  public int getSensorNum() {
+    return sensors.size();
+  }
+
   public void setSensors(List<Sensor> sensors) {
     this.sensors = sensors;
   }
@@ -149,7 +149,8 @@ public class CopyDataReader extends DataReader {
       for (Record record : copyBatch.getRecords()) {
         record.setTimestamp(record.getTimestamp() + deltaTimeStamp);
       }
-      return copyBatch;
+      // new batch so that no column cache built from the previous timestamps is reused
+      return new Batch(deviceSchema, copyBatch.getRecords());
     } else {
       List<Record> anomalyRecords = new ArrayList<>();
       // 特定长度的添加异常值
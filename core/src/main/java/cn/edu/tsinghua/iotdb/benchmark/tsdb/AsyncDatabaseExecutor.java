@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Execute operations of one database asynchronously with at most maxInFlight operations at the
+ * same time. maxInFlight instances of the database are created and every operation borrows an idle
+ * one in a bounded executor, except insertions of databases which support async natively.
+ */
+public class AsyncDatabaseExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AsyncDatabaseExecutor.class);
+
+  /** Operation on a database */
+  @FunctionalInterface
+  public interface DatabaseOperation {
+    Status execute(IDatabase database) throws Exception;
+  }
+
+  private final IDatabase database;
+  /** Resolved in init(), because databases may only support async after they are initialized */
+  private volatile boolean isAsyncSupported;
+  /** Instances created for this executor, database itself is not included */
+  private final List<IDatabase> extraDatabases = new ArrayList<>();
+  /** Idle instances */
+  private final BlockingQueue<IDatabase> idleDatabases;
+
+  private final ExecutorService executorService;
+
+  /**
+   * @param database the database used by synchronous operations, it is initialized and closed by
+   *     the caller
+   * @param dbConfig config to create more instances of the database
+   * @param maxInFlight max number of operations executed at the same time
+   */
+  public AsyncDatabaseExecutor(IDatabase database, DBConfig dbConfig, int maxInFlight)
+      throws TsdbException {
+    this.database = database;
+    this.executorService = Executors.newFixedThreadPool(maxInFlight);
+    this.idleDatabases = new ArrayBlockingQueue<>(maxInFlight);
+    idleDatabases.add(database);
+    DBFactory dbFactory = new DBFactory();
+    try {
+      for (int i = 1; i < maxInFlight; i++) {
+        IDatabase extraDatabase = dbFactory.getDatabase(dbConfig);
+        extraDatabases.add(extraDatabase);
+        idleDatabases.add(extraDatabase);
+      }
+    } catch (Exception e) {
+      throw new TsdbException(e);
+    }
+  }
+
+  /** Init the instances created by this executor, database must be initialized before */
+  public void init() throws TsdbException {
+    for (IDatabase extraDatabase : extraDatabases) {
+      extraDatabase.init();
+    }
+    isAsyncSupported = database.isAsyncSupported();
+  }
+
+  /** Insert one batch asynchronously */
+  public CompletableFuture<Status> insertOneBatch(Batch batch) {
+    if (isAsyncSupported) {
+      return database.insertOneBatchAsync(batch);
+    }
+    return submit(db -> db.insertOneBatch(batch));
+  }
+
+  /** Execute operation asynchronously on an idle instance */
+  public CompletableFuture<Status> submit(DatabaseOperation operation) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          IDatabase db = null;
+          try {
+            db = idleDatabases.take();
+            return operation.execute(db);
+          } catch (Exception e) {
+            throw new CompletionException(e);
+          } finally {
+            if (db != null) {
+              idleDatabases.offer(db);
+            }
+          }
+        },
+        executorService);
+  }
+
+  /** Close the executor and the instances created by it */
+  public void close() {
+    executorService.shutdown();
+    for (IDatabase extraDatabase : extraDatabases) {
+      try {
+        extraDatabase.close();
+      } catch (TsdbException e) {
+        LOGGER.error("Failed to close database because ", e);
+      }
+    }
+  }
+}
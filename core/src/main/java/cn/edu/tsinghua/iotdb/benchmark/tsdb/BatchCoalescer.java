@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gather batches of different devices and insert them by one request. A group of batches is
+ * inserted when it has maxBatchNum batches, when a batch of a device already in the group arrives,
+ * or windowMs after its first batch arrived. Groups are inserted one by one in another thread and
+ * each batch completes with the status of its group, so the latency of a batch includes the time it
+ * waits for the others.
+ */
+public class BatchCoalescer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchCoalescer.class);
+
+  /** Insert batches of different devices by one request */
+  @FunctionalInterface
+  public interface GroupInserter {
+    Status insert(List<Batch> batches) throws Exception;
+  }
+
+  private final int maxBatchNum;
+  private final long windowMs;
+  private final GroupInserter inserter;
+  /** Insert groups one by one */
+  private final ExecutorService insertService = Executors.newSingleThreadExecutor();
+  /** Flush groups whose window is over */
+  private final ScheduledExecutorService timerService =
+      Executors.newSingleThreadScheduledExecutor();
+
+  private List<Batch> batches = new ArrayList<>();
+  private List<CompletableFuture<Status>> futures = new ArrayList<>();
+  private final Set<DeviceSchema> devices = new HashSet<>();
+  /** Number of flushed groups, which tells a timer whether its group is already flushed */
+  private long flushedGroupNum = 0;
+
+  /**
+   * @param maxBatchNum max number of batches in one group
+   * @param windowMs max time that a batch waits for other batches, unit: ms
+   * @param inserter insert a group, which is called by one thread at a time
+   */
+  public BatchCoalescer(int maxBatchNum, long windowMs, GroupInserter inserter) {
+    this.maxBatchNum = maxBatchNum;
+    this.windowMs = windowMs;
+    this.inserter = inserter;
+  }
+
+  /** Add batch into current group, the future completes when the group is inserted */
+  public synchronized CompletableFuture<Status> add(Batch batch) {
+    if (devices.contains(batch.getDeviceSchema())) {
+      // a request contains at most one batch of each device
+      flush();
+    }
+    CompletableFuture<Status> future = new CompletableFuture<>();
+    batches.add(batch);
+    futures.add(future);
+    devices.add(batch.getDeviceSchema());
+    if (batches.size() >= maxBatchNum) {
+      flush();
+    } else if (batches.size() == 1) {
+      long groupIndex = flushedGroupNum;
+      timerService.schedule(() -> flushOnTimer(groupIndex), windowMs, TimeUnit.MILLISECONDS);
+    }
+    return future;
+  }
+
+  private synchronized void flushOnTimer(long groupIndex) {
+    if (groupIndex == flushedGroupNum) {
+      flush();
+    }
+  }
+
+  /** Hand current group to the insert thread, must be called with the lock held */
+  private void flush() {
+    if (batches.isEmpty()) {
+      return;
+    }
+    List<Batch> group = batches;
+    List<CompletableFuture<Status>> groupFutures = futures;
+    batches = new ArrayList<>(maxBatchNum);
+    futures = new ArrayList<>(maxBatchNum);
+    devices.clear();
+    flushedGroupNum++;
+    insertService.execute(() -> insert(group, groupFutures));
+  }
+
+  private void insert(List<Batch> group, List<CompletableFuture<Status>> groupFutures) {
+    Status status;
+    try {
+      status = inserter.insert(group);
+    } catch (Exception e) {
+      for (CompletableFuture<Status> future : groupFutures) {
+        future.completeExceptionally(e);
+      }
+      return;
+    }
+    for (CompletableFuture<Status> future : groupFutures) {
+      // the time cost is set on the status of each batch, so they are not shared
+      if (status.isOk()) {
+        future.complete(new Status(true));
+      } else {
+        future.complete(new Status(false, 0, status.getException(), status.getErrorMessage()));
+      }
+    }
+  }
+
+  /** Insert the remaining batches and wait for all groups to be inserted */
+  public void close() {
+    synchronized (this) {
+      flush();
+    }
+    timerService.shutdownNow();
+    insertService.shutdown();
+    try {
+      if (!insertService.awaitTermination(1, TimeUnit.MINUTES)) {
+        LOGGER.warn("Some coalesced batches are not inserted before closing");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
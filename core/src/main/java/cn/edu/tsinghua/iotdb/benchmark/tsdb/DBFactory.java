@@ -101,6 +101,9 @@ public class DBFactory {
           dbClass = Constants.OPENTSDB_CLASS;
           break;
         case DB_TIMESCALE:
+        case DB_TIMESCALE_COPY_TEXT:
+        case DB_TIMESCALE_COPY_BINARY:
+        case DB_TIMESCALE_MULTI_ROW:
           dbClass = Constants.TIMESCALEDB_CLASS;
           break;
         case DB_TDENGINE:
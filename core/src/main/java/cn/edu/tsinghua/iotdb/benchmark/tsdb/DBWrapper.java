@@ -26,10 +26,10 @@ import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.DeviceSummary;
 import cn.edu.tsinghua.iotdb.benchmark.exception.DBConnectException;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.FreshnessProbe;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Measurement;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
-import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.PersistenceFactory;
-import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.TestDataPersistence;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.persistence.OperationResultPipeline;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.*;
 import org.slf4j.Logger;
@@ -39,6 +39,10 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class DBWrapper implements IDatabase {
@@ -52,10 +56,34 @@ public class DBWrapper implements IDatabase {
 
   private List<IDatabase> databases = new ArrayList<>();
   private Measurement measurement;
-  private TestDataPersistence recorder;
+  private final OperationResultPipeline resultPipeline = OperationResultPipeline.getInstance();
+  private final FreshnessProbe freshnessProbe = FreshnessProbe.getInstance();
+  /**
+   * Intended start time of current operation in open loop modes, unit: ns. It is consumed by the
+   * first measured operation, 0 means not set
+   */
+  private long intendedStartTime = 0;
+  /** Max number of operations in flight, operations are pipelined if it is larger than 1 */
+  private final int maxInFlight;
+  /** Async executor of each database, empty if operations are not pipelined */
+  private final List<AsyncDatabaseExecutor> asyncExecutors = new ArrayList<>();
+  /** Limit the number of operations in flight */
+  private final Semaphore inFlightPermits;
+  /** Connect exception of pipelined insertion, thrown by the next insertion */
+  private volatile DBConnectException asyncConnectException = null;
 
   /** Use DBFactory to get database */
   public DBWrapper(List<DBConfig> dbConfigs, Measurement measurement) {
+    this(dbConfigs, measurement, 1);
+  }
+
+  /**
+   * Use DBFactory to get database
+   *
+   * @param maxInFlight max number of operations in flight, operations are pipelined if it is larger
+   *     than 1
+   */
+  public DBWrapper(List<DBConfig> dbConfigs, Measurement measurement, int maxInFlight) {
     DBFactory dbFactory = new DBFactory();
     for (DBConfig dbConfig : dbConfigs) {
       try {
@@ -69,43 +97,207 @@ public class DBWrapper implements IDatabase {
       }
     }
     this.measurement = measurement;
-    PersistenceFactory persistenceFactory = new PersistenceFactory();
-    recorder = persistenceFactory.getPersistence();
+    if (maxInFlight > 1) {
+      try {
+        for (int i = 0; i < databases.size(); i++) {
+          asyncExecutors.add(
+              new AsyncDatabaseExecutor(databases.get(i), dbConfigs.get(i), maxInFlight));
+        }
+      } catch (TsdbException e) {
+        LOGGER.error("Failed to create async executor, operations will not be pipelined", e);
+        asyncExecutors.clear();
+      }
+    }
+    this.maxInFlight = asyncExecutors.isEmpty() ? 1 : maxInFlight;
+    this.inFlightPermits = new Semaphore(this.maxInFlight);
+  }
+
+  /** Whether operations are pipelined */
+  private boolean isPipelined() {
+    return !asyncExecutors.isEmpty();
   }
 
   @Override
   public Status insertOneBatch(Batch batch) throws DBConnectException {
+    if (isPipelined()) {
+      insertOneBatchPipelined(batch);
+      return null;
+    }
     Status status = null;
     Operation operation = Operation.INGESTION;
     try {
-      for (IDatabase database : databases) {
+      for (int i = 0; i < databases.size(); i++) {
         long start = System.nanoTime();
-        status = database.insertOneBatch(batch);
+        status = databases.get(i).insertOneBatch(batch);
         status = measureOneBatch(status, operation, batch, start);
+        if (status.isOk()) {
+          freshnessProbe.tag(i, batch);
+        }
       }
     } catch (DBConnectException ex) {
       throw ex;
     } catch (Exception e) {
-      measurement.addFailOperationNum(operation);
-      measurement.addFailPointNum(operation, batch.pointNum());
-      recorder.saveOperationResultAsync(
-          operation.getName(),
-          0,
-          batch.pointNum(),
-          0,
-          e.toString(),
-          batch.getDeviceSchema().getDevice());
-      LOGGER.error("Failed to insert one batch because unexpected exception: ", e);
+      handleUnexpectedBatchException(operation, batch, e, measurement.getCurrentSegment());
+    } finally {
+      batch.release();
     }
     return status;
   }
 
+  /**
+   * Insert one batch without waiting for the result, the result is measured when it completes.
+   * Block if there are already maxInFlight operations in flight.
+   */
+  private void insertOneBatchPipelined(Batch batch) throws DBConnectException {
+    if (asyncConnectException != null) {
+      batch.release();
+      throw asyncConnectException;
+    }
+    Operation operation = Operation.INGESTION;
+    long intendedStartTime = takeIntendedStartTime();
+    // operations completed in later segments still belong to the segment they are issued in
+    int segment = measurement.getCurrentSegment();
+    // the batch is released when the insertions into all databases complete
+    AtomicInteger pendingInsertions = new AtomicInteger(asyncExecutors.size());
+    for (int i = 0; i < asyncExecutors.size(); i++) {
+      AsyncDatabaseExecutor asyncExecutor = asyncExecutors.get(i);
+      int databaseIndex = i;
+      inFlightPermits.acquireUninterruptibly();
+      long start = System.nanoTime();
+      long intendedStartTimeOfThis = intendedStartTime;
+      intendedStartTime = 0;
+      CompletableFuture<Status> future;
+      try {
+        future = asyncExecutor.insertOneBatch(batch);
+      } catch (Exception e) {
+        inFlightPermits.release();
+        synchronized (measurement) {
+          handleUnexpectedBatchException(operation, batch, e, segment);
+        }
+        if (pendingInsertions.decrementAndGet() == 0) {
+          batch.release();
+        }
+        continue;
+      }
+      future.whenComplete(
+          (status, throwable) -> {
+            try {
+              synchronized (measurement) {
+                if (throwable != null) {
+                  Exception e = unwrapException(throwable);
+                  if (e instanceof DBConnectException) {
+                    asyncConnectException = (DBConnectException) e;
+                  }
+                  handleUnexpectedBatchException(operation, batch, e, segment);
+                } else {
+                  measureOneBatch(
+                      status, operation, batch, start, intendedStartTimeOfThis, segment);
+                  if (status.isOk()) {
+                    freshnessProbe.tag(databaseIndex, batch);
+                  }
+                }
+              }
+            } finally {
+              if (pendingInsertions.decrementAndGet() == 0) {
+                batch.release();
+              }
+              inFlightPermits.release();
+            }
+          });
+    }
+  }
+
+  /**
+   * Execute query without waiting for the result, the result is measured when it completes. Block
+   * if there are already maxInFlight operations in flight.
+   */
+  private void queryPipelined(
+      Operation operation, String device, AsyncDatabaseExecutor.DatabaseOperation query) {
+    long intendedStartTime = takeIntendedStartTime();
+    int segment = measurement.getCurrentSegment();
+    for (AsyncDatabaseExecutor asyncExecutor : asyncExecutors) {
+      inFlightPermits.acquireUninterruptibly();
+      long start = System.nanoTime();
+      long intendedStartTimeOfThis = intendedStartTime;
+      intendedStartTime = 0;
+      asyncExecutor
+          .submit(query)
+          .whenComplete(
+              (status, throwable) -> {
+                try {
+                  synchronized (measurement) {
+                    if (throwable != null) {
+                      handleUnexpectedQueryException(
+                          operation, unwrapException(throwable), device, segment);
+                    } else {
+                      status.setTimeCost(System.nanoTime() - start);
+                      handleQueryOperation(
+                          status, operation, device, intendedStartTimeOfThis, segment);
+                    }
+                  }
+                } finally {
+                  inFlightPermits.release();
+                }
+              });
+    }
+  }
+
+  private Exception unwrapException(Throwable throwable) {
+    Throwable cause = throwable;
+    if (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause instanceof Exception ? (Exception) cause : new Exception(cause);
+  }
+
+  /** Wait for all operations in flight to finish */
+  private void waitForInFlightOperations() {
+    inFlightPermits.acquireUninterruptibly(maxInFlight);
+    inFlightPermits.release(maxInFlight);
+  }
+
+  /** Handle unexpected exception of insertion */
+  private void handleUnexpectedBatchException(
+      Operation operation, Batch batch, Exception e, int segment) {
+    measurement.addFailOperationNum(operation, segment);
+    measurement.addFailPointNum(operation, batch.pointNum());
+    resultPipeline.offer(
+        operation.getName(),
+        0,
+        batch.pointNum(),
+        0,
+        e.toString(),
+        batch.getDeviceSchema().getDevice());
+    LOGGER.error("Failed to insert one batch because unexpected exception: ", e);
+  }
+
   /** Measure one batch */
   private Status measureOneBatch(Status status, Operation operation, Batch batch, long start) {
+    return measureOneBatch(
+        status, operation, batch, start, takeIntendedStartTime(), measurement.getCurrentSegment());
+  }
+
+  /**
+   * Measure one batch, intendedStartTime is 0 if not in open loop modes, segment is the segment of
+   * LOAD_PROFILE when the batch is issued
+   */
+  private Status measureOneBatch(
+      Status status,
+      Operation operation,
+      Batch batch,
+      long start,
+      long intendedStartTime,
+      int segment) {
     long end = System.nanoTime();
     status.setTimeCost(end - start);
     if (status.isOk()) {
-      measureOkOperation(status, operation, batch.pointNum(), batch.getDeviceSchema().getDevice());
+      measureOkOperation(
+          status,
+          operation,
+          batch.pointNum(),
+          batch.getDeviceSchema().getDevice(),
+          intendedStartTime,
+          segment);
       if (!config.isIS_QUIET_MODE()) {
         double timeInMillis = status.getTimeCost() / NANO_TO_MILLIS;
         String formatTimeInMillis = String.format("%.2f", timeInMillis);
@@ -119,9 +311,9 @@ public class DBWrapper implements IDatabase {
             throughput);
       }
     } else {
-      measurement.addFailOperationNum(operation);
+      measurement.addFailOperationNum(operation, segment);
       measurement.addFailPointNum(operation, batch.pointNum());
-      recorder.saveOperationResultAsync(
+      resultPipeline.offer(
           operation.getName(),
           0,
           batch.pointNum(),
@@ -141,6 +333,10 @@ public class DBWrapper implements IDatabase {
     if (preciseQuery.getDeviceSchema().size() > 0) {
       device = preciseQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(operation, device, database -> database.preciseQuery(preciseQuery));
+      return null;
+    }
     try {
       List<Status> statuses = new ArrayList<>();
       for (IDatabase database : databases) {
@@ -166,6 +362,10 @@ public class DBWrapper implements IDatabase {
     if (rangeQuery.getDeviceSchema().size() > 0) {
       device = rangeQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(operation, device, database -> database.rangeQuery(rangeQuery));
+      return null;
+    }
     try {
       List<Status> statuses = new ArrayList<>();
       for (IDatabase database : databases) {
@@ -191,6 +391,10 @@ public class DBWrapper implements IDatabase {
     if (valueRangeQuery.getDeviceSchema().size() > 0) {
       device = valueRangeQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(operation, device, database -> database.valueRangeQuery(valueRangeQuery));
+      return null;
+    }
     try {
       List<Status> statuses = new ArrayList<>();
       for (IDatabase database : databases) {
@@ -216,6 +420,10 @@ public class DBWrapper implements IDatabase {
     if (aggRangeQuery.getDeviceSchema().size() > 0) {
       device = aggRangeQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(operation, device, database -> database.aggRangeQuery(aggRangeQuery));
+      return null;
+    }
     try {
       List<Status> statuses = new ArrayList<>();
       for (IDatabase database : databases) {
@@ -241,6 +449,10 @@ public class DBWrapper implements IDatabase {
     if (aggValueQuery.getDeviceSchema().size() > 0) {
       device = aggValueQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(operation, device, database -> database.aggValueQuery(aggValueQuery));
+      return null;
+    }
     try {
       List<Status> statuses = new ArrayList<>();
       for (IDatabase database : databases) {
@@ -266,6 +478,11 @@ public class DBWrapper implements IDatabase {
     if (aggRangeValueQuery.getDeviceSchema().size() > 0) {
       device = aggRangeValueQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(
+          operation, device, database -> database.aggRangeValueQuery(aggRangeValueQuery));
+      return null;
+    }
     try {
       List<Status> statuses = new ArrayList<>();
       for (IDatabase database : databases) {
@@ -291,6 +508,10 @@ public class DBWrapper implements IDatabase {
     if (groupByQuery.getDeviceSchema().size() > 0) {
       device = groupByQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(operation, device, database -> database.groupByQuery(groupByQuery));
+      return null;
+    }
     try {
       List<Status> statuses = new ArrayList<>();
       for (IDatabase database : databases) {
@@ -316,6 +537,10 @@ public class DBWrapper implements IDatabase {
     if (latestPointQuery.getDeviceSchema().size() > 0) {
       device = latestPointQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(operation, device, database -> database.latestPointQuery(latestPointQuery));
+      return null;
+    }
     try {
       List<Status> statuses = new ArrayList<>();
       for (IDatabase database : databases) {
@@ -341,6 +566,10 @@ public class DBWrapper implements IDatabase {
     if (rangeQuery.getDeviceSchema().size() > 0) {
       device = rangeQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(operation, device, database -> database.rangeQueryOrderByDesc(rangeQuery));
+      return null;
+    }
     try {
       rangeQuery.setDesc(true);
       List<Status> statuses = new ArrayList<>();
@@ -367,6 +596,11 @@ public class DBWrapper implements IDatabase {
     if (valueRangeQuery.getDeviceSchema().size() > 0) {
       device = valueRangeQuery.getDeviceSchema().get(0).getDevice();
     }
+    if (isPipelined()) {
+      queryPipelined(
+          operation, device, database -> database.valueRangeQueryOrderByDesc(valueRangeQuery));
+      return null;
+    }
     try {
       valueRangeQuery.setDesc(true);
       List<Status> statuses = new ArrayList<>();
@@ -468,6 +702,9 @@ public class DBWrapper implements IDatabase {
     for (IDatabase database : databases) {
       database.init();
     }
+    for (AsyncDatabaseExecutor asyncExecutor : asyncExecutors) {
+      asyncExecutor.init();
+    }
   }
 
   @Override
@@ -488,12 +725,15 @@ public class DBWrapper implements IDatabase {
 
   @Override
   public void close() throws TsdbException {
+    if (isPipelined()) {
+      waitForInFlightOperations();
+      for (AsyncDatabaseExecutor asyncExecutor : asyncExecutors) {
+        asyncExecutor.close();
+      }
+    }
     for (IDatabase database : databases) {
       database.close();
     }
-    if (recorder != null) {
-      recorder.closeAsync();
-    }
   }
 
   @Override
@@ -522,9 +762,45 @@ public class DBWrapper implements IDatabase {
     return true;
   }
 
+  /**
+   * Set the intended start time of the next operation, the latency measured from it is recorded as
+   * corrected latency
+   *
+   * @param intendedStartTime unit: ns (System.nanoTime)
+   */
+  public void setIntendedStartTime(long intendedStartTime) {
+    this.intendedStartTime = intendedStartTime;
+  }
+
+  /**
+   * Get and reset the intended start time. The first operation after setIntendedStartTime counts
+   * from the intended start time, the others of the same loop count from their actual start time.
+   *
+   * @return intended start time, 0 if not set
+   */
+  private long takeIntendedStartTime() {
+    long result = intendedStartTime;
+    intendedStartTime = 0;
+    return result;
+  }
+
+  /** Get the corrected latency of operation, intendedStartTime is 0 if not set */
+  private double getCorrectedLatencyInMillis(Status status, long intendedStartTime) {
+    if (intendedStartTime == 0) {
+      return status.getTimeCost() / NANO_TO_MILLIS;
+    }
+    long correctedLatency = Math.max(System.nanoTime() - intendedStartTime, status.getTimeCost());
+    return correctedLatency / NANO_TO_MILLIS;
+  }
+
   /** Measure ok operation 1. operation is execute as expected way 2. occurs expected exception */
   private void measureOkOperation(
-      Status status, Operation operation, int okPointNum, String device) {
+      Status status,
+      Operation operation,
+      int okPointNum,
+      String device,
+      long intendedStartTime,
+      int segment) {
     double latencyInMillis = status.getTimeCost() / NANO_TO_MILLIS;
     if (config.isUSE_MEASUREMENT()) {
       if (latencyInMillis < 0) {
@@ -533,11 +809,17 @@ public class DBWrapper implements IDatabase {
             operation.getName());
         latencyInMillis = 0;
       }
-      measurement.addOperationLatency(operation, latencyInMillis);
-      measurement.addOkOperationNum(operation);
-      measurement.addOkPointNum(operation, okPointNum);
+      measurement.addOperationLatency(operation, latencyInMillis, segment);
+      if (config.getARRIVAL_MODE().isOpenLoop()) {
+        measurement.addOperationCorrectedLatency(
+            operation,
+            Math.max(getCorrectedLatencyInMillis(status, intendedStartTime), latencyInMillis),
+            segment);
+      }
+      measurement.addOkOperationNum(operation, segment);
+      measurement.addOkPointNum(operation, okPointNum, segment);
     }
-    recorder.saveOperationResultAsync(
+    resultPipeline.offer(
         operation.getName(), okPointNum, 0, latencyInMillis, "", device);
   }
 
@@ -656,8 +938,20 @@ public class DBWrapper implements IDatabase {
 
   /** Handle unexpected exception */
   public void handleQueryOperation(Status status, Operation operation, String device) {
+    handleQueryOperation(
+        status, operation, device, takeIntendedStartTime(), measurement.getCurrentSegment());
+  }
+
+  private void handleQueryOperation(
+      Status status, Operation operation, String device, long intendedStartTime, int segment) {
     if (status.isOk()) {
-      measureOkOperation(status, operation, status.getQueryResultPointNum(), device);
+      measureOkOperation(
+          status,
+          operation,
+          status.getQueryResultPointNum(),
+          device,
+          intendedStartTime,
+          segment);
       if (!config.isIS_QUIET_MODE()) {
         double timeInMillis = status.getTimeCost() / NANO_TO_MILLIS;
         String formatTimeInMillis = String.format("%.2f", timeInMillis);
@@ -672,10 +966,10 @@ public class DBWrapper implements IDatabase {
     } else {
       LOGGER.error("Execution fail: {}", status.getErrorMessage(), status.getException());
       if (config.isUSE_MEASUREMENT()) {
-        measurement.addFailOperationNum(operation);
+        measurement.addFailOperationNum(operation, segment);
       }
       // currently, we do not have expected result point number for query
-      recorder.saveOperationResultAsync(
+      resultPipeline.offer(
           operation.getName(), 0, 0, 0, status.getException().toString(), device);
     }
   }
@@ -686,11 +980,16 @@ public class DBWrapper implements IDatabase {
    * @see DBWrapper
    */
   public void handleUnexpectedQueryException(Operation operation, Exception e, String device) {
+    handleUnexpectedQueryException(operation, e, device, measurement.getCurrentSegment());
+  }
+
+  private void handleUnexpectedQueryException(
+      Operation operation, Exception e, String device, int segment) {
     if (config.isUSE_MEASUREMENT()) {
-      measurement.addFailOperationNum(operation);
+      measurement.addFailOperationNum(operation, segment);
       // currently, we do not have expected result point number for query
       LOGGER.error(ERROR_LOG, operation, e);
-      recorder.saveOperationResultAsync(operation.getName(), 0, 0, 0, e.toString(), device);
+      resultPipeline.offer(operation.getName(), 0, 0, 0, e.toString(), device);
     }
   }
 }
@@ -30,6 +30,7 @@ import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.*;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface IDatabase {
 
@@ -65,6 +66,33 @@ public interface IDatabase {
    */
   Status insertOneBatch(Batch batch) throws DBConnectException;
 
+  /**
+   * Insert one batch asynchronously. Databases which can pipeline requests should override it and
+   * isAsyncSupported(), the default implementation inserts in the calling thread.
+   *
+   * @param batch universal insertion data structure
+   * @return future of status, completed exceptionally with DBConnectException if failed to connect
+   */
+  default CompletableFuture<Status> insertOneBatchAsync(Batch batch) {
+    CompletableFuture<Status> future = new CompletableFuture<>();
+    try {
+      future.complete(insertOneBatch(batch));
+    } catch (DBConnectException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Whether insertOneBatchAsync is implemented natively. If true, insertOneBatchAsync must be safe
+   * to be called while other operations of the same instance are running. It is called after
+   * init(), databases which do not support it are pipelined by one instance per in-flight
+   * operation.
+   */
+  default boolean isAsyncSupported() {
+    return false;
+  }
+
   /**
    * Query data of one or multiple sensors at a precise timestamp. e.g. select v1... from data where
    * time = ? and device in ?
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A SQL statement compiled into constant fragments and parameters, so that only the literals are
+ * filled in when it is executed, e.g. SELECT s_0 FROM root.sg.d_0 WHERE time >= {0} AND time <=
+ * {1}. A parameter can be used more than once.
+ */
+public class SqlTemplate {
+
+  /** fragments[i] is followed by parameter i, and the last fragment ends the statement */
+  private final String[] fragments;
+  /** Index of the value filled in each parameter */
+  private final int[] parameters;
+  /** Total length of fragments */
+  private final int length;
+
+  private SqlTemplate(String[] fragments, int[] parameters) {
+    this.fragments = fragments;
+    this.parameters = parameters;
+    int length = 0;
+    for (String fragment : fragments) {
+      length += fragment.length();
+    }
+    this.length = length;
+  }
+
+  /** Fill in the parameters, a parameter with index i is replaced by values[i] */
+  public String fill(long... values) {
+    StringBuilder builder = new StringBuilder(length + parameters.length * 20);
+    for (int i = 0; i < parameters.length; i++) {
+      builder.append(fragments[i]).append(values[parameters[i]]);
+    }
+    return builder.append(fragments[parameters.length]).toString();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < parameters.length; i++) {
+      builder.append(fragments[i]).append("{").append(parameters[i]).append("}");
+    }
+    return builder.append(fragments[parameters.length]).toString();
+  }
+
+  public static class Builder {
+
+    private final List<String> fragments = new ArrayList<>();
+    private final List<Integer> parameters = new ArrayList<>();
+    private final StringBuilder fragment = new StringBuilder();
+
+    public Builder append(Object text) {
+      fragment.append(text);
+      return this;
+    }
+
+    /** Append a parameter, which is filled by the value with index when the template is filled */
+    public Builder appendParameter(int index) {
+      fragments.add(fragment.toString());
+      fragment.setLength(0);
+      parameters.add(index);
+      return this;
+    }
+
+    public SqlTemplate build() {
+      String[] allFragments = fragments.toArray(new String[fragments.size() + 1]);
+      allFragments[fragments.size()] = fragment.toString();
+      int[] allParameters = new int[parameters.size()];
+      for (int i = 0; i < allParameters.length; i++) {
+        allParameters[i] = parameters.get(i);
+      }
+      return new SqlTemplate(allFragments, allParameters);
+    }
+  }
+}
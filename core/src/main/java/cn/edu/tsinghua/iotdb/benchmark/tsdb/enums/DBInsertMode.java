@@ -25,7 +25,10 @@ public enum DBInsertMode {
   INSERT_USE_SESSION_TABLET("SESSION_BY_TABLET"),
   INSERT_USE_SESSION_RECORD("SESSION_BY_RECORD"),
   INSERT_USE_SESSION_RECORDS("SESSION_BY_RECORDS"),
-  INSERT_USE_SESSION_POOL("SESSION_POOL");
+  INSERT_USE_SESSION_POOL("SESSION_POOL"),
+  INSERT_USE_COPY_TEXT("COPY_TEXT"),
+  INSERT_USE_COPY_BINARY("COPY_BINARY"),
+  INSERT_USE_MULTI_ROW("MULTI_ROW");
 
   String insertType;
 
@@ -51,6 +51,9 @@ public enum DBSwitch {
   DB_CTS(DBType.CTSDB, null, null),
   DB_KAIROS(DBType.KairosDB, null, null),
   DB_TIMESCALE(DBType.TimescaleDB, null, null),
+  DB_TIMESCALE_COPY_TEXT(DBType.TimescaleDB, null, DBInsertMode.INSERT_USE_COPY_TEXT),
+  DB_TIMESCALE_COPY_BINARY(DBType.TimescaleDB, null, DBInsertMode.INSERT_USE_COPY_BINARY),
+  DB_TIMESCALE_MULTI_ROW(DBType.TimescaleDB, null, DBInsertMode.INSERT_USE_MULTI_ROW),
   DB_FAKE(DBType.FakeDB, null, null),
   DB_TDENGINE(DBType.TDengine, null, null),
   DB_QUESTDB(DBType.QuestDB, null, null),
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb.enums;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** How the data of devices is laid out in the table of a relational database */
+public enum TableLayout {
+  /** One row per timestamp of a device, with one column per sensor */
+  WIDE,
+  /** One row per point, with columns of device, sensor and value */
+  NARROW;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TableLayout.class);
+
+  public static TableLayout getTableLayout(String name) {
+    for (TableLayout tableLayout : TableLayout.values()) {
+      if (tableLayout.name().equalsIgnoreCase(name)) {
+        return tableLayout;
+      }
+    }
+    LOGGER.warn("Unknown table layout: " + name + ", use WIDE.");
+    return TableLayout.WIDE;
+  }
+
+  @Override
+  public String toString() {
+    return name();
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.workload;
+
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Device schemas of generated batches, so that recycled batches do not create a new schema every
+ * time. Schemas of single sensor (IS_SENSOR_TS_ALIGNMENT=false) are allocated per device lazily.
+ */
+class DeviceSchemaCache {
+
+  /** schema with all sensors of each device */
+  private final AtomicReferenceArray<DeviceSchema> deviceSchemas;
+  /** schema of each sensor of each device */
+  private final AtomicReferenceArray<AtomicReferenceArray<DeviceSchema>> sensorSchemas;
+
+  private final int sensorNumber;
+
+  DeviceSchemaCache(int deviceNumber, int sensorNumber) {
+    this.deviceSchemas = new AtomicReferenceArray<>(deviceNumber);
+    this.sensorSchemas = new AtomicReferenceArray<>(deviceNumber);
+    this.sensorNumber = sensorNumber;
+  }
+
+  /** @return schema of device with all sensors, null if not cached */
+  DeviceSchema get(int deviceIndex) {
+    return deviceSchemas.get(deviceIndex);
+  }
+
+  void put(int deviceIndex, DeviceSchema deviceSchema) {
+    deviceSchemas.set(deviceIndex, deviceSchema);
+  }
+
+  /** @return schema of device with one sensor, null if not cached */
+  DeviceSchema get(int deviceIndex, int sensorIndex) {
+    AtomicReferenceArray<DeviceSchema> schemas = sensorSchemas.get(deviceIndex);
+    return schemas == null ? null : schemas.get(sensorIndex);
+  }
+
+  void put(int deviceIndex, int sensorIndex, DeviceSchema deviceSchema) {
+    AtomicReferenceArray<DeviceSchema> schemas = sensorSchemas.get(deviceIndex);
+    if (schemas == null) {
+      sensorSchemas.compareAndSet(deviceIndex, null, new AtomicReferenceArray<>(sensorNumber));
+      schemas = sensorSchemas.get(deviceIndex);
+    }
+    schemas.set(sensorIndex, deviceSchema);
+  }
+}
@@ -21,12 +21,10 @@ package cn.edu.tsinghua.iotdb.benchmark.workload;
 
 import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
 import cn.edu.tsinghua.iotdb.benchmark.distribution.ProbTool;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.RandomStream;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
-import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
-import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.entity.BatchPool;
 import cn.edu.tsinghua.iotdb.benchmark.exception.WorkloadException;
-import cn.edu.tsinghua.iotdb.benchmark.function.Function;
-import cn.edu.tsinghua.iotdb.benchmark.function.FunctionParam;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.utils.TimeUtils;
 import org.slf4j.Logger;
@@ -40,22 +38,25 @@ public abstract class GenerateDataWorkLoad extends DataWorkLoad {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GenerateDataWorkLoad.class);
 
-  protected static final Random poissonRandom = new Random(config.getDATA_SEED());
-  protected static final Random dataRandom = new Random(config.getDATA_SEED());
-  protected static final Random timestampRandom = new Random(config.getDATA_SEED());
+  /** Random of out-of-order decisions of the batch being generated by each thread */
+  private static final ThreadLocal<Random> outOfOrderRandom = ThreadLocal.withInitial(Random::new);
   protected static final String CHAR_TABLE =
       "1234567890abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
   protected static final long timeStampConst =
       TimeUtils.getTimestampConst(config.getTIMESTAMP_PRECISION());
   /**
-   * workloadValues[SENSOR_NUMBER][WORKLOAD_BUFFER_SIZE]。 For those regular data, a piece of data of
-   * each sensor is stored for rapid generation according to the law this must after timeStampConst
+   * For those regular data, WORKLOAD_BUFFER_SIZE values of each sensor are stored for rapid
+   * generation, null if there is no need to write
    */
-  protected static final Object[][] workloadValues = initWorkloadValues();
+  protected static final WorkloadBuffer workloadValues = initWorkloadValues();
 
   protected List<DeviceSchema> deviceSchemas = new ArrayList<>();
   protected final ProbTool probTool = new ProbTool();
   protected int deviceSchemaSize = 0;
+  /** Pool of reusable batches, null if batches are not recycled */
+  protected BatchPool batchPool = null;
+  /** Cache of device schemas of batches, null if batches are not recycled */
+  protected DeviceSchemaCache deviceSchemaCache = null;
 
   @Override
   public Batch getOneBatch() throws WorkloadException {
@@ -85,25 +86,45 @@ public abstract class GenerateDataWorkLoad extends DataWorkLoad {
 
   protected abstract Batch getLocalOutOfOrderBatch();
 
+  /** Create pool of batches and cache of schemas if batches are recycled */
+  protected void initBatchPool(int poolSize, int deviceNumber, int sensorNumber) {
+    if (poolSize > 0) {
+      batchPool = new BatchPool(poolSize, config.getBATCH_SIZE_PER_WRITE());
+      deviceSchemaCache = new DeviceSchemaCache(deviceNumber, sensorNumber);
+    }
+  }
+
+  /** Get an empty batch of device, the batch is taken from pool if batches are recycled */
+  protected Batch newBatch(DeviceSchema deviceSchema, int colIndex) {
+    if (batchPool != null) {
+      return batchPool.acquire(deviceSchema, colIndex);
+    }
+    Batch batch = new Batch(config.getBATCH_SIZE_PER_WRITE());
+    batch.setDeviceSchema(deviceSchema);
+    batch.setColIndex(colIndex);
+    return batch;
+  }
+
   /** Add one row into batch, row contains data from all sensors */
   protected void addOneRowIntoBatch(Batch batch, long stepOffset) {
-    List<Object> values = new ArrayList<>();
-    long currentTimestamp = getCurrentTimestamp(stepOffset);
-    if (batch.getColIndex() == -1) {
-      for (int i = 0; i < config.getSENSOR_NUMBER(); i++) {
-        values.add(
-            workloadValues[i][(int) (Math.abs(stepOffset) % config.getWORKLOAD_BUFFER_SIZE())]);
-      }
-    } else {
-      values.add(
-          workloadValues[batch.getColIndex()][
-              (int) (Math.abs(stepOffset) % config.getWORKLOAD_BUFFER_SIZE())]);
-    }
-    batch.add(currentTimestamp, values);
+    int deviceId = batch.getDeviceSchema().getDeviceId();
+    long currentTimestamp = getCurrentTimestamp(deviceId, stepOffset);
+    int row = batch.addRow(currentTimestamp);
+    workloadValues.copyRow(batch, row, deviceId, stepOffset);
   }
 
-  /** Get timestamp according to stepOffset */
-  protected long getCurrentTimestamp(long stepOffset) {
+  /**
+   * Random of out-of-order decisions of one batch, which only depends on device and the index of
+   * batch, so it is the same no matter which thread generates the batch
+   */
+  protected Random getOutOfOrderRandom(int deviceId, long batchIndex) {
+    Random random = outOfOrderRandom.get();
+    RandomStream.OUT_OF_ORDER.reset(random, deviceId, batchIndex);
+    return random;
+  }
+
+  /** Get timestamp of device according to stepOffset */
+  protected long getCurrentTimestamp(int deviceId, long stepOffset) {
     // offset of data ahead
     long offset = config.getPOINT_STEP() * stepOffset;
     // timestamp for next data
@@ -114,7 +135,7 @@ public abstract class GenerateDataWorkLoad extends DataWorkLoad {
       timestamp += config.getPOINT_STEP();
     } else {
       // data is not in regular frequency, then use random
-      timestamp += config.getPOINT_STEP() * timestampRandom.nextDouble();
+      timestamp += config.getPOINT_STEP() * RandomStream.TIMESTAMP.nextDouble(deviceId, stepOffset);
     }
     long currentTimestamp = Constants.START_TIMESTAMP * timeStampConst + offset + timestamp;
     if (config.isIS_RECENT_QUERY()) {
@@ -123,84 +144,22 @@ public abstract class GenerateDataWorkLoad extends DataWorkLoad {
     return currentTimestamp;
   }
 
-  private static long getCurrentTimestampStatic(long stepOffset) {
-    // offset of data ahead
-    long offset = config.getPOINT_STEP() * stepOffset;
-    // timestamp for next data
-    long timestamp = 0;
-    // change timestamp frequency
-    if (config.isIS_REGULAR_FREQUENCY()) {
-      // data is in regular frequency, then do nothing
-      timestamp += config.getPOINT_STEP();
-    } else {
-      // data is not in regular frequency, then use random
-      timestamp += config.getPOINT_STEP() * timestampRandom.nextDouble();
-    }
-    return Constants.START_TIMESTAMP * timeStampConst + offset + timestamp;
-  }
-
   /** Init workload values */
-  private static Object[][] initWorkloadValues() {
-    double ratio = 1.0;
-    for (int i = 0; i < config.getDOUBLE_LENGTH(); i++) {
-      ratio *= 10;
+  private static WorkloadBuffer initWorkloadValues() {
+    if (config.getOPERATION_PROPORTION().split(":")[0].equals("0")) {
+      LOGGER.info("According to OPERATION_PROPORTION, there is no need to write");
+      return null;
     }
-    LOGGER.info("Start Generating WorkLoad");
-    Object[][] workloadValues = null;
-    if (!config.getOPERATION_PROPORTION().split(":")[0].equals("0")) {
-      int sensorNumber = config.getSENSOR_NUMBER();
-      // if the first number in OPERATION_PROPORTION not equals to 0, then write data
-      workloadValues = new Object[sensorNumber][config.getWORKLOAD_BUFFER_SIZE()];
-      for (int sensorIndex = 0; sensorIndex < sensorNumber; sensorIndex++) {
-        Sensor sensor = config.getSENSORS().get(sensorIndex);
-        for (int i = 0; i < config.getWORKLOAD_BUFFER_SIZE(); i++) {
-          // This time stamp is only used to generate periodic data. So the timestamp is also
-          // periodic
-          long currentTimestamp = getCurrentTimestampStatic(i);
-          Object value;
-          if (sensor.getSensorType() == SensorType.TEXT) {
-            // TEXT case: pick STRING_LENGTH chars to be a String for insertion.
-            StringBuffer builder = new StringBuffer(config.getSTRING_LENGTH());
-            for (int k = 0; k < config.getSTRING_LENGTH(); k++) {
-              builder.append(CHAR_TABLE.charAt(dataRandom.nextInt(CHAR_TABLE.length())));
-            }
-            value = builder.toString();
-          } else {
-            // not TEXT case
-            FunctionParam param = config.getSENSOR_FUNCTION().get(sensor.getName());
-            Number number = Function.getValueByFunctionIdAndParam(param, currentTimestamp);
-            switch (sensor.getSensorType()) {
-              case BOOLEAN:
-                value = number.floatValue() > ((param.getMax() + param.getMin()) / 2);
-                break;
-              case INT32:
-                value = number.intValue();
-                break;
-              case INT64:
-                value = number.longValue();
-                break;
-              case FLOAT:
-                value = number.floatValue();
-                break;
-              case DOUBLE:
-                value = Math.round(number.doubleValue() * ratio) / ratio;
-                break;
-              default:
-                value = null;
-                break;
-            }
-          }
-          workloadValues[sensorIndex][i] = value;
-        }
-        if (sensorIndex % 5000 == 0) {
-          LOGGER.info(
-              "Finish {} % WorkLoad Buffer", (sensorIndex * 100.0 / config.getSENSOR_NUMBER()));
-        }
-      }
+    // if the first number in OPERATION_PROPORTION not equals to 0, then write data
+    WorkloadBuffer workloadValues =
+        new WorkloadBuffer(config.getSENSORS(), config.getWORKLOAD_BUFFER_SIZE());
+    if (config.isIS_LAZY_WORKLOAD_BUFFER()) {
+      LOGGER.info("WorkLoad of each sensor will be generated on first use");
     } else {
-      LOGGER.info("According to OPERATION_PROPORTION, there is no need to write");
+      LOGGER.info("Start Generating WorkLoad");
+      workloadValues.generateAll();
+      LOGGER.info("Finish Generating WorkLoad");
     }
-    LOGGER.info("Finish Generating WorkLoad");
     return workloadValues;
   }
 }
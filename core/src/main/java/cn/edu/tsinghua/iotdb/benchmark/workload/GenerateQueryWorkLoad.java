@@ -21,6 +21,9 @@ package cn.edu.tsinghua.iotdb.benchmark.workload;
 
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.AccessGenerator;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.ProbTool;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.AccessDistribution;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
@@ -39,15 +42,36 @@ public class GenerateQueryWorkLoad extends QueryWorkLoad {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GenerateQueryWorkLoad.class);
 
-  private static final Random queryDeviceRandom = new Random(config.getQUERY_SEED());
   private static final long timeStampConst =
       TimeUtils.getTimestampConst(config.getTIMESTAMP_PRECISION());
+  /** The number of devices which can be queried */
+  private static final int queryDeviceNumber =
+      (int) Math.ceil(config.getDEVICE_NUMBER() * config.getREAL_INSERT_RATE());
+  private static final AccessGenerator queryDeviceGenerator =
+      new AccessGenerator(config.getQUERY_DEVICE_DISTRIBUTION(), queryDeviceNumber);
+  /** The number of time ranges within LOOP batches of a device, which start every POINT_STEP */
+  private static final long queryTimeRangeNumber =
+      Math.max(
+          1,
+          config.getLOOP() * config.getBATCH_SIZE_PER_WRITE()
+              - config.getQUERY_INTERVAL() / Math.max(1, config.getPOINT_STEP()));
+  private static final AccessGenerator queryTimeGenerator =
+      new AccessGenerator(config.getQUERY_TIME_DISTRIBUTION(), queryTimeRangeNumber);
+  /** Index of all sensors in config.getSENSORS() */
+  private static final int[] allSensorIndexes = getSensorIndexes(true);
+  /** Index of sensors in config.getSENSORS() which are neither BOOLEAN nor TEXT */
+  private static final int[] numericSensorIndexes = getSensorIndexes(false);
   private static AtomicInteger nowDeviceId = new AtomicInteger(config.getFIRST_DEVICE_INDEX());
   private Long currentTimestamp = null;
 
   private static final Map<Operation, Long> operationLoops = new EnumMap<>(Operation.class);;
 
-  public GenerateQueryWorkLoad() {
+  private final ProbTool probTool = new ProbTool();
+  /** Random of query devices, sensors and time ranges of this client */
+  private final Random queryRandom;
+
+  public GenerateQueryWorkLoad(int clientId) {
+    this.queryRandom = new Random(config.getQUERY_SEED() + clientId);
     for (Operation operation : Operation.values()) {
       operationLoops.put(operation, 0L);
     }
@@ -168,6 +192,11 @@ public class GenerateQueryWorkLoad extends QueryWorkLoad {
             : 0;
       }
     }
+    if (config.getQUERY_TIME_DISTRIBUTION() != AccessDistribution.SEQUENTIAL) {
+      // the latest time range is the hottest one
+      long index = queryTimeRangeNumber - 1 - queryTimeGenerator.next(queryRandom);
+      return Constants.START_TIMESTAMP * timeStampConst + index * config.getPOINT_STEP();
+    }
     long currentQueryLoop = operationLoops.get(operation);
     long timestampOffset = currentQueryLoop * config.getSTEP_SIZE() * config.getPOINT_STEP();
     operationLoops.put(operation, currentQueryLoop + 1);
@@ -181,49 +210,67 @@ public class GenerateQueryWorkLoad extends QueryWorkLoad {
    */
   private List<DeviceSchema> getQueryDeviceSchemaList(boolean typeAllow) throws WorkloadException {
     checkQuerySchemaParams();
-    List<DeviceSchema> queryDevices = new ArrayList<>();
-    List<Integer> clientDevicesIndex = new ArrayList<>();
-    for (int m = config.getFIRST_DEVICE_INDEX();
-        m
-            < config.getDEVICE_NUMBER() * config.getREAL_INSERT_RATE()
-                + config.getFIRST_DEVICE_INDEX();
-        m++) {
-      clientDevicesIndex.add(m);
-    }
-    Collections.shuffle(clientDevicesIndex, queryDeviceRandom);
-    for (int m = 0;
-        queryDevices.size() < config.getQUERY_DEVICE_NUM() && m < clientDevicesIndex.size();
-        m++) {
-      int deviceId = clientDevicesIndex.get(m);
-      List<Sensor> sensors = config.getSENSORS();
-      Collections.shuffle(sensors, queryDeviceRandom);
-      List<Sensor> querySensors = new ArrayList<>();
-      for (int i = 0;
-          querySensors.size() < config.getQUERY_SENSOR_NUM() && i < sensors.size();
-          i++) {
-        Sensor sensor = sensors.get(i);
-        if (!typeAllow) {
-          SensorType sensorType = sensor.getSensorType();
-          if (sensorType == SensorType.BOOLEAN || sensorType == SensorType.TEXT) {
-            continue;
-          }
-        }
-        querySensors.add(sensor);
-      }
-      if (querySensors.size() != config.getQUERY_SENSOR_NUM()) {
-        continue;
-      }
-      DeviceSchema deviceSchema = new DeviceSchema(deviceId, querySensors);
-      queryDevices.add(deviceSchema);
-    }
-    if (queryDevices.size() == 0) {
+    int[] sensorIndexes = typeAllow ? allSensorIndexes : numericSensorIndexes;
+    if (sensorIndexes.length < config.getQUERY_SENSOR_NUM()) {
       LOGGER.warn("There is no suitable sensor for query, please check INSERT_DATATYPE_PROPORTION");
       throw new WorkloadException(
           "There is no suitable sensor for query, please check INSERT_DATATYPE_PROPORTION");
     }
+    List<Sensor> sensors = config.getSENSORS();
+    List<DeviceSchema> queryDevices = new ArrayList<>();
+    for (int deviceIndex : getQueryDeviceIndexes()) {
+      List<Sensor> querySensors = new ArrayList<>(config.getQUERY_SENSOR_NUM());
+      int[] chosenSensors =
+          probTool.sample(sensorIndexes.length, config.getQUERY_SENSOR_NUM(), queryRandom);
+      for (int i : chosenSensors) {
+        querySensors.add(sensors.get(sensorIndexes[i]));
+      }
+      int deviceId = config.getFIRST_DEVICE_INDEX() + deviceIndex;
+      queryDevices.add(new DeviceSchema(deviceId, querySensors));
+    }
     return queryDevices;
   }
 
+  /** Choose QUERY_DEVICE_NUM different devices by QUERY_DEVICE_DISTRIBUTION */
+  private int[] getQueryDeviceIndexes() {
+    int number = Math.min(config.getQUERY_DEVICE_NUM(), queryDeviceNumber);
+    if (config.getQUERY_DEVICE_DISTRIBUTION() == AccessDistribution.UNIFORM) {
+      return probTool.sample(queryDeviceNumber, number, queryRandom);
+    }
+    Set<Integer> chosen = new LinkedHashSet<>();
+    for (int i = 0; chosen.size() < number && i < number * 100; i++) {
+      chosen.add((int) queryDeviceGenerator.next(queryRandom));
+    }
+    // with heavy skew, cold devices are hardly chosen, so the rest are taken in order
+    for (int deviceIndex = 0; chosen.size() < number; deviceIndex++) {
+      chosen.add(deviceIndex);
+    }
+    int[] deviceIndexes = new int[number];
+    int i = 0;
+    for (int deviceIndex : chosen) {
+      deviceIndexes[i++] = deviceIndex;
+    }
+    return deviceIndexes;
+  }
+
+  /**
+   * Get index of sensors which can be queried
+   *
+   * @param typeAllow true: allow bool and text type.
+   */
+  private static int[] getSensorIndexes(boolean typeAllow) {
+    List<Sensor> sensors = config.getSENSORS();
+    int[] sensorIndexes = new int[sensors.size()];
+    int number = 0;
+    for (int i = 0; i < sensors.size(); i++) {
+      SensorType sensorType = sensors.get(i).getSensorType();
+      if (typeAllow || (sensorType != SensorType.BOOLEAN && sensorType != SensorType.TEXT)) {
+        sensorIndexes[number++] = i;
+      }
+    }
+    return Arrays.copyOf(sensorIndexes, number);
+  }
+
   private void checkQuerySchemaParams() throws WorkloadException {
     if (!(config.getQUERY_DEVICE_NUM() > 0
         && config.getQUERY_DEVICE_NUM() <= config.getDEVICE_NUMBER())) {
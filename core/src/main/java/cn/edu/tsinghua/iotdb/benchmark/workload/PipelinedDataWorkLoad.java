@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.workload;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.exception.WorkloadException;
+import cn.edu.tsinghua.iotdb.benchmark.workload.interfaces.IDataWorkLoad;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data workload whose batches are generated by a dedicated generator thread into a bounded buffer,
+ * so that the client thread only sends them. The time the generator waits for a full buffer and
+ * the time the client waits for an empty buffer show whether the test is limited by the database
+ * or by data generation.
+ */
+public class PipelinedDataWorkLoad implements IDataWorkLoad {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PipelinedDataWorkLoad.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  /** Interval of checking whether the generator is stopped or finished while waiting */
+  private static final long WAIT_INTERVAL_MS = 10;
+
+  private final IDataWorkLoad dataWorkLoad;
+  private final BlockingQueue<Batch> buffer;
+  private final Thread generator;
+  private volatile boolean stopped = false;
+  /** Whether the generator has generated all batches or failed */
+  private volatile boolean finished = false;
+  /** Exception thrown by the generator, thrown to the client after buffered batches are taken */
+  private volatile WorkloadException exception = null;
+  /** Time the generator waits because the buffer is full, unit: ns */
+  private volatile long generatorStallTime = 0;
+  /** Time the client waits because the buffer is empty, unit: ns */
+  private long writerIdleTime = 0;
+  /** Max timestamp of the batches taken by client */
+  private long currentTimestamp = 0;
+
+  public PipelinedDataWorkLoad(IDataWorkLoad dataWorkLoad, int bufferSize, int clientId) {
+    this.dataWorkLoad = dataWorkLoad;
+    this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    this.generator = new Thread(this::generate, "generator-" + clientId);
+    this.generator.setDaemon(true);
+  }
+
+  /** Start to generate batches, batches are buffered before the test starts */
+  public void start() {
+    generator.start();
+  }
+
+  private void generate() {
+    long stallTime = 0;
+    try {
+      while (!stopped) {
+        Batch batch = dataWorkLoad.getOneBatch();
+        if (batch == null) {
+          break;
+        }
+        if (!buffer.offer(batch)) {
+          long start = System.nanoTime();
+          while (!stopped && !buffer.offer(batch, WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            // wait for the client to take batches
+          }
+          stallTime += System.nanoTime() - start;
+          generatorStallTime = stallTime;
+          if (stopped) {
+            batch.release();
+          }
+        }
+      }
+    } catch (WorkloadException e) {
+      LOGGER.error("Failed to generate batch", e);
+      exception = e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      finished = true;
+    }
+  }
+
+  @Override
+  public Batch getOneBatch() throws WorkloadException {
+    Batch batch = buffer.poll();
+    if (batch == null) {
+      long start = System.nanoTime();
+      try {
+        while ((batch = buffer.poll(WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null) {
+          if (finished) {
+            // the last batch may be put between poll and the check of finished
+            batch = buffer.poll();
+            break;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new WorkloadException("Interrupted while waiting for batch", e);
+      } finally {
+        writerIdleTime += System.nanoTime() - start;
+      }
+      if (batch == null) {
+        if (exception != null) {
+          throw exception;
+        }
+        return null;
+      }
+    }
+    if (config.isIS_RECENT_QUERY()) {
+      long[] timestamps = batch.getTimestamps();
+      for (int i = 0; i < batch.getRowSize(); i++) {
+        currentTimestamp = Math.max(currentTimestamp, timestamps[i]);
+      }
+    }
+    return batch;
+  }
+
+  /** Stop the generator and release the batches that are not taken */
+  public void stop() {
+    stopped = true;
+    try {
+      generator.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.warn("Interrupted while waiting for {} to stop", generator.getName());
+    }
+    Batch batch;
+    while ((batch = buffer.poll()) != null) {
+      batch.release();
+    }
+  }
+
+  /** @return time the generator waits because the buffer is full, unit: ns */
+  public long getGeneratorStallTime() {
+    return generatorStallTime;
+  }
+
+  /** @return time the client waits because the buffer is empty, unit: ns */
+  public long getWriterIdleTime() {
+    return writerIdleTime;
+  }
+
+  @Override
+  public long getBatchNumber() {
+    return dataWorkLoad.getBatchNumber();
+  }
+
+  @Override
+  public long getCurrentTimestamp() {
+    return currentTimestamp;
+  }
+}
@@ -29,8 +29,8 @@ public abstract class QueryWorkLoad implements IQueryWorkLoad {
   protected static final Config config = ConfigDescriptor.getInstance().getConfig();
   protected static final MetaDataSchema metaDataSchema = MetaDataSchema.getInstance();
 
-  public static IQueryWorkLoad getInstance() {
+  public static IQueryWorkLoad getInstance(int clientId) {
     // Get Query workload according to config
-    return new GenerateQueryWorkLoad();
+    return new GenerateQueryWorkLoad(clientId);
   }
 }
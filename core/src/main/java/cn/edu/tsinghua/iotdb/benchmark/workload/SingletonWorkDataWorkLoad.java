@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -52,6 +53,11 @@ public class SingletonWorkDataWorkLoad extends GenerateDataWorkLoad {
     for (int i = 0; i < config.getDEVICE_NUMBER(); i++) {
       deviceMaxTimeIndexMap.put(MetaUtil.getDeviceId(i), new AtomicLong(0));
     }
+    // batches are shared by all clients
+    initBatchPool(
+        config.getBATCH_POOL_SIZE() * config.getCLIENT_NUMBER(),
+        config.getDEVICE_NUMBER(),
+        config.getSENSOR_NUMBER());
   }
 
   public static SingletonWorkDataWorkLoad getInstance() {
@@ -82,6 +88,7 @@ public class SingletonWorkDataWorkLoad extends GenerateDataWorkLoad {
     long curLoop = insertLoop.getAndIncrement();
     Batch batch = getBatchWithDeviceSchema(curLoop);
     int deviceId = batch.getDeviceSchema().getDeviceId();
+    Random poissonRandom = getOutOfOrderRandom(deviceId, curLoop);
     PoissonDistribution poissonDistribution = new PoissonDistribution(poissonRandom);
     int nextDelta;
     long stepOffset;
@@ -100,19 +107,31 @@ public class SingletonWorkDataWorkLoad extends GenerateDataWorkLoad {
   }
 
   private Batch getBatchWithDeviceSchema(long loop) {
-    Batch batch = new Batch();
-    List<Sensor> sensors = new ArrayList<>();
+    int deviceIndex = (int) loop % config.getDEVICE_NUMBER();
+    DeviceSchema deviceSchema;
+    int colIndex = -1;
     if (config.isIS_SENSOR_TS_ALIGNMENT()) {
-      sensors = SENSORS;
+      deviceSchema = deviceSchemaCache == null ? null : deviceSchemaCache.get(deviceIndex);
+      if (deviceSchema == null) {
+        deviceSchema = new DeviceSchema(MetaUtil.getDeviceId(deviceIndex), SENSORS);
+        if (deviceSchemaCache != null) {
+          deviceSchemaCache.put(deviceIndex, deviceSchema);
+        }
+      }
     } else {
-      int sensorId = sensorIndex.getAndIncrement() % config.getSENSOR_NUMBER();
-      batch.setColIndex(sensorId);
-      sensors.add(SENSORS.get(sensorId));
+      colIndex = sensorIndex.getAndIncrement() % config.getSENSOR_NUMBER();
+      deviceSchema =
+          deviceSchemaCache == null ? null : deviceSchemaCache.get(deviceIndex, colIndex);
+      if (deviceSchema == null) {
+        List<Sensor> sensors = new ArrayList<>();
+        sensors.add(SENSORS.get(colIndex));
+        deviceSchema = new DeviceSchema(MetaUtil.getDeviceId(deviceIndex), sensors);
+        if (deviceSchemaCache != null) {
+          deviceSchemaCache.put(deviceIndex, colIndex, deviceSchema);
+        }
+      }
     }
-    DeviceSchema deviceSchema =
-        new DeviceSchema(MetaUtil.getDeviceId((int) loop % config.getDEVICE_NUMBER()), sensors);
-    batch.setDeviceSchema(deviceSchema);
-    return batch;
+    return newBatch(deviceSchema, colIndex);
   }
 
   @Override
@@ -19,7 +19,10 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.workload;
 
+import cn.edu.tsinghua.iotdb.benchmark.distribution.AccessGenerator;
 import cn.edu.tsinghua.iotdb.benchmark.distribution.PoissonDistribution;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.AccessDistribution;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.RandomStream;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
@@ -32,6 +35,16 @@ public class SyntheticDataWorkLoad extends GenerateDataWorkLoad {
   private long insertLoop = 0;
   private int deviceIndex = 0;
   private int sensorIndex = 0;
+  /** Chooses device of next batch, null if devices are written one by one */
+  private AccessGenerator deviceGenerator = null;
+  /** Random of deviceGenerator */
+  private Random deviceRandom = null;
+  /** Loop of each device, only used if deviceGenerator is not null */
+  private long[] deviceLoops = null;
+  /** Loop of device of the batch being generated, only used if deviceGenerator is not null */
+  private long batchLoop = 0;
+  /** The number of devices chosen by deviceGenerator */
+  private long chosenDevices = 0;
 
   public SyntheticDataWorkLoad(List<DeviceSchema> deviceSchemas) {
     if (config.isIS_OUT_OF_ORDER()) {
@@ -51,39 +64,80 @@ public class SyntheticDataWorkLoad extends GenerateDataWorkLoad {
       }
     }
     this.deviceSchemaSize = deviceSchemas.size();
+    int maxSensorNumber = 0;
+    for (DeviceSchema schema : deviceSchemas) {
+      maxSensorNumber = Math.max(maxSensorNumber, schema.getSensorNum());
+    }
+    initBatchPool(config.getBATCH_POOL_SIZE(), deviceSchemaSize, maxSensorNumber);
+    if (config.getWRITE_DEVICE_DISTRIBUTION() != AccessDistribution.SEQUENTIAL
+        && deviceSchemaSize > 0) {
+      deviceGenerator =
+          new AccessGenerator(config.getWRITE_DEVICE_DISTRIBUTION(), deviceSchemaSize);
+      deviceRandom = RandomStream.WRITE_DEVICE.newRandom(deviceSchemas.get(0).getDeviceId());
+      deviceLoops = new long[deviceSchemaSize];
+    }
   }
 
   @Override
   protected Batch getOrderedBatch() {
     Batch batch = getBatchWithSchema();
+    // each device has its own loop if devices are not written one by one
+    long loop = deviceGenerator == null ? insertLoop : batchLoop;
     for (long batchOffset = 0; batchOffset < config.getBATCH_SIZE_PER_WRITE(); batchOffset++) {
-      long stepOffset = insertLoop * config.getBATCH_SIZE_PER_WRITE() + batchOffset;
+      long stepOffset = loop * config.getBATCH_SIZE_PER_WRITE() + batchOffset;
       addOneRowIntoBatch(batch, stepOffset);
     }
     return batch;
   }
 
   private Batch getBatchWithSchema() {
-    Batch batch = new Batch();
-    DeviceSchema deviceSchema =
-        new DeviceSchema(
-            deviceSchemas.get(deviceIndex).getDeviceId(),
-            deviceSchemas.get(deviceIndex).getSensors());
-    if (!config.isIS_SENSOR_TS_ALIGNMENT()) {
-      List<Sensor> sensors = new ArrayList<>();
-      sensors.add(deviceSchema.getSensors().get(sensorIndex));
-      deviceSchema.setSensors(sensors);
-      batch.setColIndex(sensorIndex);
+    DeviceSchema deviceSchema;
+    int colIndex = -1;
+    if (config.isIS_SENSOR_TS_ALIGNMENT()) {
+      deviceSchema = deviceSchemaCache == null ? null : deviceSchemaCache.get(deviceIndex);
+      if (deviceSchema == null) {
+        deviceSchema =
+            new DeviceSchema(
+                deviceSchemas.get(deviceIndex).getDeviceId(),
+                deviceSchemas.get(deviceIndex).getSensors());
+        if (deviceSchemaCache != null) {
+          deviceSchemaCache.put(deviceIndex, deviceSchema);
+        }
+      }
+    } else {
+      colIndex = sensorIndex;
+      deviceSchema =
+          deviceSchemaCache == null ? null : deviceSchemaCache.get(deviceIndex, sensorIndex);
+      if (deviceSchema == null) {
+        List<Sensor> sensors = new ArrayList<>();
+        sensors.add(deviceSchemas.get(deviceIndex).getSensor(sensorIndex));
+        deviceSchema = new DeviceSchema(deviceSchemas.get(deviceIndex).getDeviceId(), sensors);
+        if (deviceSchemaCache != null) {
+          deviceSchemaCache.put(deviceIndex, sensorIndex, deviceSchema);
+        }
+      }
+    }
+    Batch batch = newBatch(deviceSchema, colIndex);
+    if (deviceGenerator != null) {
+      batchLoop = deviceLoops[deviceIndex];
     }
-    batch.setDeviceSchema(deviceSchema);
     next();
     return batch;
   }
 
   @Override
   protected Batch getDistOutOfOrderBatch() {
+    long loop = insertLoop;
+    int batchSensorIndex = sensorIndex;
     Batch batch = getBatchWithSchema();
+    // each device has its own loop if devices are not written one by one, so that a device chosen
+    // more often does not replay the out-of-order decisions of its previous batches
+    if (deviceGenerator != null) {
+      loop = batchLoop;
+    }
+    long batchIndex = loop * config.getSENSOR_NUMBER() + batchSensorIndex;
     DeviceSchema deviceSchema = batch.getDeviceSchema();
+    Random poissonRandom = getOutOfOrderRandom(deviceSchema.getDeviceId(), batchIndex);
     PoissonDistribution poissonDistribution = new PoissonDistribution(poissonRandom);
     int nextDelta;
     long stepOffset;
@@ -104,8 +158,14 @@ public class SyntheticDataWorkLoad extends GenerateDataWorkLoad {
 
   @Override
   protected Batch getLocalOutOfOrderBatch() {
-    long loopIndex = insertLoop % config.getLOOP();
+    long loop = insertLoop;
     Batch batch = getBatchWithSchema();
+    // each device has its own loop if devices are not written one by one, so that a device chosen
+    // more often does not rewrite the timestamps of its previous batches
+    if (deviceGenerator != null) {
+      loop = batchLoop;
+    }
+    long loopIndex = loop % config.getLOOP();
     for (int i = 0; i < config.getBATCH_SIZE_PER_WRITE(); i++) {
       long stepOffset = loopIndex * config.getBATCH_SIZE_PER_WRITE() + i;
       addOneRowIntoBatch(batch, stepOffset);
@@ -115,17 +175,30 @@ public class SyntheticDataWorkLoad extends GenerateDataWorkLoad {
 
   private void next() {
     if (config.isIS_SENSOR_TS_ALIGNMENT()) {
-      deviceIndex++;
+      nextDevice();
     } else {
       sensorIndex++;
       if (sensorIndex >= deviceSchemas.get(deviceIndex).getSensors().size()) {
-        deviceIndex++;
+        nextDevice();
         sensorIndex = 0;
       }
     }
-    if (deviceIndex >= deviceSchemaSize) {
-      deviceIndex = 0;
-      insertLoop++;
+  }
+
+  private void nextDevice() {
+    if (deviceGenerator == null) {
+      deviceIndex++;
+      if (deviceIndex >= deviceSchemaSize) {
+        deviceIndex = 0;
+        insertLoop++;
+      }
+    } else {
+      deviceLoops[deviceIndex]++;
+      deviceIndex = (int) deviceGenerator.next(deviceRandom);
+      chosenDevices++;
+      if (chosenDevices % deviceSchemaSize == 0) {
+        insertLoop++;
+      }
     }
   }
 }
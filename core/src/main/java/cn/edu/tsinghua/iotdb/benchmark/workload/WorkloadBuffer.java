@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.workload;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Constants;
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.RandomStream;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.function.Function;
+import cn.edu.tsinghua.iotdb.benchmark.function.FunctionParam;
+import cn.edu.tsinghua.iotdb.benchmark.function.FunctionSeries;
+import cn.edu.tsinghua.iotdb.benchmark.utils.TimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pre-generated values of each sensor, which are stored in one primitive array per sensor, e.g.
+ * double[] for DOUBLE and String[] for TEXT. Values of a sensor only depend on the sensor, so they
+ * can be generated in parallel or on first use.
+ *
+ * <p>Sensors of stateful functions (walk and counter) continue from their last value instead, so
+ * their values are generated per device and sensor, one chunk of steps at a time.
+ */
+class WorkloadBuffer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadBuffer.class);
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+  /** The number of sensors generated by one fork/join task */
+  private static final int SENSORS_PER_TASK = 64;
+  /** The number of chunks between two saved starts of a stateful series */
+  private static final int CHECKPOINT_INTERVAL = 16;
+
+  private final List<Sensor> sensors;
+  private final int bufferSize;
+  private final double ratio;
+  /**
+   * Timestamps used to generate values, which are only used to generate periodic data. So the
+   * timestamps are also periodic and shared by all sensors
+   */
+  private final long[] timestamps;
+  /** Values of each sensor, null if they are not generated yet */
+  private final AtomicReferenceArray<Object> values;
+  /** Whether the function of each sensor is stateful */
+  private final boolean[] stateful;
+  /** Timestamps used to generate one chunk of values of a stateful series */
+  private final long[] seriesTimestamps;
+  /** Values of stateful sensors of each device, keyed by device id and sensor index */
+  private final ConcurrentHashMap<Long, SeriesValues> series = new ConcurrentHashMap<>();
+
+  WorkloadBuffer(List<Sensor> sensors, int bufferSize) {
+    this.sensors = sensors;
+    this.bufferSize = bufferSize;
+    double ratio = 1.0;
+    for (int i = 0; i < config.getDOUBLE_LENGTH(); i++) {
+      ratio *= 10;
+    }
+    this.ratio = ratio;
+    long timeStampConst = TimeUtils.getTimestampConst(config.getTIMESTAMP_PRECISION());
+    this.timestamps = new long[bufferSize];
+    for (int i = 0; i < bufferSize; i++) {
+      timestamps[i] = getTimestamp(i, timeStampConst);
+    }
+    this.values = new AtomicReferenceArray<>(sensors.size());
+    this.stateful = new boolean[sensors.size()];
+    for (int i = 0; i < sensors.size(); i++) {
+      Sensor sensor = sensors.get(i);
+      stateful[i] =
+          sensor.getSensorType() != SensorType.TEXT
+              && Function.isStateful(config.getSENSOR_FUNCTION().get(sensor.getName()));
+    }
+    int chunkSize = Math.max(1, Math.min(bufferSize, config.getBATCH_SIZE_PER_WRITE()));
+    this.seriesTimestamps = Arrays.copyOf(timestamps, chunkSize);
+  }
+
+  /** Generate values of all sensors in parallel */
+  void generateAll() {
+    AtomicInteger finished = new AtomicInteger();
+    ForkJoinPool.commonPool().invoke(new GenerateTask(0, sensors.size(), finished));
+  }
+
+  /**
+   * Copy values of step of device into row of batch, i.e. values of all sensors, or of the sensor
+   * of colIndex if the batch has one sensor
+   */
+  void copyRow(Batch batch, int row, int deviceId, long stepOffset) {
+    int valueIndex = (int) (Math.abs(stepOffset) % bufferSize);
+    if (batch.getColIndex() == -1) {
+      for (int i = 0; i < stateful.length; i++) {
+        copyTo(batch, i, row, deviceId, i, stepOffset, valueIndex);
+      }
+    } else {
+      copyTo(batch, 0, row, deviceId, batch.getColIndex(), stepOffset, valueIndex);
+    }
+  }
+
+  /**
+   * Copy value of sensor at valueIndex into column of batch in row, or the value of step in the
+   * series of device if the sensor is stateful
+   */
+  private void copyTo(
+      Batch batch,
+      int column,
+      int row,
+      int deviceId,
+      int sensorIndex,
+      long stepOffset,
+      int valueIndex) {
+    if (stateful[sensorIndex]) {
+      long key = ((long) deviceId << 32) | sensorIndex;
+      series
+          .computeIfAbsent(key, k -> new SeriesValues(key, sensorIndex))
+          .copyTo(batch, column, row, stepOffset);
+    } else {
+      batch.copyValue(column, row, getValues(sensorIndex), valueIndex);
+    }
+  }
+
+  /** Get values of sensor, which are generated if they are not generated yet */
+  Object getValues(int sensorIndex) {
+    Object sensorValues = values.get(sensorIndex);
+    if (sensorValues == null) {
+      // values are deterministic, so it does not matter which thread wins
+      values.compareAndSet(sensorIndex, null, generate(sensorIndex));
+      sensorValues = values.get(sensorIndex);
+    }
+    return sensorValues;
+  }
+
+  private Object generate(int sensorIndex) {
+    Sensor sensor = sensors.get(sensorIndex);
+    // each sensor has its own streams, so its values do not depend on other sensors
+    if (sensor.getSensorType() == SensorType.TEXT) {
+      Random dataRandom = RandomStream.TEXT.newRandom(sensorIndex);
+      int cardinality = config.getTEXT_CARDINALITY();
+      String[] texts = generateTexts(cardinality > 0 ? cardinality : bufferSize, dataRandom);
+      if (cardinality <= 0) {
+        return texts;
+      }
+      // pick values from the dictionary, a value is repeated with probability 1 - TEXT_ENTROPY
+      String[] values = new String[bufferSize];
+      for (int i = 0; i < bufferSize; i++) {
+        if (i > 0 && dataRandom.nextDouble() >= config.getTEXT_ENTROPY()) {
+          values[i] = values[i - 1];
+        } else {
+          values[i] = texts[dataRandom.nextInt(cardinality)];
+        }
+      }
+      return values;
+    }
+    Random functionRandom = RandomStream.FUNCTION.newRandom(sensorIndex);
+    FunctionParam param = config.getSENSOR_FUNCTION().get(sensor.getName());
+    // values are cast as function type, then converted to sensor type
+    double[] numbers = new double[bufferSize];
+    Function.fill(param, timestamps, numbers, functionRandom);
+    return convert(sensor, param, numbers);
+  }
+
+  /** Convert values of function into primitive array of sensor type, numbers may be reused */
+  private Object convert(Sensor sensor, FunctionParam param, double[] numbers) {
+    int length = numbers.length;
+    switch (sensor.getSensorType()) {
+      case BOOLEAN:
+        boolean[] booleans = new boolean[length];
+        for (int i = 0; i < length; i++) {
+          booleans[i] = (float) numbers[i] > ((param.getMax() + param.getMin()) / 2);
+        }
+        return booleans;
+      case INT32:
+        int[] ints = new int[length];
+        for (int i = 0; i < length; i++) {
+          ints[i] = (int) numbers[i];
+        }
+        return ints;
+      case INT64:
+        long[] longs = new long[length];
+        for (int i = 0; i < length; i++) {
+          longs[i] = (long) numbers[i];
+        }
+        return longs;
+      case FLOAT:
+        float[] floats = new float[length];
+        for (int i = 0; i < length; i++) {
+          floats[i] = (float) numbers[i];
+        }
+        return floats;
+      case DOUBLE:
+        for (int i = 0; i < length; i++) {
+          numbers[i] = Math.round(numbers[i] * ratio) / ratio;
+        }
+        return numbers;
+      default:
+        throw new IllegalArgumentException("Unsupported sensor type: " + sensor.getSensorType());
+    }
+  }
+
+  /** Generate strings of STRING_LENGTH random chars */
+  private static String[] generateTexts(int number, Random dataRandom) {
+    String[] texts = new String[number];
+    String charTable = GenerateDataWorkLoad.CHAR_TABLE;
+    char[] chars = new char[config.getSTRING_LENGTH()];
+    for (int i = 0; i < number; i++) {
+      for (int k = 0; k < chars.length; k++) {
+        chars[k] = charTable.charAt(dataRandom.nextInt(charTable.length()));
+      }
+      texts[i] = new String(chars);
+    }
+    return texts;
+  }
+
+  private static long getTimestamp(long stepOffset, long timeStampConst) {
+    // offset of data ahead
+    long offset = config.getPOINT_STEP() * stepOffset;
+    // timestamp for next data
+    long timestamp = 0;
+    // change timestamp frequency
+    if (config.isIS_REGULAR_FREQUENCY()) {
+      // data is in regular frequency, then do nothing
+      timestamp += config.getPOINT_STEP();
+    } else {
+      // data is not in regular frequency, then use random
+      timestamp += config.getPOINT_STEP() * RandomStream.TIMESTAMP.nextDouble(stepOffset);
+    }
+    return Constants.START_TIMESTAMP * timeStampConst + offset + timestamp;
+  }
+
+  /** Generate values of sensors in [from, to) */
+  private class GenerateTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final AtomicInteger finished;
+
+    GenerateTask(int from, int to, AtomicInteger finished) {
+      this.from = from;
+      this.to = to;
+      this.finished = finished;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > SENSORS_PER_TASK) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new GenerateTask(from, mid, finished), new GenerateTask(mid, to, finished));
+        return;
+      }
+      for (int sensorIndex = from; sensorIndex < to; sensorIndex++) {
+        if (!stateful[sensorIndex]) {
+          getValues(sensorIndex);
+        }
+      }
+      int after = finished.addAndGet(to - from);
+      if ((after - (to - from)) / 5000 != after / 5000) {
+        LOGGER.info("Finish {} % WorkLoad Buffer", (after * 100.0 / sensors.size()));
+      }
+    }
+  }
+
+  /**
+   * Values of a stateful sensor of one device. The steps are split into chunks, chunk k draws from
+   * its own random and continues from the last value of chunk k - 1. So each value only depends on
+   * the device, the sensor and the step, no matter which thread asks for it first.
+   */
+  private class SeriesValues {
+
+    private final Sensor sensor;
+    private final FunctionParam param;
+    private final long seriesId;
+    private final Random random = new Random();
+    private final FunctionSeries functionSeries;
+    private final double[] numbers = new double[seriesTimestamps.length];
+    /** Last raw value before chunk i * CHECKPOINT_INTERVAL, NaN before the first chunk */
+    private double[] checkpoints = {Double.NaN};
+    /** The number of chunks generated in order from chunk 0 */
+    private long generated = 0;
+    /** Last raw value of the last chunk generated in order */
+    private double generatedLast = Double.NaN;
+    /** Index of the cached chunk and its values in sensor type */
+    private long chunkIndex = Long.MIN_VALUE;
+    private Object chunk;
+
+    SeriesValues(long seriesId, int sensorIndex) {
+      this.sensor = sensors.get(sensorIndex);
+      this.param = config.getSENSOR_FUNCTION().get(sensor.getName());
+      this.seriesId = seriesId;
+      this.functionSeries = new FunctionSeries(param, random);
+    }
+
+    synchronized void copyTo(Batch batch, int column, int row, long stepOffset) {
+      long index = Math.floorDiv(stepOffset, numbers.length);
+      if (index != chunkIndex) {
+        generateChunk(index);
+      }
+      batch.copyValue(column, row, chunk, (int) Math.floorMod(stepOffset, numbers.length));
+    }
+
+    private void generateChunk(long index) {
+      if (index < 0) {
+        // steps before the start, e.g. out-of-order steps, start a new series
+        fillChunk(index, Double.NaN);
+      } else if (index >= generated) {
+        while (generated <= index) {
+          if (generated % CHECKPOINT_INTERVAL == 0) {
+            int checkpoint = (int) (generated / CHECKPOINT_INTERVAL);
+            if (checkpoint >= checkpoints.length) {
+              checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+            }
+            checkpoints[checkpoint] = generatedLast;
+          }
+          generatedLast = fillChunk(generated++, generatedLast);
+        }
+      } else {
+        // regenerate from the nearest checkpoint before the chunk
+        long from = index / CHECKPOINT_INTERVAL * CHECKPOINT_INTERVAL;
+        double previous = checkpoints[(int) (index / CHECKPOINT_INTERVAL)];
+        for (long i = from; i <= index; i++) {
+          previous = fillChunk(i, previous);
+        }
+      }
+      chunk = convert(sensor, param, numbers);
+      chunkIndex = index;
+    }
+
+    /** Fill numbers with chunk continuing from previous, return the last raw value of chunk */
+    private double fillChunk(long index, double previous) {
+      RandomStream.FUNCTION.reset(random, seriesId, index);
+      functionSeries.setLast(previous);
+      functionSeries.fill(seriesTimestamps, numbers);
+      return functionSeries.getLast();
+    }
+  }
+}
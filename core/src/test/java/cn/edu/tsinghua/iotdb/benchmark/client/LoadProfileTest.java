@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.LoadProfile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LoadProfileTest {
+
+  private static final long NANO_PER_SECOND = 1000000000L;
+
+  @Test
+  public void testParse() {
+    assertNull(LoadProfile.parse(""));
+    LoadProfile loadProfile =
+        LoadProfile.parse("10s:100;ramp(10s,100,200);step(4s,100,400,4);spike(1m,100,500,10s,20s)");
+    // 1 + 1 + 4 + 3 segments
+    assertEquals(9, loadProfile.getSegments().size());
+    assertEquals(84 * NANO_PER_SECOND, loadProfile.getTotalDuration());
+  }
+
+  @Test
+  public void testGetRate() {
+    LoadProfile loadProfile = LoadProfile.parse("10s:100;ramp(10s,100,200);step(4s,100,400,4)");
+    assertEquals(0, loadProfile.getSegmentIndex(0));
+    assertEquals(100, loadProfile.getRate(0, 5 * NANO_PER_SECOND), 1e-6);
+    assertEquals(1, loadProfile.getSegmentIndex(15 * NANO_PER_SECOND));
+    assertEquals(150, loadProfile.getRate(1, 15 * NANO_PER_SECOND), 1e-6);
+    assertEquals(4, loadProfile.getSegmentIndex(22 * NANO_PER_SECOND));
+    assertEquals(300, loadProfile.getRate(4, 22 * NANO_PER_SECOND), 1e-6);
+    assertEquals(-1, loadProfile.getSegmentIndex(24 * NANO_PER_SECOND));
+  }
+
+  @Test
+  public void testSine() {
+    LoadProfile loadProfile = LoadProfile.parse("sine(1h,1h,100,300)");
+    assertEquals(200, loadProfile.getRate(0, 0), 1e-6);
+    assertEquals(300, loadProfile.getRate(0, 900 * NANO_PER_SECOND), 1e-6);
+    assertEquals(100, loadProfile.getRate(0, 2700 * NANO_PER_SECOND), 1e-6);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidProfile() {
+    LoadProfile.parse("ramp(10s,100)");
+  }
+}
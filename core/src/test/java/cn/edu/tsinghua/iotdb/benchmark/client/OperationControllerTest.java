@@ -19,6 +19,7 @@
 
 package cn.edu.tsinghua.iotdb.benchmark.client;
 
+import cn.edu.tsinghua.iotdb.benchmark.client.enums.ClientRole;
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
 import cn.edu.tsinghua.iotdb.benchmark.client.operation.OperationController;
 import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
@@ -28,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 public class OperationControllerTest {
 
@@ -55,4 +57,37 @@ public class OperationControllerTest {
       assertEquals(Operation.PRECISE_QUERY, operationController.getNextOperationType());
     }
   }
+
+  @Test
+  public void testOperationProportion() {
+    config.setOPERATION_PROPORTION("4:0:2:0:0:0:0:0:1:0:1");
+    OperationController operationController = new OperationController(0);
+    int loop = 80000;
+    int[] counts = new int[Operation.values().length];
+    for (int i = 0; i < loop; i++) {
+      counts[operationController.getNextOperationType().ordinal()]++;
+    }
+    assertEquals(loop / 2.0, counts[Operation.INGESTION.ordinal()], loop / 100.0);
+    assertEquals(loop / 4.0, counts[Operation.RANGE_QUERY.ordinal()], loop / 100.0);
+    assertEquals(loop / 8.0, counts[Operation.LATEST_POINT_QUERY.ordinal()], loop / 100.0);
+    assertEquals(
+        loop / 8.0,
+        counts[Operation.VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC.ordinal()],
+        loop / 100.0);
+    assertEquals(0, counts[Operation.PRECISE_QUERY.ordinal()]);
+    config.setOPERATION_PROPORTION("1:0:0:0:0:0:0:0:0:0:0");
+  }
+
+  @Test
+  public void testClientRole() {
+    config.setOPERATION_PROPORTION("1:0:1:0:0:0:0:0:1:0:0");
+    OperationController writeController = new OperationController(0, ClientRole.WRITE);
+    OperationController queryController = new OperationController(0, ClientRole.QUERY);
+    int loop = 10000;
+    for (int i = 0; i < loop; i++) {
+      assertEquals(Operation.INGESTION, writeController.getNextOperationType());
+      assertNotEquals(Operation.INGESTION, queryController.getNextOperationType());
+    }
+    config.setOPERATION_PROPORTION("1:0:0:0:0:0:0:0:0:0:0");
+  }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.OperationRateScheduler;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.enums.ArrivalMode;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OperationRateSchedulerTest {
+
+  @Test
+  public void testEachOperationKeepsItsRate() {
+    Map<Operation, Double> targetRates = new EnumMap<>(Operation.class);
+    targetRates.put(Operation.INGESTION, 1000.0);
+    targetRates.put(Operation.RANGE_QUERY, 20.0);
+    targetRates.put(Operation.LATEST_POINT_QUERY, 200.0);
+    targetRates.put(Operation.PRECISE_QUERY, 0.0);
+    OperationRateScheduler scheduler =
+        new OperationRateScheduler(ArrivalMode.CONSTANT, targetRates, new Random(666));
+    assertNull(scheduler.getScheduler(Operation.PRECISE_QUERY));
+    scheduler.start(0, 0);
+    Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+    // schedule ten seconds
+    long last = 0;
+    while (true) {
+      Operation operation = scheduler.peekNextOperation();
+      long next = scheduler.getScheduler(operation).next();
+      if (next >= 10000000000L) {
+        break;
+      }
+      // operations are dispatched in the order of intended start time
+      assertTrue(next >= last);
+      last = next;
+      counts.merge(operation, 1, Integer::sum);
+    }
+    assertEquals(10000, (int) counts.get(Operation.INGESTION));
+    assertEquals(200, (int) counts.get(Operation.RANGE_QUERY));
+    assertEquals(2000, (int) counts.get(Operation.LATEST_POINT_QUERY));
+    assertNull(counts.get(Operation.PRECISE_QUERY));
+  }
+
+  @Test
+  public void testChangeRateOfOneOperation() {
+    Map<Operation, Double> targetRates = new EnumMap<>(Operation.class);
+    targetRates.put(Operation.INGESTION, 100.0);
+    targetRates.put(Operation.RANGE_QUERY, 10.0);
+    OperationRateScheduler scheduler =
+        new OperationRateScheduler(ArrivalMode.CONSTANT, targetRates, new Random(666));
+    scheduler.start(0, 0.5);
+    assertEquals(5000000L, scheduler.getScheduler(Operation.INGESTION).getNextIntendedTime());
+    assertEquals(50000000L, scheduler.getScheduler(Operation.RANGE_QUERY).getNextIntendedTime());
+    scheduler.getScheduler(Operation.INGESTION).setTargetRate(1000);
+    scheduler.getScheduler(Operation.INGESTION).next();
+    assertEquals(6000000L, scheduler.getScheduler(Operation.INGESTION).getNextIntendedTime());
+    assertEquals(50000000L, scheduler.getScheduler(Operation.RANGE_QUERY).getNextIntendedTime());
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.OperationScheduler;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.enums.ArrivalMode;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OperationSchedulerTest {
+
+  @Test
+  public void testConstantArrival() {
+    OperationScheduler scheduler = new OperationScheduler(ArrivalMode.CONSTANT, 1000, null);
+    scheduler.start(0);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i * 1000000L, scheduler.next());
+    }
+  }
+
+  @Test
+  public void testRandomArrivalKeepsRate() {
+    int loop = 100000;
+    for (ArrivalMode arrivalMode : new ArrivalMode[] {ArrivalMode.POISSON, ArrivalMode.UNIFORM}) {
+      OperationScheduler scheduler = new OperationScheduler(arrivalMode, 1000, new Random(666));
+      scheduler.start(0);
+      long last = 0;
+      for (int i = 0; i < loop; i++) {
+        long next = scheduler.next();
+        assertTrue(next >= last);
+        last = next;
+      }
+      // mean interval should be close to 1ms
+      double meanInterval = (double) last / (loop - 1);
+      assertEquals(1000000, meanInterval, 20000);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testClosedLoopNotSupported() {
+    new OperationScheduler(ArrivalMode.CLOSED, 1000, new Random());
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.client.generate;
+
+import cn.edu.tsinghua.iotdb.benchmark.client.enums.ClientRole;
+import cn.edu.tsinghua.iotdb.benchmark.client.operation.Operation;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.LoadProfile;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.OperationRateScheduler;
+import cn.edu.tsinghua.iotdb.benchmark.client.schedule.enums.ArrivalMode;
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class GenerateDataMixClientTest {
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  private String operationTargetRate;
+  private boolean isTargetRatePerClient;
+
+  @Before
+  public void before() {
+    operationTargetRate = config.getOPERATION_TARGET_RATE();
+    isTargetRatePerClient = config.isIS_TARGET_RATE_PER_CLIENT();
+    config.setOPERATION_TARGET_RATE("50000:0:20:0:0:0:0:0:200:0:0");
+    config.setIS_TARGET_RATE_PER_CLIENT(true);
+  }
+
+  @After
+  public void after() {
+    config.setOPERATION_TARGET_RATE(operationTargetRate);
+    config.setIS_TARGET_RATE_PER_CLIENT(isTargetRatePerClient);
+  }
+
+  /** Method: getTargetRates() */
+  @Test
+  public void testQueryClientWithLoadProfileDoesNotIngest() {
+    LoadProfile loadProfile = LoadProfile.parse("60s:1000");
+    // query clients own no devices, so one ingestion is counted as one point
+    Map<Operation, Double> targetRates =
+        GenerateDataMixClient.getTargetRates(ClientRole.QUERY, loadProfile, 1, 1);
+    assertEquals(0, targetRates.get(Operation.INGESTION), 0);
+    assertEquals(20, targetRates.get(Operation.RANGE_QUERY), 0);
+    OperationRateScheduler scheduler =
+        new OperationRateScheduler(ArrivalMode.CONSTANT, targetRates, new Random(666));
+    assertNull(scheduler.getScheduler(Operation.INGESTION));
+    assertNotNull(scheduler.getScheduler(Operation.LATEST_POINT_QUERY));
+
+    targetRates = GenerateDataMixClient.getTargetRates(ClientRole.WRITE, loadProfile, 100, 1);
+    assertEquals(10, targetRates.get(Operation.INGESTION), 0);
+    assertEquals(0, targetRates.get(Operation.RANGE_QUERY), 0);
+  }
+}
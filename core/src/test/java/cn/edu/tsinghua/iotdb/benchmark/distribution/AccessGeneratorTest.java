@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution;
+
+import cn.edu.tsinghua.iotdb.benchmark.distribution.enums.AccessDistribution;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AccessGeneratorTest {
+  /** Method: next() */
+  @Test
+  public void testNext() {
+    int itemNumber = 100;
+    int times = 100000;
+    for (AccessDistribution distribution : AccessDistribution.values()) {
+      AccessGenerator generator = new AccessGenerator(distribution, itemNumber);
+      Random random = new Random(1);
+      int[] count = new int[itemNumber];
+      for (int i = 0; i < times; i++) {
+        long item = generator.next(random);
+        assertTrue(distribution.name(), item >= 0 && item < itemNumber);
+        count[(int) item]++;
+      }
+      switch (distribution) {
+        case SEQUENTIAL:
+          assertEquals(times / itemNumber, count[itemNumber - 1]);
+          break;
+        case ZIPF:
+          // item 0 is twice as popular as item 1 with skew near 1
+          assertEquals(2, count[0] / (double) count[1], 0.2);
+          break;
+        case HOTSPOT:
+          // 5 hot items are accessed with probability 0.8
+          int hot = 0;
+          for (int i = 0; i < 5; i++) {
+            hot += count[i];
+          }
+          assertEquals(0.8, hot / (double) times, 0.01);
+          break;
+        case LATEST:
+          // mean is 1 item
+          assertEquals(1 - Math.exp(-1), count[0] / (double) times, 0.01);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+}
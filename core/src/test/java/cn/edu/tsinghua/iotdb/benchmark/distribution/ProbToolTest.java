@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProbToolTest {
+  /** Method: sample() */
+  @Test
+  public void testSample() {
+    ProbTool probTool = new ProbTool();
+    Random random = new Random(1);
+    int[] count = new int[10];
+    for (int time = 0; time < 10000; time++) {
+      int[] numbers = probTool.sample(10, 3, random);
+      Set<Integer> set = new HashSet<>();
+      for (int number : numbers) {
+        assertTrue(number >= 0 && number < 10);
+        set.add(number);
+        count[number]++;
+      }
+      assertEquals(3, set.size());
+    }
+    for (int c : count) {
+      assertEquals(3000, c, 200);
+    }
+    assertEquals(5, probTool.sample(5, 5, random).length);
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.distribution.enums;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RandomStreamTest {
+  /** Method: seed(), reset(), nextDouble() */
+  @Test
+  public void testReproducibleStreams() {
+    assertEquals(RandomStream.TEXT.seed(3), RandomStream.TEXT.seed(3));
+    assertNotEquals(RandomStream.TEXT.seed(3), RandomStream.TEXT.seed(4));
+    assertNotEquals(RandomStream.TEXT.seed(3), RandomStream.FUNCTION.seed(3));
+
+    Random random = new Random();
+    RandomStream.OUT_OF_ORDER.reset(random, 1, 2);
+    int first = random.nextInt();
+    RandomStream.OUT_OF_ORDER.reset(random, 1, 2);
+    assertEquals(first, random.nextInt());
+
+    for (int i = 0; i < 1000; i++) {
+      double value = RandomStream.TIMESTAMP.nextDouble(i, i);
+      assertTrue(value >= 0 && value < 1);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.entity;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BatchPoolTest {
+
+  @Test
+  public void testRecycle() {
+    List<Sensor> sensors = new ArrayList<>();
+    sensors.add(new Sensor("s1", SensorType.INT64));
+    sensors.add(new Sensor("s2", SensorType.TEXT));
+    DeviceSchema deviceSchema = new DeviceSchema("g1", "d1", sensors);
+    BatchPool batchPool = new BatchPool(1, 4);
+
+    Batch batch = batchPool.acquire(deviceSchema, -1);
+    for (int i = 0; i < 4; i++) {
+      int row = batch.addRow(i);
+      batch.setValue(0, row, (long) i);
+      batch.setValue(1, row, i == 0 ? null : "v" + i);
+    }
+    Object column = batch.getColumn(0);
+    assertEquals(7, batch.pointNum());
+    batch.release();
+    // released twice by mistake, it is only put back once
+    batch.release();
+
+    Batch recycled = batchPool.acquire(deviceSchema, -1);
+    assertSame(batch, recycled);
+    assertEquals(0, recycled.getRowSize());
+    int row = recycled.addRow(10);
+    recycled.setValue(0, row, 10L);
+    recycled.setValue(1, row, "v10");
+    assertSame(column, recycled.getColumn(0));
+    assertEquals(2, recycled.pointNum());
+    assertEquals(10L, recycled.getRecords().get(0).getRecordDataValue().get(0));
+
+    // the pool is empty, so a new batch is created
+    assertNotSame(recycled, batchPool.acquire(deviceSchema, -1));
+    recycled.release();
+    DeviceSchema otherSchema =
+        new DeviceSchema("g1", "d2", Collections.singletonList(new Sensor("s3", SensorType.FLOAT)));
+    Batch changed = batchPool.acquire(otherSchema, 0);
+    assertSame(recycled, changed);
+    changed.setValue(0, changed.addRow(1), 1.5f);
+    assertEquals(1.5f, ((float[]) changed.getColumn(0))[0], 0);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.function;
+
+import cn.edu.tsinghua.iotdb.benchmark.function.enums.FunctionType;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FunctionTest {
+  /** Method: fill() */
+  @Test
+  public void testFillSameAsSingleValue() {
+    long[] timestamps = new long[100];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = 1609430400000L + i * 5000L;
+    }
+    double[] out = new double[timestamps.length];
+    for (FunctionType functionType : FunctionType.values()) {
+      if (functionType.name().endsWith("_WALK") || functionType.name().endsWith("_COUNTER")) {
+        // continue the series of param, see testSeriesContinues
+        continue;
+      }
+      FunctionParam param = new FunctionParam(functionType.name(), 8.5, 2.5, 60);
+      Function.fill(param, timestamps, out, new Random(1));
+      Random random = new Random(1);
+      for (int i = 0; i < timestamps.length; i++) {
+        Number expected = Function.getValueByFunctionIdAndParam(param, timestamps[i], random);
+        assertEquals(functionType.name(), expected.doubleValue(), out[i], 0);
+      }
+    }
+  }
+
+  /** Method: fill() of walk, quantized and counter functions */
+  @Test
+  public void testEntropy() {
+    long[] timestamps = new long[1000];
+    double[] out = new double[timestamps.length];
+    FunctionParam walk = new FunctionParam("double_walk", 10, 0, 1);
+    walk.setEntropy(0);
+    Function.fill(walk, timestamps, out, new Random(1));
+    for (double value : out) {
+      assertEquals(5, value, 0);
+    }
+    FunctionParam counter = new FunctionParam("double_counter", 10, 0, 100);
+    counter.setEntropy(0);
+    Function.fill(counter, timestamps, out);
+    for (int i = 0; i < timestamps.length; i++) {
+      assertEquals((i % 101) * 0.1, out[i], 1e-9);
+    }
+
+    for (String type : new String[] {"double_walk", "double_quantized", "double_counter"}) {
+      FunctionParam param = new FunctionParam(type, 10, 0, 100);
+      param.setEntropy(1);
+      Function.fill(param, timestamps, out, new Random(1));
+      for (double value : out) {
+        assertTrue(type, value >= 0 && value <= 10);
+      }
+    }
+  }
+
+  /** Method: FunctionSeries.fill() and FunctionSeries.getValue() */
+  @Test
+  public void testSeriesContinues() {
+    long[] timestamps = new long[100];
+    long[] half = new long[timestamps.length / 2];
+    double[] expected = new double[timestamps.length];
+    double[] out = new double[half.length];
+    for (String type : new String[] {"double_walk", "double_counter"}) {
+      FunctionParam param = new FunctionParam(type, 10, 0, 20);
+      new FunctionSeries(param, new Random(1)).fill(timestamps, expected);
+      FunctionSeries series = new FunctionSeries(param, new Random(1));
+      assertTrue(type, series.isStateful());
+      series.fill(half, out);
+      for (int i = 0; i < half.length; i++) {
+        assertEquals(type, expected[i], out[i], 0);
+      }
+      for (int i = half.length; i < half.length + 10; i++) {
+        assertEquals(type, expected[i], series.getValue(0).doubleValue(), 0);
+      }
+      series.fill(new long[timestamps.length - half.length - 10], out);
+      for (int i = half.length + 10; i < timestamps.length; i++) {
+        assertEquals(type, expected[i], out[i - half.length - 10], 0);
+      }
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.measurement;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testQuantile() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i / 10.0);
+    }
+    assertEquals(1000, histogram.getTotalCount());
+    assertEquals(0.1, histogram.quantile(0), 0.001);
+    assertEquals(50.0, histogram.quantile(0.5), 0.05);
+    assertEquals(99.0, histogram.quantile(0.99), 0.1);
+    assertEquals(100.0, histogram.quantile(1), 0.1);
+  }
+
+  @Test
+  public void testMerge() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    LatencyHistogram other = new LatencyHistogram();
+    for (int i = 0; i < 100; i++) {
+      histogram.record(1);
+      other.record(1000);
+    }
+    histogram.merge(other);
+    assertEquals(200, histogram.getTotalCount());
+    assertEquals(1.0, histogram.quantile(0.5), 0.001);
+    assertEquals(1000.0, histogram.quantile(0.99), 1);
+  }
+}
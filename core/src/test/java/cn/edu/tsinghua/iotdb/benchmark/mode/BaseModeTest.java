@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.mode;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BaseModeTest {
+
+  /** Method: getMeasuredStartTime() */
+  @Test
+  public void testMeasuredStartTime() {
+    // warm-up finished during test
+    assertEquals(3000L, BaseMode.getMeasuredStartTime(1000L, 3000L));
+    // warm-up finished before test started
+    assertEquals(1000L, BaseMode.getMeasuredStartTime(1000L, 500L));
+    // warm-up was not finished, the whole test is measured so that elapsed time is not 0
+    assertEquals(1000L, BaseMode.getMeasuredStartTime(1000L, 0L));
+  }
+}
@@ -66,6 +66,34 @@ public class BatchSerializeTest {
     assertEquals(batch, deserializeBatch);
   }
 
+  @Test
+  public void testSerializeColumnarBatch() throws Exception {
+    List<Sensor> sensors = new ArrayList<>();
+    sensors.add(new Sensor("s1", SensorType.INT32));
+    sensors.add(new Sensor("s2", SensorType.DOUBLE));
+    sensors.add(new Sensor("s3", SensorType.TEXT));
+    DeviceSchema deviceSchema = new DeviceSchema("g1", "d1", sensors);
+    Batch batch = new Batch(4);
+    batch.setDeviceSchema(deviceSchema);
+    for (int i = 0; i < 10; i++) {
+      int row = batch.addRow(i);
+      batch.setValue(0, row, i);
+      batch.setValue(1, row, i * 0.5);
+      batch.setValue(2, row, i % 3 == 0 ? null : "v" + i);
+    }
+    assertEquals(10, batch.getRecords().size());
+    assertEquals(26, batch.pointNum());
+    assertEquals(9, ((int[]) batch.getColumn(0))[9]);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    batch.serialize(outputStream);
+    ByteArrayInputStream inputStreamStream = new ByteArrayInputStream(outputStream.toByteArray());
+    Batch deserializeBatch = Batch.deserialize(inputStreamStream);
+
+    assertEquals(batch, deserializeBatch);
+    assertEquals(batch.pointNum(), deserializeBatch.pointNum());
+  }
+
   private Record buildRecord(long time, int size) {
     List<Object> value = new ArrayList<>();
     for (int i = 0; i < size; i++) {
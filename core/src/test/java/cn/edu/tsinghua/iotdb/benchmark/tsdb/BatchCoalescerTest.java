@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb;
+
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchCoalescerTest {
+
+  private static final List<Sensor> SENSORS =
+      Collections.singletonList(new Sensor("s_0", SensorType.DOUBLE));
+
+  private static Batch newBatch(String device) {
+    return new Batch(new DeviceSchema("g_0", device, SENSORS), new ArrayList<>());
+  }
+
+  @Test
+  public void testCoalesce() throws Exception {
+    List<Integer> groupSizes = Collections.synchronizedList(new ArrayList<>());
+    BatchCoalescer coalescer =
+        new BatchCoalescer(
+            3,
+            60000,
+            batches -> {
+              groupSizes.add(batches.size());
+              return new Status(true);
+            });
+    CompletableFuture<Status> first = coalescer.add(newBatch("d_0"));
+    coalescer.add(newBatch("d_1"));
+    assertFalse(first.isDone());
+    // a group is full
+    coalescer.add(newBatch("d_2"));
+    assertTrue(first.get(10, TimeUnit.SECONDS).isOk());
+    // a device appears again
+    coalescer.add(newBatch("d_0"));
+    coalescer.add(newBatch("d_0"));
+    // the remaining batch is inserted when closing
+    CompletableFuture<Status> last = coalescer.add(newBatch("d_1"));
+    coalescer.close();
+    assertTrue(last.isDone());
+    assertEquals(3, groupSizes.size());
+    assertEquals(3, (int) groupSizes.get(0));
+    assertEquals(1, (int) groupSizes.get(1));
+    assertEquals(2, (int) groupSizes.get(2));
+  }
+
+  @Test
+  public void testWindow() throws Exception {
+    BatchCoalescer coalescer =
+        new BatchCoalescer(
+            100,
+            10,
+            batches -> new Status(false, 0, new Exception("failed"), "failed"));
+    CompletableFuture<Status> first = coalescer.add(newBatch("d_0"));
+    CompletableFuture<Status> second = coalescer.add(newBatch("d_1"));
+    Status status = first.get(10, TimeUnit.SECONDS);
+    assertFalse(status.isOk());
+    assertEquals("failed", status.getErrorMessage());
+    // each batch has its own status
+    assertTrue(status != second.get(10, TimeUnit.SECONDS));
+    coalescer.close();
+  }
+}
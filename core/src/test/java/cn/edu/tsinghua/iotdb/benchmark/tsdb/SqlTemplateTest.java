@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.tsdb;
+
+import cn.edu.tsinghua.iotdb.benchmark.utils.LruCache;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SqlTemplateTest {
+
+  @Test
+  public void testFill() {
+    SqlTemplate template =
+        new SqlTemplate.Builder()
+            .append("SELECT s_0 FROM root.sg.d_0 WHERE time >= ")
+            .appendParameter(0)
+            .append(" AND time <= ")
+            .appendParameter(1)
+            .append(" AND s_0 > ")
+            .appendParameter(2)
+            .append(" AND s_1 > ")
+            .appendParameter(2)
+            .build();
+    assertEquals(
+        "SELECT s_0 FROM root.sg.d_0 WHERE time >= 100 AND time <= 200 AND s_0 > 5 AND s_1 > 5",
+        template.fill(100, 200, 5));
+    assertEquals(
+        "SELECT s_0 FROM root.sg.d_0 WHERE time >= {0} AND time <= {1} AND s_0 > {2} AND s_1 > {2}",
+        template.toString());
+    SqlTemplate constant = new SqlTemplate.Builder().append("SELECT last s_0 FROM root.sg").build();
+    assertEquals("SELECT last s_0 FROM root.sg", constant.fill());
+  }
+
+  @Test
+  public void testLruCache() {
+    LruCache<Integer, String> cache = new LruCache<>(2);
+    cache.put(1, "a");
+    cache.put(2, "b");
+    cache.get(1);
+    cache.put(3, "c");
+    assertEquals(2, cache.size());
+    assertTrue(cache.containsKey(1));
+    assertFalse(cache.containsKey(2));
+  }
+}
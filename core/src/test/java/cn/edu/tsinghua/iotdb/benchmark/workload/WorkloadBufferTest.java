@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.workload;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Batch;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.function.FunctionParam;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WorkloadBufferTest {
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  /** Method: generateAll(), getValues() */
+  @Test
+  public void testLazySameAsEager() {
+    WorkloadBuffer eager = new WorkloadBuffer(config.getSENSORS(), 10);
+    eager.generateAll();
+    WorkloadBuffer lazy = new WorkloadBuffer(config.getSENSORS(), 10);
+    for (int i = config.getSENSORS().size() - 1; i >= 0; i--) {
+      Object[] expected = {eager.getValues(i)};
+      assertTrue(Arrays.deepEquals(expected, new Object[] {lazy.getValues(i)}));
+    }
+  }
+
+  /** Method: copyRow() of walk and counter sensors generated by threads in different orders */
+  @Test
+  public void testStatefulSameInAnyOrder() throws InterruptedException {
+    List<Sensor> sensors = new ArrayList<>();
+    sensors.add(new Sensor("test_walk", SensorType.DOUBLE));
+    sensors.add(new Sensor("test_counter", SensorType.INT64));
+    config.getSENSOR_FUNCTION().put("test_walk", new FunctionParam("double_walk", 100, 0, 10));
+    config.getSENSOR_FUNCTION().put("test_counter", new FunctionParam("int_counter", 1000, 0, 10));
+    try {
+      int deviceNumber = 3;
+      int stepNumber = config.getBATCH_SIZE_PER_WRITE() * 40;
+      double[][] expected = generateSeries(sensors, deviceNumber, stepNumber, 1)[0];
+      for (double[][] actual : generateSeries(sensors, deviceNumber, stepNumber, 4)) {
+        for (int i = 0; i < expected.length; i++) {
+          assertArrayEquals(expected[i], actual[i], 0);
+        }
+      }
+    } finally {
+      config.getSENSOR_FUNCTION().remove("test_walk");
+      config.getSENSOR_FUNCTION().remove("test_counter");
+    }
+  }
+
+  /**
+   * Generate steps of devices by threads, every thread generates all steps in its own random order
+   *
+   * @return values generated by each thread, i.e. walk and then counter of each device by step
+   */
+  private static double[][][] generateSeries(
+      List<Sensor> sensors, int deviceNumber, int stepNumber, int threadNumber)
+      throws InterruptedException {
+    WorkloadBuffer buffer = new WorkloadBuffer(sensors, 10);
+    double[][][] values = new double[threadNumber][deviceNumber * 2][stepNumber];
+    Thread[] threads = new Thread[threadNumber];
+    for (int t = 0; t < threadNumber; t++) {
+      List<Integer> steps = new ArrayList<>();
+      for (int step = 0; step < stepNumber; step++) {
+        steps.add(step);
+      }
+      if (threadNumber > 1) {
+        Collections.shuffle(steps, new Random(t));
+      }
+      double[][] threadValues = values[t];
+      threads[t] =
+          new Thread(
+              () -> {
+                for (int deviceId = 0; deviceId < deviceNumber; deviceId++) {
+                  Batch batch = new Batch(stepNumber);
+                  batch.setDeviceSchema(new DeviceSchema(deviceId, sensors));
+                  batch.setColIndex(-1);
+                  for (int step : steps) {
+                    buffer.copyRow(batch, batch.addRow(step), deviceId, step);
+                  }
+                  double[] walk = (double[]) batch.getColumn(0);
+                  long[] counter = (long[]) batch.getColumn(1);
+                  for (int row = 0; row < stepNumber; row++) {
+                    threadValues[deviceId * 2][steps.get(row)] = walk[row];
+                    threadValues[deviceId * 2 + 1][steps.get(row)] = counter[row];
+                  }
+                }
+              });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    return values;
+  }
+}
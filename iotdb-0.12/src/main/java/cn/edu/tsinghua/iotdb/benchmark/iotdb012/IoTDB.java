@@ -39,7 +39,9 @@ import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.IDatabase;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.SqlTemplate;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import cn.edu.tsinghua.iotdb.benchmark.utils.LruCache;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,10 +68,29 @@ public class IoTDB implements IDatabase {
   protected Future<?> future;
   protected DBConfig dbConfig;
 
+  /** Max number of cached insert prefixes and query templates */
+  private static final int SQL_CACHE_CAPACITY = 4096;
+  /** Indexes of the values filled in query templates */
+  private static final int START_TIME = 0;
+  private static final int END_TIME = 1;
+  private static final int VALUE_THRESHOLD = 2;
+  private static final int GRANULARITY = 2;
+  /** Insert SQL prefix of each device, e.g. insert into root.sg.d_0(timestamp,s_0,s_1) values */
+  private final Map<DeviceSchema, String> insertSqlPrefixes = new LruCache<>(SQL_CACHE_CAPACITY);
+  /** Query templates of each operation, aggregation function and query devices */
+  private final Map<QueryTemplateKey, SqlTemplate> queryTemplates =
+      new LruCache<>(SQL_CACHE_CAPACITY);
+  /** Index of each sensor in config, by which the sensors of query devices are keyed */
+  private final Map<String, Integer> sensorIndexes = new HashMap<>();
+
   public IoTDB(DBConfig dbConfig) {
     this.dbConfig = dbConfig;
     ROOT_SERIES_NAME = "root." + dbConfig.getDB_NAME();
     DELETE_SERIES_SQL = "delete storage group root." + dbConfig.getDB_NAME();
+    List<Sensor> sensors = config.getSENSORS();
+    for (int i = 0; i < sensors.size(); i++) {
+      sensorIndexes.put(sensors.get(i).getName(), i);
+    }
   }
 
   @Override
@@ -274,13 +295,18 @@ public class IoTDB implements IDatabase {
   @Override
   public Status insertOneBatch(Batch batch) throws DBConnectException {
     try (Statement statement = ioTDBConnection.getConnection().createStatement()) {
-      for (Record record : batch.getRecords()) {
-        String sql =
-            getInsertOneBatchSql(
-                batch.getDeviceSchema(), record.getTimestamp(), record.getRecordDataValue());
-        statement.addBatch(sql);
+      if (isAligned(batch)) {
+        // every row has all sensors, so the batch is inserted by one multi-row statement
+        statement.execute(getInsertMultiRowSql(batch));
+      } else {
+        for (Record record : batch.getRecords()) {
+          String sql =
+              getInsertOneBatchSql(
+                  batch.getDeviceSchema(), record.getTimestamp(), record.getRecordDataValue());
+          statement.addBatch(sql);
+        }
+        statement.executeBatch();
       }
-      statement.executeBatch();
       return new Status(true);
     } catch (Exception e) {
       return new Status(false, 0, e, e.toString());
@@ -295,8 +321,9 @@ public class IoTDB implements IDatabase {
    */
   @Override
   public Status preciseQuery(PreciseQuery preciseQuery) {
-    String strTime = preciseQuery.getTimestamp() + "";
-    String sql = getSimpleQuerySqlHead(preciseQuery.getDeviceSchema()) + " WHERE time = " + strTime;
+    String sql =
+        getQueryTemplate(Operation.PRECISE_QUERY, preciseQuery.getDeviceSchema(), null)
+            .fill(preciseQuery.getTimestamp());
     return executeQueryAndGetStatus(sql, Operation.PRECISE_QUERY);
   }
 
@@ -310,10 +337,8 @@ public class IoTDB implements IDatabase {
   @Override
   public Status rangeQuery(RangeQuery rangeQuery) {
     String sql =
-        getRangeQuerySql(
-            rangeQuery.getDeviceSchema(),
-            rangeQuery.getStartTimestamp(),
-            rangeQuery.getEndTimestamp());
+        getQueryTemplate(Operation.RANGE_QUERY, rangeQuery.getDeviceSchema(), null)
+            .fill(rangeQuery.getStartTimestamp(), rangeQuery.getEndTimestamp());
     return executeQueryAndGetStatus(sql, Operation.RANGE_QUERY);
   }
 
@@ -326,7 +351,7 @@ public class IoTDB implements IDatabase {
    */
   @Override
   public Status valueRangeQuery(ValueRangeQuery valueRangeQuery) {
-    String sql = getValueRangeQuerySql(valueRangeQuery);
+    String sql = getValueRangeQuerySql(valueRangeQuery, Operation.VALUE_RANGE_QUERY);
     return executeQueryAndGetStatus(sql, Operation.VALUE_RANGE_QUERY);
   }
 
@@ -339,11 +364,12 @@ public class IoTDB implements IDatabase {
    */
   @Override
   public Status aggRangeQuery(AggRangeQuery aggRangeQuery) {
-    String aggQuerySqlHead =
-        getAggQuerySqlHead(aggRangeQuery.getDeviceSchema(), aggRangeQuery.getAggFun());
     String sql =
-        addWhereTimeClause(
-            aggQuerySqlHead, aggRangeQuery.getStartTimestamp(), aggRangeQuery.getEndTimestamp());
+        getQueryTemplate(
+                Operation.AGG_RANGE_QUERY,
+                aggRangeQuery.getDeviceSchema(),
+                aggRangeQuery.getAggFun())
+            .fill(aggRangeQuery.getStartTimestamp(), aggRangeQuery.getEndTimestamp());
     return executeQueryAndGetStatus(sql, Operation.AGG_RANGE_QUERY);
   }
 
@@ -355,14 +381,13 @@ public class IoTDB implements IDatabase {
    */
   @Override
   public Status aggValueQuery(AggValueQuery aggValueQuery) {
-    String aggQuerySqlHead =
-        getAggQuerySqlHead(aggValueQuery.getDeviceSchema(), aggValueQuery.getAggFun());
+    // the value threshold is the only parameter of the template
     String sql =
-        aggQuerySqlHead
-            + " WHERE "
-            + getValueFilterClause(
-                    aggValueQuery.getDeviceSchema(), (int) aggValueQuery.getValueThreshold())
-                .substring(4);
+        getQueryTemplate(
+                Operation.AGG_VALUE_QUERY,
+                aggValueQuery.getDeviceSchema(),
+                aggValueQuery.getAggFun())
+            .fill((int) aggValueQuery.getValueThreshold());
     return executeQueryAndGetStatus(sql, Operation.AGG_VALUE_QUERY);
   }
 
@@ -376,16 +401,15 @@ public class IoTDB implements IDatabase {
    */
   @Override
   public Status aggRangeValueQuery(AggRangeValueQuery aggRangeValueQuery) {
-    String aggQuerySqlHead =
-        getAggQuerySqlHead(aggRangeValueQuery.getDeviceSchema(), aggRangeValueQuery.getAggFun());
     String sql =
-        addWhereTimeClause(
-            aggQuerySqlHead,
-            aggRangeValueQuery.getStartTimestamp(),
-            aggRangeValueQuery.getEndTimestamp());
-    sql +=
-        getValueFilterClause(
-            aggRangeValueQuery.getDeviceSchema(), (int) aggRangeValueQuery.getValueThreshold());
+        getQueryTemplate(
+                Operation.AGG_RANGE_VALUE_QUERY,
+                aggRangeValueQuery.getDeviceSchema(),
+                aggRangeValueQuery.getAggFun())
+            .fill(
+                aggRangeValueQuery.getStartTimestamp(),
+                aggRangeValueQuery.getEndTimestamp(),
+                (int) aggRangeValueQuery.getValueThreshold());
     return executeQueryAndGetStatus(sql, Operation.AGG_RANGE_VALUE_QUERY);
   }
 
@@ -398,14 +422,13 @@ public class IoTDB implements IDatabase {
    */
   @Override
   public Status groupByQuery(GroupByQuery groupByQuery) {
-    String aggQuerySqlHead =
-        getAggQuerySqlHead(groupByQuery.getDeviceSchema(), groupByQuery.getAggFun());
     String sql =
-        addGroupByClause(
-            aggQuerySqlHead,
-            groupByQuery.getStartTimestamp(),
-            groupByQuery.getEndTimestamp(),
-            groupByQuery.getGranularity());
+        getQueryTemplate(
+                Operation.GROUP_BY_QUERY, groupByQuery.getDeviceSchema(), groupByQuery.getAggFun())
+            .fill(
+                groupByQuery.getStartTimestamp(),
+                groupByQuery.getEndTimestamp(),
+                groupByQuery.getGranularity());
     return executeQueryAndGetStatus(sql, Operation.GROUP_BY_QUERY);
   }
 
@@ -417,8 +440,10 @@ public class IoTDB implements IDatabase {
    */
   @Override
   public Status latestPointQuery(LatestPointQuery latestPointQuery) {
-    String aggQuerySqlHead = getLatestPointQuerySql(latestPointQuery.getDeviceSchema());
-    return executeQueryAndGetStatus(aggQuerySqlHead, Operation.LATEST_POINT_QUERY);
+    String sql =
+        getQueryTemplate(Operation.LATEST_POINT_QUERY, latestPointQuery.getDeviceSchema(), null)
+            .fill();
+    return executeQueryAndGetStatus(sql, Operation.LATEST_POINT_QUERY);
   }
 
   /**
@@ -431,11 +456,9 @@ public class IoTDB implements IDatabase {
   @Override
   public Status rangeQueryOrderByDesc(RangeQuery rangeQuery) {
     String sql =
-        getRangeQuerySql(
-                rangeQuery.getDeviceSchema(),
-                rangeQuery.getStartTimestamp(),
-                rangeQuery.getEndTimestamp())
-            + " order by time desc";
+        getQueryTemplate(
+                Operation.RANGE_QUERY_ORDER_BY_TIME_DESC, rangeQuery.getDeviceSchema(), null)
+            .fill(rangeQuery.getStartTimestamp(), rangeQuery.getEndTimestamp());
     return executeQueryAndGetStatus(sql, Operation.RANGE_QUERY_ORDER_BY_TIME_DESC);
   }
 
@@ -448,7 +471,8 @@ public class IoTDB implements IDatabase {
    */
   @Override
   public Status valueRangeQueryOrderByDesc(ValueRangeQuery valueRangeQuery) {
-    String sql = getValueRangeQuerySql(valueRangeQuery) + " order by time desc";
+    String sql =
+        getValueRangeQuerySql(valueRangeQuery, Operation.VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC);
     return executeQueryAndGetStatus(sql, Operation.VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC);
   }
 
@@ -500,32 +524,122 @@ public class IoTDB implements IDatabase {
     return builder.toString();
   }
 
-  private String getValueRangeQuerySql(ValueRangeQuery valueRangeQuery) {
-    String rangeQuerySql =
-        getRangeQuerySql(
-            valueRangeQuery.getDeviceSchema(),
+  private String getValueRangeQuerySql(ValueRangeQuery valueRangeQuery, Operation operation) {
+    return getQueryTemplate(operation, valueRangeQuery.getDeviceSchema(), null)
+        .fill(
             valueRangeQuery.getStartTimestamp(),
-            valueRangeQuery.getEndTimestamp());
-    String valueFilterClause =
-        getValueFilterClause(
-            valueRangeQuery.getDeviceSchema(), (int) valueRangeQuery.getValueThreshold());
-    return rangeQuerySql + valueFilterClause;
+            valueRangeQuery.getEndTimestamp(),
+            (int) valueRangeQuery.getValueThreshold());
   }
 
-  private String getValueFilterClause(List<DeviceSchema> deviceSchemas, int valueThreshold) {
-    StringBuilder builder = new StringBuilder();
+  /**
+   * Get the query template of operation, which is built on first use and cached for the same
+   * aggregation function and query devices with their sensors
+   */
+  private SqlTemplate getQueryTemplate(
+      Operation operation, List<DeviceSchema> devices, String aggFun) {
+    QueryTemplateKey key = getQueryTemplateKey(operation, devices, aggFun);
+    SqlTemplate template = queryTemplates.get(key);
+    if (template == null) {
+      template = buildQueryTemplate(operation, devices, aggFun);
+      queryTemplates.put(key, template);
+    }
+    return template;
+  }
+
+  /**
+   * Key query devices by their ids and a bitmask of their sensors, which is much cheaper to hash
+   * and compare than device schemas
+   */
+  private QueryTemplateKey getQueryTemplateKey(
+      Operation operation, List<DeviceSchema> devices, String aggFun) {
+    int words = (sensorIndexes.size() + 63) / 64;
+    long[] ids = new long[devices.size() * (words + 1)];
+    int offset = 0;
+    for (DeviceSchema device : devices) {
+      ids[offset] = device.getDeviceId();
+      for (int i = 0; i < device.getSensorNum(); i++) {
+        Integer index = sensorIndexes.get(device.getSensor(i).getName());
+        if (index == null) {
+          throw new IllegalArgumentException("Unknown sensor: " + device.getSensor(i).getName());
+        }
+        ids[offset + 1 + index / 64] |= 1L << index;
+      }
+      offset += words + 1;
+    }
+    return new QueryTemplateKey(operation, aggFun, ids);
+  }
+
+  private SqlTemplate buildQueryTemplate(
+      Operation operation, List<DeviceSchema> devices, String aggFun) {
+    SqlTemplate.Builder builder = new SqlTemplate.Builder();
+    switch (operation) {
+      case PRECISE_QUERY:
+        builder.append(getSimpleQuerySqlHead(devices)).append(" WHERE time = ");
+        builder.appendParameter(START_TIME);
+        break;
+      case RANGE_QUERY:
+        builder.append(getSimpleQuerySqlHead(devices));
+        addWhereTimeClause(builder);
+        break;
+      case RANGE_QUERY_ORDER_BY_TIME_DESC:
+        builder.append(getSimpleQuerySqlHead(devices));
+        addWhereTimeClause(builder);
+        builder.append(" order by time desc");
+        break;
+      case VALUE_RANGE_QUERY:
+        builder.append(getSimpleQuerySqlHead(devices));
+        addWhereTimeClause(builder);
+        addValueFilterClause(builder, devices, " AND ", VALUE_THRESHOLD);
+        break;
+      case VALUE_RANGE_QUERY_ORDER_BY_TIME_DESC:
+        builder.append(getSimpleQuerySqlHead(devices));
+        addWhereTimeClause(builder);
+        addValueFilterClause(builder, devices, " AND ", VALUE_THRESHOLD);
+        builder.append(" order by time desc");
+        break;
+      case AGG_RANGE_QUERY:
+        builder.append(getAggQuerySqlHead(devices, aggFun));
+        addWhereTimeClause(builder);
+        break;
+      case AGG_VALUE_QUERY:
+        builder.append(getAggQuerySqlHead(devices, aggFun));
+        addValueFilterClause(builder, devices, " WHERE ", 0);
+        break;
+      case AGG_RANGE_VALUE_QUERY:
+        builder.append(getAggQuerySqlHead(devices, aggFun));
+        addWhereTimeClause(builder);
+        addValueFilterClause(builder, devices, " AND ", VALUE_THRESHOLD);
+        break;
+      case GROUP_BY_QUERY:
+        builder.append(getAggQuerySqlHead(devices, aggFun)).append(" group by ([");
+        builder.appendParameter(START_TIME).append(",").appendParameter(END_TIME).append("),");
+        builder.appendParameter(GRANULARITY).append("ms) ");
+        break;
+      case LATEST_POINT_QUERY:
+        builder.append(getLatestPointQuerySql(devices));
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported query operation: " + operation);
+    }
+    return builder.build();
+  }
+
+  /** Add value filter of all query sensors, the first filter follows keyword */
+  private void addValueFilterClause(
+      SqlTemplate.Builder builder, List<DeviceSchema> deviceSchemas, String keyword, int index) {
     for (DeviceSchema deviceSchema : deviceSchemas) {
       for (Sensor sensor : deviceSchema.getSensors()) {
         builder
-            .append(" AND ")
+            .append(keyword)
             .append(getDevicePath(deviceSchema))
             .append(".")
             .append(sensor.getName())
             .append(" > ")
-            .append(valueThreshold);
+            .appendParameter(index);
+        keyword = " AND ";
       }
     }
-    return builder.toString();
   }
 
   private String getLatestPointQuerySql(List<DeviceSchema> devices) {
@@ -539,18 +653,9 @@ public class IoTDB implements IDatabase {
     return addFromClause(devices, builder);
   }
 
-  private String getRangeQuerySql(List<DeviceSchema> deviceSchemas, long start, long end) {
-    return addWhereTimeClause(getSimpleQuerySqlHead(deviceSchemas), start, end);
-  }
-
-  private String addWhereTimeClause(String prefix, long start, long end) {
-    String startTime = start + "";
-    String endTime = end + "";
-    return prefix + " WHERE time >= " + startTime + " AND time <= " + endTime;
-  }
-
-  private String addGroupByClause(String prefix, long start, long end, long granularity) {
-    return prefix + " group by ([" + start + "," + end + ")," + granularity + "ms) ";
+  private void addWhereTimeClause(SqlTemplate.Builder builder) {
+    builder.append(" WHERE time >= ").appendParameter(START_TIME);
+    builder.append(" AND time <= ").appendParameter(END_TIME);
   }
 
   /**
@@ -629,20 +734,8 @@ public class IoTDB implements IDatabase {
 
   public String getInsertOneBatchSql(
       DeviceSchema deviceSchema, long timestamp, List<Object> values) {
-    StringBuilder builder = new StringBuilder();
-    builder
-        .append("insert into ")
-        .append(ROOT_SERIES_NAME)
-        .append(".")
-        .append(deviceSchema.getGroup())
-        .append(".")
-        .append(deviceSchema.getDevice())
-        .append("(timestamp");
-    for (Sensor sensor : deviceSchema.getSensors()) {
-      builder.append(",").append(sensor.getName());
-    }
-    builder.append(") values(");
-    builder.append(timestamp);
+    StringBuilder builder = new StringBuilder(getInsertSqlPrefix(deviceSchema));
+    builder.append("(").append(timestamp);
     int sensorIndex = 0;
     List<Sensor> sensors = deviceSchema.getSensors();
     for (Object value : values) {
@@ -665,6 +758,86 @@ public class IoTDB implements IDatabase {
     return builder.toString();
   }
 
+  /** @return true if the batch has rows and every row has values of all sensors */
+  private static boolean isAligned(Batch batch) {
+    if (batch.getRowSize() == 0) {
+      return false;
+    }
+    for (int column = 0; column < batch.getColumnNum(); column++) {
+      if (batch.hasNull(column)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** e.g. insert into root.sg.d_0(timestamp,s_0,s_1) values(1,1.0,'a'),(2,2.0,'b') */
+  private String getInsertMultiRowSql(Batch batch) {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    List<Sensor> sensors = deviceSchema.getSensors();
+    long[] timestamps = batch.getTimestamps();
+    StringBuilder builder = new StringBuilder(getInsertSqlPrefix(deviceSchema));
+    for (int row = 0; row < batch.getRowSize(); row++) {
+      builder.append(row == 0 ? "(" : ",(").append(timestamps[row]);
+      for (int column = 0; column < sensors.size(); column++) {
+        builder.append(",");
+        appendValue(builder, sensors.get(column).getSensorType(), batch.getColumn(column), row);
+      }
+      builder.append(")");
+    }
+    LOGGER.debug("getInsertMultiRowSql: {}", builder);
+    return builder.toString();
+  }
+
+  private static void appendValue(
+      StringBuilder builder, SensorType sensorType, Object column, int row) {
+    switch (sensorType) {
+      case BOOLEAN:
+        builder.append(((boolean[]) column)[row]);
+        break;
+      case INT32:
+        builder.append(((int[]) column)[row]);
+        break;
+      case INT64:
+        builder.append(((long[]) column)[row]);
+        break;
+      case FLOAT:
+        builder.append(((float[]) column)[row]);
+        break;
+      case DOUBLE:
+        builder.append(((double[]) column)[row]);
+        break;
+      case TEXT:
+        builder.append("'").append(((String[]) column)[row]).append("'");
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported sensor type: " + sensorType);
+    }
+  }
+
+  /** Get insert SQL prefix of device, which is built on first use */
+  private String getInsertSqlPrefix(DeviceSchema deviceSchema) {
+    String prefix = insertSqlPrefixes.get(deviceSchema);
+    if (prefix == null) {
+      StringBuilder builder = new StringBuilder();
+      builder
+          .append("insert into ")
+          .append(ROOT_SERIES_NAME)
+          .append(".")
+          .append(deviceSchema.getGroup())
+          .append(".")
+          .append(deviceSchema.getDevice())
+          .append("(timestamp");
+      for (Sensor sensor : deviceSchema.getSensors()) {
+        builder.append(",").append(sensor.getName());
+      }
+      builder.append(") values");
+      prefix = builder.toString();
+      insertSqlPrefixes.put(deviceSchema, prefix);
+    }
+    return prefix;
+  }
+
   /**
    * Using in verification
    *
@@ -832,4 +1005,41 @@ public class IoTDB implements IDatabase {
         + "."
         + sensor;
   }
+
+  /** Key of query templates, made of operation, aggregation function and query device ids */
+  private static final class QueryTemplateKey {
+    private final Operation operation;
+    private final String aggFun;
+    /** id of each query device, followed by the bitmask of its sensors */
+    private final long[] ids;
+
+    private final int hashCode;
+
+    private QueryTemplateKey(Operation operation, String aggFun, long[] ids) {
+      this.operation = operation;
+      this.aggFun = aggFun;
+      this.ids = ids;
+      this.hashCode =
+          31 * (31 * operation.hashCode() + Objects.hashCode(aggFun)) + Arrays.hashCode(ids);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof QueryTemplateKey)) {
+        return false;
+      }
+      QueryTemplateKey that = (QueryTemplateKey) o;
+      return operation == that.operation
+          && Objects.equals(aggFun, that.aggFun)
+          && Arrays.equals(ids, that.ids);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
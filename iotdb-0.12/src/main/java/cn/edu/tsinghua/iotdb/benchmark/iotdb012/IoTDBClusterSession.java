@@ -63,6 +63,8 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
   private static Config config = ConfigDescriptor.getInstance().getConfig();
   private SessionPool[] sessions;
   private int currSession;
+  /** Session index of coalesced insertion, which is only used by the coalescing thread */
+  private int coalescingSession;
   private static final int MAX_SESSION_CONNECTION_PER_CLIENT = 3;
 
   public IoTDBClusterSession(DBConfig dbConfig) {
@@ -172,7 +174,8 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
 
   @Override
   public Status insertOneBatchByTablet(Batch batch) {
-    Tablet tablet = genTablet(batch);
+    // the write may go on after timeout, so the tablet must not be refilled by the next batch
+    Tablet tablet = genUnsharedTablet(batch);
 
     future =
         service.submit(
@@ -189,6 +192,38 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
     return status;
   }
 
+  @Override
+  public Status insertBatchesByTablets(List<Batch> batches) {
+    SessionPool sessionPool = sessions[coalescingSession];
+    coalescingSession = (coalescingSession + 1) % sessions.length;
+    try {
+      sessionPool.insertTablets(genTablets(batches));
+      return new Status(true);
+    } catch (IoTDBConnectionException | StatementExecutionException e) {
+      LOGGER.error("insert tablets failed", e);
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
+  @Override
+  public Status insertBatchesByRecords(List<Batch> batches) {
+    RecordsBuffer records = genRecords(batches);
+    SessionPool sessionPool = sessions[coalescingSession];
+    coalescingSession = (coalescingSession + 1) % sessions.length;
+    try {
+      sessionPool.insertRecords(
+          records.deviceIds,
+          records.times,
+          records.measurementsList,
+          records.typesList,
+          records.valuesList);
+      return new Status(true);
+    } catch (IoTDBConnectionException | StatementExecutionException e) {
+      LOGGER.error("insert records failed", e);
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
   @Override
   protected Status executeQueryAndGetStatus(String sql, Operation operation) {
     if (!config.isIS_QUIET_MODE()) {
@@ -410,6 +445,7 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
 
   @Override
   public void close() throws TsdbException {
+    closeCoalescer();
     for (SessionPool sessionPool : sessions) {
       if (sessionPool != null) {
         sessionPool.close();
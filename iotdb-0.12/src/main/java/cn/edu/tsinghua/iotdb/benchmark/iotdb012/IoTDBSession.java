@@ -61,16 +61,33 @@ public class IoTDBSession extends IoTDBSessionBase {
   private static final Logger LOGGER = LoggerFactory.getLogger(IoTDBSession.class);
   private static final Config config = ConfigDescriptor.getInstance().getConfig();
   private final Session session;
+  /**
+   * Session of coalesced insertions, which are executed in the coalescing thread while queries use
+   * session. It is opened on first use.
+   */
+  private Session coalescingSession;
 
   public IoTDBSession(DBConfig dbConfig) {
     super(dbConfig);
-    session =
-        new Session(
-            dbConfig.getHOST().get(0),
-            Integer.valueOf(dbConfig.getPORT().get(0)),
-            dbConfig.getUSERNAME(),
-            dbConfig.getPASSWORD(),
-            true);
+    session = createSession();
+  }
+
+  private Session createSession() {
+    return new Session(
+        dbConfig.getHOST().get(0),
+        Integer.valueOf(dbConfig.getPORT().get(0)),
+        dbConfig.getUSERNAME(),
+        dbConfig.getPASSWORD(),
+        true);
+  }
+
+  private Session getCoalescingSession() throws IoTDBConnectionException {
+    if (coalescingSession == null) {
+      Session newSession = createSession();
+      newSession.open(config.isENABLE_THRIFT_COMPRESSION());
+      coalescingSession = newSession;
+    }
+    return coalescingSession;
   }
 
   @Override
@@ -166,6 +183,33 @@ public class IoTDBSession extends IoTDBSessionBase {
     }
   }
 
+  @Override
+  public Status insertBatchesByTablets(List<Batch> batches) {
+    try {
+      getCoalescingSession().insertTablets(genTablets(batches));
+      return new Status(true);
+    } catch (IoTDBConnectionException | StatementExecutionException e) {
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
+  @Override
+  public Status insertBatchesByRecords(List<Batch> batches) {
+    RecordsBuffer records = genRecords(batches);
+    try {
+      getCoalescingSession()
+          .insertRecords(
+              records.deviceIds,
+              records.times,
+              records.measurementsList,
+              records.typesList,
+              records.valuesList);
+      return new Status(true);
+    } catch (IoTDBConnectionException | StatementExecutionException e) {
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
   @Override
   protected Status executeQueryAndGetStatus(String sql, Operation operation) {
     if (!config.isIS_QUIET_MODE()) {
@@ -369,10 +413,14 @@ public class IoTDBSession extends IoTDBSessionBase {
 
   @Override
   public void close() throws TsdbException {
+    closeCoalescer();
     try {
       if (session != null) {
         session.close();
       }
+      if (coalescingSession != null) {
+        coalescingSession.close();
+      }
       if (ioTDBConnection != null) {
         ioTDBConnection.close();
       }
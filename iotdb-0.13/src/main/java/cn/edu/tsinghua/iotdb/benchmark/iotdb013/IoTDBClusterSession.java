@@ -38,6 +38,7 @@ import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
 import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBInsertMode;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.VerificationQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,7 +47,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -61,6 +64,10 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
   private SessionPool[] sessions;
   private int currSession;
   private static final int MAX_SESSION_CONNECTION_PER_CLIENT = 3;
+  /** Executor of async insertion, only used when MAX_IN_FLIGHT_PER_CLIENT > 1 */
+  private ExecutorService asyncService;
+  /** Session index of async insertion, which may be used by several threads */
+  private final AtomicInteger asyncSession = new AtomicInteger(0);
 
   public IoTDBClusterSession(DBConfig dbConfig) {
     super(dbConfig);
@@ -76,7 +83,7 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
               Integer.parseInt(dbConfig.getPORT().get(i)),
               dbConfig.getUSERNAME(),
               dbConfig.getPASSWORD(),
-              MAX_SESSION_CONNECTION_PER_CLIENT,
+              Math.max(MAX_SESSION_CONNECTION_PER_CLIENT, config.getMAX_IN_FLIGHT_PER_CLIENT()),
               config.isENABLE_THRIFT_COMPRESSION(),
               true);
     }
@@ -86,6 +93,38 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
   public void init() throws TsdbException {
     // do nothing
     this.service = Executors.newSingleThreadExecutor();
+    if (config.getMAX_IN_FLIGHT_PER_CLIENT() > 1) {
+      this.asyncService = Executors.newFixedThreadPool(config.getMAX_IN_FLIGHT_PER_CLIENT());
+    }
+  }
+
+  @Override
+  public boolean isAsyncSupported() {
+    // session pool is thread-safe, so tablets can be inserted without waiting for the result
+    return super.isAsyncSupported()
+        || (asyncService != null
+            && dbConfig.getDB_SWITCH().getInsertMode() == DBInsertMode.INSERT_USE_SESSION_TABLET);
+  }
+
+  @Override
+  public CompletableFuture<Status> insertOneBatchAsync(Batch batch) {
+    if (isCoalescing() || !isAsyncSupported()) {
+      return super.insertOneBatchAsync(batch);
+    }
+    Tablet tablet = genUnsharedTablet(batch);
+    SessionPool sessionPool =
+        sessions[Math.floorMod(asyncSession.getAndIncrement(), sessions.length)];
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            sessionPool.insertTablet(tablet);
+            return new Status(true);
+          } catch (IoTDBConnectionException | StatementExecutionException e) {
+            LOGGER.error("insert tablet failed", e);
+            return new Status(false, 0, e, e.toString());
+          }
+        },
+        asyncService);
   }
 
   @Override
@@ -169,7 +208,8 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
 
   @Override
   public Status insertOneBatchByTablet(Batch batch) {
-    Tablet tablet = genTablet(batch);
+    // the write may go on after timeout, so the tablet must not be refilled by the next batch
+    Tablet tablet = genUnsharedTablet(batch);
 
     future =
         service.submit(
@@ -186,6 +226,38 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
     return status;
   }
 
+  @Override
+  public Status insertBatchesByTablets(List<Batch> batches) {
+    SessionPool sessionPool =
+        sessions[Math.floorMod(asyncSession.getAndIncrement(), sessions.length)];
+    try {
+      sessionPool.insertTablets(genTablets(batches));
+      return new Status(true);
+    } catch (IoTDBConnectionException | StatementExecutionException e) {
+      LOGGER.error("insert tablets failed", e);
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
+  @Override
+  public Status insertBatchesByRecords(List<Batch> batches) {
+    RecordsBuffer records = genRecords(batches);
+    SessionPool sessionPool =
+        sessions[Math.floorMod(asyncSession.getAndIncrement(), sessions.length)];
+    try {
+      sessionPool.insertRecords(
+          records.deviceIds,
+          records.times,
+          records.measurementsList,
+          records.typesList,
+          records.valuesList);
+      return new Status(true);
+    } catch (IoTDBConnectionException | StatementExecutionException e) {
+      LOGGER.error("insert records failed", e);
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
   @Override
   protected Status executeQueryAndGetStatus(String sql, Operation operation) {
     if (!config.isIS_QUIET_MODE()) {
@@ -337,6 +409,7 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
 
   @Override
   public void close() throws TsdbException {
+    closeCoalescer();
     for (SessionPool sessionPool : sessions) {
       if (sessionPool != null) {
         sessionPool.close();
@@ -346,5 +419,8 @@ public class IoTDBClusterSession extends IoTDBSessionBase {
       ioTDBConnection.close();
     }
     this.service.shutdown();
+    if (asyncService != null) {
+      asyncService.shutdown();
+    }
   }
 }
@@ -58,16 +58,33 @@ public class IoTDBSession extends IoTDBSessionBase {
   private static final Logger LOGGER = LoggerFactory.getLogger(IoTDBSession.class);
   private static final Config config = ConfigDescriptor.getInstance().getConfig();
   private final Session session;
+  /**
+   * Session of coalesced insertions, which are executed in the coalescing thread while queries use
+   * session. It is opened on first use.
+   */
+  private Session coalescingSession;
 
   public IoTDBSession(DBConfig dbConfig) {
     super(dbConfig);
-    session =
-        new Session(
-            dbConfig.getHOST().get(0),
-            Integer.valueOf(dbConfig.getPORT().get(0)),
-            dbConfig.getUSERNAME(),
-            dbConfig.getPASSWORD(),
-            true);
+    session = createSession();
+  }
+
+  private Session createSession() {
+    return new Session(
+        dbConfig.getHOST().get(0),
+        Integer.valueOf(dbConfig.getPORT().get(0)),
+        dbConfig.getUSERNAME(),
+        dbConfig.getPASSWORD(),
+        true);
+  }
+
+  private Session getCoalescingSession() throws IoTDBConnectionException {
+    if (coalescingSession == null) {
+      Session newSession = createSession();
+      newSession.open(config.isENABLE_THRIFT_COMPRESSION());
+      coalescingSession = newSession;
+    }
+    return coalescingSession;
   }
 
   @Override
@@ -177,6 +194,47 @@ public class IoTDBSession extends IoTDBSessionBase {
     }
   }
 
+  @Override
+  public Status insertBatchesByTablets(List<Batch> batches) {
+    try {
+      if (config.isVECTOR()) {
+        getCoalescingSession().insertAlignedTablets(genTablets(batches));
+      } else {
+        getCoalescingSession().insertTablets(genTablets(batches));
+      }
+      return new Status(true);
+    } catch (IoTDBConnectionException | StatementExecutionException e) {
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
+  @Override
+  public Status insertBatchesByRecords(List<Batch> batches) {
+    RecordsBuffer records = genRecords(batches);
+    try {
+      if (config.isVECTOR()) {
+        getCoalescingSession()
+            .insertAlignedRecords(
+                records.deviceIds,
+                records.times,
+                records.measurementsList,
+                records.typesList,
+                records.valuesList);
+      } else {
+        getCoalescingSession()
+            .insertRecords(
+                records.deviceIds,
+                records.times,
+                records.measurementsList,
+                records.typesList,
+                records.valuesList);
+      }
+      return new Status(true);
+    } catch (IoTDBConnectionException | StatementExecutionException e) {
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
   @Override
   protected Status executeQueryAndGetStatus(String sql, Operation operation) {
     if (!config.isIS_QUIET_MODE()) {
@@ -313,10 +371,14 @@ public class IoTDBSession extends IoTDBSessionBase {
 
   @Override
   public void close() throws TsdbException {
+    closeCoalescer();
     try {
       if (session != null) {
         session.close();
       }
+      if (coalescingSession != null) {
+        coalescingSession.close();
+      }
       if (ioTDBConnection != null) {
         ioTDBConnection.close();
       }
@@ -22,6 +22,7 @@ package cn.edu.tsinghua.iotdb.benchmark.iotdb013;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.BitMap;
 import org.apache.iotdb.tsfile.write.record.Tablet;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
@@ -30,19 +31,43 @@ import cn.edu.tsinghua.iotdb.benchmark.entity.Record;
 import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
 import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
 import cn.edu.tsinghua.iotdb.benchmark.measurement.Status;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.BatchCoalescer;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBInsertMode;
+import cn.edu.tsinghua.iotdb.benchmark.utils.LruCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class IoTDBSessionBase extends IoTDB {
   private static final Logger LOGGER = LoggerFactory.getLogger(IoTDBSessionBase.class);
+  /** Max number of devices whose tablets are kept for reuse */
+  private static final int TABLET_CACHE_CAPACITY = 1024;
+  /** Data type and encoding of each sensor type, indexed by ordinal of sensor type */
+  private final TSDataType[] tsDataTypes = new TSDataType[SensorType.values().length];
+  private final TSEncoding[] tsEncodings = new TSEncoding[SensorType.values().length];
+  /**
+   * Reusable tablet of each device id, which is refilled by every batch of the device with the
+   * same sensors
+   */
+  private final Map<Integer, TabletBuffer> tabletBuffers =
+      new LruCache<>(TABLET_CACHE_CAPACITY);
+  /** Coalesce batches of different devices, created on first use if coalescing is enabled */
+  private BatchCoalescer coalescer;
 
   public IoTDBSessionBase(DBConfig dbConfig) {
     super(dbConfig);
+    for (SensorType sensorType : SensorType.values()) {
+      tsDataTypes[sensorType.ordinal()] = Enum.valueOf(TSDataType.class, sensorType.name);
+      tsEncodings[sensorType.ordinal()] =
+          Enum.valueOf(TSEncoding.class, getEncodingType(sensorType));
+    }
   }
 
   public Status insertOneBatchByTablet(Batch batch) {
@@ -57,102 +82,244 @@ public class IoTDBSessionBase extends IoTDB {
     return new Status(true);
   }
 
+  public Status insertBatchesByTablets(List<Batch> batches) {
+    return new Status(true);
+  }
+
+  public Status insertBatchesByRecords(List<Batch> batches) {
+    return new Status(true);
+  }
+
+  /**
+   * Whether batches of different devices are coalesced into one request. Batches waiting to be
+   * coalesced are in flight, so it is enabled only if MAX_IN_FLIGHT_PER_CLIENT is larger than 1.
+   */
+  protected boolean isCoalescing() {
+    DBInsertMode insertMode = dbConfig.getDB_SWITCH().getInsertMode();
+    return config.getIOTDB_COALESCE_BATCH_NUM() > 1
+        && (insertMode == DBInsertMode.INSERT_USE_SESSION_TABLET
+            || insertMode == DBInsertMode.INSERT_USE_SESSION_RECORDS);
+  }
+
+  @Override
+  public boolean isAsyncSupported() {
+    return isCoalescing();
+  }
+
+  @Override
+  public CompletableFuture<Status> insertOneBatchAsync(Batch batch) {
+    if (!isCoalescing()) {
+      return super.insertOneBatchAsync(batch);
+    }
+    if (coalescer == null) {
+      coalescer =
+          new BatchCoalescer(
+              config.getIOTDB_COALESCE_BATCH_NUM(),
+              config.getIOTDB_COALESCE_WINDOW_MS(),
+              this::insertBatches);
+    }
+    return coalescer.add(batch);
+  }
+
+  /**
+   * Insert batches of different devices by one request. It is called by the coalescing thread
+   * only, so the tablets of the previous group are no longer used when they are refilled.
+   */
+  private Status insertBatches(List<Batch> batches) {
+    if (dbConfig.getDB_SWITCH().getInsertMode() == DBInsertMode.INSERT_USE_SESSION_TABLET) {
+      return insertBatchesByTablets(batches);
+    }
+    return insertBatchesByRecords(batches);
+  }
+
+  /** Insert the batches waiting to be coalesced, called before the sessions are closed */
+  protected void closeCoalescer() {
+    if (coalescer != null) {
+      coalescer.close();
+    }
+  }
+
+  protected String getDeviceId(DeviceSchema deviceSchema) {
+    return ROOT_SERIES_NAME + "." + deviceSchema.getGroup() + "." + deviceSchema.getDevice();
+  }
+
+  /**
+   * Get the tablet of batch, which is reused by the next batch of the same device. So the tablet
+   * must not be used after the next call.
+   */
   protected Tablet genTablet(Batch batch) {
-    List<MeasurementSchema> schemaList = new ArrayList<>();
-    int sensorIndex = 0;
-    for (Sensor sensor : batch.getDeviceSchema().getSensors()) {
-      SensorType dataSensorType = sensor.getSensorType();
-      schemaList.add(
-          new MeasurementSchema(
-              sensor.getName(),
-              Enum.valueOf(TSDataType.class, dataSensorType.name),
-              Enum.valueOf(TSEncoding.class, getEncodingType(dataSensorType))));
-      sensorIndex++;
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    TabletBuffer tabletBuffer = tabletBuffers.get(deviceSchema.getDeviceId());
+    if (tabletBuffer == null || !tabletBuffer.matches(deviceSchema)) {
+      tabletBuffer = new TabletBuffer(deviceSchema);
+      tabletBuffers.put(deviceSchema.getDeviceId(), tabletBuffer);
     }
-    String deviceId =
-        ROOT_SERIES_NAME
-            + "."
-            + batch.getDeviceSchema().getGroup()
-            + "."
-            + batch.getDeviceSchema().getDevice();
-    Tablet tablet = new Tablet(deviceId, schemaList, batch.getRecords().size());
-    long[] timestamps = tablet.timestamps;
-    Object[] values = tablet.values;
-
-    List<Sensor> sensors = batch.getDeviceSchema().getSensors();
-    for (int recordIndex = 0; recordIndex < batch.getRecords().size(); recordIndex++) {
-      tablet.rowSize++;
-      Record record = batch.getRecords().get(recordIndex);
-      sensorIndex = 0;
-      long currentTime = record.getTimestamp();
-      timestamps[recordIndex] = currentTime;
-      for (int recordValueIndex = 0;
-          recordValueIndex < record.getRecordDataValue().size();
-          recordValueIndex++) {
-        switch (sensors.get(sensorIndex).getSensorType()) {
-          case BOOLEAN:
-            boolean[] sensorsBool = (boolean[]) values[recordValueIndex];
-            sensorsBool[recordIndex] =
-                (boolean) (record.getRecordDataValue().get(recordValueIndex));
-            break;
-          case INT32:
-            int[] sensorsInt = (int[]) values[recordValueIndex];
-            sensorsInt[recordIndex] = (int) (record.getRecordDataValue().get(recordValueIndex));
-            break;
-          case INT64:
-            long[] sensorsLong = (long[]) values[recordValueIndex];
-            sensorsLong[recordIndex] = (long) (record.getRecordDataValue().get(recordValueIndex));
-            break;
-          case FLOAT:
-            float[] sensorsFloat = (float[]) values[recordValueIndex];
-            sensorsFloat[recordIndex] = (float) (record.getRecordDataValue().get(recordValueIndex));
-            break;
-          case DOUBLE:
-            double[] sensorsDouble = (double[]) values[recordValueIndex];
-            sensorsDouble[recordIndex] =
-                (double) (record.getRecordDataValue().get(recordValueIndex));
-            break;
-          case TEXT:
-            Binary[] sensorsText = (Binary[]) values[recordValueIndex];
-            sensorsText[recordIndex] =
-                Binary.valueOf((String) record.getRecordDataValue().get(recordValueIndex));
-            break;
-          default:
-            LOGGER.error("Unsupported Type:" + sensors.get(sensorIndex).getSensorType());
-        }
-        sensorIndex++;
-      }
+    return tabletBuffer.fill(batch);
+  }
+
+  /** Get tablets of batches of different devices, keyed by device path */
+  protected Map<String, Tablet> genTablets(List<Batch> batches) {
+    Map<String, Tablet> tablets = new LinkedHashMap<>();
+    for (Batch batch : batches) {
+      tablets.put(getDeviceId(batch.getDeviceSchema()), genTablet(batch));
     }
-    return tablet;
+    return tablets;
+  }
+
+  /** Get a new tablet of batch, which can be used while the following batches are generated */
+  protected Tablet genUnsharedTablet(Batch batch) {
+    return new TabletBuffer(batch.getDeviceSchema()).fill(batch);
   }
 
   public List<TSDataType> constructDataTypes(List<Sensor> sensors, int recordValueSize) {
-    List<TSDataType> dataTypes = new ArrayList<>();
+    List<TSDataType> dataTypes = new ArrayList<>(recordValueSize);
     for (int sensorIndex = 0; sensorIndex < recordValueSize; sensorIndex++) {
-      switch (sensors.get(sensorIndex).getSensorType()) {
-        case BOOLEAN:
-          dataTypes.add(TSDataType.BOOLEAN);
-          break;
-        case INT32:
-          dataTypes.add(TSDataType.INT32);
-          break;
-        case INT64:
-          dataTypes.add(TSDataType.INT64);
-          break;
-        case FLOAT:
-          dataTypes.add(TSDataType.FLOAT);
-          break;
-        case DOUBLE:
-          dataTypes.add(TSDataType.DOUBLE);
-          break;
-        case TEXT:
-          dataTypes.add(TSDataType.TEXT);
-          break;
-      }
+      dataTypes.add(tsDataTypes[sensors.get(sensorIndex).getSensorType().ordinal()]);
     }
     return dataTypes;
   }
 
+  /** Get rows of batches of different devices, which are inserted by one insertRecords */
+  protected RecordsBuffer genRecords(List<Batch> batches) {
+    RecordsBuffer records = new RecordsBuffer();
+    for (Batch batch : batches) {
+      String deviceId = getDeviceId(batch.getDeviceSchema());
+      List<Sensor> sensors = batch.getDeviceSchema().getSensors();
+      List<String> measurements = new ArrayList<>(sensors.size());
+      for (Sensor sensor : sensors) {
+        measurements.add(sensor.getName());
+      }
+      List<TSDataType> types = constructDataTypes(sensors, sensors.size());
+      for (Record record : batch.getRecords()) {
+        records.deviceIds.add(deviceId);
+        records.times.add(record.getTimestamp());
+        records.measurementsList.add(measurements);
+        records.typesList.add(types);
+        records.valuesList.add(record.getRecordDataValue());
+      }
+    }
+    return records;
+  }
+
+  /** Arguments of insertRecords */
+  protected static class RecordsBuffer {
+
+    protected final List<String> deviceIds = new ArrayList<>();
+    protected final List<Long> times = new ArrayList<>();
+    protected final List<List<String>> measurementsList = new ArrayList<>();
+    protected final List<List<TSDataType>> typesList = new ArrayList<>();
+    protected final List<List<Object>> valuesList = new ArrayList<>();
+  }
+
+  /**
+   * A tablet of one device with its buffers. Session replaces values and bit maps of an unsorted
+   * tablet by sorted copies, so the buffers are kept here and handed to the tablet for each batch.
+   */
+  private class TabletBuffer {
+
+    private final Tablet tablet;
+    private final Sensor[] sensors;
+    private final SensorType[] sensorTypes;
+    /** unsorted tablets are sorted in place by session, so timestamps of batch are copied */
+    private long[] timestamps = new long[0];
+    /** Text values of each column */
+    private final Binary[][] texts;
+    /** Bit maps of each column with null values */
+    private final BitMap[] bitMapBuffers;
+    /** Bit maps handed to tablet, session may replace them by sorted copies */
+    private final BitMap[] bitMaps;
+
+    TabletBuffer(DeviceSchema deviceSchema) {
+      sensors = new Sensor[deviceSchema.getSensorNum()];
+      sensorTypes = new SensorType[sensors.length];
+      List<MeasurementSchema> schemaList = new ArrayList<>(sensors.length);
+      for (int column = 0; column < sensorTypes.length; column++) {
+        Sensor sensor = deviceSchema.getSensor(column);
+        sensors[column] = sensor;
+        sensorTypes[column] = sensor.getSensorType();
+        int typeIndex = sensor.getSensorType().ordinal();
+        schemaList.add(
+            new MeasurementSchema(
+                sensor.getName(), tsDataTypes[typeIndex], tsEncodings[typeIndex]));
+      }
+      // columns of batch are handed to tablet directly, so the tablet is created empty
+      tablet = new Tablet(getDeviceId(deviceSchema), schemaList, 0);
+      texts = new Binary[sensorTypes.length][];
+      bitMapBuffers = new BitMap[sensorTypes.length];
+      bitMaps = new BitMap[sensorTypes.length];
+    }
+
+    /** Whether the tablet has the sensors of device, e.g. unaligned batches have one sensor */
+    boolean matches(DeviceSchema deviceSchema) {
+      if (deviceSchema.getSensorNum() != sensors.length) {
+        return false;
+      }
+      for (int column = 0; column < sensors.length; column++) {
+        Sensor sensor = deviceSchema.getSensor(column);
+        if (sensor != sensors[column] && !sensor.equals(sensors[column])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    Tablet fill(Batch batch) {
+      tablet.reset();
+      int rowSize = batch.getRowSize();
+      if (timestamps.length < rowSize) {
+        timestamps = new long[rowSize];
+      }
+      System.arraycopy(batch.getTimestamps(), 0, timestamps, 0, rowSize);
+      tablet.timestamps = timestamps;
+      tablet.rowSize = rowSize;
+      int columnNum = batch.getColumnNum();
+      Object[] values = tablet.values;
+      boolean hasNull = false;
+      for (int column = 0; column < columnNum; column++) {
+        if (sensorTypes[column] == SensorType.TEXT) {
+          values[column] = getTexts(column, (String[]) batch.getColumn(column), rowSize);
+        } else {
+          values[column] = batch.getColumn(column);
+        }
+        bitMaps[column] = null;
+        if (batch.hasNull(column)) {
+          hasNull = true;
+          bitMaps[column] = getBitMap(column, rowSize);
+          for (int row = 0; row < rowSize; row++) {
+            if (batch.isNull(column, row)) {
+              bitMaps[column].mark(row);
+            }
+          }
+        }
+      }
+      tablet.bitMaps = hasNull ? bitMaps : null;
+      return tablet;
+    }
+
+    private Binary[] getTexts(int column, String[] strings, int rowSize) {
+      Binary[] binaries = texts[column];
+      if (binaries == null || binaries.length < rowSize) {
+        binaries = new Binary[rowSize];
+        texts[column] = binaries;
+      }
+      for (int row = 0; row < rowSize; row++) {
+        binaries[row] = strings[row] == null ? null : Binary.valueOf(strings[row]);
+      }
+      return binaries;
+    }
+
+    private BitMap getBitMap(int column, int rowSize) {
+      BitMap bitMap = bitMapBuffers[column];
+      if (bitMap == null || bitMap.getSize() != rowSize) {
+        bitMap = new BitMap(rowSize);
+        bitMapBuffers[column] = bitMap;
+      } else {
+        bitMap.reset();
+      }
+      return bitMap;
+    }
+  }
+
   @Override
   public Status insertOneBatch(Batch batch) {
     DBInsertMode insertMode = dbConfig.getDB_SWITCH().getInsertMode();
@@ -32,10 +32,19 @@ import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.IDatabase;
 import cn.edu.tsinghua.iotdb.benchmark.tsdb.TsdbException;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBInsertMode;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.TableLayout;
 import cn.edu.tsinghua.iotdb.benchmark.workload.query.impl.*;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.*;
 
@@ -46,35 +55,65 @@ public class TimescaleDB implements IDatabase {
 
   private static final String POSTGRESQL_JDBC_NAME = "org.postgresql.Driver";
   private static final String POSTGRESQL_URL = "jdbc:postgresql://%s:%s/%s";
+  /** let the driver rewrite batched single-row inserts into multi-row inserts */
+  private static final String REWRITE_BATCHED_INSERTS = "?reWriteBatchedInserts=true";
+  private static final String COPY_SQL = "COPY %s (%s) FROM STDIN";
+  private static final String COPY_BINARY_SQL = COPY_SQL + " WITH (FORMAT binary)";
+  private static final int COPY_BUFFER_SIZE = 65536;
+  /** signature of the header of binary copy format */
+  private static final byte[] COPY_BINARY_SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0
+  };
 
-  // chunk_time_interval=7d
   private static final String CONVERT_TO_HYPERTABLE =
-      "SELECT create_hypertable('%s', 'time', chunk_time_interval => 604800000);";
+      "SELECT create_hypertable('%s', 'time', chunk_time_interval => %d);";
+  // columns of unique constraint must be used for segmenting or ordering of compression
+  private static final String ENABLE_COMPRESSION =
+      "ALTER TABLE %s SET (timescaledb.compress, timescaledb.compress_segmentby = '%s', "
+          + "timescaledb.compress_orderby = 'time DESC');";
+  // the policy of hypertable with integer time needs a function to get current time
+  private static final String CREATE_INTEGER_NOW_FUNCTION =
+      "CREATE OR REPLACE FUNCTION %s_integer_now() RETURNS BIGINT LANGUAGE SQL STABLE AS "
+          + "$$ SELECT coalesce(max(time), 0) FROM %s $$;";
+  private static final String SET_INTEGER_NOW_FUNCTION =
+      "SELECT set_integer_now_func('%s', '%s_integer_now');";
+  private static final String ADD_COMPRESSION_POLICY =
+      "SELECT add_compression_policy('%s', BIGINT '%d');";
   private static final String dropTable = "DROP TABLE %s;";
 
   private static String tableName;
   private Connection connection;
   private DBConfig dbConfig;
+  private DBInsertMode insertMode;
+  private TableLayout tableLayout;
+  /**
+   * prepared insert statements of MULTI_ROW mode keyed by the sensors they insert, e.g. one per
+   * sensor if IS_SENSOR_TS_ALIGNMENT=false
+   */
+  private final Map<List<Sensor>, PreparedStatement> insertStatements = new HashMap<>();
 
   public TimescaleDB(DBConfig dbConfig) {
     this.dbConfig = dbConfig;
     tableName = dbConfig.getDB_NAME();
+    insertMode = dbConfig.getDB_SWITCH().getInsertMode();
+    tableLayout = config.getTIMESCALEDB_LAYOUT();
   }
 
   @Override
   public void init() throws TsdbException {
     try {
       Class.forName(POSTGRESQL_JDBC_NAME);
+      String url =
+          String.format(
+              POSTGRESQL_URL,
+              dbConfig.getHOST().get(0),
+              dbConfig.getPORT().get(0),
+              dbConfig.getDB_NAME());
+      if (insertMode == DBInsertMode.INSERT_USE_MULTI_ROW) {
+        url += REWRITE_BATCHED_INSERTS;
+      }
       // default username=postgres and password=postgres
-      connection =
-          DriverManager.getConnection(
-              String.format(
-                  POSTGRESQL_URL,
-                  dbConfig.getHOST().get(0),
-                  dbConfig.getPORT().get(0),
-                  dbConfig.getDB_NAME()),
-              dbConfig.getUSERNAME(),
-              dbConfig.getPASSWORD());
+      connection = DriverManager.getConnection(url, dbConfig.getUSERNAME(), dbConfig.getPASSWORD());
     } catch (Exception e) {
       LOGGER.error("Initialize TimescaleDB failed because ", e);
       throw new TsdbException(e);
@@ -100,6 +139,10 @@ public class TimescaleDB implements IDatabase {
       return;
     }
     try {
+      for (PreparedStatement insertStatement : insertStatements.values()) {
+        insertStatement.close();
+      }
+      insertStatements.clear();
       connection.close();
     } catch (Exception e) {
       LOGGER.error("Failed to close TimeScaleDB connection because: {}", e.getMessage());
@@ -109,7 +152,8 @@ public class TimescaleDB implements IDatabase {
 
   /**
    * Map the data schema concepts as follow: DB_NAME(table name), storage group name(table field)
-   * device name(table field), sensors(table fields)
+   * device name(table field), sensors(table fields in WIDE layout, values of sensor field in NARROW
+   * layout)
    *
    * @return
    */
@@ -119,9 +163,14 @@ public class TimescaleDB implements IDatabase {
       String pgsql = getCreateTableSql(tableName, schemaList.get(0).getSensors());
       LOGGER.debug("CreateTableSQL Statement:  {}", pgsql);
       statement.execute(pgsql);
-      LOGGER.debug(
-          "CONVERT_TO_HYPERTABLE Statement:  {}", String.format(CONVERT_TO_HYPERTABLE, tableName));
-      statement.execute(String.format(CONVERT_TO_HYPERTABLE, tableName));
+      String convertToHypertable =
+          String.format(
+              CONVERT_TO_HYPERTABLE, tableName, config.getTIMESCALEDB_CHUNK_TIME_INTERVAL());
+      LOGGER.debug("CONVERT_TO_HYPERTABLE Statement:  {}", convertToHypertable);
+      statement.execute(convertToHypertable);
+      if (config.isTIMESCALEDB_COMPRESSION()) {
+        enableCompression(statement);
+      }
     } catch (SQLException e) {
       LOGGER.error("Can't create PG table because: {}", e.getMessage());
       throw new TsdbException(e);
@@ -129,10 +178,74 @@ public class TimescaleDB implements IDatabase {
     return true;
   }
 
+  /**
+   * Enable native compression segmented by device (and sensor in NARROW layout), and add a policy
+   * to compress chunks older than TIMESCALEDB_COMPRESS_AFTER.
+   */
+  private void enableCompression(Statement statement) throws SQLException {
+    String segmentBy = "sGroup, device";
+    if (tableLayout == TableLayout.NARROW) {
+      segmentBy += ", sensor";
+    }
+    long compressAfter = config.getTIMESCALEDB_COMPRESS_AFTER();
+    List<String> sqls =
+        Arrays.asList(
+            String.format(ENABLE_COMPRESSION, tableName, segmentBy),
+            String.format(CREATE_INTEGER_NOW_FUNCTION, tableName, tableName),
+            String.format(SET_INTEGER_NOW_FUNCTION, tableName, tableName),
+            String.format(ADD_COMPRESSION_POLICY, tableName, compressAfter));
+    for (String sql : sqls) {
+      LOGGER.debug("Compression Statement:  {}", sql);
+      statement.execute(sql);
+    }
+  }
+
   @Override
   public Status insertOneBatch(Batch batch) {
+    try {
+      if (insertMode == null) {
+        insertBySql(batch);
+      } else {
+        switch (insertMode) {
+          case INSERT_USE_COPY_TEXT:
+            insertByCopyText(batch);
+            break;
+          case INSERT_USE_COPY_BINARY:
+            insertByCopyBinary(batch);
+            break;
+          case INSERT_USE_MULTI_ROW:
+            insertByMultiRow(batch);
+            break;
+          default:
+            insertBySql(batch);
+            break;
+        }
+      }
+      return new Status(true);
+    } catch (Exception e) {
+      return new Status(false, 0, e, e.toString());
+    }
+  }
+
+  /**
+   * Insert rows of batch by a batch of sql statements, one statement per row in WIDE layout and one
+   * per point in NARROW layout
+   */
+  private void insertBySql(Batch batch) throws SQLException {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
     try (Statement statement = connection.createStatement()) {
       for (Record record : batch.getRecords()) {
+        if (tableLayout == TableLayout.NARROW) {
+          List<Object> values = record.getRecordDataValue();
+          for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) != null) {
+              Sensor sensor = deviceSchema.getSensor(i);
+              statement.addBatch(
+                  getInsertOnePointSql(deviceSchema, record.getTimestamp(), sensor, values.get(i)));
+            }
+          }
+          continue;
+        }
         String sql =
             getInsertOneBatchSql(
                 batch.getDeviceSchema(), record.getTimestamp(), record.getRecordDataValue());
@@ -140,10 +253,416 @@ public class TimescaleDB implements IDatabase {
       }
 
       statement.executeBatch();
+    }
+  }
 
-      return new Status(true);
-    } catch (Exception e) {
-      return new Status(false, 0, e, e.toString());
+  /**
+   * Insert rows of batch by one prepared statement, the driver rewrites the batch into multi-row
+   * inserts, eg. INSERT INTO conditions(time, sGroup, device, s_0) VALUES (?, ?, ?, ?), (?, ?, ?,
+   * ?) ON CONFLICT(time,sGroup,device) DO UPDATE SET s_0=excluded.s_0
+   */
+  private void insertByMultiRow(Batch batch) throws SQLException {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    List<Sensor> sensors = deviceSchema.getSensors();
+    PreparedStatement statement = getInsertStatement(sensors);
+    long[] timestamps = batch.getTimestamps();
+    List<SensorType> sensorTypes = getSensorTypes(sensors);
+    try {
+      for (int row = 0; row < batch.getRowSize(); row++) {
+        if (tableLayout == TableLayout.NARROW) {
+          // one row per point, only the value column of sensor type is set
+          for (int column = 0; column < sensors.size(); column++) {
+            if (batch.isNull(column, row)) {
+              continue;
+            }
+            statement.setLong(1, timestamps[row]);
+            statement.setString(2, deviceSchema.getGroup());
+            statement.setString(3, deviceSchema.getDevice());
+            statement.setString(4, sensors.get(column).getName());
+            SensorType sensorType = sensors.get(column).getSensorType();
+            for (int i = 0; i < sensorTypes.size(); i++) {
+              if (sensorTypes.get(i) == sensorType) {
+                setValue(statement, i + 5, sensorType, batch.getColumn(column), row);
+              } else {
+                statement.setNull(i + 5, sqlTypeMap(sensorTypes.get(i)));
+              }
+            }
+            statement.addBatch();
+          }
+          continue;
+        }
+        statement.setLong(1, timestamps[row]);
+        statement.setString(2, deviceSchema.getGroup());
+        statement.setString(3, deviceSchema.getDevice());
+        for (int column = 0; column < sensors.size(); column++) {
+          SensorType sensorType = sensors.get(column).getSensorType();
+          int index = column + 4;
+          if (batch.isNull(column, row)) {
+            statement.setNull(index, sqlTypeMap(sensorType));
+          } else {
+            setValue(statement, index, sensorType, batch.getColumn(column), row);
+          }
+        }
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    } finally {
+      statement.clearBatch();
+    }
+  }
+
+  /** Get the prepared insert statement of sensors, which is prepared once for each sensor set */
+  private PreparedStatement getInsertStatement(List<Sensor> sensors) throws SQLException {
+    PreparedStatement insertStatement = insertStatements.get(sensors);
+    if (insertStatement == null) {
+      List<String> valueColumns = getValueColumns(sensors);
+      String columns = getColumns(valueColumns);
+      StringBuilder builder = new StringBuilder("INSERT INTO ");
+      builder.append(tableName).append("(").append(columns).append(") VALUES (?, ?, ?");
+      if (tableLayout == TableLayout.NARROW) {
+        builder.append(", ?");
+      }
+      for (int i = 0; i < valueColumns.size(); i++) {
+        builder.append(", ?");
+      }
+      builder.append(")");
+      addConflictClause(builder, valueColumns);
+      insertStatement = connection.prepareStatement(builder.toString());
+      insertStatements.put(sensors, insertStatement);
+    }
+    return insertStatement;
+  }
+
+  /**
+   * Insert rows of batch by COPY ... FROM STDIN in text format. Unlike insert, COPY does not update
+   * existing rows, so the batch fails if it contains rows that already exist.
+   */
+  private void insertByCopyText(Batch batch) throws SQLException, IOException {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    List<Sensor> sensors = deviceSchema.getSensors();
+    PGCopyOutputStream copyOut =
+        new PGCopyOutputStream(
+            connection.unwrap(PGConnection.class),
+            String.format(COPY_SQL, tableName, getColumns(getValueColumns(sensors))),
+            COPY_BUFFER_SIZE);
+    try {
+      Writer writer = new OutputStreamWriter(copyOut, StandardCharsets.UTF_8);
+      String rowHead =
+          "\t"
+              + escapeCopyText(deviceSchema.getGroup())
+              + "\t"
+              + escapeCopyText(deviceSchema.getDevice());
+      long[] timestamps = batch.getTimestamps();
+      List<SensorType> sensorTypes = getSensorTypes(sensors);
+      for (int row = 0; row < batch.getRowSize(); row++) {
+        if (tableLayout == TableLayout.NARROW) {
+          for (int column = 0; column < sensors.size(); column++) {
+            if (batch.isNull(column, row)) {
+              continue;
+            }
+            writer.write(Long.toString(timestamps[row]));
+            writer.write(rowHead);
+            writer.write('\t');
+            writer.write(escapeCopyText(sensors.get(column).getName()));
+            SensorType sensorType = sensors.get(column).getSensorType();
+            for (SensorType valueType : sensorTypes) {
+              writer.write('\t');
+              if (valueType == sensorType) {
+                writeCopyText(writer, sensorType, batch.getColumn(column), row);
+              } else {
+                writer.write("\\N");
+              }
+            }
+            writer.write('\n');
+          }
+          continue;
+        }
+        writer.write(Long.toString(timestamps[row]));
+        writer.write(rowHead);
+        for (int column = 0; column < sensors.size(); column++) {
+          writer.write('\t');
+          if (batch.isNull(column, row)) {
+            writer.write("\\N");
+          } else {
+            SensorType sensorType = sensors.get(column).getSensorType();
+            writeCopyText(writer, sensorType, batch.getColumn(column), row);
+          }
+        }
+        writer.write('\n');
+      }
+      writer.flush();
+      copyOut.endCopy();
+    } finally {
+      cancelCopy(copyOut);
+    }
+  }
+
+  /**
+   * Insert rows of batch by COPY ... FROM STDIN in binary format, which saves the parsing of text
+   * on server. As copy in text format, the batch fails if it contains rows that already exist.
+   */
+  private void insertByCopyBinary(Batch batch) throws SQLException, IOException {
+    DeviceSchema deviceSchema = batch.getDeviceSchema();
+    List<Sensor> sensors = deviceSchema.getSensors();
+    PGCopyOutputStream copyOut =
+        new PGCopyOutputStream(
+            connection.unwrap(PGConnection.class),
+            String.format(COPY_BINARY_SQL, tableName, getColumns(getValueColumns(sensors))),
+            COPY_BUFFER_SIZE);
+    try {
+      DataOutputStream out = new DataOutputStream(copyOut);
+      // header: signature, flags and length of header extension
+      out.write(COPY_BINARY_SIGNATURE);
+      out.writeInt(0);
+      out.writeInt(0);
+      byte[] group = deviceSchema.getGroup().getBytes(StandardCharsets.UTF_8);
+      byte[] device = deviceSchema.getDevice().getBytes(StandardCharsets.UTF_8);
+      long[] timestamps = batch.getTimestamps();
+      List<SensorType> sensorTypes = getSensorTypes(sensors);
+      for (int row = 0; row < batch.getRowSize(); row++) {
+        if (tableLayout == TableLayout.NARROW) {
+          for (int column = 0; column < sensors.size(); column++) {
+            if (batch.isNull(column, row)) {
+              continue;
+            }
+            byte[] sensor = sensors.get(column).getName().getBytes(StandardCharsets.UTF_8);
+            out.writeShort(sensorTypes.size() + 4);
+            out.writeInt(Long.BYTES);
+            out.writeLong(timestamps[row]);
+            out.writeInt(group.length);
+            out.write(group);
+            out.writeInt(device.length);
+            out.write(device);
+            out.writeInt(sensor.length);
+            out.write(sensor);
+            SensorType sensorType = sensors.get(column).getSensorType();
+            for (SensorType valueType : sensorTypes) {
+              if (valueType == sensorType) {
+                writeCopyBinary(out, sensorType, batch.getColumn(column), row);
+              } else {
+                out.writeInt(-1);
+              }
+            }
+          }
+          continue;
+        }
+        // each tuple is the number of fields followed by the length and data of each field
+        out.writeShort(sensors.size() + 3);
+        out.writeInt(Long.BYTES);
+        out.writeLong(timestamps[row]);
+        out.writeInt(group.length);
+        out.write(group);
+        out.writeInt(device.length);
+        out.write(device);
+        for (int column = 0; column < sensors.size(); column++) {
+          if (batch.isNull(column, row)) {
+            out.writeInt(-1);
+          } else {
+            SensorType sensorType = sensors.get(column).getSensorType();
+            writeCopyBinary(out, sensorType, batch.getColumn(column), row);
+          }
+        }
+      }
+      // trailer
+      out.writeShort(-1);
+      out.flush();
+      copyOut.endCopy();
+    } finally {
+      cancelCopy(copyOut);
+    }
+  }
+
+  /** Cancel the copy if it is not ended, so that the connection can be used again */
+  private void cancelCopy(PGCopyOutputStream copyOut) {
+    if (copyOut.isActive()) {
+      try {
+        copyOut.cancelCopy();
+      } catch (SQLException e) {
+        LOGGER.warn("Failed to cancel copy because: {}", e.getMessage());
+      }
+    }
+  }
+
+  private static void setValue(
+      PreparedStatement statement, int index, SensorType sensorType, Object values, int row)
+      throws SQLException {
+    switch (sensorType) {
+      case BOOLEAN:
+        statement.setBoolean(index, ((boolean[]) values)[row]);
+        break;
+      case INT32:
+        statement.setInt(index, ((int[]) values)[row]);
+        break;
+      case INT64:
+        statement.setLong(index, ((long[]) values)[row]);
+        break;
+      case FLOAT:
+        statement.setDouble(index, toDouble(((float[]) values)[row]));
+        break;
+      case DOUBLE:
+        statement.setDouble(index, ((double[]) values)[row]);
+        break;
+      case TEXT:
+      default:
+        statement.setString(index, ((String[]) values)[row]);
+        break;
+    }
+  }
+
+  private static void writeCopyText(Writer writer, SensorType sensorType, Object values, int row)
+      throws IOException {
+    switch (sensorType) {
+      case BOOLEAN:
+        writer.write(((boolean[]) values)[row] ? "t" : "f");
+        break;
+      case INT32:
+        writer.write(Integer.toString(((int[]) values)[row]));
+        break;
+      case INT64:
+        writer.write(Long.toString(((long[]) values)[row]));
+        break;
+      case FLOAT:
+        writer.write(Float.toString(((float[]) values)[row]));
+        break;
+      case DOUBLE:
+        writer.write(Double.toString(((double[]) values)[row]));
+        break;
+      case TEXT:
+      default:
+        writer.write(escapeCopyText(((String[]) values)[row]));
+        break;
+    }
+  }
+
+  /** Write length and data of a field, whose encoding is the same as the column type in typeMap */
+  private static void writeCopyBinary(
+      DataOutputStream out, SensorType sensorType, Object values, int row) throws IOException {
+    switch (sensorType) {
+      case BOOLEAN:
+        out.writeInt(1);
+        out.writeBoolean(((boolean[]) values)[row]);
+        break;
+      case INT32:
+        out.writeInt(Integer.BYTES);
+        out.writeInt(((int[]) values)[row]);
+        break;
+      case INT64:
+        out.writeInt(Long.BYTES);
+        out.writeLong(((long[]) values)[row]);
+        break;
+      case FLOAT:
+        // FLOAT column of PostgreSQL is double precision
+        out.writeInt(Double.BYTES);
+        out.writeDouble(toDouble(((float[]) values)[row]));
+        break;
+      case DOUBLE:
+        out.writeInt(Double.BYTES);
+        out.writeDouble(((double[]) values)[row]);
+        break;
+      case TEXT:
+      default:
+        byte[] bytes = ((String[]) values)[row].getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        break;
+    }
+  }
+
+  /** Convert float to the double parsed from its text, which is the value inserted by sql */
+  private static double toDouble(float value) {
+    return Double.parseDouble(Float.toString(value));
+  }
+
+  /** Escape backslash and delimiters in text format of copy */
+  private static String escapeCopyText(String value) {
+    StringBuilder builder = null;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      String escaped;
+      switch (c) {
+        case '\\':
+          escaped = "\\\\";
+          break;
+        case '\t':
+          escaped = "\\t";
+          break;
+        case '\n':
+          escaped = "\\n";
+          break;
+        case '\r':
+          escaped = "\\r";
+          break;
+        default:
+          if (builder != null) {
+            builder.append(c);
+          }
+          continue;
+      }
+      if (builder == null) {
+        builder = new StringBuilder(value.length() + 8).append(value, 0, i);
+      }
+      builder.append(escaped);
+    }
+    return builder == null ? value : builder.toString();
+  }
+
+  /**
+   * eg. time, sGroup, device, s_0, s_1 in WIDE layout and time, sGroup, device, sensor,
+   * value_double in NARROW layout
+   */
+  private String getColumns(List<String> valueColumns) {
+    StringBuilder builder = new StringBuilder("time, sGroup, device");
+    if (tableLayout == TableLayout.NARROW) {
+      builder.append(", sensor");
+    }
+    for (String valueColumn : valueColumns) {
+      builder.append(", ").append(valueColumn);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Get columns of values, which are sensors in WIDE layout and value columns of sensor types in
+   * NARROW layout
+   */
+  private List<String> getValueColumns(List<Sensor> sensors) {
+    List<String> valueColumns = new ArrayList<>();
+    if (tableLayout == TableLayout.NARROW) {
+      for (SensorType sensorType : getSensorTypes(sensors)) {
+        valueColumns.add(valueColumn(sensorType));
+      }
+    } else {
+      for (Sensor sensor : sensors) {
+        valueColumns.add(sensor.getName());
+      }
+    }
+    return valueColumns;
+  }
+
+  /** Get distinct types of sensors, in the order of SensorType */
+  private static List<SensorType> getSensorTypes(List<Sensor> sensors) {
+    EnumSet<SensorType> sensorTypes = EnumSet.noneOf(SensorType.class);
+    for (Sensor sensor : sensors) {
+      sensorTypes.add(sensor.getSensorType());
+    }
+    return new ArrayList<>(sensorTypes);
+  }
+
+  /** eg. value_double, the column storing values of sensor type in NARROW layout */
+  private static String valueColumn(SensorType sensorType) {
+    return "value_" + sensorType.name().toLowerCase();
+  }
+
+  /** eg. ON CONFLICT(time,sGroup,device) DO UPDATE SET s_0=excluded.s_0,s_1=excluded.s_1 */
+  private void addConflictClause(StringBuilder builder, List<String> valueColumns) {
+    builder.append(" ON CONFLICT(time,sGroup,device");
+    if (tableLayout == TableLayout.NARROW) {
+      builder.append(",sensor");
+    }
+    builder.append(") DO UPDATE SET ");
+    for (int i = 0; i < valueColumns.size(); i++) {
+      String column = valueColumns.get(i);
+      builder.append(i == 0 ? "" : ",").append(column).append("=excluded.").append(column);
     }
   }
 
@@ -201,7 +720,7 @@ public class TimescaleDB implements IDatabase {
     StringBuilder builder =
         getAggQuerySqlHead(aggRangeQuery.getDeviceSchema(), aggRangeQuery.getAggFun());
     addWhereTimeClause(builder, aggRangeQuery);
-    builder.append("GROUP BY device");
+    addGroupByClause(builder, "device");
     return executeQueryAndGetStatus(builder.toString(), sensorNum, Operation.AGG_RANGE_QUERY);
   }
 
@@ -217,7 +736,7 @@ public class TimescaleDB implements IDatabase {
         getAggQuerySqlHead(aggValueQuery.getDeviceSchema(), aggValueQuery.getAggFun());
     addWhereValueClause(
         aggValueQuery.getDeviceSchema(), builder, aggValueQuery.getValueThreshold());
-    builder.append(" GROUP BY device");
+    addGroupByClause(builder, "device");
     return executeQueryAndGetStatus(builder.toString(), sensorNum, Operation.AGG_VALUE_QUERY);
   }
 
@@ -236,7 +755,7 @@ public class TimescaleDB implements IDatabase {
     addWhereTimeClause(builder, aggRangeValueQuery);
     addWhereValueClause(
         aggRangeValueQuery.getDeviceSchema(), builder, aggRangeValueQuery.getValueThreshold());
-    builder.append("GROUP BY device");
+    addGroupByClause(builder, "device");
     return executeQueryAndGetStatus(builder.toString(), sensorNum, Operation.AGG_RANGE_VALUE_QUERY);
   }
 
@@ -257,7 +776,7 @@ public class TimescaleDB implements IDatabase {
             groupByQuery.getGranularity(),
             offset);
     addWhereTimeClause(builder, groupByQuery);
-    builder.append(" GROUP BY sampleTime");
+    addGroupByClause(builder, "sampleTime");
     return executeQueryAndGetStatus(builder.toString(), sensorNum, Operation.GROUP_BY_QUERY);
   }
 
@@ -273,9 +792,20 @@ public class TimescaleDB implements IDatabase {
   @Override
   public Status latestPointQuery(LatestPointQuery latestPointQuery) {
     int sensorNum = latestPointQuery.getDeviceSchema().get(0).getSensors().size();
-    StringBuilder builder = getSampleQuerySqlHead(latestPointQuery.getDeviceSchema());
-    builder.append("ORDER BY time DESC LIMIT 1");
-    return executeQueryAndGetStatus(builder.toString(), sensorNum, Operation.LATEST_POINT_QUERY);
+    String sql = getLatestPointQuerySql(latestPointQuery.getDeviceSchema());
+    return executeQueryAndGetStatus(sql, sensorNum, Operation.LATEST_POINT_QUERY);
+  }
+
+  /** In NARROW layout, the latest point of each sensor of each device is selected */
+  String getLatestPointQuerySql(List<DeviceSchema> devices) {
+    StringBuilder builder = getSampleQuerySqlHead(devices);
+    if (tableLayout == TableLayout.NARROW) {
+      builder.replace(0, "SELECT".length(), "SELECT DISTINCT ON (device, sensor) device,");
+      builder.append(" ORDER BY device, sensor, time DESC");
+    } else {
+      builder.append("ORDER BY time DESC LIMIT 1");
+    }
+    return builder.toString();
   }
 
   @Override
@@ -326,21 +856,29 @@ public class TimescaleDB implements IDatabase {
       recordMap.put(record.getTimestamp(), record.getRecordDataValue());
     }
     sql.append(")");
+    Map<String, Integer> sensorIndexes = new HashMap<>();
+    for (int i = 0; i < deviceSchema.getSensorNum(); i++) {
+      sensorIndexes.put(deviceSchema.getSensor(i).getName(), i);
+    }
     int point = 0;
     int line = 0;
+    Set<Long> timestamps = new HashSet<>();
     try (Statement statement = connection.createStatement()) {
       ResultSet resultSet = statement.executeQuery(sql.toString());
       while (resultSet.next()) {
         long timeStamp = resultSet.getLong(1);
         List<Object> values = recordMap.get(timeStamp);
+        if (tableLayout == TableLayout.NARROW) {
+          // a row is a point, whose value is in the value column of its sensor type
+          int index = sensorIndexes.get(resultSet.getString(2));
+          SensorType sensorType = deviceSchema.getSensor(index).getSensorType();
+          Object value = resultSet.getObject(valueColumn(sensorType));
+          point += verifyValue(sql, value, values.get(index));
+          timestamps.add(timeStamp);
+          continue;
+        }
         for (int i = 0; i < values.size(); i++) {
-          String value = String.valueOf(resultSet.getObject(i + 2));
-          String target = String.valueOf(values.get(i));
-          if (!value.equals(target)) {
-            LOGGER.error("Using SQL: " + sql + ",Expected:" + value + " but was: " + target);
-          } else {
-            point++;
-          }
+          point += verifyValue(sql, resultSet.getObject(i + 2), values.get(i));
         }
         line++;
       }
@@ -348,6 +886,9 @@ public class TimescaleDB implements IDatabase {
       LOGGER.error("Query Error: " + sql);
       return new Status(false);
     }
+    if (tableLayout == TableLayout.NARROW) {
+      line = timestamps.size();
+    }
     if (recordMap.size() != line) {
       LOGGER.error(
           "Using SQL: " + sql + ",Expected line:" + recordMap.size() + " but was: " + line);
@@ -355,6 +896,15 @@ public class TimescaleDB implements IDatabase {
     return new Status(true, point);
   }
 
+  /** @return 1 if the value is equal to target, otherwise 0 */
+  private static int verifyValue(StringBuilder sql, Object value, Object target) {
+    if (!String.valueOf(value).equals(String.valueOf(target))) {
+      LOGGER.error("Using SQL: " + sql + ",Expected:" + value + " but was: " + target);
+      return 0;
+    }
+    return 1;
+  }
+
   @Override
   public Status deviceQuery(DeviceQuery deviceQuery) throws SQLException {
     DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
@@ -385,7 +935,10 @@ public class TimescaleDB implements IDatabase {
   @Override
   public DeviceSummary deviceSummary(DeviceQuery deviceQuery) throws SQLException, TsdbException {
     DeviceSchema deviceSchema = deviceQuery.getDeviceSchema();
-    StringBuilder sql = new StringBuilder("select count(1)");
+    // a row of NARROW layout is a point, so count timestamps as lines
+    StringBuilder sql =
+        new StringBuilder(
+            tableLayout == TableLayout.NARROW ? "select count(DISTINCT time)" : "select count(1)");
     sql.append(" FROM ").append(tableName);
     addDeviceCondition(sql, Arrays.asList(deviceSchema));
     Statement statement = connection.createStatement();
@@ -442,7 +995,11 @@ public class TimescaleDB implements IDatabase {
           }
         }
       }
-      queryResultPointNum = line * sensorNum * config.getQUERY_DEVICE_NUM();
+      if (tableLayout == TableLayout.NARROW) {
+        queryResultPointNum = line;
+      } else {
+        queryResultPointNum = line * sensorNum * config.getQUERY_DEVICE_NUM();
+      }
       if (config.isIS_COMPARISON()) {
         return new Status(true, queryResultPointNum, sql, records);
       } else {
@@ -499,16 +1056,21 @@ public class TimescaleDB implements IDatabase {
     return builder;
   }
 
+  /** In NARROW layout, the sensor column and value columns of sensor types are selected instead */
   private void addFunSensor(String method, StringBuilder builder, List<Sensor> list) {
+    if (tableLayout == TableLayout.NARROW) {
+      builder.append(", sensor");
+    }
+    List<String> valueColumns = getValueColumns(list);
     if (method != null) {
-      list.forEach(
-          sensor ->
-              builder.append(", ").append(method).append("(").append(sensor.getName()).append(")"));
+      valueColumns.forEach(
+          column -> builder.append(", ").append(method).append("(").append(column).append(")"));
     } else {
-      list.forEach(sensor -> builder.append(", ").append(sensor.getName()));
+      valueColumns.forEach(column -> builder.append(", ").append(column));
     }
   }
 
+  /** In NARROW layout, the sensors of the first device are also added as condition */
   private void addDeviceCondition(StringBuilder builder, List<DeviceSchema> devices) {
     builder.append(" WHERE (");
     for (DeviceSchema deviceSchema : devices) {
@@ -516,6 +1078,22 @@ public class TimescaleDB implements IDatabase {
     }
     builder.delete(builder.length() - 4, builder.length());
     builder.append(")");
+    if (tableLayout == TableLayout.NARROW) {
+      builder.append(" AND sensor IN (");
+      for (Sensor sensor : devices.get(0).getSensors()) {
+        builder.append("'").append(sensor.getName()).append("', ");
+      }
+      builder.delete(builder.length() - 2, builder.length());
+      builder.append(")");
+    }
+  }
+
+  /** eg. GROUP BY device, and GROUP BY device, sensor in NARROW layout */
+  private void addGroupByClause(StringBuilder builder, String column) {
+    builder.append(" GROUP BY ").append(column);
+    if (tableLayout == TableLayout.NARROW) {
+      builder.append(", sensor");
+    }
   }
 
   /**
@@ -534,21 +1112,23 @@ public class TimescaleDB implements IDatabase {
   }
 
   /**
-   * add value filter for query statements.
+   * add value filter for query statements. In NARROW layout, only one value column of a row is not
+   * null, so the filters of value columns are combined by or.
    *
    * @param devices query device schema
    * @param builder sql header
    * @param valueThreshold lower bound of query value filter
    */
-  private static void addWhereValueClause(
+  private void addWhereValueClause(
       List<DeviceSchema> devices, StringBuilder builder, double valueThreshold) {
+    String separator = tableLayout == TableLayout.NARROW ? " or " : " and ";
     boolean first = true;
-    for (Sensor sensor : devices.get(0).getSensors()) {
+    for (String column : getValueColumns(devices.get(0).getSensors())) {
       if (first) {
-        builder.append(" AND (").append(sensor.getName()).append(" > ").append(valueThreshold);
+        builder.append(" AND (").append(column).append(" > ").append(valueThreshold);
         first = false;
       } else {
-        builder.append(" and ").append(sensor.getName()).append(" > ").append(valueThreshold);
+        builder.append(separator).append(column).append(" > ").append(valueThreshold);
       }
     }
     builder.append(")");
@@ -564,10 +1144,27 @@ public class TimescaleDB implements IDatabase {
    * <p>CREATE TABLE group_0 (time BIGINT NOT NULL, sGroup TEXT NOT NULL, device TEXT NOT NULL, s_0
    * DOUBLE PRECISION NULL, s_1 DOUBLE PRECISION NULL);
    *
+   * <p>In NARROW layout: CREATE TABLE group_0 (time BIGINT NOT NULL, sGroup TEXT NOT NULL, device
+   * TEXT NOT NULL, sensor TEXT NOT NULL, value_double DOUBLE PRECISION NULL);
+   *
    * @return create table SQL String
    */
   private String getCreateTableSql(String tableName, List<Sensor> sensors) {
     StringBuilder sqlBuilder = new StringBuilder("CREATE TABLE ").append(tableName).append(" (");
+    if (tableLayout == TableLayout.NARROW) {
+      sqlBuilder.append(
+          "time BIGINT NOT NULL, sGroup TEXT NOT NULL, device TEXT NOT NULL, sensor TEXT NOT NULL");
+      for (SensorType sensorType : getSensorTypes(sensors)) {
+        sqlBuilder
+            .append(", ")
+            .append(valueColumn(sensorType))
+            .append(" ")
+            .append(typeMap(sensorType))
+            .append(" NULL ");
+      }
+      sqlBuilder.append(",UNIQUE (time, sGroup, device, sensor));");
+      return sqlBuilder.toString();
+    }
     sqlBuilder.append("time BIGINT NOT NULL, sGroup TEXT NOT NULL, device TEXT NOT NULL");
     for (int i = 0; i < sensors.size(); i++) {
       sqlBuilder
@@ -617,6 +1214,30 @@ public class TimescaleDB implements IDatabase {
     return builder.toString();
   }
 
+  /**
+   * eg.
+   *
+   * <p>INSERT INTO conditions(time, sGroup, device, sensor, value_double) VALUES (1535558400000,
+   * 'group_0', 'd_0', 's_0', 70.0);
+   */
+  private String getInsertOnePointSql(
+      DeviceSchema deviceSchema, long timestamp, Sensor sensor, Object value) {
+    List<String> valueColumns = Collections.singletonList(valueColumn(sensor.getSensorType()));
+    StringBuilder builder = new StringBuilder();
+    builder.append("insert into ").append(tableName).append("(").append(getColumns(valueColumns));
+    builder.append(") values(");
+    builder.append(timestamp);
+    builder.append(",'").append(deviceSchema.getGroup()).append("'");
+    builder.append(",'").append(deviceSchema.getDevice()).append("'");
+    builder.append(",'").append(sensor.getName()).append("'");
+    builder.append(",'").append(value).append("')");
+    addConflictClause(builder, valueColumns);
+    if (!config.isIS_QUIET_MODE()) {
+      LOGGER.debug("getInsertOnePointSql: {}", builder);
+    }
+    return builder.toString();
+  }
+
   /**
    * eg.
    *
@@ -630,7 +1251,7 @@ public class TimescaleDB implements IDatabase {
         .append("insert into ")
         .append(tableName)
         .append("(time, sGroup, device, ")
-        .append(deviceSchema.getSensors().get(colIndex));
+        .append(deviceSchema.getSensor(colIndex));
     builder.append(") values(");
     builder.append(timestamp);
     builder.append(",'").append(deviceSchema.getGroup()).append("'");
@@ -638,15 +1259,33 @@ public class TimescaleDB implements IDatabase {
     builder.append(",'").append(value).append("'");
     builder.append(") ON CONFLICT(time,sGroup,device) DO UPDATE SET ");
     builder
-        .append(deviceSchema.getSensors().get(0))
+        .append(deviceSchema.getSensor(0))
         .append("=excluded.")
-        .append(deviceSchema.getSensors().get(0));
+        .append(deviceSchema.getSensor(0));
     if (!config.isIS_QUIET_MODE()) {
       LOGGER.debug("getInsertOneBatchSql: {}", builder);
     }
     return builder.toString();
   }
 
+  /** Map sensor type to the sql type of its column, which is used to set null parameters */
+  private static int sqlTypeMap(SensorType sensorType) {
+    switch (sensorType) {
+      case BOOLEAN:
+        return Types.BOOLEAN;
+      case INT32:
+        return Types.INTEGER;
+      case INT64:
+        return Types.BIGINT;
+      case FLOAT:
+      case DOUBLE:
+        return Types.DOUBLE;
+      case TEXT:
+      default:
+        return Types.VARCHAR;
+    }
+  }
+
   @Override
   public String typeMap(SensorType iotdbSensorType) {
     switch (iotdbSensorType) {
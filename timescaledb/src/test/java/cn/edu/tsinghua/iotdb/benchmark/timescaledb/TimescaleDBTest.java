@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package cn.edu.tsinghua.iotdb.benchmark.timescaledb;
+
+import cn.edu.tsinghua.iotdb.benchmark.conf.Config;
+import cn.edu.tsinghua.iotdb.benchmark.conf.ConfigDescriptor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.Sensor;
+import cn.edu.tsinghua.iotdb.benchmark.entity.enums.SensorType;
+import cn.edu.tsinghua.iotdb.benchmark.schema.schemaImpl.DeviceSchema;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.DBConfig;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.DBSwitch;
+import cn.edu.tsinghua.iotdb.benchmark.tsdb.enums.TableLayout;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimescaleDBTest {
+  private static final Config config = ConfigDescriptor.getInstance().getConfig();
+
+  /** Method: getLatestPointQuerySql() */
+  @Test
+  public void testNarrowLatestPointOfEachDevice() {
+    TableLayout layout = config.getTIMESCALEDB_LAYOUT();
+    try {
+      config.setTIMESCALEDB_LAYOUT(TableLayout.NARROW);
+      DBConfig dbConfig = new DBConfig();
+      dbConfig.setDB_SWITCH(DBSwitch.DB_TIMESCALE);
+      dbConfig.setDB_NAME("test");
+      TimescaleDB timescaleDB = new TimescaleDB(dbConfig);
+      List<Sensor> sensors =
+          Arrays.asList(new Sensor("s_0", SensorType.DOUBLE), new Sensor("s_1", SensorType.DOUBLE));
+      List<DeviceSchema> devices =
+          Arrays.asList(
+              new DeviceSchema("0", "d_0", sensors), new DeviceSchema("0", "d_1", sensors));
+      assertEquals(
+          "SELECT DISTINCT ON (device, sensor) device, time, sensor, value_double FROM test"
+              + " WHERE (device='d_0' OR device='d_1') AND sensor IN ('s_0', 's_1')"
+              + " ORDER BY device, sensor, time DESC",
+          timescaleDB.getLatestPointQuerySql(devices));
+    } finally {
+      config.setTIMESCALEDB_LAYOUT(layout);
+    }
+  }
+}